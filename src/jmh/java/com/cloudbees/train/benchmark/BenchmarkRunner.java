@@ -0,0 +1,31 @@
+package com.cloudbees.train.benchmark;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Arrays;
+
+//Runs the benchmarks once per thread count, e.g. java -Djmh.threads=1,8 -jar target/benchmarks.jar Ticket
+public class BenchmarkRunner {
+    public static final String THREADS_PROPERTY = "jmh.threads";
+    private static final String DEFAULT_THREADS = "1,4,16";
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        var commandLineOptions = new CommandLineOptions(args);
+        var threadCounts = Arrays.stream(System.getProperty(THREADS_PROPERTY, DEFAULT_THREADS).split(","))
+                .map(String::trim)
+                .mapToInt(Integer::parseInt)
+                .toArray();
+
+        for (int threads : threadCounts) {
+            new Runner(new OptionsBuilder()
+                    .parent(commandLineOptions)
+                    .threads(threads)
+                    .build())
+                    .run();
+        }
+    }
+}
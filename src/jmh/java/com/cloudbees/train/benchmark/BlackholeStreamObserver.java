@@ -0,0 +1,43 @@
+package com.cloudbees.train.benchmark;
+
+import io.grpc.stub.StreamObserver;
+import org.openjdk.jmh.infra.Blackhole;
+
+//Consumes responses like a transport would, keeping the last value so benchmarks can chain calls
+class BlackholeStreamObserver<T> implements StreamObserver<T> {
+    private final Blackhole blackhole;
+    private T lastValue;
+
+    BlackholeStreamObserver(Blackhole blackhole) {
+        this.blackhole = blackhole;
+    }
+
+    @Override
+    public void onNext(T value) {
+        lastValue = value;
+        blackhole.consume(value);
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        throw new IllegalStateException("Benchmark call failed", t);
+    }
+
+    @Override
+    public void onCompleted() {
+    }
+
+    T getLastValue() {
+        return lastValue;
+    }
+
+    //For setup calls, where a missing response must not be mistaken for the previous one
+    T takeLastValue() {
+        var value = lastValue;
+        if (value == null) {
+            throw new IllegalStateException("Benchmark call sent no response");
+        }
+        lastValue = null;
+        return value;
+    }
+}
@@ -0,0 +1,27 @@
+package com.cloudbees.train.benchmark;
+
+import com.cloudbees.train.server.entity.Booking;
+import com.cloudbees.train.server.journal.BookingEventType;
+import com.cloudbees.train.server.journal.BookingJournal;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.LockSupport;
+
+//Stands in for synchronous durable storage: every append holds the calling handler for a fixed time
+class BlockingBookingJournal implements BookingJournal {
+    private final long latencyNanos;
+
+    BlockingBookingJournal(long latencyNanos) {
+        this.latencyNanos = latencyNanos;
+    }
+
+    @Override
+    public CompletableFuture<Void> append(BookingEventType type, Booking booking) {
+        LockSupport.parkNanos(latencyNanos);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public void close() {
+    }
+}
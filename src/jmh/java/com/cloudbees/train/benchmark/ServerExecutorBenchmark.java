@@ -0,0 +1,181 @@
+package com.cloudbees.train.benchmark;
+
+import com.cloudbees.train.BookingRequest;
+import com.cloudbees.train.Passenger;
+import com.cloudbees.train.TicketManagerServiceGrpc;
+import com.cloudbees.train.TicketPurchaseRequest;
+import com.cloudbees.train.TicketReceiptResponse;
+import com.cloudbees.train.TrainSelector;
+import com.cloudbees.train.server.TicketBookingServer;
+import com.cloudbees.train.server.cache.ReceiptCache;
+import com.cloudbees.train.server.config.ServerConfig;
+import com.cloudbees.train.server.config.ServerTransport;
+import com.cloudbees.train.server.generator.SnowflakeBookingIdGenerator;
+import com.cloudbees.train.server.hold.SeatHoldManager;
+import com.cloudbees.train.server.journal.NoOpBookingJournal;
+import com.cloudbees.train.server.mapper.TicketMapper;
+import com.cloudbees.train.server.persistence.TrainInventory;
+import com.cloudbees.train.server.persistence.TrainSeatManager;
+import com.cloudbees.train.server.seatmap.SeatMapPublisher;
+import com.cloudbees.train.server.service.TicketManagerServiceImpl;
+import com.cloudbees.train.server.waitlist.WaitlistManager;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.netty.NettyChannelBuilder;
+import io.grpc.stub.StreamObserver;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+//Time to complete a burst of concurrent seat changes whose handlers block on storage, per server executor.
+//Seat changes always journal and keep occupancy constant, so every invocation does the same work.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Threads(1)
+public class ServerExecutorBenchmark {
+    private static final LocalDate FIRST_SERVICE_DATE = LocalDate.now();
+
+    @Param({"DEFAULT", "BOUNDED", "VIRTUAL"})
+    public String executor;
+
+    @Param({"10000"})
+    public int inFlightCalls;
+
+    @Param({"1000"})
+    public int storageLatencyMicros;
+
+    private final TrainSeatManager trainSeatManager = new TrainSeatManager();
+    private ServerTransport serverTransport;
+    private Server server;
+    private ManagedChannel channel;
+    private TicketManagerServiceGrpc.TicketManagerServiceStub stub;
+    private BookingRequest[] bookingRequests;
+
+    @Setup(Level.Trial)
+    public void startServer() throws Exception {
+        System.setProperty(ServerConfig.PORT_PROPERTY, "0");
+        System.setProperty(ServerConfig.EXECUTOR_PROPERTY, executor);
+        System.setProperty(ServerConfig.EXECUTOR_QUEUE_PROPERTY, Integer.toString(inFlightCalls));
+        serverTransport = ServerTransport.create(ServerConfig.load());
+        server = TicketBookingServer.createServer(serverTransport.newServerBuilder(), trainSeatManager,
+                new BlockingBookingJournal(TimeUnit.MICROSECONDS.toNanos(storageLatencyMicros))).start();
+        channel = NettyChannelBuilder.forAddress("localhost", server.getPort())
+                .usePlaintext()
+                .directExecutor()
+                .build();
+        stub = TicketManagerServiceGrpc.newStub(channel);
+        bookingRequests = bookHalfOfEachTrain();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopServer() throws InterruptedException {
+        channel.shutdownNow();
+        server.shutdownNow().awaitTermination(10, TimeUnit.SECONDS);
+        serverTransport.close();
+        trainSeatManager.removeTrainInventoriesBefore(LocalDate.MAX);
+    }
+
+    @Benchmark
+    public int modifySeats() throws InterruptedException {
+        var completed = new CountDownLatch(bookingRequests.length);
+        var failures = new AtomicInteger();
+        for (var bookingRequest : bookingRequests) {
+            stub.modifyPassengerSeat(bookingRequest, new StreamObserver<>() {
+                @Override
+                public void onNext(TicketReceiptResponse value) {
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    failures.incrementAndGet();
+                    completed.countDown();
+                }
+
+                @Override
+                public void onCompleted() {
+                    completed.countDown();
+                }
+            });
+        }
+
+        completed.await();
+        if (failures.get() != 0) {
+            throw new IllegalStateException(failures.get() + " seat changes failed");
+        }
+        return bookingRequests.length;
+    }
+
+    //One booking per in-flight call, half of each train booked so a seat change always finds a free seat
+    private BookingRequest[] bookHalfOfEachTrain() {
+        var service = new TicketManagerServiceImpl(trainSeatManager, new TicketMapper(),
+                new SnowflakeBookingIdGenerator(0), new NoOpBookingJournal(),
+                new ReceiptCache(ReceiptCache.DEFAULT_MAX_ENTRIES),
+                new SeatHoldManager(SeatHoldManager.DEFAULT_HOLD_TIME), new WaitlistManager(),
+                new SeatMapPublisher(SeatMapPublisher.DEFAULT_TICK));
+        var receiptObserver = new CapturingObserver();
+        int bookingsPerTrain = TrainInventory.TOTAL_SEATS / 2;
+        var bookingRequests = new BookingRequest[inFlightCalls];
+
+        for (int i = 0; i < inFlightCalls; i++) {
+            var train = TrainSelector.newBuilder()
+                    .setTrainNumber("9001")
+                    .setTravelDate(FIRST_SERVICE_DATE.plusDays(i / bookingsPerTrain).toString())
+                    .build();
+            service.bookTicket(TicketPurchaseRequest.newBuilder()
+                    .setBoardingStation(TicketServiceState.BOARDING_STATION)
+                    .setDestinationStation(TicketServiceState.DESTINATION_STATION)
+                    .setPassenger(Passenger.newBuilder()
+                            .setFirstName("Executor")
+                            .setLastName("Passenger" + i)
+                            .setEmailAddress("executor" + i + "@example.com"))
+                    .setTrain(train)
+                    .build(), receiptObserver);
+            var receipt = receiptObserver.receipt;
+            bookingRequests[i] = BookingRequest.newBuilder()
+                    .setBookingId(receipt.getBookingId())
+                    .setEmailAddress(receipt.getPassenger().getEmailAddress())
+                    .setTrain(train)
+                    .build();
+        }
+
+        return bookingRequests;
+    }
+
+    private static class CapturingObserver implements StreamObserver<TicketReceiptResponse> {
+        private TicketReceiptResponse receipt;
+
+        @Override
+        public void onNext(TicketReceiptResponse value) {
+            receipt = value;
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            throw new IllegalStateException("Booking failed", t);
+        }
+
+        @Override
+        public void onCompleted() {
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.cloudbees.train.benchmark;
+
+import com.cloudbees.train.SectionBookingResponse;
+import com.cloudbees.train.SectionRequest;
+import com.cloudbees.train.TicketReceiptResponse;
+import com.cloudbees.train.server.entity.Booking;
+import com.google.protobuf.Empty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+//Calls the service implementation directly, without transport, so only booking logic is measured
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TicketManagerServiceBenchmark {
+
+    //Each benchmark thread owns one booking it can delete, restore and move without racing other threads
+    @State(Scope.Thread)
+    public static class OwnedBooking {
+        TicketReceiptResponse receipt;
+        Booking booking;
+        BlackholeStreamObserver<TicketReceiptResponse> receiptObserver;
+        BlackholeStreamObserver<Empty> emptyObserver;
+        BlackholeStreamObserver<SectionBookingResponse> sectionObserver;
+
+        @Setup(Level.Trial)
+        public void book(TicketServiceState state, Blackhole blackhole) {
+            receiptObserver = new BlackholeStreamObserver<>(blackhole);
+            emptyObserver = new BlackholeStreamObserver<>(blackhole);
+            sectionObserver = new BlackholeStreamObserver<>(blackhole);
+
+            receipt = state.bookTicket(receiptObserver);
+            booking = state.inventory.getSeatBookings().get(receipt.getBookingId());
+        }
+    }
+
+    //Books a seat and cancels it straight away through the inventory so occupancy stays at the parameter
+    @Benchmark
+    public TicketReceiptResponse bookTicket(TicketServiceState state, OwnedBooking owned) {
+        state.service.bookTicket(state.nextPurchaseRequest(), owned.receiptObserver);
+        var receipt = owned.receiptObserver.getLastValue();
+        state.inventory.removeBooking(receipt.getBookingId());
+
+        return receipt;
+    }
+
+    //Deletes the owned booking and restores it to the same seat for the next invocation
+    @Benchmark
+    public Empty deleteBooking(TicketServiceState state, OwnedBooking owned) {
+        state.service.deleteBooking(TicketServiceState.getBookingRequest(owned.receipt), owned.emptyObserver);
+        state.inventory.restoreBooking(owned.booking);
+
+        return owned.emptyObserver.getLastValue();
+    }
+
+    @Benchmark
+    public TicketReceiptResponse modifyPassengerSeat(TicketServiceState state, OwnedBooking owned) {
+        state.service.modifyPassengerSeat(TicketServiceState.getBookingRequest(owned.receipt),
+                owned.receiptObserver);
+        owned.receipt = owned.receiptObserver.getLastValue();
+
+        return owned.receipt;
+    }
+
+    @Benchmark
+    public TicketReceiptResponse getBookedTicketReceipt(TicketServiceState state, OwnedBooking owned) {
+        var bookingId = state.bookedIds.get(ThreadLocalRandom.current().nextInt(state.bookedIds.size()));
+        var request = TicketServiceState.getBookingRequest(state.inventory.getSeatBookings().get(bookingId));
+        state.service.getBookedTicketReceipt(request, owned.receiptObserver);
+
+        return owned.receiptObserver.getLastValue();
+    }
+
+    //Cost grows with occupancy since every booking of the section is listed
+    @Benchmark
+    public SectionBookingResponse getBookingsBySection(TicketServiceState state, OwnedBooking owned) {
+        state.service.getBookingsBySection(SectionRequest.newBuilder().setSectionId(1).build(),
+                owned.sectionObserver);
+
+        return owned.sectionObserver.getLastValue();
+    }
+}
@@ -0,0 +1,70 @@
+package com.cloudbees.train.benchmark;
+
+import com.cloudbees.train.SectionBooking;
+import com.cloudbees.train.TicketPurchaseRequest;
+import com.cloudbees.train.TicketReceiptResponse;
+import com.cloudbees.train.server.entity.Booking;
+import com.cloudbees.train.server.entity.RouteJourney;
+import com.cloudbees.train.server.entity.Seat;
+import com.cloudbees.train.server.entity.TrainDate;
+import com.cloudbees.train.server.mapper.TicketMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+//Booking and protobuf building done on every booking, isolated from seat allocation
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TicketMapperBenchmark {
+    private final TicketMapper ticketMapper = new TicketMapper();
+    private Seat seat;
+    private Seat otherSeat;
+    private TrainDate trainDate;
+    private RouteJourney journey;
+    private TicketPurchaseRequest request;
+    private Booking booking;
+
+    @Setup
+    public void createBooking() {
+        seat = Seat.builder().SectionId(1).seatNumber(7).sectionName("SECTION A").build();
+        otherSeat = Seat.builder().SectionId(2).seatNumber(8).sectionName("SECTION B").build();
+        trainDate = TrainDate.builder().trainNumber("9001").serviceDate(LocalDate.of(2030, 1, 1)).build();
+        journey = RouteJourney.builder().from("London").to("France").fromStop(0).toStop(2).fare(20d).build();
+        request = new TicketServiceState().nextPurchaseRequest();
+        booking = mapBookingForPurchase();
+    }
+
+    @Benchmark
+    public Booking mapBookingForPurchase() {
+        return ticketMapper.mapBookingForPurchase(seat, "1001", request, journey, 20d, trainDate);
+    }
+
+    @Benchmark
+    public Booking withSeat() {
+        return booking.withSeat(otherSeat);
+    }
+
+    @Benchmark
+    public TicketReceiptResponse mapBookingToTicketReceipt() {
+        return ticketMapper.mapBookingToTicketReceipt(booking);
+    }
+
+    @Benchmark
+    public SectionBooking mapBookingToSectionBooking() {
+        return ticketMapper.mapBookingToSectionBooking(booking);
+    }
+}
@@ -0,0 +1,158 @@
+package com.cloudbees.train.benchmark;
+
+import com.cloudbees.train.BookingRequest;
+import com.cloudbees.train.Passenger;
+import com.cloudbees.train.TicketPurchaseRequest;
+import com.cloudbees.train.TicketReceiptResponse;
+import com.cloudbees.train.server.cache.ReceiptCache;
+import com.cloudbees.train.server.entity.Booking;
+import com.cloudbees.train.server.entity.TrainDate;
+import com.cloudbees.train.server.generator.SnowflakeBookingIdGenerator;
+import com.cloudbees.train.server.hold.SeatHoldManager;
+import com.cloudbees.train.server.journal.NoOpBookingJournal;
+import com.cloudbees.train.server.mapper.TicketMapper;
+import com.cloudbees.train.server.persistence.FareTable;
+import com.cloudbees.train.server.persistence.HeapBookingStore;
+import com.cloudbees.train.server.persistence.MappedBookingStore;
+import com.cloudbees.train.server.persistence.TrainInventory;
+import com.cloudbees.train.server.persistence.TrainSeatManager;
+import com.cloudbees.train.server.seatmap.SeatMapPublisher;
+import com.cloudbees.train.server.service.TicketManagerServiceImpl;
+import com.cloudbees.train.server.waitlist.WaitlistManager;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+//One train-date served by a real service, pre-filled to the requested occupancy
+@State(Scope.Benchmark)
+public class TicketServiceState {
+    static final String BOARDING_STATION = "London";
+    static final String DESTINATION_STATION = "France";
+    private static final int SEATS_PER_THREAD = 2;
+
+    @Param({"90", "1000", "10000"})
+    public int seatCount;
+
+    //Share of seats booked before measuring, capped so every benchmark thread still has two free seats
+    @Param({"0.1", "0.5", "0.9"})
+    public double occupancy;
+
+    @Param({"heap", "mapped"})
+    public String store;
+
+    TicketManagerServiceImpl service;
+    TrainInventory inventory;
+    TicketMapper ticketMapper;
+    List<String> bookedIds;
+    private final AtomicLong passengers = new AtomicLong();
+    private Path storeDir;
+
+    @Setup(Level.Trial)
+    public void createService(Blackhole blackhole, BenchmarkParams params) throws IOException {
+        var route = FareTable.load().getRoute("EUROSTAR").orElseThrow();
+        var trainDate = TrainDate.builder().trainNumber("9001").serviceDate(LocalDate.of(2030, 1, 1)).build();
+        var bookingStore = switch (store) {
+            case "heap" -> new HeapBookingStore();
+            case "mapped" -> {
+                storeDir = Files.createTempDirectory("booking-store-benchmark");
+                yield MappedBookingStore.open(storeDir.resolve("9001.bookings"),
+                        TrainInventory.getBookingCapacity(route, seatCount));
+            }
+            default -> throw new IllegalArgumentException("Unknown store " + store);
+        };
+
+        inventory = new TrainInventory(trainDate, route, bookingStore, seatCount);
+        var trainSeatManager = new TrainSeatManager() {
+            @Override
+            public Optional<TrainInventory> getTrainInventory(String trainNumber, LocalDate serviceDate) {
+                return Optional.of(inventory);
+            }
+
+            @Override
+            public Optional<TrainInventory> openTrainInventory(String trainNumber, LocalDate serviceDate) {
+                return Optional.of(inventory);
+            }
+
+            @Override
+            public boolean isOnSale(LocalDate serviceDate) {
+                return true;
+            }
+        };
+        ticketMapper = new TicketMapper();
+        service = new TicketManagerServiceImpl(trainSeatManager, ticketMapper, new SnowflakeBookingIdGenerator(0),
+                new NoOpBookingJournal(), new ReceiptCache(ReceiptCache.DEFAULT_MAX_ENTRIES),
+                new SeatHoldManager(SeatHoldManager.DEFAULT_HOLD_TIME), new WaitlistManager(),
+                new SeatMapPublisher(SeatMapPublisher.DEFAULT_TICK));
+
+        //Each thread owns a booking and needs one more seat to book or move into
+        int bookings = Math.min((int) (seatCount * occupancy), seatCount - SEATS_PER_THREAD * params.getThreads());
+        if (bookings < 0) {
+            throw new IllegalStateException(seatCount + " seats cannot serve " + params.getThreads() + " threads");
+        }
+        bookedIds = new ArrayList<>(bookings);
+        var observer = new BlackholeStreamObserver<TicketReceiptResponse>(blackhole);
+        for (int i = 0; i < bookings; i++) {
+            bookedIds.add(bookTicket(observer).getBookingId());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void closeStore() throws IOException {
+        inventory.getSeatBookings().close();
+        if (storeDir != null) {
+            try (var files = Files.walk(storeDir)) {
+                for (var file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    //Books outside the measurement, failing the setup when the service sent no receipt
+    TicketReceiptResponse bookTicket(BlackholeStreamObserver<TicketReceiptResponse> observer) {
+        service.bookTicket(nextPurchaseRequest(), observer);
+        return observer.takeLastValue();
+    }
+
+    //Every request is a new passenger so the duplicate passenger check never rejects it
+    TicketPurchaseRequest nextPurchaseRequest() {
+        long passenger = passengers.incrementAndGet();
+        return TicketPurchaseRequest.newBuilder()
+                .setBoardingStation(BOARDING_STATION)
+                .setDestinationStation(DESTINATION_STATION)
+                .setPassenger(Passenger.newBuilder()
+                        .setFirstName("Bench")
+                        .setLastName("Passenger" + passenger)
+                        .setEmailAddress("passenger" + passenger + "@example.com"))
+                .build();
+    }
+
+    static BookingRequest getBookingRequest(TicketReceiptResponse receipt) {
+        return BookingRequest.newBuilder()
+                .setBookingId(receipt.getBookingId())
+                .setEmailAddress(receipt.getPassenger().getEmailAddress())
+                .build();
+    }
+
+    static BookingRequest getBookingRequest(Booking booking) {
+        return BookingRequest.newBuilder()
+                .setBookingId(booking.getBookingId())
+                .setEmailAddress(booking.getEmailAddress())
+                .build();
+    }
+}
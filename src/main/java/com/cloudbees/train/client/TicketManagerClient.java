@@ -1,8 +1,16 @@
 package com.cloudbees.train.client;
 
 
+import com.cloudbees.train.client.load.LoadGenerator;
+
 public class TicketManagerClient {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
+        //"load" runs the headless load generator configured through train.load.* system properties
+        if (args.length > 0 && "load".equals(args[0])) {
+            LoadGenerator.runFromSystemProperties().print(System.out);
+            return;
+        }
+
         TicketManagerClientImpl  ticketManagerClient = new TicketManagerClientImpl();
         ticketManagerClient.selectionYourOption();
     }
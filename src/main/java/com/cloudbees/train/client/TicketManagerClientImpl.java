@@ -5,6 +5,8 @@ import com.cloudbees.train.TicketPurchaseRequest;
 import io.grpc.ManagedChannel;
 import io.grpc.ManagedChannelBuilder;
 
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
 import java.util.Scanner;
 
 import static com.cloudbees.train.client.dto.ExecutionDto.*;
@@ -12,6 +14,8 @@ import static com.cloudbees.train.client.dto.ExecutionDto.*;
 public class TicketManagerClientImpl {
     ManagedChannel channel;
     TicketManagerServiceGrpc.TicketManagerServiceBlockingStub stub;
+    //One scanner for the whole session, a new scanner per prompt would drop input the previous one buffered
+    private final Scanner in = new Scanner(System.in);
 
     public TicketManagerClientImpl() {
         channel = ManagedChannelBuilder.forAddress("localhost", 5003)
@@ -20,34 +24,47 @@ public class TicketManagerClientImpl {
         stub = TicketManagerServiceGrpc.newBlockingStub(channel);
     }
     public void selectionYourOption() {
-        try {
-            System.out.println("Enter you option");
-            System.out.println("1. Book Ticket");
-            System.out.println("2. Get Receipt by booking id");
-            System.out.println("3. Get bookings by section id");
-            System.out.println("4. Delete booking by booking id");
-            System.out.println("5. Modify seat by booking id");
-
-            Scanner in = new Scanner(System.in);
-
-            switch (in.nextInt()) {
-                case 1 -> bookTicket();
-                case 2 -> getReceipt();
-                case 3 -> getBookingsBySection();
-                case 4 -> deleteBooking();
-                case 5 -> modifySeat();
-                default -> System.out.println("Entered Option not available");
+        while (true) {
+            try {
+                System.out.println("Enter you option");
+                System.out.println("1. Book Ticket");
+                System.out.println("2. Get Receipt by booking id");
+                System.out.println("3. Get bookings by section id");
+                System.out.println("4. Delete booking by booking id");
+                System.out.println("5. Modify seat by booking id");
+                System.out.println("6. Exit");
+
+                if (!in.hasNext()) {
+                    //Input closed, nothing more to read
+                    channel.shutdown();
+                    return;
+                }
+
+                switch (in.nextInt()) {
+                    case 1 -> bookTicket();
+                    case 2 -> getReceipt();
+                    case 3 -> getBookingsBySection();
+                    case 4 -> deleteBooking();
+                    case 5 -> modifySeat();
+                    case 6 -> {
+                        channel.shutdown();
+                        return;
+                    }
+                    default -> System.out.println("Entered Option not available");
+                }
+            } catch (InputMismatchException ex) {
+                //Not a number, skip the token and ask again
+                System.out.println("Entered value is not a number: " + in.next());
+            } catch (NoSuchElementException ex) {
+                //Input ended in the middle of a prompt, the menu check above exits
+            } catch (Exception ex) {
+                System.out.println(ex.getMessage());
             }
-        } catch (Exception ex) {
-            System.out.println(ex.getMessage());
-        } finally {
-            selectionYourOption();
         }
     }
 
     public void bookTicket() {
         System.out.println("Enter boarding station");
-        Scanner in = new Scanner(System.in);
         String fromStation = in.next();
         System.out.println("Enter destination station");
         String toStation = in.next();
@@ -67,8 +84,6 @@ public class TicketManagerClientImpl {
 
     private void getReceipt() {
         System.out.println("Enter booking id from your receipt");
-        Scanner in = new Scanner(System.in);
-
         String bookingId = in.next();
         System.out.println("Enter given email address used while ticket booking");
         String emailAddress = in.next();
@@ -81,8 +96,6 @@ public class TicketManagerClientImpl {
 
     private void getBookingsBySection() {
         System.out.println("Enter section id (number) to get bookings");
-        Scanner in = new Scanner(System.in);
-
         int sectionId = in.nextInt();
 
         var request = getSectionRequest(sectionId);
@@ -97,8 +110,6 @@ public class TicketManagerClientImpl {
 
     private void deleteBooking() {
         System.out.println("Enter booking id from your receipt to delete your booking");
-        Scanner in = new Scanner(System.in);
-
         String bookingId = in.next();
         System.out.println("Enter given email address used while ticket booking");
         String emailAddress = in.next();
@@ -111,8 +122,6 @@ public class TicketManagerClientImpl {
 
     private void modifySeat() {
         System.out.println("Enter booking id from your receipt");
-        Scanner in = new Scanner(System.in);
-
         String bookingId = in.next();
         System.out.println("Enter given email address used while ticket booking");
         String emailAddress = in.next();
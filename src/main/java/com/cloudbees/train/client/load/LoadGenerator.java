@@ -0,0 +1,259 @@
+package com.cloudbees.train.client.load;
+
+import com.cloudbees.train.BookingRequest;
+import com.cloudbees.train.TicketManagerServiceGrpc;
+import com.cloudbees.train.TicketPurchaseRequest;
+import com.cloudbees.train.TicketReceiptResponse;
+import com.cloudbees.train.TrainSelector;
+import com.cloudbees.train.server.TicketBookingServer;
+import com.cloudbees.train.server.journal.WriteAheadBookingJournal;
+import com.cloudbees.train.server.persistence.TrainSeatManager;
+import com.google.protobuf.Empty;
+import io.grpc.Channel;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import static com.cloudbees.train.client.dto.ExecutionDto.getBookingRequest;
+import static com.cloudbees.train.client.dto.ExecutionDto.getTicketPurchaseRequest;
+import static com.cloudbees.train.client.load.LoadProfile.IN_PROCESS_TARGET;
+
+//Issues a weighted mix of calls at a fixed rate through the async stub and records their latency
+public class LoadGenerator {
+    private static final String IN_PROCESS_SERVER_NAME = "ticket-load";
+    private static final int CALL_DEADLINE_SECONDS = 30;
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final LoadProfile profile;
+    private final TicketManagerServiceGrpc.TicketManagerServiceStub stub;
+    private final LoadOperation[] operations;
+    private final int[] cumulativeWeights;
+    private final Map<LoadOperation, Recorder> latencies = new EnumMap<>(LoadOperation.class);
+    private final Map<LoadOperation, LongAdder> errors = new EnumMap<>(LoadOperation.class);
+    private final Map<Status.Code, LongAdder> errorCodes = new ConcurrentHashMap<>();
+    //Bookings no call is using. A call takes one out and puts it back once done, so calls never race on a booking.
+    private final Deque<TicketReceiptResponse> idleBookings = new ConcurrentLinkedDeque<>();
+    private final Semaphore inFlight;
+    private final AtomicLong passengers = new AtomicLong();
+
+    public LoadGenerator(LoadProfile profile, Channel channel) {
+        if (profile.getRequestsPerSecond() < 1 || profile.getRequestsPerSecond() > TimeUnit.SECONDS.toNanos(1)) {
+            throw new IllegalArgumentException("Request rate must be between 1 and 1e9 per second");
+        }
+        if (profile.getTravelDays() < 1) {
+            throw new IllegalArgumentException("Bookings need at least one travel day");
+        }
+
+        this.profile = profile;
+        this.stub = TicketManagerServiceGrpc.newStub(channel);
+        this.inFlight = new Semaphore(profile.getMaxInFlight());
+
+        var weighted = profile.getMix().entrySet().stream().filter(entry -> entry.getValue() > 0).toList();
+        this.operations = new LoadOperation[weighted.size()];
+        this.cumulativeWeights = new int[weighted.size()];
+        int totalWeight = 0;
+        for (int i = 0; i < weighted.size(); i++) {
+            operations[i] = weighted.get(i).getKey();
+            totalWeight += weighted.get(i).getValue();
+            cumulativeWeights[i] = totalWeight;
+        }
+
+        for (var operation : LoadOperation.values()) {
+            latencies.put(operation, new Recorder(SIGNIFICANT_DIGITS));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    //Runs against the configured server, or against a server started in this process
+    public static LoadReport runFromSystemProperties() throws IOException, InterruptedException {
+        var profile = LoadProfile.fromSystemProperties();
+        if (!IN_PROCESS_TARGET.equals(profile.getTarget())) {
+            return run(profile, ManagedChannelBuilder.forTarget(profile.getTarget()).usePlaintext().build());
+        }
+
+        var trainSeatManager = new TrainSeatManager();
+        var bookingJournal = WriteAheadBookingJournal.fromSystemProperties(trainSeatManager);
+        var server = TicketBookingServer.createServer(InProcessServerBuilder.forName(IN_PROCESS_SERVER_NAME),
+                trainSeatManager, bookingJournal).start();
+        try {
+            return run(profile, InProcessChannelBuilder.forName(IN_PROCESS_SERVER_NAME).build());
+        } finally {
+            server.shutdownNow();
+            bookingJournal.close();
+        }
+    }
+
+    private static LoadReport run(LoadProfile profile, ManagedChannel channel) throws InterruptedException {
+        try {
+            return new LoadGenerator(profile, channel).run();
+        } finally {
+            channel.shutdownNow();
+        }
+    }
+
+    public LoadReport run() throws InterruptedException {
+        if (!profile.getWarmup().isZero()) {
+            issueRequests(profile.getWarmup());
+            awaitInFlightCalls();
+            latencies.values().forEach(Recorder::reset);
+            errors.values().forEach(LongAdder::reset);
+            errorCodes.clear();
+        }
+
+        long start = System.nanoTime();
+        issueRequests(profile.getDuration());
+        awaitInFlightCalls();
+
+        return getReport(Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    //Open loop: every request has a fixed send time and a slow response does not push back the next one.
+    //Latency is taken from that send time, so requests delayed by the in-flight limit still count their wait.
+    private void issueRequests(Duration duration) throws InterruptedException {
+        long interval = TimeUnit.SECONDS.toNanos(1) / profile.getRequestsPerSecond();
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+
+        for (long intendedNanos = start; intendedNanos - end < 0; intendedNanos += interval) {
+            long wait;
+            while ((wait = intendedNanos - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            inFlight.acquire();
+            issue(nextOperation(), intendedNanos);
+        }
+    }
+
+    private void issue(LoadOperation operation, long intendedNanos) {
+        var booking = operation == LoadOperation.BOOK ? null : idleBookings.poll();
+        //Nothing booked yet to look up, modify or delete, so the slot books instead
+        if (booking == null) {
+            operation = LoadOperation.BOOK;
+        }
+
+        var callStub = stub.withDeadlineAfter(CALL_DEADLINE_SECONDS, TimeUnit.SECONDS);
+        switch (operation) {
+            case BOOK -> callStub.bookTicket(nextPurchaseRequest(),
+                    new CallObserver<>(operation, intendedNanos, idleBookings::offer, () -> {
+                    }));
+            case LOOKUP -> callStub.getBookedTicketReceipt(getRequest(booking),
+                    new CallObserver<>(operation, intendedNanos, idleBookings::offer, () -> idleBookings.offer(booking)));
+            case MODIFY -> callStub.modifyPassengerSeat(getRequest(booking),
+                    new CallObserver<>(operation, intendedNanos, idleBookings::offer, () -> idleBookings.offer(booking)));
+            case DELETE -> callStub.deleteBooking(getRequest(booking),
+                    new CallObserver<Empty>(operation, intendedNanos, deleted -> {
+                    }, () -> idleBookings.offer(booking)));
+        }
+    }
+
+    private LoadOperation nextOperation() {
+        int pick = ThreadLocalRandom.current().nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        int index = 0;
+        while (cumulativeWeights[index] <= pick) {
+            index++;
+        }
+
+        return operations[index];
+    }
+
+    //Every passenger is new, and bookings are spread over the travel days so trains do not fill up
+    private TicketPurchaseRequest nextPurchaseRequest() {
+        long passenger = passengers.incrementAndGet();
+        var travelDate = profile.getFirstTravelDate().plusDays(passenger % profile.getTravelDays());
+
+        return getTicketPurchaseRequest(profile.getBoardingStation(), profile.getDestinationStation(),
+                "Load", "Passenger" + passenger, "load" + passenger + "@example.com")
+                .toBuilder()
+                .setTrain(TrainSelector.newBuilder()
+                        .setTrainNumber(profile.getTrainNumber())
+                        .setTravelDate(travelDate.toString()))
+                .build();
+    }
+
+    private static BookingRequest getRequest(TicketReceiptResponse booking) {
+        return getBookingRequest(booking.getBookingId(), booking.getPassenger().getEmailAddress())
+                .toBuilder()
+                .setTrain(booking.getTrain())
+                .build();
+    }
+
+    private void awaitInFlightCalls() throws InterruptedException {
+        inFlight.acquire(profile.getMaxInFlight());
+        inFlight.release(profile.getMaxInFlight());
+    }
+
+    private LoadReport getReport(Duration elapsed) {
+        Map<LoadOperation, Histogram> histograms = new EnumMap<>(LoadOperation.class);
+        Map<LoadOperation, Long> errorCounts = new EnumMap<>(LoadOperation.class);
+        for (var operation : LoadOperation.values()) {
+            histograms.put(operation, latencies.get(operation).getIntervalHistogram());
+            errorCounts.put(operation, errors.get(operation).sum());
+        }
+
+        Map<Status.Code, Long> codes = new EnumMap<>(Status.Code.class);
+        errorCodes.forEach((code, count) -> codes.put(code, count.sum()));
+
+        return LoadReport.builder()
+                .latencies(histograms)
+                .errors(errorCounts)
+                .errorCodes(codes)
+                .elapsed(elapsed)
+                .build();
+    }
+
+    private class CallObserver<T> implements StreamObserver<T> {
+        private final LoadOperation operation;
+        private final long intendedNanos;
+        private final Consumer<T> onSuccess;
+        private final Runnable onFailure;
+        private T response;
+
+        CallObserver(LoadOperation operation, long intendedNanos, Consumer<T> onSuccess, Runnable onFailure) {
+            this.operation = operation;
+            this.intendedNanos = intendedNanos;
+            this.onSuccess = onSuccess;
+            this.onFailure = onFailure;
+        }
+
+        @Override
+        public void onNext(T value) {
+            response = value;
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            latencies.get(operation).recordValue(System.nanoTime() - intendedNanos);
+            errors.get(operation).increment();
+            errorCodes.computeIfAbsent(Status.fromThrowable(t).getCode(), code -> new LongAdder()).increment();
+            onFailure.run();
+            inFlight.release();
+        }
+
+        @Override
+        public void onCompleted() {
+            latencies.get(operation).recordValue(System.nanoTime() - intendedNanos);
+            onSuccess.accept(response);
+            inFlight.release();
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.cloudbees.train.client.load;
+
+public enum LoadOperation {
+    BOOK,
+    LOOKUP,
+    MODIFY,
+    DELETE
+}
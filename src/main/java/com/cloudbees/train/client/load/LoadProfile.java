@@ -0,0 +1,83 @@
+package com.cloudbees.train.client.load;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Builder
+@Getter
+public class LoadProfile {
+    public static final String IN_PROCESS_TARGET = "in-process";
+    public static final String TARGET_PROPERTY = "train.load.target";
+    public static final String RATE_PROPERTY = "train.load.rate";
+    public static final String DURATION_PROPERTY = "train.load.duration.seconds";
+    public static final String WARMUP_PROPERTY = "train.load.warmup.seconds";
+    public static final String MAX_IN_FLIGHT_PROPERTY = "train.load.max.in.flight";
+    public static final String MIX_PROPERTY = "train.load.mix";
+    public static final String TRAIN_NUMBER_PROPERTY = "train.load.train.number";
+    public static final String BOARDING_STATION_PROPERTY = "train.load.from";
+    public static final String DESTINATION_STATION_PROPERTY = "train.load.to";
+    public static final String FIRST_TRAVEL_DATE_PROPERTY = "train.load.travel.date";
+    public static final String TRAVEL_DAYS_PROPERTY = "train.load.travel.days";
+    private static final String DEFAULT_MIX = "book:25,lookup:50,modify:15,delete:10";
+
+    //"in-process" or a host:port of a running server
+    private String target;
+    private int requestsPerSecond;
+    private Duration duration;
+    //Requests issued before the histograms are reset, lets the server warm up
+    private Duration warmup;
+    //Calls waiting beyond this are delayed, and the delay counts towards their latency
+    private int maxInFlight;
+    //Relative weight of each operation
+    private Map<LoadOperation, Integer> mix;
+    private String trainNumber;
+    //Bookings are spread over this many service dates starting at the first travel date
+    private LocalDate firstTravelDate;
+    private int travelDays;
+    private String boardingStation;
+    private String destinationStation;
+
+    public static LoadProfile fromSystemProperties() {
+        return LoadProfile.builder()
+                .target(System.getProperty(TARGET_PROPERTY, IN_PROCESS_TARGET))
+                .requestsPerSecond(Integer.getInteger(RATE_PROPERTY, 1_000))
+                .duration(Duration.ofSeconds(Integer.getInteger(DURATION_PROPERTY, 30)))
+                .warmup(Duration.ofSeconds(Integer.getInteger(WARMUP_PROPERTY, 10)))
+                .maxInFlight(Integer.getInteger(MAX_IN_FLIGHT_PROPERTY, 1_000))
+                .mix(parseMix(System.getProperty(MIX_PROPERTY, DEFAULT_MIX)))
+                .trainNumber(System.getProperty(TRAIN_NUMBER_PROPERTY, ""))
+                .firstTravelDate(LocalDate.parse(System.getProperty(FIRST_TRAVEL_DATE_PROPERTY,
+                        LocalDate.now().toString())))
+                .travelDays(Integer.getInteger(TRAVEL_DAYS_PROPERTY, 30))
+                .boardingStation(System.getProperty(BOARDING_STATION_PROPERTY, "London"))
+                .destinationStation(System.getProperty(DESTINATION_STATION_PROPERTY, "France"))
+                .build();
+    }
+
+    //Parses "book:25,lookup:50", operations left out are not issued
+    static Map<LoadOperation, Integer> parseMix(String mix) {
+        Map<LoadOperation, Integer> weights = new EnumMap<>(LoadOperation.class);
+        for (var entry : mix.split(",")) {
+            var parts = entry.split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid load mix entry '" + entry + "'");
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight in load mix entry '" + entry + "'");
+            }
+            weights.put(LoadOperation.valueOf(parts[0].trim().toUpperCase()), weight);
+        }
+
+        if (weights.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("Load mix '" + mix + "' has no weight");
+        }
+
+        return weights;
+    }
+}
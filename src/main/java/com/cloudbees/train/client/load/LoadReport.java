@@ -0,0 +1,54 @@
+package com.cloudbees.train.client.load;
+
+import io.grpc.Status;
+import lombok.Builder;
+import lombok.Getter;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.Map;
+
+@Builder
+@Getter
+public class LoadReport {
+    //Latency in nanoseconds from the intended send time, so queueing behind a slow server is included
+    private Map<LoadOperation, Histogram> latencies;
+    private Map<LoadOperation, Long> errors;
+    private Map<Status.Code, Long> errorCodes;
+    private Duration elapsed;
+
+    public long getCount(LoadOperation operation) {
+        var histogram = latencies.get(operation);
+        return histogram == null ? 0 : histogram.getTotalCount();
+    }
+
+    public long getTotalCount() {
+        return latencies.values().stream().mapToLong(Histogram::getTotalCount).sum();
+    }
+
+    public long getErrorCount(LoadOperation operation) {
+        return errors.getOrDefault(operation, 0L);
+    }
+
+    public void print(PrintStream out) {
+        out.printf("%-8s %10s %8s %10s %10s %10s %10s %10s%n",
+                "op", "count", "errors", "p50 us", "p90 us", "p99 us", "p99.9 us", "max us");
+        for (var entry : latencies.entrySet()) {
+            var histogram = entry.getValue();
+            out.printf("%-8s %10d %8d %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                    entry.getKey(), histogram.getTotalCount(), getErrorCount(entry.getKey()),
+                    toMicros(histogram.getValueAtPercentile(50)), toMicros(histogram.getValueAtPercentile(90)),
+                    toMicros(histogram.getValueAtPercentile(99)), toMicros(histogram.getValueAtPercentile(99.9)),
+                    toMicros(histogram.getMaxValue()));
+        }
+
+        out.printf("throughput %.1f requests/s over %d ms%n",
+                getTotalCount() * 1_000d / Math.max(1, elapsed.toMillis()), elapsed.toMillis());
+        errorCodes.forEach((code, count) -> out.printf("%s errors %d%n", code, count));
+    }
+
+    private static double toMicros(long nanos) {
+        return nanos / 1_000d;
+    }
+}
@@ -0,0 +1,84 @@
+package com.cloudbees.train.server;
+
+import com.cloudbees.train.server.persistence.TrainSeatManager;
+import com.cloudbees.train.server.seatmap.SeatMapPublisher;
+import com.cloudbees.train.server.waitlist.WaitlistManager;
+import io.grpc.Status;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static com.cloudbees.train.server.constants.ApplicationConstants.TRAIN_DEPARTED_ERROR_MESSAGE;
+
+//Takes the train-dates that ran before today out of service once a day, with their waitlists and seat map feeds.
+//A shard's store is only closed by the sweep after the one that retired it, so calls that looked the shard up
+//before it was retired finish against an open store.
+public class DepartedTrainSweeper implements AutoCloseable {
+    private final TrainSeatManager trainSeatManager;
+    private final WaitlistManager waitlistManager;
+    private final SeatMapPublisher seatMapPublisher;
+    private final Clock clock;
+    private ScheduledExecutorService scheduler;
+
+    public DepartedTrainSweeper(TrainSeatManager trainSeatManager, WaitlistManager waitlistManager,
+                                SeatMapPublisher seatMapPublisher, Clock clock) {
+        this.trainSeatManager = trainSeatManager;
+        this.waitlistManager = waitlistManager;
+        this.seatMapPublisher = seatMapPublisher;
+        this.clock = clock;
+    }
+
+    //Sweeps right away, replay opens the train-dates of past bookings too, then every day after midnight
+    public static DepartedTrainSweeper start(TrainSeatManager trainSeatManager, WaitlistManager waitlistManager,
+                                             SeatMapPublisher seatMapPublisher) {
+        var sweeper = new DepartedTrainSweeper(trainSeatManager, waitlistManager, seatMapPublisher,
+                Clock.systemDefaultZone());
+        sweeper.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "departed-train-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduler.execute(sweeper::sweepSafely);
+        sweeper.scheduler.scheduleAtFixedRate(sweeper::sweepSafely, sweeper.getMillisUntilMidnight(),
+                Duration.ofDays(1).toMillis(), TimeUnit.MILLISECONDS);
+
+        return sweeper;
+    }
+
+    public void sweep() {
+        trainSeatManager.closeRetiredInventories();
+        for (var inventory : trainSeatManager.retireTrainInventoriesBefore(LocalDate.now(clock))) {
+            for (var entry : waitlistManager.removeWaitlist(inventory)) {
+                entry.getResponseObserver().onError(Status.FAILED_PRECONDITION
+                        .withDescription(TRAIN_DEPARTED_ERROR_MESSAGE).asException());
+            }
+            seatMapPublisher.removeFeed(inventory);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    //A failing sweep must not stop the next ones, the scheduler would drop the task
+    private void sweepSafely() {
+        try {
+            sweep();
+        } catch (RuntimeException e) {
+            System.out.println("Unable to sweep departed trains: " + e.getMessage());
+        }
+    }
+
+    private long getMillisUntilMidnight() {
+        var now = clock.instant();
+        var midnight = LocalDate.now(clock).plusDays(1).atStartOfDay(clock.getZone()).toInstant();
+        return Duration.between(now, midnight).toMillis();
+    }
+}
@@ -1,23 +1,108 @@
 package com.cloudbees.train.server;
 
+import com.cloudbees.train.server.cache.ReceiptCache;
+import com.cloudbees.train.server.config.ServerConfig;
+import com.cloudbees.train.server.config.ServerTransport;
+import com.cloudbees.train.server.generator.SnowflakeBookingIdGenerator;
+import com.cloudbees.train.server.hold.SeatHoldManager;
+import com.cloudbees.train.server.journal.BookingJournal;
+import com.cloudbees.train.server.journal.WriteAheadBookingJournal;
 import com.cloudbees.train.server.mapper.TicketMapper;
+import com.cloudbees.train.server.metrics.MetricsExporter;
+import com.cloudbees.train.server.metrics.MetricsRegistry;
+import com.cloudbees.train.server.metrics.MetricsServerInterceptor;
 import com.cloudbees.train.server.persistence.TrainSeatManager;
+import com.cloudbees.train.server.seatmap.SeatMapPublisher;
 import com.cloudbees.train.server.service.TicketManagerServiceImpl;
+import com.cloudbees.train.server.waitlist.WaitlistManager;
 import io.grpc.Server;
 import io.grpc.ServerBuilder;
+import io.grpc.ServerInterceptors;
 
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
 
 public class TicketBookingServer {
+    private static final int SHUTDOWN_GRACE_SECONDS = 30;
+
     public static void main(String[] args) throws IOException, InterruptedException {
-        System.out.println("Starting Grpc server in 5003 port");
+        var serverConfig = ServerConfig.load();
+        System.out.println("Starting Grpc server in " + serverConfig.getPort() + " port");
 
-        Server server = ServerBuilder.forPort(5003)
-                .addService(new TicketManagerServiceImpl(new TrainSeatManager(), new TicketMapper()))
-                .build();
+        var trainSeatManager = new TrainSeatManager();
+        var bookingJournal = WriteAheadBookingJournal.fromSystemProperties(trainSeatManager);
+        var serverTransport = ServerTransport.create(serverConfig);
+
+        var metricsRegistry = new MetricsRegistry(trainSeatManager);
+        var metricsExporter = MetricsExporter.start(serverConfig, metricsRegistry);
+
+        var waitlistManager = new WaitlistManager();
+        var seatMapPublisher = SeatMapPublisher.fromSystemProperties();
+        Server server = createServer(serverTransport.newServerBuilder(), trainSeatManager, bookingJournal,
+                metricsRegistry, waitlistManager, seatMapPublisher);
+        var departedTrainSweeper = DepartedTrainSweeper.start(trainSeatManager, waitlistManager, seatMapPublisher);
+        if (bookingJournal instanceof WriteAheadBookingJournal writeAheadJournal) {
+            metricsRegistry.registerGauge("train_journal_snapshot_failures",
+                    writeAheadJournal::getSnapshotFailureCount);
+        }
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.shutdown();
+            try {
+                server.awaitTermination(SHUTDOWN_GRACE_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            departedTrainSweeper.close();
+            bookingJournal.close();
+            serverTransport.close();
+            metricsExporter.close();
+        }));
 
         server.start();
-        System.out.println("Server started use 5003 port in localhost for service accessibility");
+        System.out.println("Server started use " + server.getPort() + " port in localhost for service accessibility"
+                + (serverTransport.isEpoll() ? " (epoll)" : ""));
+        if (metricsExporter.getHttpPort() >= 0) {
+            System.out.println("Metrics served on port " + metricsExporter.getHttpPort()
+                    + MetricsExporter.METRICS_PATH);
+        }
         server.awaitTermination();
     }
+
+    //Shared by the network server and the in-process server used for load generation
+    public static Server createServer(ServerBuilder<?> serverBuilder, TrainSeatManager trainSeatManager,
+                                      BookingJournal bookingJournal) {
+        return createServer(serverBuilder, trainSeatManager, bookingJournal, new MetricsRegistry(trainSeatManager));
+    }
+
+    public static Server createServer(ServerBuilder<?> serverBuilder, TrainSeatManager trainSeatManager,
+                                      BookingJournal bookingJournal, MetricsRegistry metricsRegistry) {
+        return createServer(serverBuilder, trainSeatManager, bookingJournal, metricsRegistry, new WaitlistManager(),
+                SeatMapPublisher.fromSystemProperties());
+    }
+
+    private static Server createServer(ServerBuilder<?> serverBuilder, TrainSeatManager trainSeatManager,
+                                       BookingJournal bookingJournal, MetricsRegistry metricsRegistry,
+                                       WaitlistManager waitlistManager, SeatMapPublisher seatMapPublisher) {
+        var receiptCache = ReceiptCache.fromSystemProperties();
+        var seatHoldManager = SeatHoldManager.fromSystemProperties();
+        var service = new TicketManagerServiceImpl(trainSeatManager, new TicketMapper(),
+                SnowflakeBookingIdGenerator.forCurrentNode(), bookingJournal, receiptCache, seatHoldManager,
+                waitlistManager, seatMapPublisher);
+        seatHoldManager.setReleaseListener(service::promoteWaitlist);
+        var serviceDefinition = ServerInterceptors.intercept(service.bindPreSerializedService(),
+                new MetricsServerInterceptor(metricsRegistry));
+        metricsRegistry.registerMethods(serviceDefinition);
+        metricsRegistry.registerGauge("train_receipt_cache_hits", receiptCache::getHitCount);
+        metricsRegistry.registerGauge("train_receipt_cache_misses", receiptCache::getMissCount);
+        metricsRegistry.registerGauge("train_receipt_cache_evictions", receiptCache::getEvictionCount);
+        metricsRegistry.registerGauge("train_receipt_cache_entries", receiptCache::size);
+        metricsRegistry.registerGauge("train_seat_holds_active", seatHoldManager::size);
+        metricsRegistry.registerGauge("train_waitlist_waiting", waitlistManager::getWaitingCount);
+        metricsRegistry.registerGauge("train_seat_map_feeds", seatMapPublisher::getFeedCount);
+
+        return serverBuilder
+                .addService(serviceDefinition)
+                .build();
+    }
 }
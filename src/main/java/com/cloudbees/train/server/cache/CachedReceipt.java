@@ -0,0 +1,16 @@
+package com.cloudbees.train.server.cache;
+
+import com.cloudbees.train.TicketReceiptResponse;
+import lombok.Getter;
+
+//A receipt together with its wire bytes, serialized once when it enters the cache
+@Getter
+public class CachedReceipt {
+    private final TicketReceiptResponse receipt;
+    private final byte[] bytes;
+
+    public CachedReceipt(TicketReceiptResponse receipt) {
+        this.receipt = receipt;
+        this.bytes = receipt.toByteArray();
+    }
+}
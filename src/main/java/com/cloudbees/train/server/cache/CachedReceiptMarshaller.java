@@ -0,0 +1,45 @@
+package com.cloudbees.train.server.cache;
+
+import com.cloudbees.train.BookingRequest;
+import com.cloudbees.train.TicketManagerServiceGrpc;
+import com.cloudbees.train.TicketReceiptResponse;
+import com.google.protobuf.InvalidProtocolBufferException;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+//Writes the cached bytes of a receipt as they are. The wire format is the one of TicketReceiptResponse,
+//so clients keep using the generated stubs.
+public class CachedReceiptMarshaller implements MethodDescriptor.Marshaller<CachedReceipt> {
+    public static final CachedReceiptMarshaller INSTANCE = new CachedReceiptMarshaller();
+
+    private static final MethodDescriptor<BookingRequest, CachedReceipt> GET_BOOKED_TICKET_RECEIPT_METHOD =
+            TicketManagerServiceGrpc.METHOD_GET_BOOKED_TICKET_RECEIPT.toBuilder(
+                    TicketManagerServiceGrpc.METHOD_GET_BOOKED_TICKET_RECEIPT.getRequestMarshaller(), INSTANCE)
+                    .build();
+
+    private CachedReceiptMarshaller() {
+    }
+
+    public static MethodDescriptor<BookingRequest, CachedReceipt> getBookedTicketReceiptMethod() {
+        return GET_BOOKED_TICKET_RECEIPT_METHOD;
+    }
+
+    @Override
+    public InputStream stream(CachedReceipt value) {
+        return new SerializedBytesStream(value.getBytes());
+    }
+
+    @Override
+    public CachedReceipt parse(InputStream stream) {
+        try {
+            return new CachedReceipt(TicketReceiptResponse.parseFrom(stream));
+        } catch (InvalidProtocolBufferException e) {
+            throw Status.INTERNAL.withDescription("Invalid receipt").withCause(e).asRuntimeException();
+        } catch (IOException e) {
+            throw Status.INTERNAL.withDescription("Unable to read receipt").withCause(e).asRuntimeException();
+        }
+    }
+}
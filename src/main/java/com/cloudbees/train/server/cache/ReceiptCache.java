@@ -0,0 +1,150 @@
+package com.cloudbees.train.server.cache;
+
+import com.cloudbees.train.TicketReceiptResponse;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+//Bounded read-through cache of receipts by booking id. Entries are kept least recently used first in a
+//fixed number of segments, each behind its own lock, and the oldest entry of a full segment is evicted.
+public class ReceiptCache {
+    public static final String MAX_ENTRIES_PROPERTY = "train.receipt.cache.size";
+    public static final int DEFAULT_MAX_ENTRIES = 100_000;
+    private static final int SEGMENT_COUNT = 16;
+
+    private final Segment[] segments = new Segment[SEGMENT_COUNT];
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public ReceiptCache(int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Receipt cache size must be positive");
+        }
+
+        int segmentEntries = (maxEntries + SEGMENT_COUNT - 1) / SEGMENT_COUNT;
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment(segmentEntries);
+        }
+    }
+
+    public static ReceiptCache fromSystemProperties() {
+        return new ReceiptCache(Integer.getInteger(MAX_ENTRIES_PROPERTY, DEFAULT_MAX_ENTRIES));
+    }
+
+    //Returns the cached receipt, loading and serializing it on a miss. Null when the loader has no booking.
+    public CachedReceipt get(String bookingId, Function<String, TicketReceiptResponse> loader) {
+        var segment = getSegment(bookingId);
+        //Taken before the load, an invalidation after it means the loaded receipt may already be stale
+        long generation = segment.generation;
+        var cachedReceipt = segment.get(bookingId);
+        if (cachedReceipt != null) {
+            hits.increment();
+            return cachedReceipt;
+        }
+
+        misses.increment();
+        var receipt = loader.apply(bookingId);
+        if (receipt == null) {
+            return null;
+        }
+
+        cachedReceipt = new CachedReceipt(receipt);
+        segment.putIfNotInvalidated(bookingId, cachedReceipt, generation);
+
+        return cachedReceipt;
+    }
+
+    //Called after a booking is changed or removed in its store
+    public void invalidate(String bookingId) {
+        getSegment(bookingId).remove(bookingId);
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        int size = 0;
+        for (var segment : segments) {
+            size += segment.size();
+        }
+
+        return size;
+    }
+
+    private Segment getSegment(String bookingId) {
+        int hash = bookingId.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (SEGMENT_COUNT - 1)];
+    }
+
+    private class Segment {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<String, CachedReceipt> entries;
+        //Bumped by every invalidation of the segment, a receipt loaded before one is not kept
+        private volatile long generation;
+
+        Segment(int maxEntries) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedReceipt> eldest) {
+                    if (size() <= maxEntries) {
+                        return false;
+                    }
+                    evictions.increment();
+                    return true;
+                }
+            };
+        }
+
+        CachedReceipt get(String bookingId) {
+            lock.lock();
+            try {
+                return entries.get(bookingId);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void putIfNotInvalidated(String bookingId, CachedReceipt cachedReceipt, long loadedGeneration) {
+            lock.lock();
+            try {
+                if (generation == loadedGeneration) {
+                    entries.put(bookingId, cachedReceipt);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void remove(String bookingId) {
+            lock.lock();
+            try {
+                generation++;
+                entries.remove(bookingId);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return entries.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
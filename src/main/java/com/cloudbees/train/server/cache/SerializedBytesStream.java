@@ -0,0 +1,25 @@
+package com.cloudbees.train.server.cache;
+
+import io.grpc.Drainable;
+import io.grpc.KnownLength;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+//Message bytes serialized ahead of time. Known length lets the transport frame the message without buffering
+//it, draining copies the array once.
+public class SerializedBytesStream extends ByteArrayInputStream implements KnownLength, Drainable {
+    public SerializedBytesStream(byte[] bytes) {
+        super(bytes);
+    }
+
+    @Override
+    public int drainTo(OutputStream target) throws IOException {
+        int length = count - pos;
+        target.write(buf, pos, length);
+        pos = count;
+
+        return length;
+    }
+}
@@ -0,0 +1,12 @@
+package com.cloudbees.train.server.config;
+
+public enum ExecutorType {
+    //gRPC's shared cached thread pool
+    DEFAULT,
+    //Fixed number of threads with a bounded queue
+    BOUNDED,
+    //A virtual thread per call
+    VIRTUAL,
+    //Calls run on the Netty event loop, only safe while no handler blocks
+    DIRECT
+}
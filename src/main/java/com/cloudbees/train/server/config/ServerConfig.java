@@ -0,0 +1,133 @@
+package com.cloudbees.train.server.config;
+
+import io.netty.channel.epoll.Epoll;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Properties;
+
+@Builder
+@Getter
+public class ServerConfig {
+    public static final String CONFIG_FILE_PROPERTY = "train.server.config.file";
+    public static final String PORT_PROPERTY = "train.server.port";
+    public static final String EXECUTOR_PROPERTY = "train.server.executor";
+    public static final String EXECUTOR_THREADS_PROPERTY = "train.server.executor.threads";
+    public static final String EXECUTOR_QUEUE_PROPERTY = "train.server.executor.queue";
+    public static final String BOSS_THREADS_PROPERTY = "train.server.boss.threads";
+    public static final String WORKER_THREADS_PROPERTY = "train.server.worker.threads";
+    public static final String FLOW_CONTROL_WINDOW_PROPERTY = "train.server.flow.control.window";
+    public static final String MAX_INBOUND_MESSAGE_SIZE_PROPERTY = "train.server.max.inbound.message.size";
+    public static final String MAX_CONCURRENT_CALLS_PROPERTY = "train.server.max.concurrent.calls.per.connection";
+    public static final String KEEP_ALIVE_TIME_PROPERTY = "train.server.keepalive.time.seconds";
+    public static final String KEEP_ALIVE_TIMEOUT_PROPERTY = "train.server.keepalive.timeout.seconds";
+    public static final String PERMIT_KEEP_ALIVE_TIME_PROPERTY = "train.server.permit.keepalive.time.seconds";
+    public static final String PERMIT_KEEP_ALIVE_WITHOUT_CALLS_PROPERTY =
+            "train.server.permit.keepalive.without.calls";
+    public static final String EPOLL_PROPERTY = "train.server.epoll";
+    public static final String METRICS_PORT_PROPERTY = "train.server.metrics.port";
+    public static final String METRICS_FILE_PROPERTY = "train.server.metrics.file";
+    public static final String METRICS_FILE_INTERVAL_PROPERTY = "train.server.metrics.file.interval.seconds";
+    private static final String PROPERTY_PREFIX = "train.server.";
+
+    private int port;
+    private ExecutorType executorType;
+    private int executorThreads;
+    private int executorQueueSize;
+    private int bossThreads;
+    //0 leaves the count to Netty, twice the number of cores
+    private int workerThreads;
+    private int flowControlWindow;
+    private int maxInboundMessageSize;
+    private int maxConcurrentCallsPerConnection;
+    private Duration keepAliveTime;
+    private Duration keepAliveTimeout;
+    //Clients pinging more often than this are disconnected
+    private Duration permitKeepAliveTime;
+    private boolean permitKeepAliveWithoutCalls;
+    //Native transport, on by default where the epoll library loads. Otherwise, or when turned off, NIO is used.
+    private boolean epoll;
+    //Port of the HTTP metrics endpoint, negative turns it off and 0 picks a free port
+    private int metricsPort;
+    //Metrics are written to this file periodically when it is set
+    private String metricsFile;
+    private Duration metricsFileInterval;
+
+    //Reads the optional properties file named by train.server.config.file, system properties override it
+    public static ServerConfig load() {
+        var properties = new Properties();
+        var configFile = System.getProperty(CONFIG_FILE_PROPERTY);
+
+        if (configFile != null) {
+            try (var reader = Files.newBufferedReader(Path.of(configFile), StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to load server configuration " + configFile, e);
+            }
+        }
+
+        for (var key : System.getProperties().stringPropertyNames()) {
+            if (key.startsWith(PROPERTY_PREFIX)) {
+                properties.setProperty(key, System.getProperty(key));
+            }
+        }
+
+        return fromProperties(properties);
+    }
+
+    //Anything not configured keeps the gRPC default, apart from the port
+    static ServerConfig fromProperties(Properties properties) {
+        int processors = Runtime.getRuntime().availableProcessors();
+
+        return ServerConfig.builder()
+                .port(getInt(properties, PORT_PROPERTY, 5003))
+                .executorType(getExecutorType(properties))
+                .executorThreads(getInt(properties, EXECUTOR_THREADS_PROPERTY, processors * 2))
+                .executorQueueSize(getInt(properties, EXECUTOR_QUEUE_PROPERTY, 10_000))
+                .bossThreads(getInt(properties, BOSS_THREADS_PROPERTY, 1))
+                .workerThreads(getInt(properties, WORKER_THREADS_PROPERTY, 0))
+                .flowControlWindow(getInt(properties, FLOW_CONTROL_WINDOW_PROPERTY, 1024 * 1024))
+                .maxInboundMessageSize(getInt(properties, MAX_INBOUND_MESSAGE_SIZE_PROPERTY, 4 * 1024 * 1024))
+                .maxConcurrentCallsPerConnection(getInt(properties, MAX_CONCURRENT_CALLS_PROPERTY, Integer.MAX_VALUE))
+                .keepAliveTime(Duration.ofSeconds(getInt(properties, KEEP_ALIVE_TIME_PROPERTY, 2 * 60 * 60)))
+                .keepAliveTimeout(Duration.ofSeconds(getInt(properties, KEEP_ALIVE_TIMEOUT_PROPERTY, 20)))
+                .permitKeepAliveTime(Duration.ofSeconds(getInt(properties, PERMIT_KEEP_ALIVE_TIME_PROPERTY, 5 * 60)))
+                .permitKeepAliveWithoutCalls(Boolean.parseBoolean(
+                        properties.getProperty(PERMIT_KEEP_ALIVE_WITHOUT_CALLS_PROPERTY, "false").trim()))
+                .epoll(Boolean.parseBoolean(properties.getProperty(EPOLL_PROPERTY,
+                        String.valueOf(Epoll.isAvailable())).trim()))
+                .metricsPort(getInt(properties, METRICS_PORT_PROPERTY, -1))
+                .metricsFile(properties.getProperty(METRICS_FILE_PROPERTY))
+                .metricsFileInterval(Duration.ofSeconds(getInt(properties, METRICS_FILE_INTERVAL_PROPERTY, 10)))
+                .build();
+    }
+
+    private static ExecutorType getExecutorType(Properties properties) {
+        var value = properties.getProperty(EXECUTOR_PROPERTY, "default");
+        try {
+            return ExecutorType.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("Invalid value '" + value + "' for " + EXECUTOR_PROPERTY, e);
+        }
+    }
+
+    private static int getInt(Properties properties, String key, int defaultValue) {
+        var value = properties.getProperty(key);
+        if (value == null) {
+            return defaultValue;
+        }
+
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Invalid value '" + value + "' for " + key, e);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.cloudbees.train.server.config;
+
+import io.grpc.netty.NettyServerBuilder;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.util.concurrent.DefaultThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+//Netty event loops and call executor built from a ServerConfig. They belong to this object, not to the
+//server, so they must be closed after the server has terminated.
+public class ServerTransport implements AutoCloseable {
+    private final ServerConfig config;
+    private final boolean epoll;
+    private final EventLoopGroup bossGroup;
+    private final EventLoopGroup workerGroup;
+    private final ExecutorService executor;
+
+    private ServerTransport(ServerConfig config) {
+        this.config = config;
+        this.epoll = config.isEpoll() && Epoll.isAvailable();
+        if (config.isEpoll() && !epoll) {
+            System.out.println("Epoll is not available, falling back to NIO: " + Epoll.unavailabilityCause());
+        }
+        this.bossGroup = createEventLoopGroup(config.getBossThreads(), "grpc-boss");
+        this.workerGroup = createEventLoopGroup(config.getWorkerThreads(), "grpc-worker");
+        this.executor = createExecutor(config);
+    }
+
+    public static ServerTransport create(ServerConfig config) {
+        return new ServerTransport(config);
+    }
+
+    public boolean isEpoll() {
+        return epoll;
+    }
+
+    public NettyServerBuilder newServerBuilder() {
+        Class<? extends ServerChannel> channelType = epoll
+                ? EpollServerSocketChannel.class : NioServerSocketChannel.class;
+        var serverBuilder = NettyServerBuilder.forPort(config.getPort())
+                .channelType(channelType)
+                .bossEventLoopGroup(bossGroup)
+                .workerEventLoopGroup(workerGroup)
+                .flowControlWindow(config.getFlowControlWindow())
+                .maxInboundMessageSize(config.getMaxInboundMessageSize())
+                .maxConcurrentCallsPerConnection(config.getMaxConcurrentCallsPerConnection())
+                .keepAliveTime(config.getKeepAliveTime().toNanos(), TimeUnit.NANOSECONDS)
+                .keepAliveTimeout(config.getKeepAliveTimeout().toNanos(), TimeUnit.NANOSECONDS)
+                .permitKeepAliveTime(config.getPermitKeepAliveTime().toNanos(), TimeUnit.NANOSECONDS)
+                .permitKeepAliveWithoutCalls(config.isPermitKeepAliveWithoutCalls());
+
+        if (config.getExecutorType() == ExecutorType.DIRECT) {
+            serverBuilder.directExecutor();
+        } else if (executor != null) {
+            serverBuilder.executor(executor);
+        }
+
+        return serverBuilder;
+    }
+
+    @Override
+    public void close() {
+        bossGroup.shutdownGracefully();
+        workerGroup.shutdownGracefully();
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    private EventLoopGroup createEventLoopGroup(int threads, String name) {
+        var threadFactory = new DefaultThreadFactory(name, true);
+        return epoll ? new EpollEventLoopGroup(threads, threadFactory) : new NioEventLoopGroup(threads, threadFactory);
+    }
+
+    private static ExecutorService createExecutor(ServerConfig config) {
+        return switch (config.getExecutorType()) {
+            case DEFAULT, DIRECT -> null;
+            //A full queue runs the call on the event loop that received it, which slows reads from that connection
+            case BOUNDED -> new ThreadPoolExecutor(config.getExecutorThreads(), config.getExecutorThreads(),
+                    0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(config.getExecutorQueueSize()),
+                    new DefaultThreadFactory("grpc-call", true), new ThreadPoolExecutor.CallerRunsPolicy());
+            //Handlers blocked on storage unmount from their carrier, so in-flight calls are not bounded by threads
+            case VIRTUAL -> Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("grpc-call-", 0).factory());
+        };
+    }
+}
@@ -20,4 +20,26 @@ public class ApplicationConstants {
             "Passenger email address not matching with given booking id";
     public static final double TICKET_COST = 20d;
     public static final String TRAIN_JOURNEY_DETAILS_NOT_FOUND = "Given journey not found for this train to book ticket";
+    public static final String TRAIN_NOT_FOUND_ERROR_MESSAGE = "No train found with given train number = ";
+    public static final String BOOKING_JOURNAL_ERROR_MESSAGE = "Booking could not be saved, please retry";
+    public static final String BOOKING_CHANGE_IN_PROGRESS_ERROR_MESSAGE =
+            "Booking is being changed by another request, please retry";
+    public static final String TRAVEL_DATE_FORMAT_ERROR_MESSAGE =
+            "Provided travel date is not in yyyy-MM-dd format";
+    public static final String TRAVEL_DATE_NOT_ON_SALE_ERROR_MESSAGE =
+            "Provided travel date is not open for booking";
+    public static final String TRAIN_DEPARTED_ERROR_MESSAGE = "Train has departed, the waitlist is closed";
+    public static final String NO_TRAIN_BOOKINGS_ERROR_MESSAGE = "No bookings found for train with given train number = ";
+    public static final int MAX_BATCH_PASSENGERS = 500;
+    public static final String BATCH_PURCHASE_REQUEST_ERROR_MESSAGE =
+            "Batch purchase request is null and cannot proceed further";
+    public static final String BATCH_PASSENGERS_ERROR_MESSAGE =
+            "A batch booking needs between 1 and " + MAX_BATCH_PASSENGERS + " passengers";
+    public static final String BATCH_NOT_BOOKED_ERROR_MESSAGE =
+            "Not booked because another passenger of this batch could not be booked";
+    public static final String BOOKING_COMMAND_ERROR_MESSAGE = "Booking command has no operation to run";
+    public static final String HOLD_REQUEST_ERROR_MESSAGE = "Seat hold request is null and cannot proceed further";
+    public static final String NO_HOLD_FOUND_ERROR_MESSAGE = "No active seat hold found with given hold Id = ";
+    public static final String SEAT_MAP_REQUEST_ERROR_MESSAGE = "Seat map request is null and cannot proceed further";
+    public static final String WAITLIST_FULL_ERROR_MESSAGE = "Waitlist of this train is full, please try another train";
 }
@@ -0,0 +1,64 @@
+package com.cloudbees.train.server.entity;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.Objects;
+
+//Booking as the server keeps it. Station and section names repeat across every booking of a train, so they are
+//the route's and the section's own instances, and the train date is the instance of the inventory holding the
+//booking. Receipts are only built from it when a response is sent.
+@Getter
+public class Booking {
+    private final String bookingId;
+    private final String firstName;
+    private final String lastName;
+    private final String emailAddress;
+    private final String boardingStation;
+    private final String destinationStation;
+    private final String sectionName;
+    private final int seatNumber;
+    private final double pricePaid;
+    private final TrainDate trainDate;
+
+    @Builder(toBuilder = true)
+    private Booking(String bookingId, String firstName, String lastName, String emailAddress, String boardingStation,
+                    String destinationStation, String sectionName, int seatNumber, double pricePaid,
+                    TrainDate trainDate) {
+        this.bookingId = bookingId;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.emailAddress = emailAddress;
+        this.boardingStation = boardingStation;
+        this.destinationStation = destinationStation;
+        this.sectionName = sectionName;
+        this.seatNumber = seatNumber;
+        this.pricePaid = pricePaid;
+        this.trainDate = trainDate;
+    }
+
+    //Same booking moved to another seat
+    public Booking withSeat(Seat seat) {
+        return toBuilder()
+                .sectionName(seat.getSectionName())
+                .seatNumber(seat.getSeatNumber())
+                .build();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Booking booking)) return false;
+        return seatNumber == booking.seatNumber && Double.compare(pricePaid, booking.pricePaid) == 0
+                && bookingId.equals(booking.bookingId) && firstName.equals(booking.firstName)
+                && lastName.equals(booking.lastName) && emailAddress.equals(booking.emailAddress)
+                && boardingStation.equals(booking.boardingStation)
+                && destinationStation.equals(booking.destinationStation)
+                && sectionName.equals(booking.sectionName) && Objects.equals(trainDate, booking.trainDate);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(bookingId, seatNumber, sectionName);
+    }
+}
@@ -0,0 +1,35 @@
+package com.cloudbees.train.server.entity;
+
+import lombok.Builder;
+import lombok.Getter;
+
+//One coach of a train layout, shared by every train running the layout
+@Getter
+public class Coach {
+    private final String coachName;
+    private final SeatClass seatClass;
+    //Applied to the journey fare of seats in this coach
+    private final double fareMultiplier;
+    private final int seatCount;
+
+    @Builder
+    private Coach(String coachName, SeatClass seatClass, double fareMultiplier, int seatCount) {
+        this.coachName = coachName;
+        this.seatClass = seatClass;
+        this.fareMultiplier = fareMultiplier;
+        this.seatCount = seatCount;
+    }
+
+    public static Coach standard(String coachName, int seatCount) {
+        return Coach.builder()
+                .coachName(coachName)
+                .seatClass(SeatClass.STANDARD)
+                .fareMultiplier(1)
+                .seatCount(seatCount)
+                .build();
+    }
+
+    public double getSeatFare(double journeyFare) {
+        return Math.round(journeyFare * fareMultiplier * 100) / 100d;
+    }
+}
@@ -3,6 +3,7 @@ package com.cloudbees.train.server.entity;
 import lombok.Builder;
 import lombok.Getter;
 
+import java.util.Locale;
 import java.util.Objects;
 
 @Builder
@@ -11,6 +12,18 @@ public class Journey {
     private String from;
     private String to;
 
+    //Journeys are always keyed by trimmed, lower cased station names so lookups ignore case
+    public static Journey of(String from, String to) {
+        return Journey.builder()
+                .from(normalizeStation(from))
+                .to(normalizeStation(to))
+                .build();
+    }
+
+    public static String normalizeStation(String station) {
+        return station.trim().toLowerCase(Locale.ROOT);
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
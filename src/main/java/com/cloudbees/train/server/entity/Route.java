@@ -0,0 +1,57 @@
+package com.cloudbees.train.server.entity;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Getter
+public class Route {
+    private final String routeId;
+    //Stops in travel order
+    private final List<String> stations;
+    //Fare from the first stop to each stop, same order as stations
+    private final double[] cumulativeFares;
+    //Stop of each station keyed by its normalized name, so a station is resolved with a single probe
+    private final Map<String, Integer> stopIndexes;
+
+    @Builder
+    private Route(String routeId, List<String> stations, double[] cumulativeFares) {
+        this.routeId = routeId;
+        this.stations = stations;
+        this.cumulativeFares = cumulativeFares;
+        this.stopIndexes = new HashMap<>();
+        for (int stop = 0; stop < stations.size(); stop++) {
+            stopIndexes.putIfAbsent(Journey.normalizeStation(stations.get(stop)), stop);
+        }
+    }
+
+    public double getFare(int fromStop, int toStop) {
+        return Math.round((cumulativeFares[toStop] - cumulativeFares[fromStop]) * 100) / 100d;
+    }
+
+    //Stops and fare of a journey on this route, empty when a station is not served or the journey runs backwards
+    public Optional<RouteJourney> getJourney(String from, String to) {
+        int fromStop = getStopIndex(from);
+        int toStop = getStopIndex(to);
+        if (fromStop < 0 || toStop <= fromStop) {
+            return Optional.empty();
+        }
+
+        return Optional.of(RouteJourney.builder()
+                .from(stations.get(fromStop))
+                .to(stations.get(toStop))
+                .fromStop(fromStop)
+                .toStop(toStop)
+                .fare(getFare(fromStop, toStop))
+                .build());
+    }
+
+    public int getStopIndex(String station) {
+        var stop = stopIndexes.get(Journey.normalizeStation(station));
+        return stop == null ? -1 : stop;
+    }
+}
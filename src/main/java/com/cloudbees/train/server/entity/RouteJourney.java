@@ -0,0 +1,15 @@
+package com.cloudbees.train.server.entity;
+
+import lombok.Builder;
+import lombok.Getter;
+
+//A journey resolved against the route of a train, once per request. Station names are the route's own.
+@Builder
+@Getter
+public class RouteJourney {
+    private String from;
+    private String to;
+    private int fromStop;
+    private int toStop;
+    private double fare;
+}
@@ -3,8 +3,8 @@ package com.cloudbees.train.server.entity;
 import lombok.Builder;
 import lombok.Getter;
 
-import java.util.Objects;
-
+//Seats are created once per train section and shared, the section name is the section's own instance.
+//Internally a seat is identified by its packed seat key, section id in the high half and seat number in the low.
 @Builder
 @Getter
 public class Seat {
@@ -12,6 +12,22 @@ public class Seat {
     private String sectionName;
     private int seatNumber;
 
+    public int getSeatKey() {
+        return getSeatKey(SectionId, seatNumber);
+    }
+
+    public static int getSeatKey(int sectionId, int seatNumber) {
+        return sectionId << 16 | seatNumber;
+    }
+
+    public static int getSectionId(int seatKey) {
+        return seatKey >>> 16;
+    }
+
+    public static int getSeatNumber(int seatKey) {
+        return seatKey & 0xFFFF;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -21,6 +37,6 @@ public class Seat {
 
     @Override
     public int hashCode() {
-        return Objects.hash(SectionId, sectionName, seatNumber);
+        return getSeatKey();
     }
 }
@@ -0,0 +1,6 @@
+package com.cloudbees.train.server.entity;
+
+public enum SeatClass {
+    FIRST,
+    STANDARD
+}
@@ -0,0 +1,26 @@
+package com.cloudbees.train.server.entity;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+@Builder
+@Getter
+public class TrainDate {
+    private String trainNumber;
+    private LocalDate serviceDate;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TrainDate trainDate)) return false;
+        return trainNumber.equals(trainDate.trainNumber) && serviceDate.equals(trainDate.serviceDate);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(trainNumber, serviceDate);
+    }
+}
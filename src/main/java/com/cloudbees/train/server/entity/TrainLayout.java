@@ -0,0 +1,32 @@
+package com.cloudbees.train.server.entity;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.List;
+
+@Builder
+@Getter
+public class TrainLayout {
+    private String layoutId;
+    //Coaches in the order seats are offered, each becomes one section of the train
+    private List<Coach> coaches;
+
+    //Splitting the total seats equally in two standard sections
+    public static TrainLayout standard(int totalSeats) {
+        return TrainLayout.builder()
+                .layoutId("STANDARD")
+                .coaches(List.of(Coach.standard("SECTION A", (totalSeats + 1) / 2),
+                        Coach.standard("SECTION B", totalSeats / 2)))
+                .build();
+    }
+
+    public int getTotalSeats() {
+        int totalSeats = 0;
+        for (var coach : coaches) {
+            totalSeats += coach.getSeatCount();
+        }
+
+        return totalSeats;
+    }
+}
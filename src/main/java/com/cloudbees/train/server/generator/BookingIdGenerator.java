@@ -0,0 +1,5 @@
+package com.cloudbees.train.server.generator;
+
+public interface BookingIdGenerator {
+    String nextBookingId();
+}
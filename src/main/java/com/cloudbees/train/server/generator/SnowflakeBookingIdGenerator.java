@@ -0,0 +1,55 @@
+package com.cloudbees.train.server.generator;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Booking id layout: milliseconds since EPOCH (41 bits) | node id (10 bits) | sequence (12 bits)
+public class SnowflakeBookingIdGenerator implements BookingIdGenerator {
+    public static final String NODE_ID_PROPERTY = "train.node.id";
+    public static final int MAX_NODE_ID = (1 << 10) - 1;
+
+    private static final long EPOCH = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final long nodeId;
+    private final Clock clock;
+    //Last issued (timestamp << SEQUENCE_BITS | sequence), never moves backwards
+    private final AtomicLong lastTick = new AtomicLong();
+
+    public SnowflakeBookingIdGenerator(int nodeId) {
+        this(nodeId, Clock.systemUTC());
+    }
+
+    public SnowflakeBookingIdGenerator(int nodeId, Clock clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node id must be between 0 and " + MAX_NODE_ID + " but was " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.clock = clock;
+    }
+
+    public static SnowflakeBookingIdGenerator forCurrentNode() {
+        return new SnowflakeBookingIdGenerator(Integer.getInteger(NODE_ID_PROPERTY, 0));
+    }
+
+    @Override
+    public String nextBookingId() {
+        return Long.toString(nextId());
+    }
+
+    public long nextId() {
+        long last;
+        long next;
+        do {
+            last = lastTick.get();
+            next = Math.max((clock.millis() - EPOCH) << SEQUENCE_BITS, last + 1);
+        } while (!lastTick.compareAndSet(last, next));
+
+        return (next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS)
+                | nodeId << SEQUENCE_BITS
+                | next & SEQUENCE_MASK;
+    }
+}
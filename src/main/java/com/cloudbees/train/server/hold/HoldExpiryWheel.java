@@ -0,0 +1,161 @@
+package com.cloudbees.train.server.hold;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+//Hashed timing wheel for hold expiry. A hold lands in the bucket of the tick its deadline falls in, and one
+//thread visits a bucket per tick and expires the holds that are due. Adding and cancelling a hold is O(1),
+//holds further away than one turn of the wheel simply stay in their bucket until a later turn.
+class HoldExpiryWheel implements AutoCloseable {
+    private final long tickNanos;
+    private final int mask;
+    private final Bucket[] buckets;
+    private final Consumer<SeatHold> expiryHandler;
+    private final long startNanos = System.nanoTime();
+    private final AtomicBoolean started = new AtomicBoolean();
+    //Last tick whose bucket was visited, written under that bucket's lock
+    private volatile long processedTick = -1;
+    private volatile boolean closed;
+    private Thread worker;
+
+    HoldExpiryWheel(long tickNanos, int wheelSize, Consumer<SeatHold> expiryHandler) {
+        if (Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Wheel size must be a power of two");
+        }
+
+        this.tickNanos = tickNanos;
+        this.mask = wheelSize - 1;
+        this.buckets = new Bucket[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new Bucket();
+        }
+        this.expiryHandler = expiryHandler;
+    }
+
+    void schedule(SeatHold hold) {
+        //The worker thread only starts once the first hold is placed
+        if (!started.get() && started.compareAndSet(false, true)) {
+            worker = Thread.ofPlatform().name("seat-hold-expiry").daemon().start(this::run);
+        }
+
+        long deadlineTick = Math.max(0, (hold.getDeadlineNanos() - startNanos) / tickNanos);
+        while (true) {
+            long tick = Math.max(deadlineTick, processedTick + 1);
+            var bucket = buckets[(int) (tick & mask)];
+            bucket.lock.lock();
+            try {
+                //The worker passed this tick while we were getting the lock, the hold would wait a whole turn
+                if (tick > processedTick) {
+                    bucket.add(hold);
+                    return;
+                }
+            } finally {
+                bucket.lock.unlock();
+            }
+        }
+    }
+
+    //Returns false when the hold is not in the wheel anymore, i.e. it already expired
+    boolean cancel(SeatHold hold) {
+        while (true) {
+            var bucket = hold.bucket;
+            if (bucket == null) {
+                return false;
+            }
+
+            bucket.lock.lock();
+            try {
+                if (hold.bucket == bucket) {
+                    bucket.remove(hold);
+                    return true;
+                }
+            } finally {
+                bucket.lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        if (worker != null) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    private void run() {
+        long tick = 0;
+        while (!closed) {
+            long waitNanos = startNanos + (tick + 1) * tickNanos - System.nanoTime();
+            if (waitNanos > 0) {
+                LockSupport.parkNanos(this, waitNanos);
+                continue;
+            }
+
+            var expired = expireBucket(tick++);
+            while (expired != null) {
+                var next = expired.next;
+                expired.next = null;
+                expiryHandler.accept(expired);
+                expired = next;
+            }
+        }
+    }
+
+    //Unlinks the due holds of the tick's bucket and returns them chained through next
+    private SeatHold expireBucket(long tick) {
+        var bucket = buckets[(int) (tick & mask)];
+        long now = System.nanoTime();
+        SeatHold expired = null;
+
+        bucket.lock.lock();
+        try {
+            var hold = bucket.head;
+            while (hold != null) {
+                var next = hold.next;
+                if (hold.getDeadlineNanos() - now <= 0) {
+                    bucket.remove(hold);
+                    hold.next = expired;
+                    expired = hold;
+                }
+                hold = next;
+            }
+            processedTick = tick;
+        } finally {
+            bucket.lock.unlock();
+        }
+
+        return expired;
+    }
+
+    static class Bucket {
+        private final ReentrantLock lock = new ReentrantLock();
+        private SeatHold head;
+
+        private void add(SeatHold hold) {
+            hold.bucket = this;
+            hold.previous = null;
+            hold.next = head;
+            if (head != null) {
+                head.previous = hold;
+            }
+            head = hold;
+        }
+
+        private void remove(SeatHold hold) {
+            if (hold.previous != null) {
+                hold.previous.next = hold.next;
+            } else {
+                head = hold.next;
+            }
+            if (hold.next != null) {
+                hold.next.previous = hold.previous;
+            }
+            hold.bucket = null;
+            hold.previous = null;
+            hold.next = null;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.cloudbees.train.server.hold;
+
+import com.cloudbees.train.server.entity.Booking;
+import com.cloudbees.train.server.entity.RouteJourney;
+import com.cloudbees.train.server.entity.Seat;
+import com.cloudbees.train.server.persistence.TrainInventory;
+import lombok.Getter;
+
+//A seat claimed for a passenger but not booked yet. The hold is its own entry in the expiry wheel, so placing
+//a hold allocates nothing beyond this object.
+@Getter
+public class SeatHold {
+    private final TrainInventory inventory;
+    private final Seat seat;
+    private final RouteJourney journey;
+    //The booking made once the hold is confirmed, its booking id is the hold id
+    private final Booking booking;
+    private final long deadlineNanos;
+    private final long expiresAtEpochMillis;
+
+    //Links of the wheel bucket holding this hold, guarded by the bucket lock
+    HoldExpiryWheel.Bucket bucket;
+    SeatHold previous;
+    SeatHold next;
+
+    public SeatHold(TrainInventory inventory, Seat seat, RouteJourney journey, Booking booking, long holdNanos) {
+        this.inventory = inventory;
+        this.seat = seat;
+        this.journey = journey;
+        this.booking = booking;
+        this.deadlineNanos = System.nanoTime() + holdNanos;
+        this.expiresAtEpochMillis = System.currentTimeMillis() + holdNanos / 1_000_000;
+    }
+
+    public String getHoldId() {
+        return booking.getBookingId();
+    }
+}
@@ -0,0 +1,102 @@
+package com.cloudbees.train.server.hold;
+
+import com.cloudbees.train.server.persistence.TrainInventory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+//Active seat holds by hold id. Whoever removes a hold from the map owns it: confirming, releasing and
+//expiring race on that single remove, so a seat is never both booked and given back.
+public class SeatHoldManager implements AutoCloseable {
+    public static final String HOLD_SECONDS_PROPERTY = "train.hold.seconds";
+    public static final Duration DEFAULT_HOLD_TIME = Duration.ofMinutes(5);
+    public static final Duration MAX_HOLD_TIME = Duration.ofHours(1);
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final int WHEEL_SIZE = 512;
+
+    private final Duration defaultHoldTime;
+    private final Map<String, SeatHold> holds = new ConcurrentHashMap<>();
+    private final HoldExpiryWheel expiryWheel;
+    private volatile Consumer<TrainInventory> releaseListener = inventory -> {
+    };
+
+    public SeatHoldManager(Duration defaultHoldTime) {
+        this(defaultHoldTime, TICK_NANOS);
+    }
+
+    SeatHoldManager(Duration defaultHoldTime, long tickNanos) {
+        this.defaultHoldTime = defaultHoldTime;
+        this.expiryWheel = new HoldExpiryWheel(tickNanos, WHEEL_SIZE, this::expire);
+    }
+
+    public static SeatHoldManager fromSystemProperties() {
+        return new SeatHoldManager(Duration.ofSeconds(Long.getLong(HOLD_SECONDS_PROPERTY,
+                DEFAULT_HOLD_TIME.toSeconds())));
+    }
+
+    //Hold time asked by the client, the default when none is given and never more than the maximum
+    public long getHoldNanos(int holdSeconds) {
+        var holdTime = holdSeconds > 0 ? Duration.ofSeconds(holdSeconds) : defaultHoldTime;
+        return Math.min(holdTime.toNanos(), MAX_HOLD_TIME.toNanos());
+    }
+
+    public void place(SeatHold hold) {
+        holds.put(hold.getHoldId(), hold);
+        expiryWheel.schedule(hold);
+    }
+
+    //Takes the hold out for confirmation, its seat and passenger stay claimed for the booking
+    public Optional<SeatHold> take(String holdId) {
+        var hold = holds.remove(holdId);
+        if (hold == null) {
+            return Optional.empty();
+        }
+
+        expiryWheel.cancel(hold);
+        return Optional.of(hold);
+    }
+
+    public Optional<SeatHold> get(String holdId) {
+        return Optional.ofNullable(holds.get(holdId));
+    }
+
+    //Told about every seat given back by a release or an expiry, e.g. to promote waiting passengers
+    public void setReleaseListener(Consumer<TrainInventory> releaseListener) {
+        this.releaseListener = releaseListener;
+    }
+
+    public boolean release(String holdId) {
+        var hold = take(holdId);
+        hold.ifPresent(this::giveBack);
+
+        return hold.isPresent();
+    }
+
+    public int size() {
+        return holds.size();
+    }
+
+    @Override
+    public void close() {
+        expiryWheel.close();
+    }
+
+    private void expire(SeatHold hold) {
+        if (holds.remove(hold.getHoldId(), hold)) {
+            giveBack(hold);
+        }
+    }
+
+    private void giveBack(SeatHold hold) {
+        var booking = hold.getBooking();
+        var inventory = hold.getInventory();
+        inventory.releaseClaimedSeats(List.of(hold.getSeat()), hold.getJourney());
+        inventory.releasePassenger(booking);
+        releaseListener.accept(inventory);
+    }
+}
@@ -0,0 +1,7 @@
+package com.cloudbees.train.server.journal;
+
+public enum BookingEventType {
+    BOOK,
+    DELETE,
+    MODIFY
+}
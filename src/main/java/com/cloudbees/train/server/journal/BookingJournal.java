@@ -0,0 +1,13 @@
+package com.cloudbees.train.server.journal;
+
+import com.cloudbees.train.server.entity.Booking;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface BookingJournal extends AutoCloseable {
+    //Completes once the event is durable, events are written in the order they were appended
+    CompletableFuture<Void> append(BookingEventType type, Booking booking);
+
+    @Override
+    void close();
+}
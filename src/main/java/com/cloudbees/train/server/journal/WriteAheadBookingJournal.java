@@ -0,0 +1,448 @@
+package com.cloudbees.train.server.journal;
+
+import com.cloudbees.train.TicketReceiptResponse;
+import com.cloudbees.train.server.entity.Booking;
+import com.cloudbees.train.server.entity.TrainDate;
+import com.cloudbees.train.server.mapper.TicketMapper;
+import com.cloudbees.train.server.persistence.TrainSeatManager;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32C;
+
+//Append-only log of booking events. Appends are queued and written by a single writer thread which syncs
+//the log once per batch, so concurrent bookings share one fsync. Every snapshotRecords events the log starts a
+//new generation and a snapshot thread folds the previous snapshot and the logs before it into a new snapshot,
+//which bounds the replay on startup. Snapshots are built from journaled records only, never from live state.
+//
+//Log record: payload length (int) | CRC32C of type and payload (int) | event type (byte) | receipt bytes
+//Snapshot: magic (int) | log generation (long) | booking count (int) | BOOK records
+public class WriteAheadBookingJournal implements BookingJournal {
+    public static final String STORAGE_DIR_PROPERTY = "train.storage.dir";
+    public static final String SNAPSHOT_RECORDS_PROPERTY = "train.storage.snapshot.records";
+    public static final int DEFAULT_SNAPSHOT_RECORDS = 100_000;
+
+    static final String SNAPSHOT_FILE = "bookings.snapshot";
+    private static final String LOG_FILE_PREFIX = "bookings-";
+    private static final String LOG_FILE_SUFFIX = ".wal";
+    private static final int SNAPSHOT_MAGIC = 0x54424B53;
+    private static final int RECORD_HEADER_BYTES = Integer.BYTES + Integer.BYTES + Byte.BYTES;
+    private static final int MAX_RECORD_BYTES = 1 << 20;
+    private static final int MAX_BATCH_SIZE = 1024;
+    //Records keep the receipt wire format, bookings are only turned into receipts when written or read back
+    private static final TicketMapper TICKET_MAPPER = new TicketMapper();
+
+    private final Path storageDir;
+    private final TrainSeatManager trainSeatManager;
+    private final int snapshotRecords;
+    private final BlockingQueue<PendingRecord> pendingRecords = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private final ExecutorService snapshotWriter;
+    private final AtomicLong snapshotFailures = new AtomicLong();
+    private volatile boolean closed;
+    //Set when a failed write could not be cut off the log, later records would be lost behind it on replay
+    private volatile IOException failure;
+
+    //Only touched by the writer thread once the journal is open
+    private long generation;
+    private FileChannel log;
+    private long recordsSinceSnapshot;
+    private CompletableFuture<Void> snapshot = CompletableFuture.completedFuture(null);
+
+    private record PendingRecord(byte[] record, CompletableFuture<Void> written) {
+    }
+
+    //Bookings are only unique within their train-date
+    private record BookingKey(TrainDate trainDate, String bookingId) {
+        static BookingKey of(Booking booking) {
+            return new BookingKey(booking.getTrainDate(), booking.getBookingId());
+        }
+    }
+
+    private WriteAheadBookingJournal(Path storageDir, TrainSeatManager trainSeatManager, int snapshotRecords) {
+        this.storageDir = storageDir;
+        this.trainSeatManager = trainSeatManager;
+        this.snapshotRecords = snapshotRecords;
+        this.writer = new Thread(this::writeRecords, "booking-journal-writer");
+        this.writer.setDaemon(true);
+        this.snapshotWriter = Executors.newSingleThreadExecutor(task -> {
+            var thread = new Thread(task, "booking-journal-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    //Journals to the configured storage directory, or keeps bookings in memory only when none is set
+    public static BookingJournal fromSystemProperties(TrainSeatManager trainSeatManager) {
+        var storageDir = System.getProperty(STORAGE_DIR_PROPERTY);
+        if (storageDir == null) {
+            return new NoOpBookingJournal();
+        }
+
+        return open(Path.of(storageDir), trainSeatManager,
+                Integer.getInteger(SNAPSHOT_RECORDS_PROPERTY, DEFAULT_SNAPSHOT_RECORDS));
+    }
+
+    //Replays the latest snapshot and the logs written after it into the seat manager, then starts a new generation
+    public static WriteAheadBookingJournal open(Path storageDir, TrainSeatManager trainSeatManager,
+                                                int snapshotRecords) {
+        if (snapshotRecords < 1) {
+            throw new IllegalArgumentException("Snapshot interval must be at least one record");
+        }
+
+        var journal = new WriteAheadBookingJournal(storageDir, trainSeatManager, snapshotRecords);
+        try {
+            Files.createDirectories(storageDir);
+            journal.generation = journal.replay();
+            journal.startGeneration();
+            journal.writeSnapshot(journal.generation);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open booking journal in " + storageDir, e);
+        }
+        journal.writer.start();
+
+        return journal;
+    }
+
+    @Override
+    public CompletableFuture<Void> append(BookingEventType type, Booking booking) {
+        var written = new CompletableFuture<Void>();
+        if (closed) {
+            written.completeExceptionally(new IllegalStateException("Booking journal is closed"));
+            return written;
+        }
+        if (failure != null) {
+            written.completeExceptionally(failure);
+            return written;
+        }
+
+        pendingRecords.add(new PendingRecord(encode(type, booking), written));
+        return written;
+    }
+
+    //Writes every event appended so far and lets a running snapshot finish before closing the log
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            writer.join();
+            snapshotWriter.shutdown();
+            snapshotWriter.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            log.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to close booking journal", e);
+        }
+    }
+
+    //Snapshots that could not be written, their logs are kept and folded into the next snapshot
+    public long getSnapshotFailureCount() {
+        return snapshotFailures.get();
+    }
+
+    static byte[] encode(BookingEventType type, Booking booking) {
+        var payload = TICKET_MAPPER.mapBookingToTicketReceipt(booking).toByteArray();
+        var crc = new CRC32C();
+        crc.update(type.ordinal());
+        crc.update(payload);
+
+        return ByteBuffer.allocate(RECORD_HEADER_BYTES + payload.length)
+                .putInt(payload.length)
+                .putInt((int) crc.getValue())
+                .put((byte) type.ordinal())
+                .put(payload)
+                .array();
+    }
+
+    static Path getLogPath(Path storageDir, long generation) {
+        return storageDir.resolve(String.format("%s%020d%s", LOG_FILE_PREFIX, generation, LOG_FILE_SUFFIX));
+    }
+
+    private void writeRecords() {
+        List<PendingRecord> batch = new ArrayList<>(MAX_BATCH_SIZE);
+        while (!closed || !pendingRecords.isEmpty()) {
+            try {
+                var pendingRecord = pendingRecords.poll(100, TimeUnit.MILLISECONDS);
+                if (pendingRecord == null) {
+                    continue;
+                }
+                batch.add(pendingRecord);
+                pendingRecords.drainTo(batch, MAX_BATCH_SIZE - 1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+
+            writeBatch(batch);
+            batch.clear();
+        }
+    }
+
+    //A batch is either written in full or cut off the log again, so the records after it stay replayable. The
+    //callers of a failed batch are told and undo their change.
+    private void writeBatch(List<PendingRecord> batch) {
+        var journalFailure = failure;
+        if (journalFailure != null) {
+            batch.forEach(pendingRecord -> pendingRecord.written().completeExceptionally(journalFailure));
+            return;
+        }
+
+        int batchBytes = 0;
+        for (var pendingRecord : batch) {
+            batchBytes += pendingRecord.record().length;
+        }
+
+        var buffer = ByteBuffer.allocate(batchBytes);
+        batch.forEach(pendingRecord -> buffer.put(pendingRecord.record()));
+        buffer.flip();
+
+        long batchStart = -1;
+        try {
+            batchStart = log.position();
+            while (buffer.hasRemaining()) {
+                log.write(buffer);
+            }
+            log.force(false);
+        } catch (IOException e) {
+            cutOffFailedBatch(batchStart, e);
+            batch.forEach(pendingRecord -> pendingRecord.written().completeExceptionally(e));
+            return;
+        }
+
+        batch.forEach(pendingRecord -> pendingRecord.written().complete(null));
+
+        recordsSinceSnapshot += batch.size();
+        //While a snapshot is being written the log keeps growing, the next batch starts the generation instead
+        if (recordsSinceSnapshot >= snapshotRecords && snapshot.isDone()) {
+            try {
+                startGeneration();
+            } catch (IOException e) {
+                //The current log stays in use, the next batch tries again
+                snapshotFailures.incrementAndGet();
+                return;
+            }
+            long cutOffGeneration = generation;
+            snapshot = CompletableFuture.runAsync(() -> {
+                try {
+                    writeSnapshot(cutOffGeneration);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, snapshotWriter).whenComplete((ignored, error) -> {
+                if (error != null) {
+                    snapshotFailures.incrementAndGet();
+                }
+            });
+        }
+    }
+
+    private void cutOffFailedBatch(long batchStart, IOException writeFailure) {
+        if (batchStart < 0) {
+            failure = writeFailure;
+            return;
+        }
+
+        try {
+            log.truncate(batchStart);
+            log.position(batchStart);
+            log.force(false);
+        } catch (IOException e) {
+            writeFailure.addSuppressed(e);
+            failure = writeFailure;
+        }
+    }
+
+    //Switches appends to a new log generation, the logs before it can then be folded into a snapshot
+    private void startGeneration() throws IOException {
+        long nextGeneration = generation + 1;
+        var nextLog = FileChannel.open(getLogPath(storageDir, nextGeneration), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        if (log != null) {
+            log.close();
+        }
+        log = nextLog;
+        generation = nextGeneration;
+        recordsSinceSnapshot = 0;
+    }
+
+    //Replays the current snapshot and every log before the cut-off into a new snapshot, then drops those logs.
+    //Only logs the writer has moved on from are read, so the writer never waits for the snapshot.
+    private void writeSnapshot(long cutOffGeneration) throws IOException {
+        Map<BookingKey, Booking> journaledBookings = new LinkedHashMap<>();
+        readJournal(cutOffGeneration, (type, booking) -> {
+            if (type == BookingEventType.DELETE) {
+                journaledBookings.remove(BookingKey.of(booking));
+            } else {
+                journaledBookings.put(BookingKey.of(booking), booking);
+            }
+        });
+
+        var bookings = journaledBookings.values();
+        var snapshotFile = storageDir.resolve(SNAPSHOT_FILE);
+        var temporaryFile = storageDir.resolve(SNAPSHOT_FILE + ".tmp");
+
+        try (var channel = FileChannel.open(temporaryFile, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            var output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            output.writeInt(SNAPSHOT_MAGIC);
+            output.writeLong(cutOffGeneration);
+            output.writeInt(bookings.size());
+            for (var booking : bookings) {
+                output.write(encode(BookingEventType.BOOK, booking));
+            }
+            output.flush();
+            channel.force(true);
+        }
+
+        Files.move(temporaryFile, snapshotFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        syncStorageDir();
+        deleteLogsBefore(cutOffGeneration);
+    }
+
+    //Applies the snapshot and every later log, returns the newest log generation seen
+    private long replay() throws IOException {
+        return readJournal(Long.MAX_VALUE, this::apply);
+    }
+
+    //Reads the snapshot and the logs after it up to the given generation, returns the newest log generation seen
+    private long readJournal(long beforeGeneration, BiConsumer<BookingEventType, Booking> consumer)
+            throws IOException {
+        long snapshotGeneration = 0;
+        var snapshotFile = storageDir.resolve(SNAPSHOT_FILE);
+        if (Files.exists(snapshotFile)) {
+            snapshotGeneration = readSnapshot(snapshotFile, consumer);
+        }
+
+        long lastGeneration = snapshotGeneration;
+        for (var logFile : getLogFiles()) {
+            long logGeneration = getGeneration(logFile);
+            if (logGeneration >= snapshotGeneration && logGeneration < beforeGeneration) {
+                readRecords(logFile, consumer);
+                lastGeneration = Math.max(lastGeneration, logGeneration);
+            }
+        }
+
+        return lastGeneration;
+    }
+
+    private static long readSnapshot(Path snapshotFile, BiConsumer<BookingEventType, Booking> consumer)
+            throws IOException {
+        try (var input = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotFile), 1 << 16))) {
+            if (input.readInt() != SNAPSHOT_MAGIC) {
+                throw new IllegalStateException("Booking snapshot " + snapshotFile + " is not a snapshot file");
+            }
+            long logGeneration = input.readLong();
+            int bookings = input.readInt();
+            int restored = readRecords(input, consumer);
+            if (restored != bookings) {
+                throw new IllegalStateException("Booking snapshot " + snapshotFile + " is truncated, expected "
+                        + bookings + " bookings but read " + restored);
+            }
+
+            return logGeneration;
+        }
+    }
+
+    //Stops at the first torn or corrupt record, which can only be the tail of a log interrupted by a crash
+    static int readRecords(Path logFile, BiConsumer<BookingEventType, Booking> consumer)
+            throws IOException {
+        try (var input = new DataInputStream(new BufferedInputStream(Files.newInputStream(logFile), 1 << 16))) {
+            return readRecords(input, consumer);
+        }
+    }
+
+    private static int readRecords(DataInputStream input,
+                                   BiConsumer<BookingEventType, Booking> consumer) throws IOException {
+        var types = BookingEventType.values();
+        int records = 0;
+        try {
+            while (true) {
+                int length = input.readInt();
+                int checksum = input.readInt();
+                int type = input.readUnsignedByte();
+                if (length < 0 || length > MAX_RECORD_BYTES || type >= types.length) {
+                    return records;
+                }
+
+                var payload = new byte[length];
+                input.readFully(payload);
+                var crc = new CRC32C();
+                crc.update(type);
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) {
+                    return records;
+                }
+
+                consumer.accept(types[type],
+                        TICKET_MAPPER.mapTicketReceiptToBooking(TicketReceiptResponse.parseFrom(payload)));
+                records++;
+            }
+        } catch (EOFException e) {
+            return records;
+        }
+    }
+
+    private void apply(BookingEventType type, Booking booking) {
+        if (type == BookingEventType.DELETE) {
+            trainSeatManager.removeBooking(booking);
+        } else {
+            trainSeatManager.restoreBooking(booking);
+        }
+    }
+
+    private List<Path> getLogFiles() throws IOException {
+        try (var files = Files.list(storageDir)) {
+            return files.filter(file -> {
+                var name = file.getFileName().toString();
+                return name.startsWith(LOG_FILE_PREFIX) && name.endsWith(LOG_FILE_SUFFIX);
+            }).sorted().toList();
+        }
+    }
+
+    private static long getGeneration(Path logFile) {
+        var name = logFile.getFileName().toString();
+        return Long.parseLong(name.substring(LOG_FILE_PREFIX.length(), name.length() - LOG_FILE_SUFFIX.length()));
+    }
+
+    private void deleteLogsBefore(long logGeneration) throws IOException {
+        for (var logFile : getLogFiles()) {
+            if (getGeneration(logFile) < logGeneration) {
+                Files.deleteIfExists(logFile);
+            }
+        }
+    }
+
+    //Makes the snapshot rename durable, not every platform can open a directory for syncing
+    private void syncStorageDir() {
+        try (var directory = FileChannel.open(storageDir, StandardOpenOption.READ)) {
+            directory.force(true);
+        } catch (IOException e) {
+            //Best effort
+        }
+    }
+}
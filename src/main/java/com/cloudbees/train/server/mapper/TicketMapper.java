@@ -1,56 +1,84 @@
 package com.cloudbees.train.server.mapper;
 
+import com.cloudbees.train.Passenger;
 import com.cloudbees.train.SectionBooking;
-import com.cloudbees.train.SectionBookingResponse;
 import com.cloudbees.train.TicketPurchaseRequest;
 import com.cloudbees.train.TicketReceiptResponse;
+import com.cloudbees.train.TrainSelector;
+import com.cloudbees.train.server.entity.Booking;
+import com.cloudbees.train.server.entity.RouteJourney;
 import com.cloudbees.train.server.entity.Seat;
+import com.cloudbees.train.server.entity.TrainDate;
 
-import java.util.List;
-
-import static com.cloudbees.train.server.constants.ApplicationConstants.TICKET_COST;
+import java.time.LocalDate;
 
 public class TicketMapper {
-    public TicketReceiptResponse mapTicketReceiptForPurchase(Seat seat, String bookingId,
-                                                             TicketPurchaseRequest ticketPurchaseRequest,
-                                                             double ticketCost) {
-        return TicketReceiptResponse.newBuilder()
-                .setBoardingStation(ticketPurchaseRequest.getBoardingStation())
-                .setDestinationStation(ticketPurchaseRequest.getDestinationStation())
-                .setPassenger(ticketPurchaseRequest.getPassenger())
-                .setPricePaid(ticketCost)
-                .setSection(seat.getSectionName())
-                .setSeatNumber(seat.getSeatNumber())
-                .setBookingId(bookingId)
+    //Stations are taken from the journey resolved against the route, not as the client spelled them
+    public Booking mapBookingForPurchase(Seat seat, String bookingId, TicketPurchaseRequest ticketPurchaseRequest,
+                                         RouteJourney journey, double ticketCost, TrainDate trainDate) {
+        var passenger = ticketPurchaseRequest.getPassenger();
+        return Booking.builder()
+                .bookingId(bookingId)
+                .firstName(passenger.getFirstName())
+                .lastName(passenger.getLastName())
+                .emailAddress(passenger.getEmailAddress())
+                .boardingStation(journey.getFrom())
+                .destinationStation(journey.getTo())
+                .sectionName(seat.getSectionName())
+                .seatNumber(seat.getSeatNumber())
+                .pricePaid(ticketCost)
+                .trainDate(trainDate)
                 .build();
     }
 
-    public TicketReceiptResponse createNewTicketReceiptResponseFromExistOne(TicketReceiptResponse response,
-                                                                            int seatNumber, String sectionName) {
-        return TicketReceiptResponse.newBuilder()
-                .setBookingId(response.getBookingId())
-                .setSeatNumber(seatNumber)
-                .setSection(sectionName)
-                .setPricePaid(response.getPricePaid())
-                .setBoardingStation(response.getBoardingStation())
-                .setDestinationStation(response.getDestinationStation())
-                .setPassenger(response.getPassenger())
+    //Bookings read back from the journal
+    public Booking mapTicketReceiptToBooking(TicketReceiptResponse ticketReceipt) {
+        var passenger = ticketReceipt.getPassenger();
+        return Booking.builder()
+                .bookingId(ticketReceipt.getBookingId())
+                .firstName(passenger.getFirstName())
+                .lastName(passenger.getLastName())
+                .emailAddress(passenger.getEmailAddress())
+                .boardingStation(ticketReceipt.getBoardingStation())
+                .destinationStation(ticketReceipt.getDestinationStation())
+                .sectionName(ticketReceipt.getSection())
+                .seatNumber(ticketReceipt.getSeatNumber())
+                .pricePaid(ticketReceipt.getPricePaid())
+                .trainDate(TrainDate.builder()
+                        .trainNumber(ticketReceipt.getTrain().getTrainNumber())
+                        .serviceDate(LocalDate.parse(ticketReceipt.getTrain().getTravelDate()))
+                        .build())
                 .build();
     }
 
-    public SectionBookingResponse mapTicketReceiptToBookingsDto(List<TicketReceiptResponse> receiptDtos) {
-        var sectionBookings = receiptDtos.stream().map(this::getBookingsDtoFromReceipt).toList();
-        var sectionBookingResponse = SectionBookingResponse.newBuilder();
-        sectionBookingResponse.addAllSectionBooking(sectionBookings);
-
-        return sectionBookingResponse.build();
+    public TicketReceiptResponse mapBookingToTicketReceipt(Booking booking) {
+        return TicketReceiptResponse.newBuilder()
+                .setBookingId(booking.getBookingId())
+                .setSeatNumber(booking.getSeatNumber())
+                .setSection(booking.getSectionName())
+                .setPricePaid(booking.getPricePaid())
+                .setBoardingStation(booking.getBoardingStation())
+                .setDestinationStation(booking.getDestinationStation())
+                .setPassenger(mapBookingToPassenger(booking))
+                .setTrain(TrainSelector.newBuilder()
+                        .setTrainNumber(booking.getTrainDate().getTrainNumber())
+                        .setTravelDate(booking.getTrainDate().getServiceDate().toString()))
+                .build();
     }
 
-    private SectionBooking getBookingsDtoFromReceipt(TicketReceiptResponse ticketReceiptDto) {
+    public SectionBooking mapBookingToSectionBooking(Booking booking) {
         return SectionBooking.newBuilder()
-                .setPassenger(ticketReceiptDto.getPassenger())
-                .setSectionName(ticketReceiptDto.getSection())
-                .setSeatNumber(ticketReceiptDto.getSeatNumber())
+                .setPassenger(mapBookingToPassenger(booking))
+                .setSectionName(booking.getSectionName())
+                .setSeatNumber(booking.getSeatNumber())
+                .build();
+    }
+
+    private static Passenger mapBookingToPassenger(Booking booking) {
+        return Passenger.newBuilder()
+                .setFirstName(booking.getFirstName())
+                .setLastName(booking.getLastName())
+                .setEmailAddress(booking.getEmailAddress())
                 .build();
     }
 }
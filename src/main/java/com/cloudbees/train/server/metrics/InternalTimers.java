@@ -0,0 +1,14 @@
+package com.cloudbees.train.server.metrics;
+
+import java.util.List;
+
+//Timers around steps inside the inventory, shared by every train-date
+public final class InternalTimers {
+    public static final LatencyHistogram SEAT_SEARCH = new LatencyHistogram("seat_search");
+    public static final LatencyHistogram DUPLICATE_PASSENGER_CHECK = new LatencyHistogram("duplicate_passenger_check");
+
+    static final List<LatencyHistogram> ALL = List.of(SEAT_SEARCH, DUPLICATE_PASSENGER_CHECK);
+
+    private InternalTimers() {
+    }
+}
@@ -0,0 +1,45 @@
+package com.cloudbees.train.server.metrics;
+
+import org.HdrHistogram.AtomicHistogram;
+
+import java.util.concurrent.TimeUnit;
+
+//Cumulative latency distribution. Recording is a few atomic increments on a preallocated array, it never
+//allocates and never resizes, so it is safe on request threads.
+public class LatencyHistogram {
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(10);
+    private static final int SIGNIFICANT_DIGITS = 2;
+
+    private final String name;
+    private final AtomicHistogram histogram = new AtomicHistogram(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+
+    public LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void record(long nanos) {
+        //Values beyond the range are clamped rather than rejected, the histogram has a fixed size
+        histogram.recordValue(Math.max(0, Math.min(nanos, HIGHEST_TRACKABLE_NANOS)));
+    }
+
+    public long getCount() {
+        return histogram.getTotalCount();
+    }
+
+    public long getValueAtPercentile(double percentile) {
+        return histogram.getValueAtPercentile(percentile);
+    }
+
+    public long getMaxValue() {
+        return histogram.getMaxValue();
+    }
+
+    //Approximate, the histogram keeps buckets rather than every value
+    public double getSum() {
+        return histogram.getMean() * histogram.getTotalCount();
+    }
+}
@@ -0,0 +1,41 @@
+package com.cloudbees.train.server.metrics;
+
+import io.grpc.Status;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+//Latency and outcome counts of one RPC method
+public class MethodMetrics {
+    private static final Status.Code[] CODES = Status.Code.values();
+
+    private final String methodName;
+    private final LatencyHistogram latency;
+    //Indexed by the numeric value of the status code
+    private final AtomicLongArray statusCounts = new AtomicLongArray(CODES.length);
+
+    MethodMetrics(String methodName) {
+        this.methodName = methodName;
+        this.latency = new LatencyHistogram(methodName);
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    public void record(Status.Code code, long nanos) {
+        latency.record(nanos);
+        statusCounts.incrementAndGet(code.value());
+    }
+
+    public long getStatusCount(Status.Code code) {
+        return statusCounts.get(code.value());
+    }
+
+    static Status.Code[] getCodes() {
+        return CODES;
+    }
+}
@@ -0,0 +1,95 @@
+package com.cloudbees.train.server.metrics;
+
+import com.cloudbees.train.server.config.ServerConfig;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+//Serves the registry on GET /metrics and, when a file is configured, rewrites that file periodically
+public class MetricsExporter implements AutoCloseable {
+    public static final String METRICS_PATH = "/metrics";
+
+    private final MetricsRegistry metricsRegistry;
+    private HttpServer httpServer;
+    private ScheduledExecutorService fileWriter;
+
+    private MetricsExporter(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    public static MetricsExporter start(ServerConfig serverConfig, MetricsRegistry metricsRegistry) {
+        var exporter = new MetricsExporter(metricsRegistry);
+        if (serverConfig.getMetricsPort() >= 0) {
+            exporter.startHttpServer(serverConfig.getMetricsPort());
+        }
+        if (serverConfig.getMetricsFile() != null) {
+            exporter.startFileWriter(Path.of(serverConfig.getMetricsFile()),
+                    serverConfig.getMetricsFileInterval().toMillis());
+        }
+
+        return exporter;
+    }
+
+    public int getHttpPort() {
+        return httpServer == null ? -1 : httpServer.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        if (httpServer != null) {
+            httpServer.stop(0);
+        }
+        if (fileWriter != null) {
+            fileWriter.shutdownNow();
+        }
+    }
+
+    //Written to a temporary file and moved over the target, readers never see a partial file
+    static void writeFile(Path file, String metrics) throws IOException {
+        var tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.writeString(tempFile, metrics, StandardCharsets.UTF_8);
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void startHttpServer(int port) {
+        try {
+            httpServer = HttpServer.create(new InetSocketAddress(port), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to start metrics endpoint on port " + port, e);
+        }
+
+        httpServer.createContext(METRICS_PATH, exchange -> {
+            var body = metricsRegistry.scrape().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (var responseBody = exchange.getResponseBody()) {
+                responseBody.write(body);
+            }
+        });
+        httpServer.start();
+    }
+
+    private void startFileWriter(Path file, long intervalMillis) {
+        fileWriter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "metrics-file-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        fileWriter.scheduleAtFixedRate(() -> {
+            try {
+                writeFile(file, metricsRegistry.scrape());
+            } catch (IOException e) {
+                System.out.println("Unable to write metrics to " + file + ": " + e.getMessage());
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,120 @@
+package com.cloudbees.train.server.metrics;
+
+import com.cloudbees.train.server.persistence.TrainSeatManager;
+import io.grpc.ServerServiceDefinition;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongSupplier;
+
+//Metrics of one server. Gauges are read from the seat manager when metrics are written, never on a request.
+public class MetricsRegistry {
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+
+    private final TrainSeatManager trainSeatManager;
+    private final Map<String, MethodMetrics> methodMetrics = new ConcurrentHashMap<>();
+    private final Map<String, LongSupplier> gauges = new ConcurrentSkipListMap<>();
+
+    public MetricsRegistry(TrainSeatManager trainSeatManager) {
+        this.trainSeatManager = trainSeatManager;
+    }
+
+    //Methods are registered up front so looking one up on a call is a plain map read
+    public void registerMethods(ServerServiceDefinition serviceDefinition) {
+        for (var method : serviceDefinition.getMethods()) {
+            var methodName = method.getMethodDescriptor().getFullMethodName();
+            methodMetrics.putIfAbsent(methodName, new MethodMetrics(methodName));
+        }
+    }
+
+    //Extra values read when metrics are written, e.g. counters kept by caches
+    public void registerGauge(String name, LongSupplier value) {
+        gauges.put(name, value);
+    }
+
+    public MethodMetrics getMethodMetrics(String fullMethodName) {
+        var metrics = methodMetrics.get(fullMethodName);
+        return metrics != null ? metrics : methodMetrics.computeIfAbsent(fullMethodName, MethodMetrics::new);
+    }
+
+    //Prometheus text exposition format
+    public String scrape() {
+        var out = new StringBuilder(4096);
+
+        out.append("# TYPE grpc_server_handling_seconds summary\n");
+        methodMetrics.values().forEach(metrics ->
+                appendSummary(out, "grpc_server_handling_seconds", "method", metrics.getMethodName(),
+                        metrics.getLatency()));
+
+        out.append("# TYPE grpc_server_handled_total counter\n");
+        for (var metrics : methodMetrics.values()) {
+            for (var code : MethodMetrics.getCodes()) {
+                long count = metrics.getStatusCount(code);
+                if (count > 0) {
+                    out.append("grpc_server_handled_total{method=\"").append(escapeLabelValue(metrics.getMethodName()))
+                            .append("\",code=\"").append(code).append("\"} ").append(count).append('\n');
+                }
+            }
+        }
+
+        out.append("# TYPE train_internal_seconds summary\n");
+        InternalTimers.ALL.forEach(timer -> appendSummary(out, "train_internal_seconds", "step", timer.getName(),
+                timer));
+
+        out.append("# TYPE train_seats_free gauge\n");
+        out.append("# TYPE train_seats_booked gauge\n");
+        for (var inventory : trainSeatManager.getTrainInventories()) {
+            var trainDate = inventory.getTrainDate();
+            for (var section : inventory.getTrainSections()) {
+                var labels = "{train=\"" + escapeLabelValue(trainDate.getTrainNumber()) + "\",date=\""
+                        + trainDate.getServiceDate() + "\",section=\"" + escapeLabelValue(section.getSectionName())
+                        + "\"}";
+                //A seat counts as booked when any leg of the route is sold
+                int freeSeats = section.getAvailableSeatCount();
+                out.append("train_seats_free").append(labels).append(' ').append(freeSeats).append('\n');
+                out.append("train_seats_booked").append(labels).append(' ')
+                        .append(section.getSeats().size() - freeSeats).append('\n');
+            }
+        }
+
+        gauges.forEach((name, value) -> out.append("# TYPE ").append(name).append(" gauge\n")
+                .append(name).append(' ').append(value.getAsLong()).append('\n'));
+
+        return out.toString();
+    }
+
+    private static void appendSummary(StringBuilder out, String name, String labelName, String labelValue,
+                                      LatencyHistogram histogram) {
+        var label = labelName + "=\"" + escapeLabelValue(labelValue) + "\"";
+        for (var quantile : QUANTILES) {
+            out.append(name).append('{').append(label).append(",quantile=\"").append(quantile).append("\"} ")
+                    .append(toSeconds(histogram.getValueAtPercentile(quantile * 100))).append('\n');
+        }
+        out.append(name).append("_sum{").append(label).append("} ").append(toSeconds(histogram.getSum()))
+                .append('\n');
+        out.append(name).append("_count{").append(label).append("} ").append(histogram.getCount()).append('\n');
+    }
+
+    //Label values come from layouts, requests and method names, so quotes, backslashes and newlines are escaped
+    static String escapeLabelValue(String value) {
+        if (value.indexOf('\\') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        var escaped = new StringBuilder(value.length() + 8);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> escaped.append("\\\\");
+                case '"' -> escaped.append("\\\"");
+                case '\n' -> escaped.append("\\n");
+                default -> escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static double toSeconds(double nanos) {
+        return nanos / 1_000_000_000d;
+    }
+}
@@ -0,0 +1,33 @@
+package com.cloudbees.train.server.metrics;
+
+import io.grpc.ForwardingServerCall;
+import io.grpc.Metadata;
+import io.grpc.ServerCall;
+import io.grpc.ServerCallHandler;
+import io.grpc.ServerInterceptor;
+import io.grpc.Status;
+
+//Times every call from its start until the server closes it, and counts the status it closed with
+public class MetricsServerInterceptor implements ServerInterceptor {
+    private final MetricsRegistry metricsRegistry;
+
+    public MetricsServerInterceptor(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    @Override
+    public <ReqT, RespT> ServerCall.Listener<ReqT> interceptCall(ServerCall<ReqT, RespT> call, Metadata headers,
+                                                                 ServerCallHandler<ReqT, RespT> next) {
+        var methodMetrics = metricsRegistry.getMethodMetrics(call.getMethodDescriptor().getFullMethodName());
+        long startNanos = System.nanoTime();
+
+        //The forwarding call is the only per-call object, recording itself allocates nothing
+        return next.startCall(new ForwardingServerCall.SimpleForwardingServerCall<>(call) {
+            @Override
+            public void close(Status status, Metadata trailers) {
+                methodMetrics.record(status.getCode(), System.nanoTime() - startNanos);
+                super.close(status, trailers);
+            }
+        }, headers);
+    }
+}
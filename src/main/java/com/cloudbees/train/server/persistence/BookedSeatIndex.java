@@ -0,0 +1,230 @@
+package com.cloudbees.train.server.persistence;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+
+//Seat key held by each booking id. Generated booking ids are decimal longs, so they are kept unboxed in
+//open-addressing tables of long keys and int seat keys, split into segments each behind its own lock. Any other
+//booking id, e.g. one restored from an older journal, falls back to a regular map.
+class BookedSeatIndex {
+    static final int NO_SEAT = 0;
+
+    private static final int SEGMENT_COUNT = 16;
+    //Digits of Long.MAX_VALUE, Snowflake ids reach 19 digits from mid 2031 on
+    private static final int MAX_NUMERIC_DIGITS = 19;
+
+    private final Segment[] segments = new Segment[SEGMENT_COUNT];
+    private final Map<String, Integer> otherBookings = new ConcurrentHashMap<>();
+
+    BookedSeatIndex(int expectedBookings) {
+        int segmentCapacity = Integer.highestOneBit(Math.max(expectedBookings / SEGMENT_COUNT, 4) * 2 - 1) << 1;
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment(segmentCapacity);
+        }
+    }
+
+    //NO_SEAT when the booking holds no seat
+    int get(String bookingId) {
+        long id = parseBookingId(bookingId);
+        if (id < 0) {
+            return otherBookings.getOrDefault(bookingId, NO_SEAT);
+        }
+
+        return getSegment(id).get(id);
+    }
+
+    void put(String bookingId, int seatKey) {
+        long id = parseBookingId(bookingId);
+        if (id < 0) {
+            otherBookings.put(bookingId, seatKey);
+        } else {
+            getSegment(id).put(id, seatKey);
+        }
+    }
+
+    //Removes the booking only while it still holds the given seat
+    boolean remove(String bookingId, int seatKey) {
+        long id = parseBookingId(bookingId);
+        if (id < 0) {
+            return otherBookings.remove(bookingId, seatKey);
+        }
+
+        return getSegment(id).remove(id, seatKey);
+    }
+
+    int size() {
+        int size = otherBookings.size();
+        for (var segment : segments) {
+            size += segment.size();
+        }
+
+        return size;
+    }
+
+    //Only canonical decimal ids map to a long, so two different strings never share a key. -1 otherwise.
+    static long parseBookingId(String bookingId) {
+        int length = bookingId.length();
+        if (length == 0 || length > MAX_NUMERIC_DIGITS || (length > 1 && bookingId.charAt(0) == '0')) {
+            return -1;
+        }
+
+        long id = 0;
+        for (int i = 0; i < length; i++) {
+            int digit = bookingId.charAt(i) - '0';
+            if (digit < 0 || digit > 9 || id > (Long.MAX_VALUE - digit) / 10) {
+                return -1;
+            }
+            id = id * 10 + digit;
+        }
+
+        return id;
+    }
+
+    private Segment getSegment(long id) {
+        return segments[(int) (mix(id) >>> 60)];
+    }
+
+    private static long mix(long id) {
+        long hash = id * 0x9E3779B97F4A7C15L;
+        return hash ^ (hash >>> 32);
+    }
+
+    //Linear probing with backward shift on removal, so there are no deleted markers to skip. A seat key of
+    //NO_SEAT marks a free slot, real seat keys are never zero.
+    private static class Segment {
+        private final StampedLock lock = new StampedLock();
+        private volatile Table table;
+        private int size;
+
+        private Segment(int capacity) {
+            this.table = new Table(capacity);
+        }
+
+        private int get(long id) {
+            long stamp = lock.tryOptimisticRead();
+            int seatKey = table.get(id);
+            if (!lock.validate(stamp)) {
+                stamp = lock.readLock();
+                try {
+                    seatKey = table.get(id);
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+
+            return seatKey;
+        }
+
+        private void put(long id, int seatKey) {
+            long stamp = lock.writeLock();
+            try {
+                if (table.put(id, seatKey)) {
+                    size++;
+                    if (size * 2 > table.seatKeys.length) {
+                        table = table.resize();
+                    }
+                }
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private boolean remove(long id, int seatKey) {
+            long stamp = lock.writeLock();
+            try {
+                if (!table.remove(id, seatKey)) {
+                    return false;
+                }
+                size--;
+                return true;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        private int size() {
+            long stamp = lock.readLock();
+            try {
+                return size;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+    }
+
+    //Keys and seat keys of one segment, replaced as a whole on resize so an optimistic read never mixes two tables
+    private static class Table {
+        private final long[] ids;
+        private final int[] seatKeys;
+        private final int mask;
+
+        private Table(int capacity) {
+            this.ids = new long[capacity];
+            this.seatKeys = new int[capacity];
+            this.mask = capacity - 1;
+        }
+
+        private int get(long id) {
+            for (int slot = getSlot(id); ; slot = (slot + 1) & mask) {
+                int seatKey = seatKeys[slot];
+                if (seatKey == NO_SEAT || ids[slot] == id) {
+                    return seatKey;
+                }
+            }
+        }
+
+        //True when the id was not in the table yet
+        private boolean put(long id, int seatKey) {
+            int slot = getSlot(id);
+            while (seatKeys[slot] != NO_SEAT) {
+                if (ids[slot] == id) {
+                    seatKeys[slot] = seatKey;
+                    return false;
+                }
+                slot = (slot + 1) & mask;
+            }
+            ids[slot] = id;
+            seatKeys[slot] = seatKey;
+            return true;
+        }
+
+        private boolean remove(long id, int seatKey) {
+            int slot = getSlot(id);
+            while (seatKeys[slot] != NO_SEAT && ids[slot] != id) {
+                slot = (slot + 1) & mask;
+            }
+            if (seatKeys[slot] != seatKey || seatKey == NO_SEAT) {
+                return false;
+            }
+
+            //Shift later entries of the probe run back into the gap
+            int gap = slot;
+            for (int next = (gap + 1) & mask; seatKeys[next] != NO_SEAT; next = (next + 1) & mask) {
+                int home = getSlot(ids[next]);
+                if (((next - home) & mask) >= ((next - gap) & mask)) {
+                    ids[gap] = ids[next];
+                    seatKeys[gap] = seatKeys[next];
+                    gap = next;
+                }
+            }
+            seatKeys[gap] = NO_SEAT;
+            return true;
+        }
+
+        private Table resize() {
+            var resized = new Table(seatKeys.length * 2);
+            for (int slot = 0; slot < seatKeys.length; slot++) {
+                if (seatKeys[slot] != NO_SEAT) {
+                    resized.put(ids[slot], seatKeys[slot]);
+                }
+            }
+
+            return resized;
+        }
+
+        private int getSlot(long id) {
+            return (int) mix(id) & mask;
+        }
+    }
+}
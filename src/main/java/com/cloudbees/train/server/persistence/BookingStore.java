@@ -0,0 +1,24 @@
+package com.cloudbees.train.server.persistence;
+
+import com.cloudbees.train.server.entity.Booking;
+
+import java.util.function.Consumer;
+
+//Bookings of one train-date keyed by booking id, get and remove return null when the booking does not exist
+public interface BookingStore extends AutoCloseable {
+    Booking get(String bookingId);
+
+    void put(String bookingId, Booking booking);
+
+    Booking remove(String bookingId);
+
+    boolean replace(String bookingId, Booking booking);
+
+    int size();
+
+    void forEach(Consumer<Booking> action);
+
+    @Override
+    default void close() {
+    }
+}
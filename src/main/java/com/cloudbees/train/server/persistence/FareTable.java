@@ -0,0 +1,117 @@
+package com.cloudbees.train.server.persistence;
+
+import com.cloudbees.train.server.entity.Route;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public class FareTable {
+    public static final String ROUTES_FILE_PROPERTY = "train.routes.file";
+    private static final String DEFAULT_ROUTES_RESOURCE = "/routes.csv";
+
+    //Fares are priced per route, a train resolves its journeys against its own route's stop index
+    private final Map<String, Route> routes;
+
+    public FareTable(List<Route> routes) {
+        this.routes = new LinkedHashMap<>();
+        for (var route : routes) {
+            this.routes.put(route.getRouteId(), route);
+        }
+    }
+
+    public static FareTable load() {
+        var routesFile = System.getProperty(ROUTES_FILE_PROPERTY);
+
+        try (var reader = routesFile == null
+                ? new BufferedReader(new InputStreamReader(
+                FareTable.class.getResourceAsStream(DEFAULT_ROUTES_RESOURCE), StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Path.of(routesFile), StandardCharsets.UTF_8)) {
+            return new FareTable(parseRoutes(reader));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to load train routes", e);
+        }
+    }
+
+    //Each line is "routeId,station,fare from previous stop", stops of a route are listed in travel order. A route
+    //has from 2 stops up to one more than the legs a seat can track, so a bad file fails startup, not a booking.
+    static List<Route> parseRoutes(BufferedReader reader) throws IOException {
+        Map<String, List<String>> routeStations = new LinkedHashMap<>();
+        Map<String, List<Double>> routeLegFares = new HashMap<>();
+        Map<String, Integer> routeLines = new HashMap<>();
+
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            var columns = line.split(",");
+            if (columns.length != 3) {
+                throw new IllegalStateException("Invalid route definition at line " + lineNumber + ": " + line);
+            }
+
+            var routeId = columns[0].trim();
+            var stations = routeStations.computeIfAbsent(routeId, key -> new ArrayList<>());
+            if (stations.size() > TrainSection.MAX_SEGMENTS) {
+                throw new IllegalStateException("Route " + routeId + " has more than " + (TrainSection.MAX_SEGMENTS + 1)
+                        + " stops at line " + lineNumber);
+            }
+            stations.add(columns[1].trim());
+            routeLegFares.computeIfAbsent(routeId, key -> new ArrayList<>()).add(parseLegFare(columns[2], lineNumber));
+            routeLines.putIfAbsent(routeId, lineNumber);
+        }
+
+        List<Route> routes = new ArrayList<>();
+        routeStations.forEach((routeId, stations) -> {
+            if (stations.size() < 2) {
+                throw new IllegalStateException("Route " + routeId + " needs at least 2 stops at line "
+                        + routeLines.get(routeId));
+            }
+
+            var legFares = routeLegFares.get(routeId);
+            var cumulativeFares = new double[legFares.size()];
+            for (int stop = 1; stop < cumulativeFares.length; stop++) {
+                cumulativeFares[stop] = cumulativeFares[stop - 1] + legFares.get(stop);
+            }
+
+            routes.add(Route.builder()
+                    .routeId(routeId)
+                    .stations(List.copyOf(stations))
+                    .cumulativeFares(cumulativeFares)
+                    .build());
+        });
+
+        return routes;
+    }
+
+    private static double parseLegFare(String column, int lineNumber) {
+        try {
+            double legFare = Double.parseDouble(column.trim());
+            if (!(legFare >= 0) || Double.isInfinite(legFare)) {
+                throw new IllegalStateException("Fare must be a finite number not below 0 at line " + lineNumber);
+            }
+
+            return legFare;
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("Invalid fare at line " + lineNumber + ": " + column, e);
+        }
+    }
+
+    public Optional<Route> getRoute(String routeId) {
+        return Optional.ofNullable(routes.get(routeId));
+    }
+}
@@ -0,0 +1,41 @@
+package com.cloudbees.train.server.persistence;
+
+import com.cloudbees.train.server.entity.Booking;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+public class HeapBookingStore implements BookingStore {
+    private final Map<String, Booking> seatBookings = new ConcurrentHashMap<>();
+
+    @Override
+    public Booking get(String bookingId) {
+        return seatBookings.get(bookingId);
+    }
+
+    @Override
+    public void put(String bookingId, Booking booking) {
+        seatBookings.put(bookingId, booking);
+    }
+
+    @Override
+    public Booking remove(String bookingId) {
+        return seatBookings.remove(bookingId);
+    }
+
+    @Override
+    public boolean replace(String bookingId, Booking booking) {
+        return seatBookings.replace(bookingId, booking) != null;
+    }
+
+    @Override
+    public int size() {
+        return seatBookings.size();
+    }
+
+    @Override
+    public void forEach(Consumer<Booking> action) {
+        seatBookings.values().forEach(action);
+    }
+}
@@ -0,0 +1,410 @@
+package com.cloudbees.train.server.persistence;
+
+import com.cloudbees.train.server.entity.Booking;
+import com.cloudbees.train.server.entity.TrainDate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+
+//Bookings kept as fixed-layout records in a memory-mapped file, with an open-addressing index from booking id to
+//record in the same file. Nothing is deserialized when the file is opened, bookings are only built on get.
+//Bookings with a field longer than its slot stay on the heap.
+//
+//File: header | capacity records of RECORD_BYTES | index of indexSlots ints (0 empty, -1 deleted, record + 1)
+public class MappedBookingStore implements BookingStore {
+    //Fields below take 464 bytes, the rest is kept free for new fields
+    static final int RECORD_BYTES = 512;
+
+    private static final int MAGIC = 0x54424D53;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 64;
+    private static final int EMPTY_SLOT = 0;
+    private static final int DELETED_SLOT = -1;
+    private static final byte FREE_RECORD = 0;
+    private static final byte USED_RECORD = 1;
+
+    //Record layout, string fields hold a length byte followed by UTF-8 bytes
+    private static final int STATE = 0;
+    private static final int SEAT_NUMBER = 4;
+    private static final int PRICE_PAID = 8;
+    private static final int BOOKING_ID = 16;
+    private static final int FIRST_NAME = BOOKING_ID + 32;
+    private static final int LAST_NAME = FIRST_NAME + 64;
+    private static final int EMAIL_ADDRESS = LAST_NAME + 64;
+    private static final int BOARDING_STATION = EMAIL_ADDRESS + 128;
+    private static final int DESTINATION_STATION = BOARDING_STATION + 48;
+    private static final int SECTION = DESTINATION_STATION + 48;
+    private static final int TRAIN_NUMBER = SECTION + 32;
+    private static final int TRAVEL_DATE = TRAIN_NUMBER + 16;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final int indexSlots;
+    private final long indexOffset;
+    private final StampedLock lock = new StampedLock();
+    private final Map<String, Booking> overflowBookings = new ConcurrentHashMap<>();
+    //Free record numbers, rebuilt from the record states when the file is opened
+    private final int[] freeRecords;
+    private int freeRecordCount;
+    private int deletedSlots;
+    //Every record of the file is for the same train-date, read bookings share the last one built
+    private volatile ReadTrainDate lastTrainDate;
+
+    private MappedBookingStore(FileChannel channel, MappedByteBuffer buffer, int capacity, int indexSlots) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.indexSlots = indexSlots;
+        this.indexOffset = HEADER_BYTES + (long) capacity * RECORD_BYTES;
+        this.freeRecords = new int[capacity];
+
+        for (int record = capacity - 1; record >= 0; record--) {
+            if (buffer.get(getRecordOffset(record) + STATE) == FREE_RECORD) {
+                freeRecords[freeRecordCount++] = record;
+            }
+        }
+        for (int slot = 0; slot < indexSlots; slot++) {
+            if (getSlot(slot) == DELETED_SLOT) {
+                deletedSlots++;
+            }
+        }
+    }
+
+    //Maps the store file, creating it for the given number of records when it does not exist yet
+    public static MappedBookingStore open(Path file, int capacity) {
+        int indexSlots = Integer.highestOneBit(Math.max(capacity, 1) * 4 - 1) << 1;
+        long fileBytes = HEADER_BYTES + (long) capacity * RECORD_BYTES + (long) indexSlots * Integer.BYTES;
+
+        try {
+            boolean created = Files.notExists(file);
+            var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            var buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, fileBytes);
+
+            if (created) {
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(4, VERSION);
+                buffer.putInt(8, capacity);
+                buffer.putInt(12, indexSlots);
+            } else if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION
+                    || buffer.getInt(8) != capacity || buffer.getInt(12) != indexSlots) {
+                channel.close();
+                throw new IllegalStateException("Booking store " + file + " does not match a capacity of "
+                        + capacity + " records");
+            }
+
+            return new MappedBookingStore(channel, buffer, capacity, indexSlots);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to map booking store " + file, e);
+        }
+    }
+
+    //The optimistic read only copies the record bytes, a record or index slot torn by a concurrent write is
+    //thrown away once the stamp fails to validate and the booking is only built from a copy known to be whole
+    @Override
+    public Booking get(String bookingId) {
+        long stamp = lock.tryOptimisticRead();
+        var recordBytes = copyRecord(bookingId);
+        if (!lock.validate(stamp)) {
+            stamp = lock.readLock();
+            try {
+                recordBytes = copyRecord(bookingId);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        return recordBytes != null ? readRecord(ByteBuffer.wrap(recordBytes), 0) : overflowBookings.get(bookingId);
+    }
+
+    @Override
+    public void put(String bookingId, Booking booking) {
+        long stamp = lock.writeLock();
+        try {
+            writeBooking(bookingId, booking);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public Booking remove(String bookingId) {
+        long stamp = lock.writeLock();
+        try {
+            int record = findRecord(bookingId);
+            if (record < 0) {
+                return overflowBookings.remove(bookingId);
+            }
+
+            var booking = readRecord(record);
+            deleteRecord(bookingId, record);
+            return booking;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public boolean replace(String bookingId, Booking booking) {
+        long stamp = lock.writeLock();
+        try {
+            if (findRecord(bookingId) < 0 && !overflowBookings.containsKey(bookingId)) {
+                return false;
+            }
+
+            writeBooking(bookingId, booking);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return capacity - freeRecordCount + overflowBookings.size();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public void forEach(Consumer<Booking> action) {
+        for (int record = 0; record < capacity; record++) {
+            Booking booking = null;
+            long stamp = lock.readLock();
+            try {
+                if (buffer.get(getRecordOffset(record) + STATE) == USED_RECORD) {
+                    booking = readRecord(record);
+                }
+            } finally {
+                lock.unlockRead(stamp);
+            }
+            if (booking != null) {
+                action.accept(booking);
+            }
+        }
+        overflowBookings.values().forEach(action);
+    }
+
+    @Override
+    public void close() {
+        long stamp = lock.writeLock();
+        try {
+            buffer.force();
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to close booking store", e);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private void writeBooking(String bookingId, Booking booking) {
+        int record = findRecord(bookingId);
+        if (!fits(booking)) {
+            if (record >= 0) {
+                deleteRecord(bookingId, record);
+            }
+            overflowBookings.put(bookingId, booking);
+            return;
+        }
+
+        overflowBookings.remove(bookingId);
+        if (record < 0) {
+            if (freeRecordCount == 0) {
+                throw new IllegalStateException("Booking store is full with " + capacity + " bookings");
+            }
+            record = freeRecords[--freeRecordCount];
+            writeRecord(record, booking);
+            insertSlot(bookingId, record);
+        } else {
+            writeRecord(record, booking);
+        }
+    }
+
+    private byte[] copyRecord(String bookingId) {
+        int record = findRecord(bookingId);
+        if (record < 0) {
+            return null;
+        }
+
+        var recordBytes = new byte[RECORD_BYTES];
+        buffer.get(getRecordOffset(record), recordBytes);
+        return recordBytes;
+    }
+
+    private int findRecord(String bookingId) {
+        int mask = indexSlots - 1;
+        int slot = hash(bookingId) & mask;
+        for (int probe = 0; probe < indexSlots; probe++, slot = (slot + 1) & mask) {
+            int entry = getSlot(slot);
+            //An entry out of range is only seen by an optimistic read racing a write, which is retried
+            if (entry == EMPTY_SLOT || entry < DELETED_SLOT || entry > capacity) {
+                return -1;
+            }
+            if (entry != DELETED_SLOT && readString(getRecordOffset(entry - 1) + BOOKING_ID, 32).equals(bookingId)) {
+                return entry - 1;
+            }
+        }
+
+        return -1;
+    }
+
+    private void insertSlot(String bookingId, int record) {
+        int mask = indexSlots - 1;
+        int slot = hash(bookingId) & mask;
+        while (getSlot(slot) > EMPTY_SLOT) {
+            slot = (slot + 1) & mask;
+        }
+        if (getSlot(slot) == DELETED_SLOT) {
+            deletedSlots--;
+        }
+        setSlot(slot, record + 1);
+    }
+
+    private void deleteRecord(String bookingId, int record) {
+        int mask = indexSlots - 1;
+        int slot = hash(bookingId) & mask;
+        while (getSlot(slot) != record + 1) {
+            slot = (slot + 1) & mask;
+        }
+        setSlot(slot, DELETED_SLOT);
+        deletedSlots++;
+
+        buffer.put(getRecordOffset(record) + STATE, FREE_RECORD);
+        freeRecords[freeRecordCount++] = record;
+
+        //Deleted slots lengthen every probe, rebuild the index once they take a quarter of it
+        if (deletedSlots > indexSlots / 4) {
+            rebuildIndex();
+        }
+    }
+
+    private void rebuildIndex() {
+        for (int slot = 0; slot < indexSlots; slot++) {
+            setSlot(slot, EMPTY_SLOT);
+        }
+        deletedSlots = 0;
+        for (int record = 0; record < capacity; record++) {
+            int offset = getRecordOffset(record);
+            if (buffer.get(offset + STATE) == USED_RECORD) {
+                insertSlot(readString(offset + BOOKING_ID, 32), record);
+            }
+        }
+    }
+
+    private void writeRecord(int record, Booking booking) {
+        int offset = getRecordOffset(record);
+        buffer.putInt(offset + SEAT_NUMBER, booking.getSeatNumber());
+        buffer.putDouble(offset + PRICE_PAID, booking.getPricePaid());
+        writeString(offset + BOOKING_ID, 32, booking.getBookingId());
+        writeString(offset + FIRST_NAME, 64, booking.getFirstName());
+        writeString(offset + LAST_NAME, 64, booking.getLastName());
+        writeString(offset + EMAIL_ADDRESS, 128, booking.getEmailAddress());
+        writeString(offset + BOARDING_STATION, 48, booking.getBoardingStation());
+        writeString(offset + DESTINATION_STATION, 48, booking.getDestinationStation());
+        writeString(offset + SECTION, 32, booking.getSectionName());
+        writeString(offset + TRAIN_NUMBER, 16, booking.getTrainDate().getTrainNumber());
+        writeString(offset + TRAVEL_DATE, 16, booking.getTrainDate().getServiceDate().toString());
+        buffer.put(offset + STATE, USED_RECORD);
+    }
+
+    private Booking readRecord(int record) {
+        return readRecord(buffer, getRecordOffset(record));
+    }
+
+    private Booking readRecord(ByteBuffer source, int offset) {
+        return Booking.builder()
+                .bookingId(readString(source, offset + BOOKING_ID, 32))
+                .firstName(readString(source, offset + FIRST_NAME, 64))
+                .lastName(readString(source, offset + LAST_NAME, 64))
+                .emailAddress(readString(source, offset + EMAIL_ADDRESS, 128))
+                .boardingStation(readString(source, offset + BOARDING_STATION, 48))
+                .destinationStation(readString(source, offset + DESTINATION_STATION, 48))
+                .sectionName(readString(source, offset + SECTION, 32))
+                .seatNumber(source.getInt(offset + SEAT_NUMBER))
+                .pricePaid(source.getDouble(offset + PRICE_PAID))
+                .trainDate(getTrainDate(readString(source, offset + TRAIN_NUMBER, 16),
+                        readString(source, offset + TRAVEL_DATE, 16)))
+                .build();
+    }
+
+    private TrainDate getTrainDate(String trainNumber, String travelDate) {
+        var readTrainDate = lastTrainDate;
+        if (readTrainDate != null && readTrainDate.travelDate().equals(travelDate)
+                && readTrainDate.trainDate().getTrainNumber().equals(trainNumber)) {
+            return readTrainDate.trainDate();
+        }
+
+        var trainDate = TrainDate.builder()
+                .trainNumber(trainNumber)
+                .serviceDate(LocalDate.parse(travelDate))
+                .build();
+        lastTrainDate = new ReadTrainDate(travelDate, trainDate);
+        return trainDate;
+    }
+
+    private static boolean fits(Booking booking) {
+        return fits(booking.getBookingId(), 32) && fits(booking.getFirstName(), 64)
+                && fits(booking.getLastName(), 64) && fits(booking.getEmailAddress(), 128)
+                && fits(booking.getBoardingStation(), 48) && fits(booking.getDestinationStation(), 48)
+                && fits(booking.getSectionName(), 32) && fits(booking.getTrainDate().getTrainNumber(), 16);
+    }
+
+    private static boolean fits(String value, int fieldBytes) {
+        return value.getBytes(StandardCharsets.UTF_8).length < fieldBytes;
+    }
+
+    private void writeString(int offset, int fieldBytes, String value) {
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.put(offset, (byte) bytes.length);
+        buffer.put(offset + 1, bytes);
+    }
+
+    //Lengths are clamped so a record read while it is being rewritten never overruns its field
+    private String readString(int offset, int fieldBytes) {
+        return readString(buffer, offset, fieldBytes);
+    }
+
+    private static String readString(ByteBuffer source, int offset, int fieldBytes) {
+        int length = Math.min(Byte.toUnsignedInt(source.get(offset)), fieldBytes - 1);
+        var bytes = new byte[length];
+        source.get(offset + 1, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int getRecordOffset(int record) {
+        return HEADER_BYTES + record * RECORD_BYTES;
+    }
+
+    private int getSlot(int slot) {
+        return buffer.getInt((int) (indexOffset + (long) slot * Integer.BYTES));
+    }
+
+    private void setSlot(int slot, int entry) {
+        buffer.putInt((int) (indexOffset + (long) slot * Integer.BYTES), entry);
+    }
+
+    private static int hash(String bookingId) {
+        int hash = bookingId.hashCode();
+        return (hash ^ (hash >>> 16)) * 0x9E3779B9;
+    }
+
+    private record ReadTrainDate(String travelDate, TrainDate trainDate) {
+    }
+}
@@ -0,0 +1,269 @@
+package com.cloudbees.train.server.persistence;
+
+import com.cloudbees.train.Passenger;
+import com.cloudbees.train.server.entity.Booking;
+import com.cloudbees.train.server.entity.Route;
+import com.cloudbees.train.server.entity.RouteJourney;
+import com.cloudbees.train.server.entity.Seat;
+import com.cloudbees.train.server.entity.SeatClass;
+import com.cloudbees.train.server.entity.TrainDate;
+import com.cloudbees.train.server.entity.TrainLayout;
+import com.cloudbees.train.server.metrics.InternalTimers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+//Seats and bookings of one train on one service date. Every train-date owns its own structures so bookings
+//on different trains never contend with each other.
+public class TrainInventory {
+    public static final int TOTAL_SEATS = 90;
+    //Requests have no class selection yet, so seats are only offered from coaches of this class and no passenger
+    //is sold another class, at another fare, without asking for it
+    public static final SeatClass DEFAULT_SEAT_CLASS = SeatClass.STANDARD;
+
+    private final TrainDate trainDate;
+    private final Route route;
+    private final List<TrainSection> trainSections;
+    private final List<TrainSection> defaultClassSections;
+    private final BookedSeatIndex bookedSeats;
+    private final BookingStore seatBookings;
+    private final Map<String, String> passengerBookings = new ConcurrentHashMap<>();
+
+    public TrainInventory(TrainDate trainDate, Route route) {
+        this(trainDate, route, new HeapBookingStore());
+    }
+
+    //Seats held by bookings already in the store are claimed again, so a mapped store needs no journal replay
+    public TrainInventory(TrainDate trainDate, Route route, BookingStore seatBookings) {
+        this(trainDate, route, seatBookings, TOTAL_SEATS);
+    }
+
+    public TrainInventory(TrainDate trainDate, Route route, BookingStore seatBookings, int totalSeats) {
+        this(trainDate, route, seatBookings, TrainLayout.standard(totalSeats));
+    }
+
+    public TrainInventory(TrainDate trainDate, Route route, BookingStore seatBookings, TrainLayout layout) {
+        this.trainDate = trainDate;
+        this.route = route;
+        this.seatBookings = seatBookings;
+        this.bookedSeats = new BookedSeatIndex(getBookingCapacity(route, layout.getTotalSeats()));
+        //One section per coach of the layout, seats are tracked per leg of the route
+        int segmentCount = route.getStations().size() - 1;
+        List<TrainSection> sections = new ArrayList<>(layout.getCoaches().size());
+        for (var coach : layout.getCoaches()) {
+            sections.add(new TrainSection(sections.size() + 1, coach, segmentCount));
+        }
+        this.trainSections = List.copyOf(sections);
+        this.defaultClassSections = trainSections.stream()
+                .filter(section -> section.getCoach().getSeatClass() == DEFAULT_SEAT_CLASS)
+                .toList();
+
+        seatBookings.forEach(this::claimBookedSeat);
+    }
+
+    //A booking holds at least one leg of one seat, so this bounds the bookings open at the same time
+    public static int getBookingCapacity(Route route) {
+        return getBookingCapacity(route, TOTAL_SEATS);
+    }
+
+    public static int getBookingCapacity(Route route, int totalSeats) {
+        return totalSeats * (route.getStations().size() - 1);
+    }
+
+    public TrainDate getTrainDate() {
+        return trainDate;
+    }
+
+    public Route getRoute() {
+        return route;
+    }
+
+    public List<TrainSection> getTrainSections() {
+        return trainSections;
+    }
+
+    public Optional<TrainSection> getTrainSection(int sectionId) {
+        if (sectionId < 1 || sectionId > trainSections.size()) {
+            return Optional.empty();
+        }
+
+        return Optional.of(trainSections.get(sectionId - 1));
+    }
+
+    public List<String> getSectionBookingIds(int sectionId) {
+        return getTrainSection(sectionId).map(TrainSection::getBookingIds).orElse(List.of());
+    }
+
+    public BookingStore getSeatBookings() {
+        return seatBookings;
+    }
+
+    //Only journeys between stops of this train's route can be sold. Callers resolve the stations once per request
+    //and pass the journey to every other call.
+    public Optional<RouteJourney> getJourney(String from, String to) {
+        return route.getJourney(from, to);
+    }
+
+    //Claims a seat of the default class free on every leg of the journey, legs outside the journey may be sold
+    //to others
+    public Optional<Seat> claimAvailableSeat(RouteJourney journey) {
+        int fromStop = journey.getFromStop();
+        int toStop = journey.getToStop();
+        long startNanos = System.nanoTime();
+        try {
+            for (var section : defaultClassSections) {
+                var availableSeat = section.claimAvailableSeat(fromStop, toStop);
+                if (availableSeat.isPresent()) {
+                    return availableSeat;
+                }
+            }
+
+            return Optional.empty();
+        } finally {
+            InternalTimers.SEAT_SEARCH.record(System.nanoTime() - startNanos);
+        }
+    }
+
+    //Claims seats of the default class for a group in one pass, side by side in one section when the train still
+    //has such a run. Returns fewer seats than asked only when the train has no more such seats for the journey.
+    public List<Seat> claimAvailableSeats(RouteJourney journey, int count) {
+        if (count < 1) {
+            return List.of();
+        }
+
+        int fromStop = journey.getFromStop();
+        int toStop = journey.getToStop();
+
+        long startNanos = System.nanoTime();
+        try {
+            for (var section : defaultClassSections) {
+                var adjacentSeats = section.claimAdjacentSeats(fromStop, toStop, count);
+                if (!adjacentSeats.isEmpty()) {
+                    return adjacentSeats;
+                }
+            }
+
+            List<Seat> claimedSeats = new ArrayList<>(count);
+            for (var section : defaultClassSections) {
+                if (claimedSeats.size() < count) {
+                    section.claimAvailableSeats(fromStop, toStop, count - claimedSeats.size(), claimedSeats);
+                }
+            }
+
+            return claimedSeats;
+        } finally {
+            InternalTimers.SEAT_SEARCH.record(System.nanoTime() - startNanos);
+        }
+    }
+
+    //Gives back seats claimed for a journey but never occupied, e.g. when a group booking is abandoned
+    public void releaseClaimedSeats(List<Seat> seats, RouteJourney journey) {
+        for (var seat : seats) {
+            getTrainSection(seat).releaseClaim(seat, journey.getFromStop(), journey.getToStop());
+        }
+    }
+
+    public Optional<Seat> getBookedSeat(String bookingId) {
+        int seatKey = bookedSeats.get(bookingId);
+        if (seatKey == BookedSeatIndex.NO_SEAT) {
+            return Optional.empty();
+        }
+
+        return Optional.of(trainSections.get(Seat.getSectionId(seatKey) - 1).getSeat(Seat.getSeatNumber(seatKey)));
+    }
+
+    public void occupySeat(Seat seat, RouteJourney journey, String bookingId) {
+        getTrainSection(seat).occupy(seat, journey.getFromStop(), journey.getToStop(), bookingId);
+        bookedSeats.put(bookingId, seat.getSeatKey());
+    }
+
+    public void releaseSeat(Seat seat, String bookingId) {
+        if (getTrainSection(seat).release(seat, bookingId)) {
+            bookedSeats.remove(bookingId, seat.getSeatKey());
+        }
+    }
+
+    //Re-applies a booking read from the journal, moving it off any seat it held before
+    public void restoreBooking(Booking booking) {
+        removeBooking(booking.getBookingId());
+        seatBookings.put(booking.getBookingId(), claimBookedSeat(booking));
+    }
+
+    public void removeBooking(String bookingId) {
+        var booking = seatBookings.remove(bookingId);
+        if (booking == null) {
+            return;
+        }
+
+        getBookedSeat(bookingId).ifPresent(seat -> releaseSeat(seat, bookingId));
+        releasePassenger(booking);
+    }
+
+    public boolean reservePassenger(Passenger passenger, String bookingId) {
+        long startNanos = System.nanoTime();
+        try {
+            return passengerBookings.putIfAbsent(getPassengerKey(passenger), bookingId) == null;
+        } finally {
+            InternalTimers.DUPLICATE_PASSENGER_CHECK.record(System.nanoTime() - startNanos);
+        }
+    }
+
+    public void releasePassenger(Passenger passenger, String bookingId) {
+        passengerBookings.remove(getPassengerKey(passenger), bookingId);
+    }
+
+    public void releasePassenger(Booking booking) {
+        passengerBookings.remove(getPassengerKey(booking.getEmailAddress(), booking.getFirstName(),
+                booking.getLastName()), booking.getBookingId());
+    }
+
+    //Returns the booking as the inventory keeps it, with the route's station names, the section's name and the
+    //train date of this inventory rather than the copies read with it
+    private Booking claimBookedSeat(Booking booking) {
+        var section = trainSections.stream()
+                .filter(trainSection -> trainSection.getSectionName().equals(booking.getSectionName()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Unknown section " + booking.getSectionName()
+                        + " for booking " + booking.getBookingId()));
+        var seat = section.getSeat(booking.getSeatNumber());
+        var journey = route.getJourney(booking.getBoardingStation(), booking.getDestinationStation())
+                .orElseThrow(() -> new IllegalStateException("Journey of booking " + booking.getBookingId()
+                        + " is not on route " + route.getRouteId()));
+        int fromStop = journey.getFromStop();
+        int toStop = journey.getToStop();
+
+        if (!section.claimSeat(seat, fromStop, toStop)) {
+            throw new IllegalStateException("Seat " + booking.getSeatNumber() + " of " + booking.getSectionName()
+                    + " is already taken, cannot restore booking " + booking.getBookingId());
+        }
+
+        section.occupy(seat, fromStop, toStop, booking.getBookingId());
+        bookedSeats.put(booking.getBookingId(), seat.getSeatKey());
+        passengerBookings.put(getPassengerKey(booking.getEmailAddress(), booking.getFirstName(),
+                booking.getLastName()), booking.getBookingId());
+
+        return booking.toBuilder()
+                .boardingStation(journey.getFrom())
+                .destinationStation(journey.getTo())
+                .sectionName(section.getSectionName())
+                .trainDate(trainDate)
+                .build();
+    }
+
+    //Same passenger is identified by case-insensitive email address, first name and last name
+    private static String getPassengerKey(Passenger passenger) {
+        return getPassengerKey(passenger.getEmailAddress(), passenger.getFirstName(), passenger.getLastName());
+    }
+
+    private static String getPassengerKey(String emailAddress, String firstName, String lastName) {
+        return (emailAddress + '\n' + firstName + '\n' + lastName).toLowerCase(Locale.ROOT);
+    }
+
+    private TrainSection getTrainSection(Seat seat) {
+        return trainSections.get(seat.getSectionId() - 1);
+    }
+}
@@ -0,0 +1,129 @@
+package com.cloudbees.train.server.persistence;
+
+import com.cloudbees.train.server.entity.Coach;
+import com.cloudbees.train.server.entity.SeatClass;
+import com.cloudbees.train.server.entity.TrainLayout;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public class TrainLayouts {
+    public static final String LAYOUTS_FILE_PROPERTY = "train.layouts.file";
+    private static final String DEFAULT_LAYOUTS_RESOURCE = "/layouts.csv";
+
+    //Layouts by id, in file order
+    private final Map<String, TrainLayout> layouts;
+
+    public TrainLayouts(List<TrainLayout> layouts) {
+        if (layouts.isEmpty()) {
+            throw new IllegalStateException("No train layouts defined");
+        }
+        this.layouts = new LinkedHashMap<>();
+        layouts.forEach(layout -> this.layouts.put(layout.getLayoutId(), layout));
+    }
+
+    public static TrainLayouts load() {
+        var layoutsFile = System.getProperty(LAYOUTS_FILE_PROPERTY);
+
+        try (var reader = layoutsFile == null
+                ? new BufferedReader(new InputStreamReader(
+                TrainLayouts.class.getResourceAsStream(DEFAULT_LAYOUTS_RESOURCE), StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Path.of(layoutsFile), StandardCharsets.UTF_8)) {
+            return new TrainLayouts(parseLayouts(reader));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to load train layouts", e);
+        }
+    }
+
+    //Each line is "layoutId,coach,class,fare multiplier,seats", coaches of a layout are listed in the order their
+    //seats are offered
+    static List<TrainLayout> parseLayouts(BufferedReader reader) throws IOException {
+        Map<String, List<Coach>> layoutCoaches = new LinkedHashMap<>();
+        Map<String, Map<SeatClass, Double>> layoutClassFares = new HashMap<>();
+
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            var columns = line.split(",", -1);
+            if (columns.length != 5) {
+                throw new IllegalStateException("Invalid layout definition at line " + lineNumber + ": " + line);
+            }
+
+            var layoutId = columns[0].trim();
+            var coach = parseCoach(columns, lineNumber);
+            var coaches = layoutCoaches.computeIfAbsent(layoutId, key -> new ArrayList<>());
+            if (coaches.stream().anyMatch(other -> other.getCoachName().equals(coach.getCoachName()))) {
+                throw new IllegalStateException("Duplicate coach " + coach.getCoachName() + " at line " + lineNumber);
+            }
+            //One fare per class, whichever coach of the layout the seat is in
+            var classFare = layoutClassFares.computeIfAbsent(layoutId, key -> new EnumMap<>(SeatClass.class))
+                    .putIfAbsent(coach.getSeatClass(), coach.getFareMultiplier());
+            if (classFare != null && classFare != coach.getFareMultiplier()) {
+                throw new IllegalStateException("Fare multiplier of " + coach.getSeatClass()
+                        + " differs from an earlier coach at line " + lineNumber);
+            }
+            coaches.add(coach);
+        }
+
+        List<TrainLayout> layouts = new ArrayList<>();
+        layoutCoaches.forEach((layoutId, coaches) -> layouts.add(TrainLayout.builder()
+                .layoutId(layoutId)
+                .coaches(List.copyOf(coaches))
+                .build()));
+
+        return layouts;
+    }
+
+    private static Coach parseCoach(String[] columns, int lineNumber) {
+        try {
+            int seatCount = Integer.parseInt(columns[4].trim());
+            if (seatCount < 1 || seatCount > TrainSection.MAX_SEATS) {
+                throw new IllegalStateException("Seat count must be between 1 and " + TrainSection.MAX_SEATS
+                        + " at line " + lineNumber);
+            }
+
+            double fareMultiplier = Double.parseDouble(columns[3].trim());
+            if (!(fareMultiplier >= 0) || Double.isInfinite(fareMultiplier)) {
+                throw new IllegalStateException("Fare multiplier must be a finite number not below 0 at line "
+                        + lineNumber);
+            }
+
+            return Coach.builder()
+                    .coachName(columns[1].trim())
+                    .seatClass(SeatClass.valueOf(columns[2].trim()))
+                    .fareMultiplier(fareMultiplier)
+                    .seatCount(seatCount)
+                    .build();
+        } catch (IllegalArgumentException e) {
+            throw new IllegalStateException("Invalid coach definition at line " + lineNumber + ": "
+                    + String.join(",", columns), e);
+        }
+    }
+
+    public Optional<TrainLayout> getLayout(String layoutId) {
+        return Optional.ofNullable(layouts.get(layoutId));
+    }
+
+    //Trains without a layout of their own run the first layout of the file
+    public TrainLayout getDefaultLayout() {
+        return layouts.values().iterator().next();
+    }
+}
@@ -1,75 +1,188 @@
 package com.cloudbees.train.server.persistence;
 
-import com.cloudbees.train.TicketReceiptResponse;
-import com.cloudbees.train.server.entity.Journey;
-import com.cloudbees.train.server.entity.Seat;
+import com.cloudbees.train.server.entity.Booking;
+import com.cloudbees.train.server.entity.Route;
+import com.cloudbees.train.server.entity.TrainDate;
+import com.cloudbees.train.server.entity.TrainLayout;
 import org.apache.commons.lang.StringUtils;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 public class TrainSeatManager {
-    private static Map<Seat, String> trainSeats;
-    private static Map<String, TicketReceiptResponse> seatBookings;
-    private static Map<Journey, Double> travelJourneys;
+    public static final String BOOKING_STORE_DIR_PROPERTY = "train.booking.store.dir";
+
+    //Inventory shard per train and service date, opened by the first booking of that date
+    private final Map<TrainDate, TrainInventory> trainInventories = new ConcurrentHashMap<>();
+    //Shards being opened, callers asking for the same train-date wait on the one opening it
+    private final Map<TrainDate, CompletableFuture<TrainInventory>> openingInventories = new ConcurrentHashMap<>();
+    //Shards taken out of service whose stores are still open for the calls that looked them up before
+    private final Queue<TrainInventory> retiredInventories = new ConcurrentLinkedQueue<>();
+    private final FareTable fareTable;
+    private final TrainTimetable trainTimetable;
+    //Bookings are kept in memory-mapped files under this directory, or on the heap when it is not set
+    private final Path bookingStoreDir;
 
     public TrainSeatManager() {
-        if (trainSeats == null) {
-            trainSeats = new ConcurrentHashMap<>();
-            seatBookings = new ConcurrentHashMap<>();
-            travelJourneys = new ConcurrentHashMap<>();
-            initializeTrainSeats();
-            addTravelJourneys();
-        }
+        fareTable = FareTable.load();
+        trainTimetable = TrainTimetable.load(fareTable, TrainLayouts.load());
+        bookingStoreDir = getBookingStoreDir();
+    }
+
+    public FareTable getFareTable() {
+        return fareTable;
+    }
+
+    public TrainTimetable getTrainTimetable() {
+        return trainTimetable;
     }
 
-    public Map<Seat, String> getTrainSeats() {
-        return trainSeats;
+    //A blank train number selects the default train
+    public boolean hasTrain(String trainNumber) {
+        return trainTimetable.getRoute(getSelectedTrain(trainNumber)).isPresent();
     }
 
-    public Map<String, TicketReceiptResponse> getSeatBookings() {
-        return seatBookings;
+    public boolean isOnSale(LocalDate serviceDate) {
+        return trainTimetable.isOnSale(serviceDate, LocalDate.now());
     }
 
-    public Map<Journey, Double> getTravelJourneys() {
-        return travelJourneys;
+    //Lookup only, a train-date nobody has booked yet has no inventory
+    public Optional<TrainInventory> getTrainInventory(String trainNumber, LocalDate serviceDate) {
+        return Optional.ofNullable(trainInventories.get(getTrainDate(getSelectedTrain(trainNumber), serviceDate)));
     }
 
-    private static void initializeTrainSeats() {
-        int totalSeats = 90;
-        //Splitting the total seats equally in each two sections
-        String sectionName = "SECTION A";
-        int sectionId = 1;
-        int seatNumber = 1;
-        for (int i = 0; i < totalSeats; i++) {
-            var seat = getSeat(sectionId, seatNumber, sectionName);
-            trainSeats.put(seat, StringUtils.EMPTY);
-            seatNumber++;
+    //Opens the inventory of the train-date when needed, unknown train numbers have no inventory
+    public Optional<TrainInventory> openTrainInventory(String trainNumber, LocalDate serviceDate) {
+        var selectedTrain = getSelectedTrain(trainNumber);
+
+        return trainTimetable.getRoute(selectedTrain).map(route -> getOrOpenTrainInventory(
+                getTrainDate(selectedTrain, serviceDate), route, trainTimetable.getLayout(selectedTrain)));
+    }
+
+    public void restoreBooking(Booking booking) {
+        getBookingInventory(booking.getTrainDate()).restoreBooking(booking);
+    }
 
-            if (((totalSeats / 2) - 1) == i) {
-                sectionName = "SECTION B";
-                sectionId = 2;
-                seatNumber = 1;
+    public void removeBooking(Booking booking) {
+        getBookingInventory(booking.getTrainDate()).removeBooking(booking.getBookingId());
+    }
+
+    //Opening a train-date may map its booking file. That I/O runs outside computeIfAbsent, whose bin lock is a
+    //monitor and would pin the carrier of a virtual thread, and only callers of the same train-date wait for it.
+    private TrainInventory getOrOpenTrainInventory(TrainDate trainDate, Route route, TrainLayout layout) {
+        var trainInventory = trainInventories.get(trainDate);
+        if (trainInventory != null) {
+            return trainInventory;
+        }
+
+        var opening = new CompletableFuture<TrainInventory>();
+        var openedElsewhere = openingInventories.putIfAbsent(trainDate, opening);
+        if (openedElsewhere != null) {
+            return openedElsewhere.join();
+        }
+
+        try {
+            //May have been opened between the first lookup and claiming the opening
+            trainInventory = trainInventories.get(trainDate);
+            if (trainInventory == null) {
+                trainInventory = new TrainInventory(trainDate, route, openBookingStore(trainDate, route, layout),
+                        layout);
+                trainInventories.put(trainDate, trainInventory);
             }
+            opening.complete(trainInventory);
+            return trainInventory;
+        } catch (RuntimeException e) {
+            opening.completeExceptionally(e);
+            throw e;
+        } finally {
+            openingInventories.remove(trainDate, opening);
+        }
+    }
+
+    private String getSelectedTrain(String trainNumber) {
+        return StringUtils.isBlank(trainNumber) ? trainTimetable.getDefaultTrainNumber() : trainNumber.trim();
+    }
+
+    private static TrainDate getTrainDate(String trainNumber, LocalDate serviceDate) {
+        return TrainDate.builder().trainNumber(trainNumber).serviceDate(serviceDate).build();
+    }
+
+    private BookingStore openBookingStore(TrainDate trainDate, Route route, TrainLayout layout) {
+        if (bookingStoreDir == null) {
+            return new HeapBookingStore();
+        }
+
+        return MappedBookingStore.open(bookingStoreDir.resolve(trainDate.getTrainNumber() + "-"
+                + trainDate.getServiceDate() + ".bookings"), TrainInventory.getBookingCapacity(route, layout.getTotalSeats()));
+    }
+
+    private static Path getBookingStoreDir() {
+        var storeDir = System.getProperty(BOOKING_STORE_DIR_PROPERTY);
+        if (storeDir == null) {
+            return null;
+        }
+
+        try {
+            return Files.createDirectories(Path.of(storeDir));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to create booking store directory " + storeDir, e);
         }
     }
 
-    private static Seat getSeat(int sectionId, int seatNumber, String sectionName) {
-        return Seat.builder()
-                .SectionId(sectionId)
-                .seatNumber(seatNumber)
-                .sectionName(sectionName)
-                .build();
+    //Replay opens the train-date of every booking, whether or not it is still on sale
+    private TrainInventory getBookingInventory(TrainDate trainDate) {
+        return openTrainInventory(trainDate.getTrainNumber(), trainDate.getServiceDate())
+                .orElseThrow(() -> new IllegalStateException("Booked train " + trainDate.getTrainNumber()
+                        + " is not in the timetable"));
+    }
+
+    //Drops and closes the shards of trains that ran before the given date, for when no call can still hold them
+    public void removeTrainInventoriesBefore(LocalDate serviceDate) {
+        retireTrainInventoriesBefore(serviceDate);
+        closeRetiredInventories();
+    }
+
+    //Takes the shards of trains that ran before the given date out of service and returns them. A call that looked
+    //one up before keeps using its store, which stays open until closeRetiredInventories.
+    public List<TrainInventory> retireTrainInventoriesBefore(LocalDate serviceDate) {
+        List<TrainInventory> retired = new ArrayList<>();
+        trainInventories.values().removeIf(inventory -> {
+            if (!inventory.getTrainDate().getServiceDate().isBefore(serviceDate)) {
+                return false;
+            }
+            retired.add(inventory);
+            return true;
+        });
+        retiredInventories.addAll(retired);
+
+        return retired;
+    }
+
+    public void closeRetiredInventories() {
+        for (var inventory = retiredInventories.poll(); inventory != null; inventory = retiredInventories.poll()) {
+            inventory.getSeatBookings().close();
+        }
     }
 
-    private static void addTravelJourneys() {
-        travelJourneys.put(getJourney(), 20d);
+    //Live view of the open shards, used to report seat gauges
+    public Collection<TrainInventory> getTrainInventories() {
+        return Collections.unmodifiableCollection(trainInventories.values());
     }
 
-    private static Journey getJourney() {
-        return Journey.builder()
-                .from("London")
-                .to("France")
-                .build();
+    public int getTrainInventoryCount() {
+        return trainInventories.size();
     }
 }
@@ -0,0 +1,351 @@
+package com.cloudbees.train.server.persistence;
+
+import com.cloudbees.train.server.entity.Coach;
+import com.cloudbees.train.server.entity.Seat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+public class TrainSection {
+    public static final int MAX_SEGMENTS = Long.SIZE;
+    //Seat numbers have to fit the low half of a seat key
+    public static final int MAX_SEATS = 0xFFFF;
+
+    private final int sectionId;
+    private final String sectionName;
+    //Class, fare and seat attributes, shared with every train running the same layout
+    private final Coach coach;
+    private final Seat[] seats;
+    //Number of legs of the route, segment k is the leg from stop k to stop k + 1
+    private final int segmentCount;
+    private final int wordsPerSegment;
+    //Legs occupied on each seat, one bit per segment. Seats are claimed by compare-and-set on this mask.
+    private final AtomicLongArray seatSegments;
+    //Free seat hint per segment, a set bit means the seat is free on that leg. Segment k uses the words
+    //[k * wordsPerSegment, (k + 1) * wordsPerSegment). A hint is updated after the seat mask it follows, so hints
+    //only narrow the search for free seats. Listings, counts and the seat map read the seat masks.
+    private final AtomicLongArray freeSeatsBySegment;
+    //Booking id holding each seat leg, indexed by (seat number - 1) * segmentCount + segment
+    private final AtomicReferenceArray<String> segmentBookingIds;
+
+    public TrainSection(int sectionId, String sectionName, int totalSeats) {
+        this(sectionId, sectionName, totalSeats, 1);
+    }
+
+    public TrainSection(int sectionId, String sectionName, int totalSeats, int segmentCount) {
+        this(sectionId, Coach.standard(sectionName, totalSeats), segmentCount);
+    }
+
+    public TrainSection(int sectionId, Coach coach, int segmentCount) {
+        var sectionName = coach.getCoachName();
+        int totalSeats = coach.getSeatCount();
+        if (segmentCount < 1 || segmentCount > MAX_SEGMENTS) {
+            throw new IllegalArgumentException("Segment count must be between 1 and " + MAX_SEGMENTS);
+        }
+        if (totalSeats > MAX_SEATS) {
+            throw new IllegalArgumentException("A section holds at most " + MAX_SEATS + " seats");
+        }
+
+        this.sectionId = sectionId;
+        this.sectionName = sectionName;
+        this.coach = coach;
+        this.seats = new Seat[totalSeats];
+        this.segmentCount = segmentCount;
+        this.wordsPerSegment = (totalSeats + Long.SIZE - 1) / Long.SIZE;
+        this.seatSegments = new AtomicLongArray(totalSeats);
+        this.segmentBookingIds = new AtomicReferenceArray<>(totalSeats * segmentCount);
+
+        var freeSeats = new long[wordsPerSegment * segmentCount];
+        for (int i = 0; i < totalSeats; i++) {
+            seats[i] = Seat.builder()
+                    .SectionId(sectionId)
+                    .seatNumber(i + 1)
+                    .sectionName(sectionName)
+                    .build();
+            for (int segment = 0; segment < segmentCount; segment++) {
+                freeSeats[segment * wordsPerSegment + i / Long.SIZE] |= 1L << i;
+            }
+        }
+        this.freeSeatsBySegment = new AtomicLongArray(freeSeats);
+    }
+
+    public int getSectionId() {
+        return sectionId;
+    }
+
+    public String getSectionName() {
+        return sectionName;
+    }
+
+    public Coach getCoach() {
+        return coach;
+    }
+
+    public int getSegmentCount() {
+        return segmentCount;
+    }
+
+    public List<Seat> getSeats() {
+        return Arrays.asList(seats);
+    }
+
+    public Seat getSeat(int seatNumber) {
+        return seats[seatNumber - 1];
+    }
+
+    //Claims a seat for the whole run of the train
+    public Optional<Seat> claimAvailableSeat() {
+        return claimAvailableSeat(0, segmentCount);
+    }
+
+    //Claims the first seat free on every segment in [fromStop, toStop)
+    public Optional<Seat> claimAvailableSeat(int fromStop, int toStop) {
+        long journeySegments = getSegmentMask(fromStop, toStop);
+
+        for (int word = 0; word < wordsPerSegment; word++) {
+            long candidates = getFreeSeats(word, fromStop, toStop);
+            while (candidates != 0) {
+                int index = word * Long.SIZE + Long.numberOfTrailingZeros(candidates);
+                if (claimSegments(index, journeySegments)) {
+                    updateFreeSeatHints(index, journeySegments, false);
+                    return Optional.of(seats[index]);
+                }
+                candidates &= candidates - 1;
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    //Claims up to count seats free on every segment in [fromStop, toStop) in one pass and adds them to claimed
+    public int claimAvailableSeats(int fromStop, int toStop, int count, List<Seat> claimed) {
+        long journeySegments = getSegmentMask(fromStop, toStop);
+        int claimedCount = 0;
+
+        for (int word = 0; word < wordsPerSegment && claimedCount < count; word++) {
+            long candidates = getFreeSeats(word, fromStop, toStop);
+            while (candidates != 0 && claimedCount < count) {
+                int index = word * Long.SIZE + Long.numberOfTrailingZeros(candidates);
+                if (claimSegments(index, journeySegments)) {
+                    updateFreeSeatHints(index, journeySegments, false);
+                    claimed.add(seats[index]);
+                    claimedCount++;
+                }
+                candidates &= candidates - 1;
+            }
+        }
+
+        return claimedCount;
+    }
+
+    //Claims count consecutive seats free on every segment in [fromStop, toStop), empty when no such run is left
+    public List<Seat> claimAdjacentSeats(int fromStop, int toStop, int count) {
+        long journeySegments = getSegmentMask(fromStop, toStop);
+        int runStart = 0;
+        int runLength = 0;
+
+        for (int word = 0; word < wordsPerSegment; word++) {
+            long freeSeats = getFreeSeats(word, fromStop, toStop);
+            if (freeSeats == 0) {
+                runLength = 0;
+                continue;
+            }
+
+            for (int bit = 0; bit < Long.SIZE; bit++) {
+                if ((freeSeats & (1L << bit)) == 0) {
+                    runLength = 0;
+                    continue;
+                }
+                if (runLength++ == 0) {
+                    runStart = word * Long.SIZE + bit;
+                }
+                if (runLength == count) {
+                    if (claimRun(runStart, count, journeySegments)) {
+                        return List.of(Arrays.copyOfRange(seats, runStart, runStart + count));
+                    }
+                    //Part of the run was taken meanwhile, look further on
+                    runLength = 0;
+                }
+            }
+        }
+
+        return List.of();
+    }
+
+    //Gives back a seat claimed for [fromStop, toStop) that was never occupied by a booking
+    public void releaseClaim(Seat seat, int fromStop, int toStop) {
+        int index = seat.getSeatNumber() - 1;
+        long journeySegments = getSegmentMask(fromStop, toStop);
+        seatSegments.getAndAccumulate(index, journeySegments, (segments, released) -> segments & ~released);
+        updateFreeSeatHints(index, journeySegments, true);
+    }
+
+    //Claims the given seat, used when bookings are restored from the journal
+    public boolean claimSeat(Seat seat, int fromStop, int toStop) {
+        int index = seat.getSeatNumber() - 1;
+        long journeySegments = getSegmentMask(fromStop, toStop);
+        if (!claimSegments(index, journeySegments)) {
+            return false;
+        }
+
+        updateFreeSeatHints(index, journeySegments, false);
+        return true;
+    }
+
+    public void occupy(Seat seat, String bookingId) {
+        occupy(seat, 0, segmentCount, bookingId);
+    }
+
+    public void occupy(Seat seat, int fromStop, int toStop, String bookingId) {
+        int base = (seat.getSeatNumber() - 1) * segmentCount;
+        for (int segment = fromStop; segment < toStop; segment++) {
+            segmentBookingIds.set(base + segment, bookingId);
+        }
+    }
+
+    //Frees every leg of the seat held by the booking, the remaining legs stay with their bookings
+    public boolean release(Seat seat, String bookingId) {
+        int index = seat.getSeatNumber() - 1;
+        int base = index * segmentCount;
+        long releasedSegments = 0;
+        for (int segment = 0; segment < segmentCount; segment++) {
+            //Compare-and-set matches references, so swap out the exact instance holding an equal booking id
+            var heldBookingId = segmentBookingIds.get(base + segment);
+            if (bookingId.equals(heldBookingId)
+                    && segmentBookingIds.compareAndSet(base + segment, heldBookingId, null)) {
+                releasedSegments |= 1L << segment;
+            }
+        }
+
+        if (releasedSegments == 0) {
+            return false;
+        }
+
+        seatSegments.getAndAccumulate(index, releasedSegments, (segments, released) -> segments & ~released);
+        updateFreeSeatHints(index, releasedSegments, true);
+        return true;
+    }
+
+    public List<String> getBookingIds() {
+        List<String> bookingIds = new ArrayList<>();
+        for (int index = 0; index < seats.length; index++) {
+            //Only visit seats held on at least one segment
+            if (seatSegments.get(index) != 0) {
+                addSeatBookingIds(index, bookingIds);
+            }
+        }
+
+        return bookingIds;
+    }
+
+    public int getSeatWordCount() {
+        return wordsPerSegment;
+    }
+
+    //Seats of the word held on at least one segment, bit i is seat word * 64 + i + 1
+    public long getOccupiedSeats(int word) {
+        int firstIndex = word * Long.SIZE;
+        int seatsInWord = Math.min(Long.SIZE, seats.length - firstIndex);
+        long occupied = 0;
+        for (int bit = 0; bit < seatsInWord; bit++) {
+            if (seatSegments.get(firstIndex + bit) != 0) {
+                occupied |= 1L << bit;
+            }
+        }
+
+        return occupied;
+    }
+
+    public int getAvailableSeatCount() {
+        return getAvailableSeatCount(0, segmentCount);
+    }
+
+    public int getAvailableSeatCount(int fromStop, int toStop) {
+        long journeySegments = getSegmentMask(fromStop, toStop);
+        int count = 0;
+        for (int index = 0; index < seats.length; index++) {
+            if ((seatSegments.get(index) & journeySegments) == 0) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    //Seats of the word free on every segment in [fromStop, toStop), one AND per segment
+    private long getFreeSeats(int word, int fromStop, int toStop) {
+        long freeSeats = -1L;
+        for (int segment = fromStop; segment < toStop && freeSeats != 0; segment++) {
+            freeSeats &= freeSeatsBySegment.get(segment * wordsPerSegment + word);
+        }
+
+        return freeSeats;
+    }
+
+    private boolean claimSegments(int index, long journeySegments) {
+        long segments;
+        while (((segments = seatSegments.get(index)) & journeySegments) == 0) {
+            if (seatSegments.compareAndSet(index, segments, segments | journeySegments)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private boolean claimRun(int runStart, int count, long journeySegments) {
+        for (int i = 0; i < count; i++) {
+            if (!claimSegments(runStart + i, journeySegments)) {
+                for (int claimed = runStart; claimed < runStart + i; claimed++) {
+                    seatSegments.getAndAccumulate(claimed, journeySegments, (segments, released) -> segments & ~released);
+                }
+                return false;
+            }
+        }
+
+        //Hints are only cleared once the whole run is held, a run given back above never touched them
+        for (int i = 0; i < count; i++) {
+            updateFreeSeatHints(runStart + i, journeySegments, false);
+        }
+        return true;
+    }
+
+    private void updateFreeSeatHints(int index, long changedSegments, boolean free) {
+        long seatBit = 1L << index;
+        while (changedSegments != 0) {
+            int segment = Long.numberOfTrailingZeros(changedSegments);
+            int word = segment * wordsPerSegment + index / Long.SIZE;
+            if (free) {
+                freeSeatsBySegment.getAndAccumulate(word, seatBit, (bits, mask) -> bits | mask);
+            } else {
+                freeSeatsBySegment.getAndAccumulate(word, seatBit, (bits, mask) -> bits & ~mask);
+            }
+            changedSegments &= changedSegments - 1;
+        }
+    }
+
+    private void addSeatBookingIds(int index, List<String> bookingIds) {
+        int base = index * segmentCount;
+        String previous = null;
+        for (int segment = 0; segment < segmentCount; segment++) {
+            var bookingId = segmentBookingIds.get(base + segment);
+            //Legs of one booking are contiguous, so each booking is listed once per seat
+            if (bookingId != null && !bookingId.equals(previous)) {
+                bookingIds.add(bookingId);
+            }
+            previous = bookingId;
+        }
+    }
+
+    private long getSegmentMask(int fromStop, int toStop) {
+        if (fromStop < 0 || toStop > segmentCount || fromStop >= toStop) {
+            throw new IllegalArgumentException("Invalid segment range [" + fromStop + ", " + toStop + ")");
+        }
+
+        return (toStop - fromStop == Long.SIZE ? -1L : (1L << (toStop - fromStop)) - 1) << fromStop;
+    }
+}
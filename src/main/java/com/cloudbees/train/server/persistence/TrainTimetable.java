@@ -0,0 +1,115 @@
+package com.cloudbees.train.server.persistence;
+
+import com.cloudbees.train.server.entity.Route;
+import com.cloudbees.train.server.entity.TrainLayout;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+public class TrainTimetable {
+    public static final String TRAINS_FILE_PROPERTY = "train.trains.file";
+    public static final String SALE_DAYS_PROPERTY = "train.sale.days";
+    private static final String DEFAULT_TRAINS_RESOURCE = "/trains.csv";
+    private static final int DEFAULT_SALE_DAYS = 365;
+
+    //Route run by each train number, in file order
+    private final Map<String, Route> trainRoutes;
+    //Only the layout is resolved here, seats are built when the train is first opened
+    private final Map<String, TrainLayout> trainLayouts;
+    //Trains are sold from today up to this many days ahead
+    private final int saleDays;
+
+    public TrainTimetable(Map<String, Route> trainRoutes, Map<String, TrainLayout> trainLayouts, int saleDays) {
+        if (trainRoutes.isEmpty()) {
+            throw new IllegalStateException("Train timetable has no trains");
+        }
+        if (saleDays < 0) {
+            throw new IllegalStateException("Train sale window cannot be negative: " + saleDays);
+        }
+        this.trainRoutes = new LinkedHashMap<>(trainRoutes);
+        this.trainLayouts = new HashMap<>(trainLayouts);
+        this.saleDays = saleDays;
+    }
+
+    public static TrainTimetable load(FareTable fareTable, TrainLayouts trainLayouts) {
+        var trainsFile = System.getProperty(TRAINS_FILE_PROPERTY);
+
+        try (var reader = trainsFile == null
+                ? new BufferedReader(new InputStreamReader(
+                TrainTimetable.class.getResourceAsStream(DEFAULT_TRAINS_RESOURCE), StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Path.of(trainsFile), StandardCharsets.UTF_8)) {
+            return parseTrains(reader, fareTable, trainLayouts,
+                    Integer.getInteger(SALE_DAYS_PROPERTY, DEFAULT_SALE_DAYS));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to load train timetable", e);
+        }
+    }
+
+    //Each line is "trainNumber,routeId[,layoutId]", the route must exist in the fare table and the layout, when
+    //given, in the train layouts
+    static TrainTimetable parseTrains(BufferedReader reader, FareTable fareTable, TrainLayouts trainLayouts,
+                                      int saleDays) throws IOException {
+        Map<String, Route> trainRoutes = new LinkedHashMap<>();
+        Map<String, TrainLayout> layouts = new HashMap<>();
+
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+
+            var columns = line.split(",");
+            if (columns.length != 2 && columns.length != 3) {
+                throw new IllegalStateException("Invalid train definition at line " + lineNumber + ": " + line);
+            }
+
+            var routeId = columns[1].trim();
+            var route = fareTable.getRoute(routeId);
+            if (route.isEmpty()) {
+                throw new IllegalStateException("Unknown route " + routeId + " at line " + lineNumber);
+            }
+            var layout = columns.length == 2 ? Optional.of(trainLayouts.getDefaultLayout())
+                    : trainLayouts.getLayout(columns[2].trim());
+            if (layout.isEmpty()) {
+                throw new IllegalStateException("Unknown layout " + columns[2].trim() + " at line " + lineNumber);
+            }
+
+            var trainNumber = columns[0].trim();
+            trainRoutes.put(trainNumber, route.get());
+            layouts.put(trainNumber, layout.get());
+        }
+
+        return new TrainTimetable(trainRoutes, layouts, saleDays);
+    }
+
+    public Optional<Route> getRoute(String trainNumber) {
+        return Optional.ofNullable(trainRoutes.get(trainNumber));
+    }
+
+    //Only called for trains of the timetable
+    public TrainLayout getLayout(String trainNumber) {
+        return trainLayouts.get(trainNumber);
+    }
+
+    public boolean isOnSale(LocalDate serviceDate, LocalDate today) {
+        return !serviceDate.isBefore(today) && !serviceDate.isAfter(today.plusDays(saleDays));
+    }
+
+    //Requests without a train number are booked on the first train of the timetable
+    public String getDefaultTrainNumber() {
+        return trainRoutes.keySet().iterator().next();
+    }
+}
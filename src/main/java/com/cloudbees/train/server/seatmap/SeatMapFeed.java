@@ -0,0 +1,211 @@
+package com.cloudbees.train.server.seatmap;
+
+import com.cloudbees.train.SeatMapUpdate;
+import com.cloudbees.train.SectionSeatMap;
+import com.cloudbees.train.server.persistence.TrainInventory;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+//Seat map of one train-date and the calls watching it. Subscribers start from a snapshot, then get the XOR of
+//the occupancy bitmaps between two ticks. Every subscriber is sent the same frame.
+class SeatMapFeed {
+    private final TrainInventory inventory;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final List<Subscriber> subscribers = new ArrayList<>();
+    //Occupancy last sent, per section and word
+    private final long[][] publishedSeats;
+    private long version = 1;
+    //Snapshot of the current version, built for the first subscriber that needs it
+    private SeatMapFrame snapshot;
+    private boolean closed;
+
+    SeatMapFeed(TrainInventory inventory) {
+        this.inventory = inventory;
+
+        var sections = inventory.getTrainSections();
+        this.publishedSeats = new long[sections.size()][];
+        for (int i = 0; i < sections.size(); i++) {
+            var section = sections.get(i);
+            publishedSeats[i] = new long[section.getSeatWordCount()];
+            for (int word = 0; word < publishedSeats[i].length; word++) {
+                publishedSeats[i][word] = section.getOccupiedSeats(word);
+            }
+        }
+    }
+
+    //False once the feed was dropped for having no subscribers, the caller opens a new one
+    boolean subscribe(Subscriber subscriber) {
+        lock.lock();
+        try {
+            if (closed) {
+                return false;
+            }
+
+            if (!subscriber.cancelled) {
+                subscriber.feed = this;
+                subscriber.send(getSnapshot());
+                subscribers.add(subscriber);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void unsubscribe(Subscriber subscriber) {
+        lock.lock();
+        try {
+            subscribers.remove(subscriber);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean closeIfIdle() {
+        lock.lock();
+        try {
+            closed = subscribers.isEmpty();
+            return closed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    void close() {
+        lock.lock();
+        try {
+            closed = true;
+            for (var subscriber : subscribers) {
+                subscriber.complete();
+            }
+            subscribers.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //Runs once per tick, every change since the last tick goes out as a single delta
+    void publish() {
+        lock.lock();
+        try {
+            var delta = buildDelta();
+            subscribers.removeIf(subscriber -> subscriber.cancelled);
+            for (var subscriber : subscribers) {
+                //A slow subscriber skips deltas and is sent a fresh snapshot once it catches up
+                if (!subscriber.isReady()) {
+                    subscriber.needsSnapshot |= delta != null;
+                } else if (subscriber.needsSnapshot) {
+                    subscriber.needsSnapshot = false;
+                    subscriber.send(getSnapshot());
+                } else if (delta != null) {
+                    subscriber.send(delta);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    //Occupancy is read straight from the section bitmaps, a few words per section, so the booking path does
+    //not have to signal anything
+    private SeatMapFrame buildDelta() {
+        SeatMapUpdate.Builder update = null;
+        var sections = inventory.getTrainSections();
+
+        for (int i = 0; i < sections.size(); i++) {
+            var section = sections.get(i);
+            SectionSeatMap.Builder sectionDelta = null;
+            for (int word = 0; word < publishedSeats[i].length; word++) {
+                long changed = section.getOccupiedSeats(word) ^ publishedSeats[i][word];
+                if (changed != 0 && sectionDelta == null) {
+                    sectionDelta = SectionSeatMap.newBuilder().setSectionId(section.getSectionId());
+                    for (int previous = 0; previous < word; previous++) {
+                        sectionDelta.addSeats(0);
+                    }
+                }
+                if (sectionDelta != null) {
+                    sectionDelta.addSeats(changed);
+                    publishedSeats[i][word] ^= changed;
+                }
+            }
+
+            if (sectionDelta != null) {
+                if (update == null) {
+                    update = SeatMapUpdate.newBuilder().setVersion(++version);
+                }
+                update.addSections(sectionDelta);
+            }
+        }
+
+        if (update == null) {
+            return null;
+        }
+
+        snapshot = null;
+        return new SeatMapFrame(update.build());
+    }
+
+    private SeatMapFrame getSnapshot() {
+        if (snapshot == null) {
+            var update = SeatMapUpdate.newBuilder().setVersion(version).setSnapshot(true);
+            var sections = inventory.getTrainSections();
+            for (int i = 0; i < sections.size(); i++) {
+                var sectionSeatMap = SectionSeatMap.newBuilder()
+                        .setSectionId(sections.get(i).getSectionId())
+                        .setSectionName(sections.get(i).getSectionName())
+                        .setSeatCount(sections.get(i).getSeats().size());
+                for (long seats : publishedSeats[i]) {
+                    sectionSeatMap.addSeats(seats);
+                }
+                update.addSections(sectionSeatMap);
+            }
+            snapshot = new SeatMapFrame(update.build());
+        }
+
+        return snapshot;
+    }
+
+    static class Subscriber {
+        private final StreamObserver<SeatMapFrame> responseObserver;
+        private final ServerCallStreamObserver<SeatMapFrame> serverCallObserver;
+        private volatile SeatMapFeed feed;
+        private volatile boolean cancelled;
+        private boolean needsSnapshot;
+
+        Subscriber(StreamObserver<SeatMapFrame> responseObserver) {
+            this.responseObserver = responseObserver;
+            this.serverCallObserver = responseObserver instanceof ServerCallStreamObserver<SeatMapFrame> observer
+                    ? observer : null;
+            //Registered before the first message, a cancelled call then drops messages instead of failing
+            if (serverCallObserver != null) {
+                serverCallObserver.setOnCancelHandler(this::cancel);
+            }
+        }
+
+        private void cancel() {
+            cancelled = true;
+            var subscribedFeed = feed;
+            if (subscribedFeed != null) {
+                subscribedFeed.unsubscribe(this);
+            }
+        }
+
+        private boolean isReady() {
+            return serverCallObserver == null || serverCallObserver.isReady();
+        }
+
+        private void send(SeatMapFrame frame) {
+            responseObserver.onNext(frame);
+        }
+
+        private void complete() {
+            if (!cancelled) {
+                responseObserver.onCompleted();
+            }
+        }
+    }
+}
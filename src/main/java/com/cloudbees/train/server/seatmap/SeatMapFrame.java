@@ -0,0 +1,16 @@
+package com.cloudbees.train.server.seatmap;
+
+import com.cloudbees.train.SeatMapUpdate;
+import lombok.Getter;
+
+//An update serialized once and written as is to every subscriber of the train
+@Getter
+public class SeatMapFrame {
+    private final SeatMapUpdate update;
+    private final byte[] bytes;
+
+    public SeatMapFrame(SeatMapUpdate update) {
+        this.update = update;
+        this.bytes = update.toByteArray();
+    }
+}
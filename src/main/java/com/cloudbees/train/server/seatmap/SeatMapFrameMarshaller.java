@@ -0,0 +1,46 @@
+package com.cloudbees.train.server.seatmap;
+
+import com.cloudbees.train.SeatMapRequest;
+import com.cloudbees.train.SeatMapUpdate;
+import com.cloudbees.train.TicketManagerServiceGrpc;
+import com.cloudbees.train.server.cache.SerializedBytesStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+//Same wire format as SeatMapUpdate, so clients keep using the generated stubs
+public class SeatMapFrameMarshaller implements MethodDescriptor.Marshaller<SeatMapFrame> {
+    public static final SeatMapFrameMarshaller INSTANCE = new SeatMapFrameMarshaller();
+
+    private static final MethodDescriptor<SeatMapRequest, SeatMapFrame> WATCH_SEAT_MAP_METHOD =
+            TicketManagerServiceGrpc.METHOD_WATCH_SEAT_MAP.toBuilder(
+                    TicketManagerServiceGrpc.METHOD_WATCH_SEAT_MAP.getRequestMarshaller(), INSTANCE)
+                    .build();
+
+    private SeatMapFrameMarshaller() {
+    }
+
+    public static MethodDescriptor<SeatMapRequest, SeatMapFrame> getWatchSeatMapMethod() {
+        return WATCH_SEAT_MAP_METHOD;
+    }
+
+    @Override
+    public InputStream stream(SeatMapFrame value) {
+        return new SerializedBytesStream(value.getBytes());
+    }
+
+    @Override
+    public SeatMapFrame parse(InputStream stream) {
+        try {
+            return new SeatMapFrame(SeatMapUpdate.parseFrom(stream));
+        } catch (InvalidProtocolBufferException e) {
+            throw Status.INTERNAL.withDescription("Invalid seat map update").withCause(e).asRuntimeException();
+        } catch (IOException e) {
+            throw Status.INTERNAL.withDescription("Unable to read seat map update").withCause(e)
+                    .asRuntimeException();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.cloudbees.train.server.seatmap;
+
+import com.cloudbees.train.server.persistence.TrainInventory;
+import io.grpc.stub.StreamObserver;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+//Publishes seat map changes of every watched train once per tick, so a burst of bookings reaches subscribers as
+//one update. Trains nobody watches cost nothing.
+public class SeatMapPublisher implements AutoCloseable {
+    public static final String TICK_MILLIS_PROPERTY = "train.seatmap.tick.millis";
+    public static final Duration DEFAULT_TICK = Duration.ofMillis(200);
+
+    private final Duration tick;
+    private final Map<TrainInventory, SeatMapFeed> feeds = new ConcurrentHashMap<>();
+    private final AtomicBoolean started = new AtomicBoolean();
+    private ScheduledExecutorService scheduler;
+
+    public SeatMapPublisher(Duration tick) {
+        this.tick = tick;
+    }
+
+    public static SeatMapPublisher fromSystemProperties() {
+        return new SeatMapPublisher(Duration.ofMillis(Long.getLong(TICK_MILLIS_PROPERTY,
+                DEFAULT_TICK.toMillis())));
+    }
+
+    public void subscribe(TrainInventory inventory, StreamObserver<SeatMapFrame> responseObserver) {
+        //The publishing thread only starts with the first subscriber
+        if (!started.get() && started.compareAndSet(false, true)) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                var thread = new Thread(runnable, "seat-map-publisher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleAtFixedRate(this::publish, tick.toMillis(), tick.toMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        var subscriber = new SeatMapFeed.Subscriber(responseObserver);
+        //A feed dropped for being idle between the lookup and the subscription is opened again
+        while (!feeds.computeIfAbsent(inventory, SeatMapFeed::new).subscribe(subscriber)) {
+            Thread.onSpinWait();
+        }
+    }
+
+    //Ends the feed of a train-date taken out of service, its watchers are completed
+    public void removeFeed(TrainInventory inventory) {
+        var feed = feeds.remove(inventory);
+        if (feed != null) {
+            feed.close();
+        }
+    }
+
+    public int getFeedCount() {
+        return feeds.size();
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void publish() {
+        for (var feed : feeds.values()) {
+            try {
+                feed.publish();
+            } catch (RuntimeException e) {
+                //A failing feed must not stop the others, the scheduler would drop the task
+                System.out.println("Unable to publish seat map: " + e.getMessage());
+            }
+        }
+        feeds.values().removeIf(SeatMapFeed::closeIfIdle);
+    }
+}
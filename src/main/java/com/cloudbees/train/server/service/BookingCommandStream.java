@@ -0,0 +1,157 @@
+package com.cloudbees.train.server.service;
+
+import com.cloudbees.train.BookingCommand;
+import com.cloudbees.train.BookingCommandResult;
+import com.cloudbees.train.TicketManagerServiceGrpc;
+import com.google.protobuf.Empty;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+import static com.cloudbees.train.server.constants.ApplicationConstants.BOOKING_COMMAND_ERROR_MESSAGE;
+
+//Runs pipelined booking commands through the unary handlers and sends each result as soon as it completes, so
+//results may overtake each other. At most MAX_PIPELINED_COMMANDS are read ahead of the results the transport
+//has taken, which pushes back on a client sending faster than it reads.
+class BookingCommandStream implements StreamObserver<BookingCommand> {
+    static final int MAX_PIPELINED_COMMANDS = 64;
+
+    private final TicketManagerServiceGrpc.TicketManagerServiceImplBase service;
+    private final StreamObserver<BookingCommandResult> responseObserver;
+    private final ServerCallStreamObserver<BookingCommandResult> serverCallObserver;
+    private final Queue<BookingCommandResult> results = new ConcurrentLinkedQueue<>();
+    //Commands read whose result is not sent yet
+    private final AtomicInteger pendingCommands = new AtomicInteger();
+    private final AtomicInteger drainRequests = new AtomicInteger();
+    private final AtomicBoolean completed = new AtomicBoolean();
+    private volatile boolean halfClosed;
+    private volatile boolean cancelled;
+
+    BookingCommandStream(TicketManagerServiceGrpc.TicketManagerServiceImplBase service,
+                         StreamObserver<BookingCommandResult> responseObserver) {
+        this.service = service;
+        this.responseObserver = responseObserver;
+        this.serverCallObserver = responseObserver instanceof ServerCallStreamObserver<BookingCommandResult> observer
+                ? observer : null;
+
+        if (serverCallObserver != null) {
+            serverCallObserver.disableAutoRequest();
+            serverCallObserver.setOnReadyHandler(this::drain);
+            serverCallObserver.setOnCancelHandler(() -> {
+                cancelled = true;
+                results.clear();
+            });
+            serverCallObserver.request(MAX_PIPELINED_COMMANDS);
+        }
+    }
+
+    @Override
+    public void onNext(BookingCommand command) {
+        pendingCommands.incrementAndGet();
+        var correlationId = command.getCorrelationId();
+
+        switch (command.getCommandCase()) {
+            case BOOK -> service.bookTicket(command.getBook(),
+                    new ResultObserver<>(correlationId, BookingCommandResult.Builder::setReceipt));
+            case LOOKUP -> service.getBookedTicketReceipt(command.getLookup(),
+                    new ResultObserver<>(correlationId, BookingCommandResult.Builder::setReceipt));
+            case MODIFY -> service.modifyPassengerSeat(command.getModify(),
+                    new ResultObserver<>(correlationId, BookingCommandResult.Builder::setReceipt));
+            case DELETE -> service.deleteBooking(command.getDelete(),
+                    new ResultObserver<Empty>(correlationId, BookingCommandResult.Builder::setDeleted));
+            default -> new ResultObserver<>(correlationId, (result, ignored) -> {
+            }).onError(Status.INVALID_ARGUMENT.withDescription(BOOKING_COMMAND_ERROR_MESSAGE).asException());
+        }
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        cancelled = true;
+        results.clear();
+    }
+
+    //The client sent its last command, the call completes once every result is out
+    @Override
+    public void onCompleted() {
+        halfClosed = true;
+        drain();
+    }
+
+    private void addResult(BookingCommandResult result) {
+        if (!cancelled) {
+            results.add(result);
+            drain();
+        }
+    }
+
+    //Results come from request and journal threads, only one of them writes to the call at a time
+    private void drain() {
+        int missed = drainRequests.incrementAndGet();
+        if (missed != 1) {
+            return;
+        }
+
+        do {
+            BookingCommandResult result;
+            while (!cancelled && isReady() && (result = results.poll()) != null) {
+                responseObserver.onNext(result);
+                pendingCommands.decrementAndGet();
+                if (serverCallObserver != null) {
+                    serverCallObserver.request(1);
+                }
+            }
+
+            if (halfClosed && !cancelled && pendingCommands.get() == 0 && completed.compareAndSet(false, true)) {
+                responseObserver.onCompleted();
+            }
+            missed = drainRequests.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private boolean isReady() {
+        return serverCallObserver == null || serverCallObserver.isReady();
+    }
+
+    //Turns the reply of a unary handler into a result tagged with the command's correlation id
+    private class ResultObserver<T> implements StreamObserver<T> {
+        private final String correlationId;
+        private final BiConsumer<BookingCommandResult.Builder, T> setResult;
+        private final AtomicBoolean answered = new AtomicBoolean();
+
+        ResultObserver(String correlationId, BiConsumer<BookingCommandResult.Builder, T> setResult) {
+            this.correlationId = correlationId;
+            this.setResult = setResult;
+        }
+
+        @Override
+        public void onNext(T value) {
+            if (answered.compareAndSet(false, true)) {
+                var result = BookingCommandResult.newBuilder().setCorrelationId(correlationId);
+                setResult.accept(result, value);
+                addResult(result.build());
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (answered.compareAndSet(false, true)) {
+                var status = Status.fromThrowable(t);
+                addResult(BookingCommandResult.newBuilder()
+                        .setCorrelationId(correlationId)
+                        .setStatusCode(status.getCode().value())
+                        .setErrorMessage(status.getDescription() == null ? "" : status.getDescription())
+                        .build());
+            }
+        }
+
+        @Override
+        public void onCompleted() {
+        }
+    }
+}
@@ -1,25 +1,62 @@
 package com.cloudbees.train.server.service;
 
+import com.cloudbees.train.BatchTicketPurchaseRequest;
+import com.cloudbees.train.BatchTicketPurchaseResponse;
+import com.cloudbees.train.BookingCommand;
+import com.cloudbees.train.BookingCommandResult;
 import com.cloudbees.train.BookingRequest;
 import com.cloudbees.train.Passenger;
+import com.cloudbees.train.SeatHoldRequest;
+import com.cloudbees.train.SeatHoldResponse;
+import com.cloudbees.train.SeatMapRequest;
+import com.cloudbees.train.SeatMapUpdate;
+import com.cloudbees.train.SectionBooking;
 import com.cloudbees.train.SectionBookingResponse;
 import com.cloudbees.train.SectionRequest;
 import com.cloudbees.train.TicketManagerServiceGrpc;
 import com.cloudbees.train.TicketPurchaseRequest;
 import com.cloudbees.train.TicketReceiptResponse;
+import com.cloudbees.train.TrainSelector;
+import com.cloudbees.train.WaitlistUpdate;
+import com.cloudbees.train.server.cache.CachedReceipt;
+import com.cloudbees.train.server.cache.CachedReceiptMarshaller;
+import com.cloudbees.train.server.cache.ReceiptCache;
+import com.cloudbees.train.server.entity.Booking;
+import com.cloudbees.train.server.entity.RouteJourney;
 import com.cloudbees.train.server.entity.Seat;
+import com.cloudbees.train.server.generator.BookingIdGenerator;
+import com.cloudbees.train.server.hold.SeatHold;
+import com.cloudbees.train.server.hold.SeatHoldManager;
+import com.cloudbees.train.server.journal.BookingEventType;
+import com.cloudbees.train.server.journal.BookingJournal;
 import com.cloudbees.train.server.mapper.TicketMapper;
+import com.cloudbees.train.server.persistence.BookingStore;
+import com.cloudbees.train.server.persistence.TrainInventory;
 import com.cloudbees.train.server.persistence.TrainSeatManager;
+import com.cloudbees.train.server.seatmap.SeatMapFrame;
+import com.cloudbees.train.server.seatmap.SeatMapFrameMarshaller;
+import com.cloudbees.train.server.seatmap.SeatMapPublisher;
+import com.cloudbees.train.server.waitlist.WaitlistEntry;
+import com.cloudbees.train.server.waitlist.WaitlistManager;
 import com.google.protobuf.Empty;
+import io.grpc.ServerServiceDefinition;
 import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.ServerCalls;
 import io.grpc.stub.StreamObserver;
 import lombok.AllArgsConstructor;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.validator.routines.EmailValidator;
 
-import java.time.LocalDateTime;
-import java.util.Map;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.cloudbees.train.server.constants.ApplicationConstants.*;
 
@@ -27,6 +64,15 @@ import static com.cloudbees.train.server.constants.ApplicationConstants.*;
 public class TicketManagerServiceImpl extends TicketManagerServiceGrpc.TicketManagerServiceImplBase {
     private final TrainSeatManager trainSeatManager;
     private final TicketMapper ticketMapper;
+    private final BookingIdGenerator bookingIdGenerator;
+    private final BookingJournal bookingJournal;
+    private final ReceiptCache receiptCache;
+    private final SeatHoldManager seatHoldManager;
+    private final WaitlistManager waitlistManager;
+    private final SeatMapPublisher seatMapPublisher;
+    //Bookings with a change waiting on the journal. Changes of one booking reach the store, the seat index and the
+    //journal one at a time and in the same order, so a change that could not be written can always be undone.
+    private final Set<String> changingBookings = ConcurrentHashMap.newKeySet();
 
     @Override
     public void bookTicket(TicketPurchaseRequest request,
@@ -38,30 +84,136 @@ public class TicketManagerServiceImpl extends TicketManagerServiceGrpc.TicketMan
             return;
         }
 
-        var seatsMap = trainSeatManager.getTrainSeats();
-        var seatBookings = trainSeatManager.getSeatBookings();
+        if (!validateNewTicket(request, responseObserver)) {
+            return;
+        }
 
-        var passengerSeat = validateNewTicket(seatsMap, seatBookings, request, responseObserver);
+        var trainInventory = openTrainInventory(request.getTrain(), responseObserver);
 
-        if (passengerSeat.isEmpty()) {
+        if (trainInventory.isEmpty()) {
             return;
         }
 
-        var ticketCost = getJourneyTicketCost(request.getBoardingStation(),
-                request.getDestinationStation(), responseObserver);
+        var inventory = trainInventory.get();
+        var seatBookings = inventory.getSeatBookings();
+        var claimedSeat = claimPassengerSeat(inventory, request, responseObserver);
 
-        if (ticketCost.isEmpty()) {
+        if (claimedSeat.isEmpty()) {
             return;
         }
 
-        var bookingId = getBookingId();
-        var ticketReceipt = ticketMapper
-                .mapTicketReceiptForPurchase(passengerSeat.get(), bookingId, request, ticketCost.get());
-        seatsMap.replace(passengerSeat.get(), bookingId);
-        seatBookings.put(bookingId, ticketReceipt);
+        var booking = claimedSeat.get().booking();
+        completeWhenWritten(bookClaimedSeat(inventory, seatBookings, claimedSeat.get().seat(),
+                        claimedSeat.get().journey(), booking), ticketMapper.mapBookingToTicketReceipt(booking),
+                responseObserver);
+    }
 
-        responseObserver.onNext(ticketReceipt);
-        responseObserver.onCompleted();
+    //Books a group on one journey with a single pass over the inventory. Every passenger gets a result, and unless
+    //the caller allows partial booking either all passengers are booked or none is.
+    @Override
+    public void bookTickets(BatchTicketPurchaseRequest request,
+                            StreamObserver<BatchTicketPurchaseResponse> responseObserver) {
+        if (request == null) {
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                    .withDescription(BATCH_PURCHASE_REQUEST_ERROR_MESSAGE)
+                    .asException());
+            return;
+        }
+
+        if (request.getPassengersCount() == 0 || request.getPassengersCount() > MAX_BATCH_PASSENGERS) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(BATCH_PASSENGERS_ERROR_MESSAGE)
+                    .asException());
+            return;
+        }
+
+        if (StringUtils.isBlank(request.getBoardingStation()) || StringUtils.isBlank(request.getDestinationStation())) {
+            responseObserver.onError(Status.NOT_FOUND.withDescription(JOURNEY_DETAILS_ERROR_MESSAGE)
+                    .asException());
+            return;
+        }
+
+        var trainInventory = openTrainInventory(request.getTrain(), responseObserver);
+
+        if (trainInventory.isEmpty()) {
+            return;
+        }
+
+        var inventory = trainInventory.get();
+        var journey = getJourney(inventory, request.getBoardingStation(), request.getDestinationStation(),
+                responseObserver);
+
+        if (journey.isEmpty()) {
+            return;
+        }
+
+        var passengers = request.getPassengersList();
+        var errorMessages = new String[passengers.size()];
+        var bookingIds = new String[passengers.size()];
+        int bookablePassengers = 0;
+
+        for (int i = 0; i < passengers.size(); i++) {
+            var passenger = passengers.get(i);
+            var passengerError = getPassengerErrorMessage(passenger);
+            if (passengerError.isPresent()) {
+                errorMessages[i] = passengerError.get();
+                continue;
+            }
+
+            var bookingId = bookingIdGenerator.nextBookingId();
+            //Also rejects a passenger listed twice in the same batch
+            if (!inventory.reservePassenger(passenger, bookingId)) {
+                errorMessages[i] = PASSENGER_EXIST_ERROR_MESSAGE;
+                continue;
+            }
+            bookingIds[i] = bookingId;
+            bookablePassengers++;
+        }
+
+        boolean allBookable = bookablePassengers == passengers.size();
+        List<Seat> seats = bookablePassengers == 0 || (!request.getAllowPartial() && !allBookable)
+                ? List.of()
+                : inventory.claimAvailableSeats(journey.get(), bookablePassengers);
+
+        if (!request.getAllowPartial() && seats.size() < passengers.size()) {
+            inventory.releaseClaimedSeats(seats, journey.get());
+            seats = List.of();
+        }
+
+        var notBookedMessage = allBookable || request.getAllowPartial()
+                ? NO_SEATS_AVAILABLE_FOR_NEW_BOOKING : BATCH_NOT_BOOKED_ERROR_MESSAGE;
+        var response = BatchTicketPurchaseResponse.newBuilder();
+        List<CompletableFuture<?>> written = new ArrayList<>();
+        int nextSeat = 0;
+
+        for (int i = 0; i < passengers.size(); i++) {
+            var passenger = passengers.get(i);
+            var result = response.addResultsBuilder().setPassenger(passenger);
+
+            if (bookingIds[i] == null) {
+                result.setErrorMessage(errorMessages[i]);
+            } else if (nextSeat == seats.size()) {
+                inventory.releasePassenger(passenger, bookingIds[i]);
+                result.setErrorMessage(notBookedMessage);
+            } else {
+                var seat = seats.get(nextSeat++);
+                var booking = mapPurchasedBooking(inventory, seat, bookingIds[i],
+                        getTicketPurchaseRequest(request, passenger), journey.get());
+                result.setReceipt(ticketMapper.mapBookingToTicketReceipt(booking));
+                written.add(bookClaimedSeat(inventory, inventory.getSeatBookings(), seat, journey.get(), booking)
+                        .handle((ignored, error) -> {
+                            //Undone already, the passenger can book again
+                            if (error != null) {
+                                result.clearReceipt().setErrorMessage(BOOKING_JOURNAL_ERROR_MESSAGE);
+                            }
+                            return null;
+                        }));
+            }
+        }
+
+        CompletableFuture.allOf(written.toArray(CompletableFuture[]::new)).thenRun(() -> {
+            responseObserver.onNext(response.build());
+            responseObserver.onCompleted();
+        });
     }
 
     @Override
@@ -72,26 +224,108 @@ public class TicketManagerServiceImpl extends TicketManagerServiceGrpc.TicketMan
             return;
         }
 
-        var seatBookings = trainSeatManager.getSeatBookings();
-        var seats = trainSeatManager.getTrainSeats();
+        var cachedReceipt = getCachedReceipt(request, responseObserver);
 
-        var availableSeat = seats.keySet().stream()
-                .filter(obj -> seats.get(obj).equals(request.getBookingId())).toList();
+        if (cachedReceipt.isEmpty()) {
+            return;
+        }
 
-        if (availableSeat.isEmpty()) {
-            responseObserver.onError(Status.NOT_FOUND
-                    .withDescription(NO_BOOKING_FOUND_ERROR_MESSAGE + request.getBookingId())
+        var ticketReceipt = cachedReceipt.get().getReceipt();
+
+        if (!ticketReceipt.getPassenger().getEmailAddress().equalsIgnoreCase(request.getEmailAddress())) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(EMAIL_ADDRESS_NOT_MATCHING)
                     .asException());
             return;
         }
 
-        var ticketReceipt = validatePassengerEmail(seatBookings,
-                request.getBookingId(), request.getEmailAddress(), responseObserver);
-
         responseObserver.onNext(ticketReceipt);
         responseObserver.onCompleted();
     }
 
+    //Receipt lookup bound by bindPreSerializedService, answers with the bytes serialized when cached
+    public void getCachedTicketReceipt(BookingRequest request, StreamObserver<CachedReceipt> responseObserver) {
+        if (request == null) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(BOOKED_REQUEST_ERROR_MESSAGE)
+                    .asException());
+            return;
+        }
+
+        var cachedReceipt = getCachedReceipt(request, responseObserver);
+
+        if (cachedReceipt.isEmpty()) {
+            return;
+        }
+
+        if (!cachedReceipt.get().getReceipt().getPassenger().getEmailAddress()
+                .equalsIgnoreCase(request.getEmailAddress())) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(EMAIL_ADDRESS_NOT_MATCHING)
+                    .asException());
+            return;
+        }
+
+        responseObserver.onNext(cachedReceipt.get());
+        responseObserver.onCompleted();
+    }
+
+    //Same service, but receipt lookups and seat map updates write bytes serialized ahead of time instead of
+    //serializing the message again for every call
+    public ServerServiceDefinition bindPreSerializedService() {
+        var serviceDefinition = ServerServiceDefinition.builder(TicketManagerServiceGrpc.SERVICE_NAME);
+        for (var method : bindService().getMethods()) {
+            var methodDescriptor = method.getMethodDescriptor();
+            if (methodDescriptor != TicketManagerServiceGrpc.METHOD_GET_BOOKED_TICKET_RECEIPT
+                    && methodDescriptor != TicketManagerServiceGrpc.METHOD_WATCH_SEAT_MAP) {
+                serviceDefinition.addMethod(method);
+            }
+        }
+
+        return serviceDefinition
+                .addMethod(CachedReceiptMarshaller.getBookedTicketReceiptMethod(),
+                        ServerCalls.asyncUnaryCall(this::getCachedTicketReceipt))
+                .addMethod(SeatMapFrameMarshaller.getWatchSeatMapMethod(),
+                        ServerCalls.asyncServerStreamingCall(this::watchSeatMapFrames))
+                .build();
+    }
+
+    //Streams a snapshot of the occupied seats of every section, then the changes once per tick until the client
+    //hangs up
+    @Override
+    public void watchSeatMap(SeatMapRequest request, StreamObserver<SeatMapUpdate> responseObserver) {
+        watchSeatMapFrames(request, new StreamObserver<>() {
+            @Override
+            public void onNext(SeatMapFrame frame) {
+                responseObserver.onNext(frame.getUpdate());
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                responseObserver.onError(t);
+            }
+
+            @Override
+            public void onCompleted() {
+                responseObserver.onCompleted();
+            }
+        });
+    }
+
+    //Seat map feed bound by bindPreSerializedService, every subscriber of a train is sent the same bytes
+    public void watchSeatMapFrames(SeatMapRequest request, StreamObserver<SeatMapFrame> responseObserver) {
+        if (request == null) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(SEAT_MAP_REQUEST_ERROR_MESSAGE)
+                    .asException());
+            return;
+        }
+
+        var trainInventory = getTrainInventory(request.getTrain(), responseObserver);
+
+        if (trainInventory.isEmpty()) {
+            return;
+        }
+
+        seatMapPublisher.subscribe(trainInventory.get(), responseObserver);
+    }
+
     @Override
     public void getBookingsBySection(SectionRequest request, StreamObserver<SectionBookingResponse> responseObserver) {
         if (request == null) {
@@ -100,20 +334,61 @@ public class TicketManagerServiceImpl extends TicketManagerServiceGrpc.TicketMan
             return;
         }
 
-        var seats = trainSeatManager.getTrainSeats();
-        var seatBookings = trainSeatManager.getSeatBookings();
+        var trainInventory = getTrainInventory(request.getTrain(), responseObserver);
+
+        if (trainInventory.isEmpty()) {
+            return;
+        }
 
-        var sectionBookings = seats.keySet().stream()
-                .filter(obj -> obj.getSectionId() == request.getSectionId() && !StringUtils.isEmpty(seats.get(obj)))
-                .map(seats::get).toList();
+        var seatBookings = trainInventory.get().getSeatBookings();
+        var sectionBookingResponse = SectionBookingResponse.newBuilder();
 
-        var bookings = sectionBookings.stream().map(seatBookings::get).toList();
-        var sectionBookingResponse = ticketMapper.mapTicketReceiptToBookingsDto(bookings);
+        for (var bookingId : trainInventory.get().getSectionBookingIds(request.getSectionId())) {
+            var booking = seatBookings.get(bookingId);
+            if (booking != null) {
+                sectionBookingResponse.addSectionBooking(ticketMapper.mapBookingToSectionBooking(booking));
+            }
+        }
 
-        responseObserver.onNext(sectionBookingResponse);
+        responseObserver.onNext(sectionBookingResponse.build());
         responseObserver.onCompleted();
     }
 
+    @Override
+    public void streamBookingsBySection(SectionRequest request, StreamObserver<SectionBooking> responseObserver) {
+        if (request == null) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(SECTION_REQUEST_ERROR_MESSAGE)
+                    .asException());
+            return;
+        }
+
+        var trainInventory = getTrainInventory(request.getTrain(), responseObserver);
+
+        if (trainInventory.isEmpty()) {
+            return;
+        }
+
+        var seatBookings = trainInventory.get().getSeatBookings();
+        var bookingIds = trainInventory.get().getSectionBookingIds(request.getSectionId()).iterator();
+
+        if (!(responseObserver instanceof ServerCallStreamObserver<SectionBooking> serverCallObserver)) {
+            bookingIds.forEachRemaining(bookingId -> streamSectionBooking(seatBookings, bookingId, responseObserver));
+            responseObserver.onCompleted();
+            return;
+        }
+
+        //Emit bookings only while the transport can take them so long sections are never buffered in full
+        var completed = new AtomicBoolean();
+        serverCallObserver.setOnReadyHandler(() -> {
+            while (serverCallObserver.isReady() && bookingIds.hasNext()) {
+                streamSectionBooking(seatBookings, bookingIds.next(), serverCallObserver);
+            }
+            if (!bookingIds.hasNext() && completed.compareAndSet(false, true)) {
+                serverCallObserver.onCompleted();
+            }
+        });
+    }
+
     @Override
     public void deleteBooking(BookingRequest request, StreamObserver<Empty> responseObserver) {
         if (request == null) {
@@ -121,135 +396,510 @@ public class TicketManagerServiceImpl extends TicketManagerServiceGrpc.TicketMan
                     .asException());
             return;
         }
-        var seatsMap = trainSeatManager.getTrainSeats();
-        var bookings = trainSeatManager.getSeatBookings();
+        var trainInventory = getTrainInventory(request.getTrain(), responseObserver);
 
+        if (trainInventory.isEmpty() || !startBookingChange(request.getBookingId(), responseObserver)) {
+            return;
+        }
 
-        var bookedSeat = getBookedSeatByBookingId(seatsMap, request.getBookingId());
+        if (!removeBooking(trainInventory.get(), request, responseObserver)) {
+            changingBookings.remove(request.getBookingId());
+        }
+    }
 
-        if (bookedSeat.isEmpty()) {
-            responseObserver
-                    .onError(Status.NOT_FOUND.withDescription(NO_BOOKING_FOUND_ERROR_MESSAGE + request.getBookingId())
-                            .asException());
+    @Override
+    public void modifyPassengerSeat(BookingRequest request, StreamObserver<TicketReceiptResponse> responseObserver) {
+        if (request == null) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(BOOKED_REQUEST_ERROR_MESSAGE)
+                    .asException());
             return;
         }
 
-        var booking = bookings.get(request.getBookingId());
+        var trainInventory = getTrainInventory(request.getTrain(), responseObserver);
 
-        if (!booking.getPassenger().getEmailAddress().equalsIgnoreCase(request.getEmailAddress())) {
-            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(EMAIL_ADDRESS_NOT_MATCHING_ERROR_MESSAGE)
+        if (trainInventory.isEmpty() || !startBookingChange(request.getBookingId(), responseObserver)) {
+            return;
+        }
+
+        if (!moveBooking(trainInventory.get(), request, responseObserver)) {
+            changingBookings.remove(request.getBookingId());
+        }
+    }
+
+    //Commands are answered as they complete, tagged with their correlation id, not in the order they were sent
+    @Override
+    public StreamObserver<BookingCommand> streamBookingCommands(
+            StreamObserver<BookingCommandResult> responseObserver) {
+        return new BookingCommandStream(this, responseObserver);
+    }
+
+    //Claims a seat without booking it, the seat goes back to the pool unless the hold is confirmed in time.
+    //The hold id is the booking id the ticket gets on confirmation.
+    @Override
+    public void holdSeat(SeatHoldRequest request, StreamObserver<SeatHoldResponse> responseObserver) {
+        if (request == null || !request.hasTicket()) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(HOLD_REQUEST_ERROR_MESSAGE)
                     .asException());
             return;
         }
 
-        bookings.remove(booking.getBookingId());
-        seatsMap.replace(bookedSeat.get(), StringUtils.EMPTY);
+        var ticket = request.getTicket();
+
+        if (!validateNewTicket(ticket, responseObserver)) {
+            return;
+        }
+
+        var trainInventory = openTrainInventory(ticket.getTrain(), responseObserver);
+
+        if (trainInventory.isEmpty()) {
+            return;
+        }
+
+        var inventory = trainInventory.get();
+        var claimedSeat = claimPassengerSeat(inventory, ticket, responseObserver);
+
+        if (claimedSeat.isEmpty()) {
+            return;
+        }
+
+        var hold = new SeatHold(inventory, claimedSeat.get().seat(), claimedSeat.get().journey(),
+                claimedSeat.get().booking(), seatHoldManager.getHoldNanos(request.getHoldSeconds()));
+        seatHoldManager.place(hold);
+
+        responseObserver.onNext(SeatHoldResponse.newBuilder()
+                .setReceipt(ticketMapper.mapBookingToTicketReceipt(hold.getBooking()))
+                .setExpiresAtEpochMillis(hold.getExpiresAtEpochMillis())
+                .build());
+        responseObserver.onCompleted();
+    }
+
+    @Override
+    public void confirmHold(BookingRequest request, StreamObserver<TicketReceiptResponse> responseObserver) {
+        var seatHold = getSeatHold(request, responseObserver);
+
+        if (seatHold.isEmpty()) {
+            return;
+        }
+
+        //The hold may have expired since it was looked up
+        if (seatHoldManager.take(request.getBookingId()).isEmpty()) {
+            responseObserver.onError(Status.NOT_FOUND
+                    .withDescription(NO_HOLD_FOUND_ERROR_MESSAGE + request.getBookingId())
+                    .asException());
+            return;
+        }
+
+        var inventory = seatHold.get().getInventory();
+        var booking = seatHold.get().getBooking();
+        completeWhenWritten(bookClaimedSeat(inventory, inventory.getSeatBookings(), seatHold.get().getSeat(),
+                seatHold.get().getJourney(), booking), ticketMapper.mapBookingToTicketReceipt(booking), responseObserver);
+    }
+
+    @Override
+    public void releaseHold(BookingRequest request, StreamObserver<Empty> responseObserver) {
+        var seatHold = getSeatHold(request, responseObserver);
+
+        if (seatHold.isEmpty()) {
+            return;
+        }
+
+        if (!seatHoldManager.release(request.getBookingId())) {
+            responseObserver.onError(Status.NOT_FOUND
+                    .withDescription(NO_HOLD_FOUND_ERROR_MESSAGE + request.getBookingId())
+                    .asException());
+            return;
+        }
 
         responseObserver.onNext(Empty.newBuilder().build());
         responseObserver.onCompleted();
     }
 
+    //Books a seat when one is free, otherwise queues the passenger and keeps the call open until a seat for the
+    //journey is given back. The first update gives the place in the queue, the last one carries the receipt.
     @Override
-    public void modifyPassengerSeat(BookingRequest request, StreamObserver<TicketReceiptResponse> responseObserver) {
+    public void joinWaitlist(TicketPurchaseRequest request, StreamObserver<WaitlistUpdate> responseObserver) {
         if (request == null) {
-            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(BOOKED_REQUEST_ERROR_MESSAGE)
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                    .withDescription(PURCHASE_REQUEST_ERROR_MESSAGE)
                     .asException());
             return;
         }
 
-        var seatsMap = trainSeatManager.getTrainSeats();
-        var bookings = trainSeatManager.getSeatBookings();
+        if (!validateNewTicket(request, responseObserver)) {
+            return;
+        }
 
-        var bookedSeatById = getBookedSeatByBookingId(seatsMap, request.getBookingId());
+        var trainInventory = openTrainInventory(request.getTrain(), responseObserver);
 
-        if (bookedSeatById.isEmpty()) {
-            responseObserver
-                    .onError(Status.NOT_FOUND.withDescription(NO_BOOKING_FOUND_ERROR_MESSAGE + request.getBookingId())
-                            .asException());
+        if (trainInventory.isEmpty()) {
+            return;
+        }
+
+        var inventory = trainInventory.get();
+        var passenger = reservePassenger(inventory, request, responseObserver);
+
+        if (passenger.isEmpty()) {
+            return;
+        }
+
+        var bookingId = passenger.get().bookingId();
+        var journey = passenger.get().journey();
+        var passengerSeat = inventory.claimAvailableSeat(journey);
+
+        if (passengerSeat.isPresent()) {
+            var booking = mapPurchasedBooking(inventory, passengerSeat.get(), bookingId, request, journey);
+            completeWhenWritten(bookClaimedSeat(inventory, inventory.getSeatBookings(), passengerSeat.get(), journey,
+                            booking),
+                    WaitlistUpdate.newBuilder().setReceipt(ticketMapper.mapBookingToTicketReceipt(booking)).build(),
+                    responseObserver);
+            return;
+        }
+
+        var waitlist = waitlistManager.getOrCreateWaitlist(inventory);
+        int position = waitlist.reservePosition();
+
+        if (position == 0) {
+            inventory.releasePassenger(request.getPassenger(), bookingId);
+            responseObserver.onError(Status.RESOURCE_EXHAUSTED.withDescription(WAITLIST_FULL_ERROR_MESSAGE)
+                    .asException());
             return;
         }
 
-        var availableSeat = seatsMap.keySet().stream()
-                .filter(obj -> StringUtils.isEmpty(seatsMap.get(obj))).findFirst();
+        var entry = WaitlistEntry.builder()
+                .request(request)
+                .bookingId(bookingId)
+                .journey(journey)
+                .responseObserver(responseObserver)
+                .build();
+
+        //A passenger who hangs up leaves the queue, unless a seat was already handed over
+        if (responseObserver instanceof ServerCallStreamObserver<WaitlistUpdate> serverCallObserver) {
+            serverCallObserver.setOnCancelHandler(() -> {
+                if (waitlist.remove(entry)) {
+                    inventory.releasePassenger(request.getPassenger(), bookingId);
+                }
+            });
+        }
+
+        //Sent before the entry is queued, so the receipt can never overtake it
+        responseObserver.onNext(WaitlistUpdate.newBuilder().setPosition(position).build());
+        waitlist.add(entry);
+        //A hang up before the entry was queued found nothing to remove
+        if (responseObserver instanceof ServerCallStreamObserver<WaitlistUpdate> serverCallObserver
+                && serverCallObserver.isCancelled() && waitlist.remove(entry)) {
+            inventory.releasePassenger(request.getPassenger(), bookingId);
+            return;
+        }
+        //A seat may have been given back since it was looked for
+        promoteWaitlist(inventory);
+    }
+
+    //Called whenever a seat of the train is given back, often on the journal writer thread, so the promotion itself
+    //runs on the waitlist manager's executor
+    public void promoteWaitlist(TrainInventory inventory) {
+        waitlistManager.promote(inventory, (entry, seat) -> {
+            var booking = mapPurchasedBooking(inventory, seat, entry.getBookingId(), entry.getRequest(),
+                    entry.getJourney());
+            completeWhenWritten(bookClaimedSeat(inventory, inventory.getSeatBookings(), seat, entry.getJourney(),
+                            booking),
+                    WaitlistUpdate.newBuilder().setReceipt(ticketMapper.mapBookingToTicketReceipt(booking)).build(),
+                    entry.getResponseObserver());
+        });
+    }
+
+    //Reserves the passenger under a new booking id and claims a seat, returning the booking it will become
+    private Optional<ClaimedSeat> claimPassengerSeat(TrainInventory inventory, TicketPurchaseRequest request,
+                                                     StreamObserver<?> responseObserver) {
+        var passenger = reservePassenger(inventory, request, responseObserver);
+
+        if (passenger.isEmpty()) {
+            return Optional.empty();
+        }
+
+        var bookingId = passenger.get().bookingId();
+        var journey = passenger.get().journey();
+        var passengerSeat = inventory.claimAvailableSeat(journey);
+
+        if (passengerSeat.isEmpty()) {
+            inventory.releasePassenger(request.getPassenger(), bookingId);
+            responseObserver.onError(Status.NOT_FOUND.withDescription(NO_SEATS_AVAILABLE_FOR_NEW_BOOKING)
+                    .asException());
+            return Optional.empty();
+        }
+
+        return Optional.of(new ClaimedSeat(passengerSeat.get(), journey,
+                mapPurchasedBooking(inventory, passengerSeat.get(), bookingId, request, journey)));
+    }
+
+    //Resolves the journey and reserves the passenger under a new booking id, the first half of claimPassengerSeat
+    //which the waitlist shares as it queues the passenger when no seat is free
+    private Optional<ReservedPassenger> reservePassenger(TrainInventory inventory, TicketPurchaseRequest request,
+                                                         StreamObserver<?> responseObserver) {
+        var journey = getJourney(inventory, request.getBoardingStation(), request.getDestinationStation(),
+                responseObserver);
+
+        if (journey.isEmpty()) {
+            return Optional.empty();
+        }
+
+        var bookingId = bookingIdGenerator.nextBookingId();
+
+        if (!inventory.reservePassenger(request.getPassenger(), bookingId)) {
+            responseObserver.onError(Status.ALREADY_EXISTS.withDescription(PASSENGER_EXIST_ERROR_MESSAGE)
+                    .asException());
+            return Optional.empty();
+        }
+
+        return Optional.of(new ReservedPassenger(bookingId, journey.get()));
+    }
+
+    private Booking mapPurchasedBooking(TrainInventory inventory, Seat seat, String bookingId,
+                                        TicketPurchaseRequest request, RouteJourney journey) {
+        return ticketMapper.mapBookingForPurchase(seat, bookingId, request, journey,
+                getSeatFare(inventory, seat, journey.getFare()), inventory.getTrainDate());
+    }
+
+    //A booking takes one change at a time, a second change sent while the first waits on the journal is refused
+    private boolean startBookingChange(String bookingId, StreamObserver<?> responseObserver) {
+        if (changingBookings.add(bookingId)) {
+            return true;
+        }
+
+        responseObserver.onError(Status.ABORTED.withDescription(BOOKING_CHANGE_IN_PROGRESS_ERROR_MESSAGE)
+                .asException());
+        return false;
+    }
+
+    //Returns false when the booking was left as it is, the change is then answered with its error
+    private boolean removeBooking(TrainInventory inventory, BookingRequest request,
+                                  StreamObserver<Empty> responseObserver) {
+        var bookingId = request.getBookingId();
+        var bookings = inventory.getSeatBookings();
+        var bookedSeat = inventory.getBookedSeat(bookingId);
+        var booking = bookedSeat.isEmpty() ? null : bookings.get(bookingId);
+
+        if (booking == null) {
+            responseObserver.onError(Status.NOT_FOUND.withDescription(NO_BOOKING_FOUND_ERROR_MESSAGE + bookingId)
+                    .asException());
+            return false;
+        }
+
+        if (!booking.getEmailAddress().equalsIgnoreCase(request.getEmailAddress())) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(EMAIL_ADDRESS_NOT_MATCHING_ERROR_MESSAGE)
+                    .asException());
+            return false;
+        }
+
+        bookings.remove(bookingId);
+        receiptCache.invalidate(bookingId);
+        //The seat is only given back once the delete is journaled, so replay never sees the seat taken twice and
+        //a delete that could not be written can put the booking back
+        var written = bookingJournal.append(BookingEventType.DELETE, booking).whenComplete((ignored, error) -> {
+            try {
+                if (error != null) {
+                    bookings.put(bookingId, booking);
+                    return;
+                }
+
+                inventory.releaseSeat(bookedSeat.get(), bookingId);
+                inventory.releasePassenger(booking);
+                promoteWaitlist(inventory);
+            } finally {
+                changingBookings.remove(bookingId);
+            }
+        });
+
+        completeWhenWritten(written, Empty.newBuilder().build(), responseObserver);
+        return true;
+    }
+
+    //Returns false when the booking was left on its seat, the change is then answered with its error
+    private boolean moveBooking(TrainInventory inventory, BookingRequest request,
+                                StreamObserver<TicketReceiptResponse> responseObserver) {
+        var bookingId = request.getBookingId();
+        var bookings = inventory.getSeatBookings();
+        var bookedSeat = inventory.getBookedSeat(bookingId);
+        var booking = bookedSeat.isEmpty() ? null : bookings.get(bookingId);
+
+        if (booking == null) {
+            responseObserver.onError(Status.NOT_FOUND.withDescription(NO_BOOKING_FOUND_ERROR_MESSAGE + bookingId)
+                    .asException());
+            return false;
+        }
+
+        if (!booking.getEmailAddress().equalsIgnoreCase(request.getEmailAddress())) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(EMAIL_ADDRESS_NOT_MATCHING_ERROR_MESSAGE)
+                    .asException());
+            return false;
+        }
+
+        var journey = getJourney(inventory, booking.getBoardingStation(), booking.getDestinationStation(),
+                responseObserver);
+
+        if (journey.isEmpty()) {
+            return false;
+        }
+
+        var availableSeat = inventory.claimAvailableSeat(journey.get());
 
         if (availableSeat.isEmpty()) {
             responseObserver
                     .onError(Status.NOT_FOUND.withDescription(NO_SEATS_AVAILABLE_FOR_MODIFICATION_ERROR_MESSAGE)
                             .asException());
-            return;
+            return false;
         }
 
-        var booking = bookings.get(request.getBookingId());
+        var availableSeatEntry = availableSeat.get();
+        var movedBooking = booking.withSeat(availableSeatEntry);
 
-        if (!booking.getPassenger().getEmailAddress().equalsIgnoreCase(request.getEmailAddress())) {
-            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(EMAIL_ADDRESS_NOT_MATCHING_ERROR_MESSAGE)
+        //The claimed seat goes back should the booking be gone all the same
+        if (!bookings.replace(bookingId, movedBooking)) {
+            inventory.releaseClaimedSeats(List.of(availableSeatEntry), journey.get());
+            responseObserver.onError(Status.NOT_FOUND.withDescription(NO_BOOKING_FOUND_ERROR_MESSAGE + bookingId)
                     .asException());
-            return;
+            return false;
         }
 
-        var availableSeatEntry = availableSeat.get();
-        var newTicketReceipt = ticketMapper.createNewTicketReceiptResponseFromExistOne(booking,
-                availableSeatEntry.getSeatNumber(), availableSeatEntry.getSectionName());
+        receiptCache.invalidate(bookingId);
+        inventory.occupySeat(availableSeatEntry, journey.get(), bookingId);
+        //The old seat is held until the change is journaled, a change that could not be written moves back to it
+        var written = bookingJournal.append(BookingEventType.MODIFY, movedBooking).whenComplete((ignored, error) -> {
+            try {
+                if (error != null) {
+                    bookings.replace(bookingId, booking);
+                    receiptCache.invalidate(bookingId);
+                    inventory.occupySeat(bookedSeat.get(), journey.get(), bookingId);
+                    inventory.releaseSeat(availableSeatEntry, bookingId);
+                    return;
+                }
 
-        bookings.replace(request.getBookingId(), newTicketReceipt);
-        seatsMap.replace(bookedSeatById.get(), StringUtils.EMPTY);
-        seatsMap.replace(availableSeat.get(), request.getBookingId());
+                inventory.releaseSeat(bookedSeat.get(), bookingId);
+                promoteWaitlist(inventory);
+            } finally {
+                changingBookings.remove(bookingId);
+            }
+        });
 
-        responseObserver.onNext(newTicketReceipt);
-        responseObserver.onCompleted();
+        completeWhenWritten(written, ticketMapper.mapBookingToTicketReceipt(movedBooking), responseObserver);
+        return true;
     }
 
-    private Optional<Seat> getBookedSeatByBookingId(Map<Seat, String> seats, String bookingId) {
-        return seats.keySet().stream()
-                .filter(obj -> seats.get(obj).equals(bookingId)).findFirst();
+    //Turns a claimed seat into a booking, the returned future completes once the booking is journaled. A booking
+    //the journal could not write is undone before the caller hears of it, so a retry books afresh.
+    private CompletableFuture<Void> bookClaimedSeat(TrainInventory inventory, BookingStore seatBookings, Seat seat,
+                                                    RouteJourney journey, Booking booking) {
+        var bookingId = booking.getBookingId();
+        //A new booking id is never taken, the guard only keeps changes away until the booking is journaled
+        changingBookings.add(bookingId);
+        seatBookings.put(bookingId, booking);
+        inventory.occupySeat(seat, journey, bookingId);
+
+        return bookingJournal.append(BookingEventType.BOOK, booking).whenComplete((ignored, error) -> {
+            try {
+                if (error != null) {
+                    seatBookings.remove(bookingId);
+                    receiptCache.invalidate(bookingId);
+                    inventory.releaseSeat(seat, bookingId);
+                    inventory.releasePassenger(booking);
+                    promoteWaitlist(inventory);
+                }
+            } finally {
+                changingBookings.remove(bookingId);
+            }
+        });
     }
 
-    private Optional<Seat> validateNewTicket(Map<Seat, String> seats, Map<String, TicketReceiptResponse> seatBookings,
-                                             TicketPurchaseRequest request, StreamObserver<TicketReceiptResponse> responseObserver) {
-        var availableSeat = seats.keySet().stream()
-                .filter(obj -> StringUtils.isEmpty(seats.get(obj))).findFirst();
+    private Optional<SeatHold> getSeatHold(BookingRequest request, StreamObserver<?> responseObserver) {
+        if (request == null) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(BOOKED_REQUEST_ERROR_MESSAGE)
+                    .asException());
+            return Optional.empty();
+        }
 
-        if (availableSeat.isEmpty()) {
-            responseObserver.onError(Status.NOT_FOUND.withDescription(NO_SEATS_AVAILABLE_FOR_NEW_BOOKING)
+        var seatHold = seatHoldManager.get(request.getBookingId());
+
+        if (seatHold.isEmpty()) {
+            responseObserver.onError(Status.NOT_FOUND
+                    .withDescription(NO_HOLD_FOUND_ERROR_MESSAGE + request.getBookingId())
+                    .asException());
+            return Optional.empty();
+        }
+
+        if (!seatHold.get().getBooking().getEmailAddress().equalsIgnoreCase(request.getEmailAddress())) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(EMAIL_ADDRESS_NOT_MATCHING)
                     .asException());
             return Optional.empty();
         }
 
+        return seatHold;
+    }
+
+    //Replies once the change is durable, the calling thread never waits on the disk
+    private <T> void completeWhenWritten(CompletableFuture<Void> written, T response,
+                                         StreamObserver<T> responseObserver) {
+        written.whenComplete((ignored, error) -> {
+            if (error != null) {
+                responseObserver.onError(Status.INTERNAL.withDescription(BOOKING_JOURNAL_ERROR_MESSAGE)
+                        .withCause(error)
+                        .asException());
+                return;
+            }
+
+            responseObserver.onNext(response);
+            responseObserver.onCompleted();
+        });
+    }
+
+    private void streamSectionBooking(BookingStore seatBookings, String bookingId,
+                                      StreamObserver<SectionBooking> responseObserver) {
+        var booking = seatBookings.get(bookingId);
+        if (booking != null) {
+            responseObserver.onNext(ticketMapper.mapBookingToSectionBooking(booking));
+        }
+    }
+
+    private boolean validateNewTicket(TicketPurchaseRequest request, StreamObserver<?> responseObserver) {
         if (StringUtils.isBlank(request.getBoardingStation()) || StringUtils.isBlank(request.getDestinationStation())) {
             responseObserver.onError(Status.NOT_FOUND.withDescription(JOURNEY_DETAILS_ERROR_MESSAGE)
                     .asException());
-            return Optional.empty();
+            return false;
         }
 
         if (!request.hasPassenger() || isPassengerDetailsNotExist(request.getPassenger())) {
             responseObserver.onError(Status.FAILED_PRECONDITION.withDescription(PASSENGER_DETAILS_EMPTY_ERROR_MESSAGE)
                     .asException());
-            return Optional.empty();
+            return false;
         }
 
         if (!isValidEmailAddress(request.getPassenger().getEmailAddress())) {
             responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(EMAIL_ADDRESS_FORMAT_ERROR_MESSAGE)
                     .asException());
-            return Optional.empty();
+            return false;
         }
 
-        var isPassengerExist = seatBookings.values().stream()
-                .filter(obj -> validatePassengerIfAlreadyHasTicket(obj.getPassenger(), request.getPassenger()))
-                .findFirst();
+        return true;
+    }
 
-        if (isPassengerExist.isPresent()) {
-            responseObserver.onError(Status.ALREADY_EXISTS.withDescription(PASSENGER_EXIST_ERROR_MESSAGE)
-                    .asException());
-            return Optional.empty();
+    private Optional<String> getPassengerErrorMessage(Passenger passenger) {
+        if (isPassengerDetailsNotExist(passenger)) {
+            return Optional.of(PASSENGER_DETAILS_EMPTY_ERROR_MESSAGE);
+        }
+
+        if (!isValidEmailAddress(passenger.getEmailAddress())) {
+            return Optional.of(EMAIL_ADDRESS_FORMAT_ERROR_MESSAGE);
         }
 
-        return availableSeat;
+        return Optional.empty();
     }
 
-    private boolean validatePassengerIfAlreadyHasTicket(Passenger existingPassenger, Passenger newPassenger) {
-        return existingPassenger.getEmailAddress().equalsIgnoreCase(newPassenger.getEmailAddress())
-                && existingPassenger.getFirstName().equalsIgnoreCase(newPassenger.getFirstName())
-                && existingPassenger.getLastName().equalsIgnoreCase(newPassenger.getLastName());
+    private static TicketPurchaseRequest getTicketPurchaseRequest(BatchTicketPurchaseRequest request,
+                                                                  Passenger passenger) {
+        return TicketPurchaseRequest.newBuilder()
+                .setBoardingStation(request.getBoardingStation())
+                .setDestinationStation(request.getDestinationStation())
+                .setPassenger(passenger)
+                .setTrain(request.getTrain())
+                .build();
     }
 
     private boolean isPassengerDetailsNotExist(Passenger passenger) {
@@ -262,38 +912,121 @@ public class TicketManagerServiceImpl extends TicketManagerServiceGrpc.TicketMan
         return EmailValidator.getInstance().isValid(email);
     }
 
-    private TicketReceiptResponse validatePassengerEmail(Map<String, TicketReceiptResponse> seatBookings,
-                                                         String bookingId, String emailAddress,
-                                                         StreamObserver<TicketReceiptResponse> responseObserver) {
-        var booking = seatBookings.get(bookingId);
+    //Resolves the booked receipt through the cache, empty once an error has been sent
+    private Optional<CachedReceipt> getCachedReceipt(BookingRequest request, StreamObserver<?> responseObserver) {
+        var trainInventory = getTrainInventory(request.getTrain(), responseObserver);
 
-        if (!booking.getPassenger().getEmailAddress().equalsIgnoreCase(emailAddress)) {
-            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(EMAIL_ADDRESS_NOT_MATCHING)
+        if (trainInventory.isEmpty()) {
+            return Optional.empty();
+        }
+
+        var seatBookings = trainInventory.get().getSeatBookings();
+
+        var bookedSeat = trainInventory.get().getBookedSeat(request.getBookingId());
+
+        if (bookedSeat.isEmpty()) {
+            responseObserver.onError(Status.NOT_FOUND
+                    .withDescription(NO_BOOKING_FOUND_ERROR_MESSAGE + request.getBookingId())
                     .asException());
+            return Optional.empty();
         }
 
-        return booking;
+        var cachedReceipt = receiptCache.get(request.getBookingId(), bookingId -> {
+            var booking = seatBookings.get(bookingId);
+            return booking == null ? null : ticketMapper.mapBookingToTicketReceipt(booking);
+        });
+
+        if (cachedReceipt == null) {
+            //Deleted between the seat lookup and the read
+            responseObserver.onError(Status.NOT_FOUND
+                    .withDescription(NO_BOOKING_FOUND_ERROR_MESSAGE + request.getBookingId())
+                    .asException());
+            return Optional.empty();
+        }
+
+        return Optional.of(cachedReceipt);
     }
 
-    private Optional<Double> getJourneyTicketCost(String from, String to,
-                                                  StreamObserver<TicketReceiptResponse> responseObserver) {
-        var travelJourneys = trainSeatManager.getTravelJourneys();
+    //Resolves the inventory of the selected train and date for a new booking, opening it on first use
+    private Optional<TrainInventory> openTrainInventory(TrainSelector train, StreamObserver<?> responseObserver) {
+        var travelDate = getTravelDate(train, responseObserver);
 
-        var requiredJourney = travelJourneys.keySet().stream().filter(obj -> obj.getFrom().equalsIgnoreCase(from)
-                && obj.getTo().equalsIgnoreCase(to)).findFirst();
+        if (travelDate.isEmpty()) {
+            return Optional.empty();
+        }
 
-        if (requiredJourney.isEmpty()) {
-            responseObserver.onError(Status.NOT_FOUND.withDescription(TRAIN_JOURNEY_DETAILS_NOT_FOUND)
+        if (!trainSeatManager.isOnSale(travelDate.get())) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(TRAVEL_DATE_NOT_ON_SALE_ERROR_MESSAGE)
                     .asException());
             return Optional.empty();
         }
 
-        return Optional.of(travelJourneys.get(requiredJourney.get()));
+        var trainInventory = trainSeatManager.openTrainInventory(train.getTrainNumber(), travelDate.get());
+
+        if (trainInventory.isEmpty()) {
+            responseObserver.onError(Status.NOT_FOUND
+                    .withDescription(TRAIN_NOT_FOUND_ERROR_MESSAGE + train.getTrainNumber())
+                    .asException());
+        }
+
+        return trainInventory;
+    }
+
+    //Resolves the inventory of the selected train and date for reads and changes, which never open one
+    private Optional<TrainInventory> getTrainInventory(TrainSelector train, StreamObserver<?> responseObserver) {
+        var travelDate = getTravelDate(train, responseObserver);
+
+        if (travelDate.isEmpty()) {
+            return Optional.empty();
+        }
+
+        var trainInventory = trainSeatManager.getTrainInventory(train.getTrainNumber(), travelDate.get());
+
+        if (trainInventory.isEmpty()) {
+            responseObserver.onError(Status.NOT_FOUND
+                    .withDescription((trainSeatManager.hasTrain(train.getTrainNumber())
+                            ? NO_TRAIN_BOOKINGS_ERROR_MESSAGE : TRAIN_NOT_FOUND_ERROR_MESSAGE) + train.getTrainNumber())
+                    .asException());
+        }
+
+        return trainInventory;
+    }
+
+    //A blank travel date means today
+    private Optional<LocalDate> getTravelDate(TrainSelector train, StreamObserver<?> responseObserver) {
+        try {
+            return Optional.of(StringUtils.isBlank(train.getTravelDate())
+                    ? LocalDate.now() : LocalDate.parse(train.getTravelDate().trim()));
+        } catch (DateTimeParseException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT.withDescription(TRAVEL_DATE_FORMAT_ERROR_MESSAGE)
+                    .asException());
+            return Optional.empty();
+        }
+    }
+
+    //Resolves the stations against the train's route, the journey is then passed to every inventory call
+    private Optional<RouteJourney> getJourney(TrainInventory trainInventory, String from, String to,
+                                              StreamObserver<?> responseObserver) {
+        var journey = trainInventory.getJourney(from, to);
+
+        if (journey.isEmpty()) {
+            responseObserver.onError(Status.NOT_FOUND.withDescription(TRAIN_JOURNEY_DETAILS_NOT_FOUND)
+                    .asException());
+        }
+
+        return journey;
+    }
+
+    //Journey fare with the class of the seat's coach applied
+    private static double getSeatFare(TrainInventory trainInventory, Seat seat, double journeyFare) {
+        return trainInventory.getTrainSection(seat.getSectionId())
+                .map(section -> section.getCoach().getSeatFare(journeyFare))
+                .orElse(journeyFare);
+    }
+
+    private record ClaimedSeat(Seat seat, RouteJourney journey, Booking booking) {
     }
 
-    private String getBookingId() {
-        var dateTime = LocalDateTime.now();
-        return String.format("%1$d%2$d%3$d%4$d%5$d%6$d", dateTime.getYear(), dateTime.getMonthValue(),
-                dateTime.getDayOfMonth(), dateTime.getHour(), dateTime.getMinute(), dateTime.getSecond());
+    private record ReservedPassenger(String bookingId, RouteJourney journey) {
     }
 }
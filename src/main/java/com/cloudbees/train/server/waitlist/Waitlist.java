@@ -0,0 +1,99 @@
+package com.cloudbees.train.server.waitlist;
+
+import com.cloudbees.train.server.entity.Seat;
+import com.cloudbees.train.server.persistence.TrainInventory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+//First come first served queue of one train-date. Whoever removes an entry from the queue owns it, so an entry
+//is either promoted or cancelled, never both.
+public class Waitlist {
+    private final TrainInventory inventory;
+    private final Queue<WaitlistEntry> entries = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicInteger promotionRequests = new AtomicInteger();
+
+    Waitlist(TrainInventory inventory) {
+        this.inventory = inventory;
+    }
+
+    public TrainInventory getInventory() {
+        return inventory;
+    }
+
+    //Counts a passenger about to join and returns their place, or 0 when the waitlist is full. The place can be
+    //told before the entry is queued and a passenger joining right after is placed behind them.
+    public int reservePosition() {
+        int waiting;
+        do {
+            waiting = size.get();
+            if (waiting >= WaitlistManager.MAX_WAITLIST_SIZE) {
+                return 0;
+            }
+        } while (!size.compareAndSet(waiting, waiting + 1));
+
+        return waiting + 1;
+    }
+
+    //Queues an entry whose place was reserved
+    public void add(WaitlistEntry entry) {
+        entries.add(entry);
+    }
+
+    public boolean remove(WaitlistEntry entry) {
+        if (!entries.remove(entry)) {
+            return false;
+        }
+
+        size.decrementAndGet();
+        return true;
+    }
+
+    //Takes every waiting entry out of the queue, entries promoted or cancelled meanwhile are not returned
+    public List<WaitlistEntry> removeAll() {
+        List<WaitlistEntry> removed = new ArrayList<>();
+        for (var entry : entries) {
+            if (remove(entry)) {
+                removed.add(entry);
+            }
+        }
+
+        return removed;
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    //Hands seats freed on the train to waiting passengers in queue order. A passenger whose journey does not fit
+    //any free seat keeps its place and the ones behind it are tried. Concurrent requests are folded into the run
+    //in progress, which goes over the queue again before it stops.
+    public void promote(BiConsumer<WaitlistEntry, Seat> booker) {
+        int missed = promotionRequests.incrementAndGet();
+        if (missed != 1) {
+            return;
+        }
+
+        do {
+            for (var entry : entries) {
+                var seat = inventory.claimAvailableSeat(entry.getJourney());
+                if (seat.isEmpty()) {
+                    continue;
+                }
+
+                if (remove(entry)) {
+                    booker.accept(entry, seat.get());
+                } else {
+                    //Cancelled while the seat was claimed
+                    inventory.releaseClaimedSeats(List.of(seat.get()), entry.getJourney());
+                }
+            }
+            missed = promotionRequests.addAndGet(-missed);
+        } while (missed != 0);
+    }
+}
@@ -0,0 +1,19 @@
+package com.cloudbees.train.server.waitlist;
+
+import com.cloudbees.train.TicketPurchaseRequest;
+import com.cloudbees.train.WaitlistUpdate;
+import com.cloudbees.train.server.entity.RouteJourney;
+import io.grpc.stub.StreamObserver;
+import lombok.Builder;
+import lombok.Getter;
+
+//A passenger waiting for a seat. The passenger is reserved under the booking id for as long as the entry waits.
+@Builder
+@Getter
+public class WaitlistEntry {
+    private final TicketPurchaseRequest request;
+    private final String bookingId;
+    //Resolved when the passenger joined, its fare gets the class of the seat handed over applied
+    private final RouteJourney journey;
+    private final StreamObserver<WaitlistUpdate> responseObserver;
+}
@@ -0,0 +1,57 @@
+package com.cloudbees.train.server.waitlist;
+
+import com.cloudbees.train.server.entity.Seat;
+import com.cloudbees.train.server.persistence.TrainInventory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+
+//Waitlist per inventory shard, i.e. per train and service date, created when the first passenger joins
+public class WaitlistManager {
+    public static final int MAX_WAITLIST_SIZE = 1_000;
+
+    private final Map<TrainInventory, Waitlist> waitlists = new ConcurrentHashMap<>();
+    //Seats are given back on the journal writer thread too, promotion must not hold it up. Runs of one waitlist
+    //fold into each other, so a virtual thread per request costs little.
+    private final Executor promotionExecutor;
+
+    public WaitlistManager() {
+        this(Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("waitlist-promotion-", 0).factory()));
+    }
+
+    public WaitlistManager(Executor promotionExecutor) {
+        this.promotionExecutor = promotionExecutor;
+    }
+
+    public Waitlist getOrCreateWaitlist(TrainInventory inventory) {
+        return waitlists.computeIfAbsent(inventory, Waitlist::new);
+    }
+
+    //Empty when nobody ever waited for this train-date, the common case on every cancellation
+    public Optional<Waitlist> getWaitlist(TrainInventory inventory) {
+        return Optional.ofNullable(waitlists.get(inventory));
+    }
+
+    //Hands freed seats of the train-date to its waiting passengers, nothing to do when nobody waits
+    public void promote(TrainInventory inventory, BiConsumer<WaitlistEntry, Seat> booker) {
+        var waitlist = waitlists.get(inventory);
+        if (waitlist != null) {
+            promotionExecutor.execute(() -> waitlist.promote(booker));
+        }
+    }
+
+    //Drops the waitlist of a train-date taken out of service and returns the passengers still waiting on it
+    public List<WaitlistEntry> removeWaitlist(TrainInventory inventory) {
+        var waitlist = waitlists.remove(inventory);
+        return waitlist == null ? List.of() : waitlist.removeAll();
+    }
+
+    public int getWaitingCount() {
+        return waitlists.values().stream().mapToInt(Waitlist::size).sum();
+    }
+}
@@ -0,0 +1,96 @@
+package com.cloudbees.train.client.load;
+
+import com.cloudbees.train.server.TicketBookingServer;
+import com.cloudbees.train.server.journal.NoOpBookingJournal;
+import com.cloudbees.train.server.persistence.TrainSeatManager;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LoadGeneratorTest {
+    private static final LocalDate FIRST_TRAVEL_DATE = LocalDate.now();
+
+    private final TrainSeatManager trainSeatManager = new TrainSeatManager();
+    private Server server;
+    private ManagedChannel channel;
+
+    @BeforeEach
+    void startServer() throws Exception {
+        var serverName = InProcessServerBuilder.generateName();
+        server = TicketBookingServer.createServer(InProcessServerBuilder.forName(serverName), trainSeatManager,
+                new NoOpBookingJournal()).start();
+        channel = InProcessChannelBuilder.forName(serverName).build();
+    }
+
+    @AfterEach
+    void stopServer() {
+        channel.shutdownNow();
+        server.shutdownNow();
+        trainSeatManager.removeTrainInventoriesBefore(FIRST_TRAVEL_DATE.plusYears(1));
+    }
+
+    @Test
+    void should_issue_every_operation_of_the_mix() throws Exception {
+        var profile = getProfile(Map.of(LoadOperation.BOOK, 40, LoadOperation.LOOKUP, 30,
+                LoadOperation.MODIFY, 20, LoadOperation.DELETE, 10));
+
+        var report = new LoadGenerator(profile, channel).run();
+
+        assertThat(report.getTotalCount()).isBetween(380L, 400L);
+        for (var operation : LoadOperation.values()) {
+            assertThat(report.getCount(operation)).isPositive();
+            assertThat(report.getErrorCount(operation)).isZero();
+        }
+        assertThat(report.getErrorCodes()).isEmpty();
+        assertThat(trainSeatManager.getTrainInventory("9001", FIRST_TRAVEL_DATE).orElseThrow()
+                .getSeatBookings().size()).isPositive();
+    }
+
+    @Test
+    void should_book_when_no_booking_is_left_to_use() throws Exception {
+        var report = new LoadGenerator(getProfile(Map.of(LoadOperation.LOOKUP, 1)), channel).run();
+
+        //Lookups sent before the first booking completes book too
+        assertThat(report.getCount(LoadOperation.BOOK)).isPositive();
+        assertThat(report.getCount(LoadOperation.LOOKUP)).isPositive();
+        assertThat(report.getCount(LoadOperation.BOOK) + report.getCount(LoadOperation.LOOKUP))
+                .isEqualTo(report.getTotalCount());
+        assertThat(report.getErrorCodes()).isEmpty();
+    }
+
+    @Test
+    void should_parse_operation_mix() {
+        assertThat(LoadProfile.parseMix("book:3, Lookup:1,delete:0"))
+                .containsExactly(Map.entry(LoadOperation.BOOK, 3), Map.entry(LoadOperation.LOOKUP, 1),
+                        Map.entry(LoadOperation.DELETE, 0));
+        assertThatThrownBy(() -> LoadProfile.parseMix("book")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> LoadProfile.parseMix("book:0")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static LoadProfile getProfile(Map<LoadOperation, Integer> mix) {
+        return LoadProfile.builder()
+                .target(LoadProfile.IN_PROCESS_TARGET)
+                .requestsPerSecond(400)
+                .duration(Duration.ofSeconds(1))
+                .warmup(Duration.ZERO)
+                .maxInFlight(64)
+                .mix(mix)
+                .trainNumber("9001")
+                .firstTravelDate(FIRST_TRAVEL_DATE)
+                .travelDays(5)
+                .boardingStation("London")
+                .destinationStation("France")
+                .build();
+    }
+}
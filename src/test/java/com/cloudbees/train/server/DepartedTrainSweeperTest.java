@@ -0,0 +1,66 @@
+package com.cloudbees.train.server;
+
+import com.cloudbees.train.WaitlistUpdate;
+import com.cloudbees.train.server.persistence.TrainSeatManager;
+import com.cloudbees.train.server.seatmap.SeatMapFrame;
+import com.cloudbees.train.server.seatmap.SeatMapPublisher;
+import com.cloudbees.train.server.waitlist.WaitlistEntry;
+import com.cloudbees.train.server.waitlist.WaitlistManager;
+import io.grpc.Status;
+import io.grpc.internal.testing.StreamRecorder;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+import static com.cloudbees.train.server.factory.TicketFactory.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DepartedTrainSweeperTest {
+    private static final LocalDate TODAY = LocalDate.of(2030, 1, 2);
+
+    @Test
+    void should_retire_departed_trains_with_their_waitlists_and_seat_map_feeds() throws Exception {
+        var trainSeatManager = new TrainSeatManager();
+        var waitlistManager = new WaitlistManager();
+        var clock = Clock.fixed(TODAY.atStartOfDay().toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        try (var seatMapPublisher = new SeatMapPublisher(Duration.ofMinutes(1))) {
+            var sweeper = new DepartedTrainSweeper(trainSeatManager, waitlistManager, seatMapPublisher, clock);
+            var departed = trainSeatManager.openTrainInventory("9001", TODAY.minusDays(1)).orElseThrow();
+            var running = trainSeatManager.openTrainInventory("9001", TODAY).orElseThrow();
+            StreamRecorder<WaitlistUpdate> waiting = StreamRecorder.create();
+            var waitlist = waitlistManager.getOrCreateWaitlist(departed);
+            waitlist.reservePosition();
+            waitlist.add(WaitlistEntry.builder()
+                    .request(getTicketPurchaseRequestDtoMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS))
+                    .bookingId(BOOKING_ID)
+                    .journey(departed.getJourney("London", "France").orElseThrow())
+                    .responseObserver(waiting)
+                    .build());
+            StreamRecorder<SeatMapFrame> watching = StreamRecorder.create();
+            seatMapPublisher.subscribe(departed, watching);
+            seatMapPublisher.subscribe(running, StreamRecorder.create());
+
+            sweeper.sweep();
+
+            assertThat(trainSeatManager.getTrainInventory("9001", TODAY.minusDays(1))).isEmpty();
+            assertThat(trainSeatManager.getTrainInventory("9001", TODAY)).containsSame(running);
+            assertThat(waitlistManager.getWaitlist(departed)).isEmpty();
+            assertThat(waitlistManager.getWaitingCount()).isZero();
+            assertThat(Status.fromThrowable(waiting.getError()).getCode()).isEqualTo(Status.Code.FAILED_PRECONDITION);
+            assertThat(watching.awaitCompletion(1, TimeUnit.SECONDS)).isTrue();
+            assertThat(watching.getError()).isNull();
+            assertThat(seatMapPublisher.getFeedCount()).isEqualTo(1);
+
+            //The retired store is closed by the next sweep, which leaves today's train alone
+            sweeper.sweep();
+
+            assertThat(trainSeatManager.getTrainInventory("9001", TODAY)).containsSame(running);
+        } finally {
+            trainSeatManager.removeTrainInventoriesBefore(TODAY.plusDays(1));
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.cloudbees.train.server.cache;
+
+import com.cloudbees.train.BookingRequest;
+import com.cloudbees.train.TicketManagerServiceGrpc;
+import com.cloudbees.train.TicketReceiptResponse;
+import com.cloudbees.train.TrainSelector;
+import com.cloudbees.train.server.TicketBookingServer;
+import com.cloudbees.train.server.journal.NoOpBookingJournal;
+import com.cloudbees.train.server.persistence.TrainSeatManager;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.cloudbees.train.server.factory.TicketFactory.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReceiptCacheTest {
+    @Test
+    void should_load_on_miss_and_serve_bytes_on_hit() {
+        var receiptCache = new ReceiptCache(16);
+        var store = getStore(BOOKING_ID);
+
+        var loaded = receiptCache.get(BOOKING_ID, store::get);
+        var cached = receiptCache.get(BOOKING_ID, ignored -> null);
+
+        assertThat(cached).isSameAs(loaded);
+        assertThat(cached.getBytes()).isEqualTo(store.get(BOOKING_ID).toByteArray());
+        assertThat(receiptCache.get("UNKNOWN", store::get)).isNull();
+        assertThat(receiptCache.getHitCount()).isEqualTo(1);
+        assertThat(receiptCache.getMissCount()).isEqualTo(2);
+    }
+
+    @Test
+    void should_reload_after_invalidation() {
+        var receiptCache = new ReceiptCache(16);
+        var store = getStore(BOOKING_ID);
+        receiptCache.get(BOOKING_ID, store::get);
+
+        store.put(BOOKING_ID, getReceipt(BOOKING_ID, 9));
+        receiptCache.invalidate(BOOKING_ID);
+
+        assertThat(receiptCache.get(BOOKING_ID, store::get).getReceipt().getSeatNumber()).isEqualTo(9);
+        assertThat(receiptCache.getMissCount()).isEqualTo(2);
+    }
+
+    @Test
+    void should_not_keep_receipt_changed_while_loading() {
+        var receiptCache = new ReceiptCache(16);
+        var store = getStore(BOOKING_ID);
+        var loads = new int[1];
+
+        //The booking is modified and invalidated after it was read but before the receipt is put
+        var loaded = receiptCache.get(BOOKING_ID, bookingId -> {
+            loads[0]++;
+            var receipt = store.get(bookingId);
+            store.put(bookingId, getReceipt(bookingId, 9));
+            receiptCache.invalidate(bookingId);
+            return receipt;
+        });
+
+        assertThat(loaded.getReceipt().getSeatNumber()).isEqualTo(1);
+        assertThat(loads[0]).isEqualTo(1);
+        assertThat(receiptCache.size()).isZero();
+        assertThat(receiptCache.get(BOOKING_ID, store::get).getReceipt().getSeatNumber()).isEqualTo(9);
+    }
+
+    @Test
+    void should_evict_least_recently_used_receipts_beyond_capacity() {
+        var receiptCache = new ReceiptCache(16);
+        var store = getStore();
+        for (int i = 0; i < 1_000; i++) {
+            var bookingId = Integer.toString(i);
+            store.put(bookingId, getReceipt(bookingId, 1));
+            receiptCache.get(bookingId, store::get);
+        }
+
+        assertThat(receiptCache.size()).isLessThanOrEqualTo(16);
+        assertThat(receiptCache.getEvictionCount()).isEqualTo(1_000 - receiptCache.size());
+    }
+
+    @Test
+    void should_answer_generated_stub_with_cached_bytes() throws Exception {
+        var serviceDate = LocalDate.now();
+        var train = TrainSelector.newBuilder().setTrainNumber("9001").setTravelDate(serviceDate.toString()).build();
+        var trainSeatManager = new TrainSeatManager();
+        var serverName = InProcessServerBuilder.generateName();
+        var server = TicketBookingServer.createServer(InProcessServerBuilder.forName(serverName), trainSeatManager,
+                new NoOpBookingJournal()).start();
+        var channel = InProcessChannelBuilder.forName(serverName).build();
+        try {
+            var stub = TicketManagerServiceGrpc.newBlockingStub(channel);
+            var booked = stub.bookTicket(getTicketPurchaseRequestDtoMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS)
+                    .toBuilder().setTrain(train).build());
+            var request = BookingRequest.newBuilder()
+                    .setBookingId(booked.getBookingId())
+                    .setEmailAddress(EMAIL_ADDRESS)
+                    .setTrain(train)
+                    .build();
+
+            assertThat(stub.getBookedTicketReceipt(request)).isEqualTo(booked);
+            assertThat(stub.getBookedTicketReceipt(request)).isEqualTo(booked);
+
+            var modified = stub.modifyPassengerSeat(request);
+
+            assertThat(stub.getBookedTicketReceipt(request)).isEqualTo(modified);
+        } finally {
+            channel.shutdownNow();
+            server.shutdownNow();
+            trainSeatManager.removeTrainInventoriesBefore(serviceDate.plusDays(1));
+        }
+    }
+
+    private static Map<String, TicketReceiptResponse> getStore(String... bookingIds) {
+        Map<String, TicketReceiptResponse> store = new HashMap<>();
+        for (var bookingId : bookingIds) {
+            store.put(bookingId, getReceipt(bookingId, 1));
+        }
+
+        return store;
+    }
+
+    private static TicketReceiptResponse getReceipt(String bookingId, int seatNumber) {
+        return getTicketReceiptDtoMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS, seatNumber, SECTION_A).toBuilder()
+                .setBookingId(bookingId)
+                .build();
+    }
+}
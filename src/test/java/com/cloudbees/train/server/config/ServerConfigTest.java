@@ -0,0 +1,65 @@
+package com.cloudbees.train.server.config;
+
+import io.netty.channel.epoll.Epoll;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ServerConfigTest {
+    @Test
+    void should_keep_grpc_defaults_when_nothing_is_configured() {
+        var config = ServerConfig.fromProperties(new Properties());
+
+        assertThat(config.getPort()).isEqualTo(5003);
+        assertThat(config.getExecutorType()).isEqualTo(ExecutorType.DEFAULT);
+        assertThat(config.getFlowControlWindow()).isEqualTo(1024 * 1024);
+        assertThat(config.getMaxConcurrentCallsPerConnection()).isEqualTo(Integer.MAX_VALUE);
+        assertThat(config.getKeepAliveTime()).isEqualTo(Duration.ofHours(2));
+        assertThat(config.isEpoll()).isEqualTo(Epoll.isAvailable());
+    }
+
+    @Test
+    void should_read_configured_values() {
+        var properties = new Properties();
+        properties.setProperty(ServerConfig.PORT_PROPERTY, " 6003 ");
+        properties.setProperty(ServerConfig.EXECUTOR_PROPERTY, "Bounded");
+        properties.setProperty(ServerConfig.EXECUTOR_THREADS_PROPERTY, "8");
+        properties.setProperty(ServerConfig.WORKER_THREADS_PROPERTY, "4");
+        properties.setProperty(ServerConfig.MAX_CONCURRENT_CALLS_PROPERTY, "100");
+        properties.setProperty(ServerConfig.KEEP_ALIVE_TIME_PROPERTY, "30");
+        properties.setProperty(ServerConfig.PERMIT_KEEP_ALIVE_WITHOUT_CALLS_PROPERTY, "true");
+        properties.setProperty(ServerConfig.EPOLL_PROPERTY, "false");
+
+        var config = ServerConfig.fromProperties(properties);
+
+        assertThat(config.getPort()).isEqualTo(6003);
+        assertThat(config.getExecutorType()).isEqualTo(ExecutorType.BOUNDED);
+        assertThat(config.getExecutorThreads()).isEqualTo(8);
+        assertThat(config.getWorkerThreads()).isEqualTo(4);
+        assertThat(config.getMaxConcurrentCallsPerConnection()).isEqualTo(100);
+        assertThat(config.getKeepAliveTime()).isEqualTo(Duration.ofSeconds(30));
+        assertThat(config.isPermitKeepAliveWithoutCalls()).isTrue();
+        assertThat(config.isEpoll()).isFalse();
+    }
+
+    @Test
+    void should_reject_invalid_values() {
+        var properties = new Properties();
+        properties.setProperty(ServerConfig.PORT_PROPERTY, "port");
+
+        assertThatThrownBy(() -> ServerConfig.fromProperties(properties))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining(ServerConfig.PORT_PROPERTY);
+
+        properties.setProperty(ServerConfig.PORT_PROPERTY, "6003");
+        properties.setProperty(ServerConfig.EXECUTOR_PROPERTY, "unbounded");
+
+        assertThatThrownBy(() -> ServerConfig.fromProperties(properties))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining(ServerConfig.EXECUTOR_PROPERTY);
+    }
+}
@@ -0,0 +1,60 @@
+package com.cloudbees.train.server.config;
+
+import com.cloudbees.train.TicketManagerServiceGrpc;
+import com.cloudbees.train.server.TicketBookingServer;
+import com.cloudbees.train.server.journal.NoOpBookingJournal;
+import com.cloudbees.train.server.persistence.TrainSeatManager;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.StatusRuntimeException;
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import static com.cloudbees.train.server.factory.TicketFactory.getBookingRequestMock;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ServerTransportTest {
+    @Test
+    void should_serve_calls_with_default_executor() throws Exception {
+        assertServesCalls(ExecutorType.DEFAULT);
+    }
+
+    @Test
+    void should_serve_calls_with_bounded_executor() throws Exception {
+        assertServesCalls(ExecutorType.BOUNDED);
+    }
+
+    @Test
+    void should_serve_calls_on_virtual_threads() throws Exception {
+        assertServesCalls(ExecutorType.VIRTUAL);
+    }
+
+    @Test
+    void should_serve_calls_on_event_loop_with_direct_executor() throws Exception {
+        assertServesCalls(ExecutorType.DIRECT);
+    }
+
+    private static void assertServesCalls(ExecutorType executorType) throws Exception {
+        var properties = new Properties();
+        properties.setProperty(ServerConfig.PORT_PROPERTY, "0");
+        properties.setProperty(ServerConfig.EXECUTOR_PROPERTY, executorType.name());
+        properties.setProperty(ServerConfig.WORKER_THREADS_PROPERTY, "2");
+
+        try (var transport = ServerTransport.create(ServerConfig.fromProperties(properties))) {
+            var server = TicketBookingServer.createServer(transport.newServerBuilder(), new TrainSeatManager(),
+                    new NoOpBookingJournal()).start();
+            var channel = ManagedChannelBuilder.forAddress("localhost", server.getPort()).usePlaintext().build();
+            try {
+                var stub = TicketManagerServiceGrpc.newBlockingStub(channel);
+
+                assertThatThrownBy(() -> stub.getBookedTicketReceipt(getBookingRequestMock("UNKNOWN", "a@b.com")))
+                        .isInstanceOf(StatusRuntimeException.class)
+                        .hasMessageContaining("NOT_FOUND");
+            } finally {
+                channel.shutdownNow();
+                server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+            }
+        }
+    }
+}
@@ -1,19 +1,22 @@
 package com.cloudbees.train.server.factory;
 
+import com.cloudbees.train.BatchTicketPurchaseRequest;
 import com.cloudbees.train.BookingRequest;
 import com.cloudbees.train.Passenger;
 import com.cloudbees.train.SectionBooking;
-import com.cloudbees.train.SectionBookingResponse;
 import com.cloudbees.train.SectionRequest;
 import com.cloudbees.train.TicketPurchaseRequest;
 import com.cloudbees.train.TicketReceiptResponse;
-import com.cloudbees.train.server.entity.Journey;
+import com.cloudbees.train.TrainSelector;
+import com.cloudbees.train.server.entity.Booking;
+import com.cloudbees.train.server.entity.RouteJourney;
 import com.cloudbees.train.server.entity.Seat;
-import org.apache.commons.lang.StringUtils;
+import com.cloudbees.train.server.entity.TrainDate;
+import com.cloudbees.train.server.persistence.BookingStore;
+import com.cloudbees.train.server.persistence.HeapBookingStore;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.time.LocalDate;
+import java.util.List;
 
 public class TicketFactory {
     public static final String BOOKING_ID = "20240802210508";
@@ -22,6 +25,7 @@ public class TicketFactory {
     public static final String EMAIL_ADDRESS = "Mohamed@gmail.com";
     public static final String EMAIL_ADDRESS_2 = "coder@gmail.com";
     public static final String SECTION_A = "SECTION A";
+    public static final String TRAIN_NUMBER = "9001";
 
     public static Passenger getPassengerDtoMock(String firstName, String lastName, String emailAddress) {
         return Passenger.newBuilder()
@@ -31,46 +35,13 @@ public class TicketFactory {
                 .build();
     }
 
-    public static Map<Seat, String> getTrainSeatsMapMockWithoutEmptySeats() {
-        Map<Seat, String> seats = new ConcurrentHashMap<>();
-        seats.put(getSeatMock(1, 1), "20240802210508");
-        seats.put(getSeatMock(2, 1), "20240802210511");
-
-        return seats;
-    }
-
-    public static Map<Seat, String> getTrainSeatsWithAvailableSeatsMock() {
-        Map<Seat, String> seats = new ConcurrentHashMap<>();
-        seats.put(getSeatMock(1, 1), BOOKING_ID);
-        seats.put(getSeatMock(2, 1), StringUtils.EMPTY);
-
-        return seats;
-    }
-
-    public static Map<String, TicketReceiptResponse> getTrainSeatBookingsMock(String firstName, String lastName,
-                                                                              String emailAddress) {
-        Map<String, TicketReceiptResponse> seatBookings = new HashMap<>();
-        seatBookings.put(BOOKING_ID, getTicketReceiptDtoMock(firstName, lastName, emailAddress, 1,
-                SECTION_A));
+    public static BookingStore getTrainSeatBookingsMock(String firstName, String lastName, String emailAddress) {
+        var seatBookings = new HeapBookingStore();
+        seatBookings.put(BOOKING_ID, getBookingMock(firstName, lastName, emailAddress, 1, SECTION_A));
 
         return seatBookings;
     }
 
-    public static Map<Journey, Double> getJourneysMapMock() {
-        Map<Journey, Double> journeys = new ConcurrentHashMap<>();
-        journeys.put(getJourney("London", "France"), 20d);
-        journeys.put(getJourney("belgium", "Swizerland"), 80d);
-
-        return journeys;
-    }
-
-    private static Journey getJourney(String from, String to) {
-        return Journey.builder()
-                .from(from)
-                .to(to)
-                .build();
-    }
-
     public static TicketPurchaseRequest getTicketPurchaseRequestDtoMock(String firstName, String lastName,
                                                                         String emailAddress) {
         return TicketPurchaseRequest.newBuilder()
@@ -80,6 +51,16 @@ public class TicketFactory {
                 .build();
     }
 
+    public static BatchTicketPurchaseRequest getBatchTicketPurchaseRequestMock(boolean allowPartial,
+                                                                              Passenger... passengers) {
+        return BatchTicketPurchaseRequest.newBuilder()
+                .addAllPassengers(List.of(passengers))
+                .setBoardingStation("London")
+                .setDestinationStation("France")
+                .setAllowPartial(allowPartial)
+                .build();
+    }
+
     public static TicketPurchaseRequest getTicketPurchaseRequestDtoWithoutJourneyDetailsMock(String fromStation, String toStation) {
         return TicketPurchaseRequest.newBuilder()
                 .setBoardingStation(fromStation)
@@ -115,6 +96,46 @@ public class TicketFactory {
                 .build();
     }
 
+    public static Booking getBookingMock(String firstName, String lastName, String emailAddress, int seatNumber,
+                                         String sectionName) {
+        return Booking.builder()
+                .bookingId(BOOKING_ID)
+                .firstName(firstName)
+                .lastName(lastName)
+                .emailAddress(emailAddress)
+                .seatNumber(seatNumber)
+                .sectionName(sectionName)
+                .pricePaid(20d)
+                .boardingStation("London")
+                .destinationStation("France")
+                .trainDate(getTrainDateMock())
+                .build();
+    }
+
+    public static TrainSelector getTrainSelectorMock(String trainNumber, String travelDate) {
+        return TrainSelector.newBuilder()
+                .setTrainNumber(trainNumber)
+                .setTravelDate(travelDate)
+                .build();
+    }
+
+    public static TrainDate getTrainDateMock() {
+        return TrainDate.builder()
+                .trainNumber(TRAIN_NUMBER)
+                .serviceDate(LocalDate.of(2024, 8, 2))
+                .build();
+    }
+
+    public static RouteJourney getRouteJourneyMock() {
+        return RouteJourney.builder()
+                .from("London")
+                .to("France")
+                .fromStop(0)
+                .toStop(2)
+                .fare(20d)
+                .build();
+    }
+
     public static Seat getSeatMock(int seatNumber, int sectionId) {
         return Seat.builder()
                 .seatNumber(seatNumber)
@@ -123,19 +144,12 @@ public class TicketFactory {
                 .build();
     }
 
-    public static SectionBooking getSectionBookingsDtoMock(TicketReceiptResponse ticketReceiptDto) {
+    public static SectionBooking getSectionBookingsDtoMock(Booking booking) {
         return SectionBooking.newBuilder()
-                .setSectionName(ticketReceiptDto.getSection())
-                .setPassenger(ticketReceiptDto.getPassenger())
-                .setSeatNumber(ticketReceiptDto.getSeatNumber())
-                .build();
-    }
-
-    public static SectionBookingResponse getSectionBookingResponse() {
-        var receipt =
-                getTicketReceiptDtoMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS, 1, SECTION_A);
-        return SectionBookingResponse.newBuilder()
-                .addSectionBooking(getSectionBookingsDtoMock(receipt))
+                .setSectionName(booking.getSectionName())
+                .setPassenger(getPassengerDtoMock(booking.getFirstName(), booking.getLastName(),
+                        booking.getEmailAddress()))
+                .setSeatNumber(booking.getSeatNumber())
                 .build();
     }
 
@@ -151,17 +165,4 @@ public class TicketFactory {
                 .setSectionId(sectionId)
                 .build();
     }
-
-    public static TicketReceiptResponse createNewTicketReceiptFromExisting(TicketReceiptResponse response,
-                                                                           int seatNumber, String sectionName) {
-        return TicketReceiptResponse.newBuilder()
-                .setBookingId(response.getBookingId())
-                .setSeatNumber(seatNumber)
-                .setSection(sectionName)
-                .setPricePaid(response.getPricePaid())
-                .setBoardingStation(response.getBoardingStation())
-                .setDestinationStation(response.getDestinationStation())
-                .setPassenger(response.getPassenger())
-                .build();
-    }
 }
@@ -0,0 +1,74 @@
+package com.cloudbees.train.server.generator;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SnowflakeBookingIdGeneratorTest {
+    private static final Clock FIXED_CLOCK = Clock.fixed(Instant.parse("2024-08-02T21:05:08Z"), ZoneOffset.UTC);
+
+    @Test
+    void should_generate_increasing_ids_within_same_millisecond() {
+        var generator = new SnowflakeBookingIdGenerator(1, FIXED_CLOCK);
+
+        long previous = generator.nextId();
+        for (int i = 0; i < 10_000; i++) {
+            long next = generator.nextId();
+            assertThat(next).isGreaterThan(previous);
+            previous = next;
+        }
+    }
+
+    @Test
+    void should_generate_different_ids_on_different_nodes() {
+        var firstNode = new SnowflakeBookingIdGenerator(1, FIXED_CLOCK);
+        var secondNode = new SnowflakeBookingIdGenerator(2, FIXED_CLOCK);
+
+        assertThat(firstNode.nextBookingId()).isNotEqualTo(secondNode.nextBookingId());
+    }
+
+    @Test
+    void should_generate_unique_ids_across_threads() throws Exception {
+        int threads = 16;
+        int idsPerThread = 20_000;
+        var generator = new SnowflakeBookingIdGenerator(7);
+        var bookingIds = ConcurrentHashMap.<String>newKeySet();
+        var executor = Executors.newFixedThreadPool(threads);
+
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                workers.add(executor.submit(() -> {
+                    for (int j = 0; j < idsPerThread; j++) {
+                        bookingIds.add(generator.nextBookingId());
+                    }
+                }));
+            }
+
+            for (var worker : workers) {
+                worker.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(bookingIds).hasSize(threads * idsPerThread);
+    }
+
+    @Test
+    void should_reject_node_id_out_of_range() {
+        assertThatThrownBy(() -> new SnowflakeBookingIdGenerator(SnowflakeBookingIdGenerator.MAX_NODE_ID + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,157 @@
+package com.cloudbees.train.server.hold;
+
+import com.cloudbees.train.BookingRequest;
+import com.cloudbees.train.SeatHoldRequest;
+import com.cloudbees.train.TicketManagerServiceGrpc;
+import com.cloudbees.train.TrainSelector;
+import com.cloudbees.train.server.TicketBookingServer;
+import com.cloudbees.train.server.journal.NoOpBookingJournal;
+import com.cloudbees.train.server.mapper.TicketMapper;
+import com.cloudbees.train.server.persistence.FareTable;
+import com.cloudbees.train.server.persistence.TrainInventory;
+import com.cloudbees.train.server.persistence.TrainSeatManager;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import static com.cloudbees.train.server.factory.TicketFactory.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SeatHoldManagerTest {
+    private final SeatHoldManager seatHoldManager = new SeatHoldManager(Duration.ofMinutes(5),
+            TimeUnit.MILLISECONDS.toNanos(1));
+    private final TrainInventory inventory = new TrainInventory(getTrainDateMock(),
+            FareTable.load().getRoute("EUROSTAR").orElseThrow());
+
+    @AfterEach
+    void closeWheel() {
+        seatHoldManager.close();
+    }
+
+    @Test
+    void should_give_seat_and_passenger_back_when_hold_expires() throws Exception {
+        int freeSeats = getFreeSeats();
+        seatHoldManager.place(hold("1001", TimeUnit.MILLISECONDS.toNanos(20)));
+
+        assertThat(getFreeSeats()).isEqualTo(freeSeats - 1);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (seatHoldManager.size() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+
+        assertThat(seatHoldManager.size()).isZero();
+        assertThat(getFreeSeats()).isEqualTo(freeSeats);
+        assertThat(inventory.reservePassenger(getPassengerDtoMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS), "1002"))
+                .isTrue();
+    }
+
+    @Test
+    void should_keep_seat_of_taken_hold_after_its_deadline() throws Exception {
+        int freeSeats = getFreeSeats();
+        var hold = hold("1001", TimeUnit.MILLISECONDS.toNanos(20));
+        seatHoldManager.place(hold);
+
+        assertThat(seatHoldManager.take("1001")).containsSame(hold);
+        Thread.sleep(60);
+
+        assertThat(seatHoldManager.take("1001")).isEmpty();
+        assertThat(getFreeSeats()).isEqualTo(freeSeats - 1);
+    }
+
+    @Test
+    void should_release_hold_once() {
+        int freeSeats = getFreeSeats();
+        seatHoldManager.place(hold("1001", TimeUnit.MINUTES.toNanos(1)));
+
+        assertThat(seatHoldManager.release("1001")).isTrue();
+        assertThat(seatHoldManager.release("1001")).isFalse();
+        assertThat(getFreeSeats()).isEqualTo(freeSeats);
+    }
+
+    @Test
+    void should_cap_requested_hold_time() {
+        assertThat(seatHoldManager.getHoldNanos(0)).isEqualTo(Duration.ofMinutes(5).toNanos());
+        assertThat(seatHoldManager.getHoldNanos(30)).isEqualTo(Duration.ofSeconds(30).toNanos());
+        assertThat(seatHoldManager.getHoldNanos(Integer.MAX_VALUE))
+                .isEqualTo(SeatHoldManager.MAX_HOLD_TIME.toNanos());
+    }
+
+    @Test
+    void should_hold_confirm_and_release_seats_through_the_service() throws Exception {
+        var serviceDate = LocalDate.now();
+        var train = TrainSelector.newBuilder().setTrainNumber("9001").setTravelDate(serviceDate.toString()).build();
+        var trainSeatManager = new TrainSeatManager();
+        var serverName = InProcessServerBuilder.generateName();
+        var server = TicketBookingServer.createServer(InProcessServerBuilder.forName(serverName), trainSeatManager,
+                new NoOpBookingJournal()).start();
+        var channel = InProcessChannelBuilder.forName(serverName).build();
+        try {
+            var stub = TicketManagerServiceGrpc.newBlockingStub(channel);
+            var held = stub.holdSeat(SeatHoldRequest.newBuilder()
+                    .setTicket(getTicketPurchaseRequestDtoMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS).toBuilder()
+                            .setTrain(train))
+                    .setHoldSeconds(60)
+                    .build());
+            var request = BookingRequest.newBuilder()
+                    .setBookingId(held.getReceipt().getBookingId())
+                    .setEmailAddress(EMAIL_ADDRESS)
+                    .setTrain(train)
+                    .build();
+
+            assertThat(held.getExpiresAtEpochMillis()).isGreaterThan(System.currentTimeMillis());
+            assertThatThrownBy(() -> stub.getBookedTicketReceipt(request))
+                    .isInstanceOf(StatusRuntimeException.class)
+                    .hasMessageContaining("NOT_FOUND");
+            assertThatThrownBy(() -> stub.confirmHold(request.toBuilder().setEmailAddress(EMAIL_ADDRESS_2).build()))
+                    .isInstanceOf(StatusRuntimeException.class)
+                    .hasMessageContaining("INVALID_ARGUMENT");
+
+            assertThat(stub.confirmHold(request)).isEqualTo(held.getReceipt());
+            assertThat(stub.getBookedTicketReceipt(request)).isEqualTo(held.getReceipt());
+            assertThatThrownBy(() -> stub.releaseHold(request))
+                    .isInstanceOf(StatusRuntimeException.class)
+                    .hasMessageContaining("NOT_FOUND");
+
+            var released = stub.holdSeat(SeatHoldRequest.newBuilder()
+                    .setTicket(getTicketPurchaseRequestDtoMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS_2).toBuilder()
+                            .setTrain(train))
+                    .build());
+            stub.releaseHold(BookingRequest.newBuilder()
+                    .setBookingId(released.getReceipt().getBookingId())
+                    .setEmailAddress(EMAIL_ADDRESS_2)
+                    .setTrain(train)
+                    .build());
+
+            var trainInventory = trainSeatManager.getTrainInventory("9001", serviceDate).orElseThrow();
+            assertThat(trainInventory.getTrainSection(1).orElseThrow().getAvailableSeatCount())
+                    .isEqualTo(trainInventory.getTrainSection(1).orElseThrow().getSeats().size() - 1);
+        } finally {
+            channel.shutdownNow();
+            server.shutdownNow();
+            trainSeatManager.removeTrainInventoriesBefore(serviceDate.plusDays(1));
+        }
+    }
+
+    private SeatHold hold(String holdId, long holdNanos) {
+        var request = getTicketPurchaseRequestDtoMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS);
+        inventory.reservePassenger(request.getPassenger(), holdId);
+        var journey = inventory.getJourney("London", "France").orElseThrow();
+        var seat = inventory.claimAvailableSeat(journey).orElseThrow();
+        var booking = new TicketMapper().mapBookingForPurchase(seat, holdId, request, journey, 20d,
+                inventory.getTrainDate());
+
+        return new SeatHold(inventory, seat, journey, booking, holdNanos);
+    }
+
+    private int getFreeSeats() {
+        return inventory.getTrainSections().stream().mapToInt(section -> section.getAvailableSeatCount()).sum();
+    }
+}
@@ -0,0 +1,179 @@
+package com.cloudbees.train.server.journal;
+
+import com.cloudbees.train.TrainSelector;
+import com.cloudbees.train.server.entity.Booking;
+import com.cloudbees.train.server.mapper.TicketMapper;
+import com.cloudbees.train.server.persistence.TrainInventory;
+import com.cloudbees.train.server.persistence.TrainSeatManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static com.cloudbees.train.server.factory.TicketFactory.getPassengerDtoMock;
+import static com.cloudbees.train.server.factory.TicketFactory.getTicketPurchaseRequestDtoMock;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WriteAheadBookingJournalTest {
+    private static final LocalDate SERVICE_DATE = LocalDate.now();
+
+    private final TrainSeatManager trainSeatManager = new TrainSeatManager();
+    private final TicketMapper ticketMapper = new TicketMapper();
+
+    @TempDir
+    private Path storageDir;
+
+    @AfterEach
+    void removeJournaledTrains() {
+        trainSeatManager.removeTrainInventoriesBefore(SERVICE_DATE.plusDays(1));
+    }
+
+    @Test
+    void should_restore_bookings_after_restart() throws Exception {
+        var journal = WriteAheadBookingJournal.open(storageDir, trainSeatManager, 1_000);
+        var kept = book(journal, "Keep", "keep@gmail.com");
+        var deleted = book(journal, "Delete", "delete@gmail.com");
+        var moved = book(journal, "Move", "move@gmail.com");
+
+        var inventory = getInventory();
+        inventory.removeBooking(deleted.getBookingId());
+        journal.append(BookingEventType.DELETE, deleted).get();
+
+        var journey = inventory.getJourney("London", "France").orElseThrow();
+        var movedSeat = inventory.claimAvailableSeat(journey).orElseThrow();
+        var movedBooking = moved.withSeat(movedSeat);
+        inventory.getSeatBookings().put(moved.getBookingId(), movedBooking);
+        inventory.occupySeat(movedSeat, journey, moved.getBookingId());
+        journal.append(BookingEventType.MODIFY, movedBooking).get();
+        inventory.releaseSeat(inventory.getTrainSection(1).orElseThrow().getSeats().get(moved.getSeatNumber() - 1),
+                moved.getBookingId());
+        journal.close();
+
+        restart();
+
+        var restored = getInventory();
+        assertThat(restored).isNotSameAs(inventory);
+        assertThat(getBookingIds(restored)).containsExactlyInAnyOrder(kept.getBookingId(), moved.getBookingId());
+        assertThat(restored.getSeatBookings().get(moved.getBookingId()).getSeatNumber())
+                .isEqualTo(movedSeat.getSeatNumber());
+        assertThat(restored.getSectionBookingIds(1)).containsExactly(kept.getBookingId(), moved.getBookingId());
+        assertThat(restored.getSeatBookings().get(kept.getBookingId()).getTrainDate())
+                .isSameAs(restored.getTrainDate());
+        assertThat(restored.reservePassenger(getPassengerDtoMock(kept.getFirstName(), kept.getLastName(),
+                kept.getEmailAddress()), "DUPLICATE")).isFalse();
+        assertThat(restored.reservePassenger(getPassengerDtoMock(deleted.getFirstName(), deleted.getLastName(),
+                deleted.getEmailAddress()), "REBOOKED")).isTrue();
+    }
+
+    @Test
+    void should_ignore_torn_record_at_the_end_of_the_log() throws Exception {
+        var journal = WriteAheadBookingJournal.open(storageDir, trainSeatManager, 1_000);
+        var booking = book(journal, "Torn", "torn@gmail.com");
+        journal.close();
+
+        //Half written record left behind by a crash
+        var record = WriteAheadBookingJournal.encode(BookingEventType.BOOK, booking);
+        Files.write(WriteAheadBookingJournal.getLogPath(storageDir, 1), Arrays.copyOf(record, record.length / 2),
+                StandardOpenOption.APPEND);
+
+        List<Booking> replayed = new ArrayList<>();
+        int records = WriteAheadBookingJournal.readRecords(WriteAheadBookingJournal.getLogPath(storageDir, 1),
+                (type, replayedBooking) -> replayed.add(replayedBooking));
+
+        assertThat(records).isEqualTo(1);
+        assertThat(replayed).containsExactly(booking);
+
+        restart();
+
+        assertThat(getBookingIds(getInventory())).containsExactly(booking.getBookingId());
+    }
+
+    @Test
+    void should_snapshot_bookings_and_drop_older_logs() throws Exception {
+        var journal = WriteAheadBookingJournal.open(storageDir, trainSeatManager, 2);
+        List<CompletableFuture<Void>> written = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            var booking = bookInMemory("Snapshot" + i, "snapshot" + i + "@gmail.com");
+            written.add(journal.append(BookingEventType.BOOK, booking));
+        }
+        CompletableFuture.allOf(written.toArray(CompletableFuture[]::new)).get();
+        journal.close();
+
+        try (var files = Files.list(storageDir)) {
+            var fileNames = files.map(file -> file.getFileName().toString()).toList();
+            assertThat(fileNames).contains(WriteAheadBookingJournal.SNAPSHOT_FILE);
+            assertThat(fileNames.stream().filter(name -> name.endsWith(".wal"))).hasSize(1);
+        }
+
+        restart();
+
+        assertThat(getInventory().getSeatBookings().size()).isEqualTo(5);
+    }
+
+    @Test
+    void should_snapshot_only_journaled_bookings() throws Exception {
+        var journal = WriteAheadBookingJournal.open(storageDir, trainSeatManager, 2);
+        //Booked in memory but never journaled, e.g. because its write failed
+        var unjournaled = bookInMemory("Unjournaled", "unjournaled@gmail.com");
+        List<CompletableFuture<Void>> written = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            var booking = bookInMemory("Journaled" + i, "journaled" + i + "@gmail.com");
+            written.add(journal.append(BookingEventType.BOOK, booking));
+        }
+        CompletableFuture.allOf(written.toArray(CompletableFuture[]::new)).get();
+        journal.close();
+
+        restart();
+
+        assertThat(getBookingIds(getInventory())).hasSize(3).doesNotContain(unjournaled.getBookingId());
+        assertThat(journal.getSnapshotFailureCount()).isZero();
+    }
+
+    private void restart() {
+        removeJournaledTrains();
+        WriteAheadBookingJournal.open(storageDir, trainSeatManager, 1_000).close();
+    }
+
+    private TrainInventory getInventory() {
+        return trainSeatManager.openTrainInventory("9001", SERVICE_DATE).orElseThrow();
+    }
+
+    private static List<String> getBookingIds(TrainInventory inventory) {
+        List<String> bookingIds = new ArrayList<>();
+        inventory.getSeatBookings().forEach(booking -> bookingIds.add(booking.getBookingId()));
+
+        return bookingIds;
+    }
+
+    private Booking book(BookingJournal journal, String firstName, String emailAddress) throws Exception {
+        var booking = bookInMemory(firstName, emailAddress);
+        journal.append(BookingEventType.BOOK, booking).get();
+
+        return booking;
+    }
+
+    private Booking bookInMemory(String firstName, String emailAddress) {
+        var inventory = getInventory();
+        var request = getTicketPurchaseRequestDtoMock(firstName, "Journal", emailAddress).toBuilder()
+                .setTrain(TrainSelector.newBuilder().setTrainNumber("9001").setTravelDate(SERVICE_DATE.toString()))
+                .build();
+        var bookingId = firstName.toUpperCase();
+        var journey = inventory.getJourney("London", "France").orElseThrow();
+        var seat = inventory.claimAvailableSeat(journey).orElseThrow();
+        var booking = ticketMapper.mapBookingForPurchase(seat, bookingId, request, journey, 20d,
+                inventory.getTrainDate());
+        inventory.reservePassenger(request.getPassenger(), bookingId);
+        inventory.getSeatBookings().put(bookingId, booking);
+        inventory.occupySeat(seat, journey, bookingId);
+
+        return booking;
+    }
+}
@@ -3,14 +3,13 @@ package com.cloudbees.train.server.mapper;
 import com.cloudbees.train.SectionBooking;
 import com.cloudbees.train.TicketPurchaseRequest;
 import com.cloudbees.train.TicketReceiptResponse;
+import com.cloudbees.train.server.entity.Booking;
 import com.cloudbees.train.server.entity.Seat;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.util.Collections;
-
 import static com.cloudbees.train.server.constants.ApplicationConstants.TICKET_COST;
 import static com.cloudbees.train.server.factory.TicketFactory.*;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -27,48 +26,72 @@ class TicketMapperTest {
         var seatMock = getSeatMock(1, 1);
         var purchaseRequest = getTicketPurchaseRequestDtoMock("Albert",
                 "Einstein", "albert@gmail.com");
-        var ticketReceipt = ticketMapper
-                .mapTicketReceiptForPurchase(seatMock, bookingId, purchaseRequest, TICKET_COST);
+        var booking = ticketMapper.mapBookingForPurchase(seatMock, bookingId, purchaseRequest, getRouteJourneyMock(),
+                TICKET_COST, getTrainDateMock());
+        var ticketReceipt = ticketMapper.mapBookingToTicketReceipt(booking);
 
         assertThat(ticketReceipt).isNotNull();
         assertTicketReceiptProperties(ticketReceipt, seatMock, bookingId, purchaseRequest);
+        assertThat(ticketReceipt.getTrain().getTrainNumber()).isEqualTo(TRAIN_NUMBER);
+        assertThat(ticketReceipt.getTrain().getTravelDate()).isEqualTo("2024-08-02");
+    }
+
+    @Test
+    void should_keep_the_route_station_names_instead_of_the_request_spelling() {
+        var journey = getRouteJourneyMock();
+        var purchaseRequest = getTicketPurchaseRequestDtoMock("Albert", "Einstein", "albert@gmail.com").toBuilder()
+                .setBoardingStation("london")
+                .setDestinationStation("FRANCE")
+                .build();
+
+        var booking = ticketMapper.mapBookingForPurchase(getSeatMock(1, 1), "20240802", purchaseRequest, journey,
+                TICKET_COST, getTrainDateMock());
+
+        assertThat(booking.getBoardingStation()).isSameAs(journey.getFrom());
+        assertThat(booking.getDestinationStation()).isSameAs(journey.getTo());
     }
 
     @Test
-    void should_map_ticket_receipts_to_section_bookings_dto() {
-        var ticketReceipts = Collections.singletonList(getTicketReceiptDtoMock("Albert",
-                "Einstein", "albert@gmail.com", 1, SECTION_A));
+    void should_map_booking_to_section_booking() {
+        var booking = getBookingMock("Albert", "Einstein", "albert@gmail.com", 1, SECTION_A);
 
-        var sectionBooking = ticketMapper.mapTicketReceiptToBookingsDto(ticketReceipts);
+        var sectionBooking = ticketMapper.mapBookingToSectionBooking(booking);
 
         assertThat(sectionBooking).isNotNull();
-        assertThat(sectionBooking.getSectionBookingList()).hasSize(1);
-        assertSectionBookingProperties(sectionBooking.getSectionBookingList().get(0), ticketReceipts.get(0));
+        assertSectionBookingProperties(sectionBooking, booking);
     }
 
     @Test
-    void should_create_new_ticket_receipt_from_existing_one() {
-        var receipt = getTicketReceiptDtoMock("Albert", "Einstein",
-                "albert@gmail.com", 1, SECTION_A);
-
-        var newReceipt = ticketMapper
-                .createNewTicketReceiptResponseFromExistOne(receipt, 2, SECTION_A);
-
-        assertThat(newReceipt).isNotNull();
-        assertEquals(newReceipt.getPassenger(), receipt.getPassenger());
-        assertEquals(newReceipt.getBoardingStation(), receipt.getBoardingStation());
-        assertEquals(newReceipt.getDestinationStation(), receipt.getDestinationStation());
-        assertEquals(newReceipt.getBookingId(), receipt.getBookingId());
-        assertEquals(newReceipt.getPricePaid(), receipt.getPricePaid());
-        assertEquals(newReceipt.getSeatNumber(), 2);
-        assertEquals(newReceipt.getSection(), SECTION_A);
+    void should_move_booking_to_another_seat() {
+        var booking = getBookingMock("Albert", "Einstein", "albert@gmail.com", 1, SECTION_A);
+
+        var movedBooking = booking.withSeat(getSeatMock(2, 1));
+
+        assertThat(movedBooking).isNotSameAs(booking);
+        assertEquals(movedBooking.getEmailAddress(), booking.getEmailAddress());
+        assertEquals(movedBooking.getBoardingStation(), booking.getBoardingStation());
+        assertEquals(movedBooking.getDestinationStation(), booking.getDestinationStation());
+        assertEquals(movedBooking.getBookingId(), booking.getBookingId());
+        assertEquals(movedBooking.getPricePaid(), booking.getPricePaid());
+        assertEquals(movedBooking.getSeatNumber(), 2);
+        assertEquals(movedBooking.getSectionName(), SECTION_A);
+        assertThat(movedBooking.getTrainDate()).isSameAs(booking.getTrainDate());
+        assertThat(booking.getSeatNumber()).isEqualTo(1);
+    }
+
+    @Test
+    void should_map_journaled_receipt_back_to_booking() {
+        var booking = getBookingMock("Albert", "Einstein", "albert@gmail.com", 1, SECTION_A);
+
+        assertThat(ticketMapper.mapTicketReceiptToBooking(ticketMapper.mapBookingToTicketReceipt(booking)))
+                .isEqualTo(booking);
     }
 
-    private void assertSectionBookingProperties(SectionBooking sectionBookingsDto,
-                                                TicketReceiptResponse ticketReceiptDto) {
-        assertEquals(sectionBookingsDto.getPassenger(), ticketReceiptDto.getPassenger());
-        assertEquals(sectionBookingsDto.getSectionName(), ticketReceiptDto.getSection());
-        assertEquals(sectionBookingsDto.getSeatNumber(), ticketReceiptDto.getSeatNumber());
+    private void assertSectionBookingProperties(SectionBooking sectionBookingsDto, Booking booking) {
+        assertEquals(sectionBookingsDto.getPassenger().getEmailAddress(), booking.getEmailAddress());
+        assertEquals(sectionBookingsDto.getPassenger().getFirstName(), booking.getFirstName());
+        assertEquals(sectionBookingsDto.getSectionName(), booking.getSectionName());
+        assertEquals(sectionBookingsDto.getSeatNumber(), booking.getSeatNumber());
     }
 
     private void assertTicketReceiptProperties(TicketReceiptResponse ticketReceipt, Seat seat,
@@ -81,4 +104,4 @@ class TicketMapperTest {
         assertEquals(ticketReceipt.getPricePaid(), TICKET_COST);
         assertEquals(ticketReceipt.getBookingId(), bookingId);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,115 @@
+package com.cloudbees.train.server.metrics;
+
+import com.cloudbees.train.TicketManagerServiceGrpc;
+import com.cloudbees.train.TrainSelector;
+import com.cloudbees.train.server.TicketBookingServer;
+import com.cloudbees.train.server.journal.NoOpBookingJournal;
+import com.cloudbees.train.server.persistence.TrainSeatManager;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static com.cloudbees.train.server.factory.TicketFactory.SECTION_A;
+import static com.cloudbees.train.server.factory.TicketFactory.getBookingRequestMock;
+import static com.cloudbees.train.server.factory.TicketFactory.getTicketPurchaseRequestDtoMock;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MetricsRegistryTest {
+    private static final LocalDate SERVICE_DATE = LocalDate.now();
+    private static final String PURCHASE_METHOD = "TicketManagerService/bookTicket";
+    private static final String RECEIPT_METHOD = "TicketManagerService/getBookedTicketReceipt";
+
+    private final TrainSeatManager trainSeatManager = new TrainSeatManager();
+    private final MetricsRegistry metricsRegistry = new MetricsRegistry(trainSeatManager);
+    private Server server;
+    private ManagedChannel channel;
+
+    @TempDir
+    private Path metricsDir;
+
+    @BeforeEach
+    void startServer() throws Exception {
+        var serverName = InProcessServerBuilder.generateName();
+        server = TicketBookingServer.createServer(InProcessServerBuilder.forName(serverName), trainSeatManager,
+                new NoOpBookingJournal(), metricsRegistry).start();
+        channel = InProcessChannelBuilder.forName(serverName).build();
+    }
+
+    @AfterEach
+    void stopServer() {
+        channel.shutdownNow();
+        server.shutdownNow();
+        trainSeatManager.removeTrainInventoriesBefore(SERVICE_DATE.plusDays(1));
+    }
+
+    @Test
+    void should_record_latency_and_status_per_method() {
+        var stub = TicketManagerServiceGrpc.newBlockingStub(channel);
+        stub.bookTicket(getTicketPurchaseRequestDtoMock("Metrics", "Passenger", "metrics@gmail.com").toBuilder()
+                .setTrain(TrainSelector.newBuilder().setTrainNumber("9001").setTravelDate(SERVICE_DATE.toString()))
+                .build());
+        assertThatThrownBy(() -> stub.getBookedTicketReceipt(getBookingRequestMock("UNKNOWN", "a@b.com")))
+                .isInstanceOf(StatusRuntimeException.class);
+
+        var purchase = findMethodMetrics(PURCHASE_METHOD);
+        var receipt = findMethodMetrics(RECEIPT_METHOD);
+
+        assertThat(purchase.getLatency().getCount()).isEqualTo(1);
+        assertThat(purchase.getStatusCount(Status.Code.OK)).isEqualTo(1);
+        assertThat(receipt.getStatusCount(Status.Code.NOT_FOUND)).isEqualTo(1);
+        assertThat(receipt.getStatusCount(Status.Code.OK)).isZero();
+        assertThat(InternalTimers.SEAT_SEARCH.getCount()).isPositive();
+        assertThat(InternalTimers.DUPLICATE_PASSENGER_CHECK.getCount()).isPositive();
+
+        var scraped = metricsRegistry.scrape();
+        assertThat(scraped).contains("grpc_server_handled_total{method=\"" + receipt.getMethodName()
+                + "\",code=\"NOT_FOUND\"} 1");
+        assertThat(scraped).contains("grpc_server_handling_seconds_count{method=\"" + purchase.getMethodName()
+                + "\"} 1");
+        assertThat(scraped).contains("train_internal_seconds_count{step=\"seat_search\"}");
+        assertThat(scraped).contains("train_seats_booked{train=\"9001\",date=\"" + SERVICE_DATE
+                + "\",section=\"" + SECTION_A + "\"} 1");
+    }
+
+    @Test
+    void should_escape_label_values() {
+        metricsRegistry.getMethodMetrics("Odd\\Service/\"quoted\"\nmethod").record(Status.Code.OK, 1000);
+
+        var escapedLabel = "method=\"Odd\\\\Service/\\\"quoted\\\"\\nmethod\"";
+        var scraped = metricsRegistry.scrape();
+        assertThat(scraped).contains("grpc_server_handled_total{" + escapedLabel + ",code=\"OK\"} 1");
+        assertThat(scraped).contains("grpc_server_handling_seconds_count{" + escapedLabel + "} 1");
+    }
+
+    @Test
+    void should_write_metrics_file_atomically() throws Exception {
+        var file = metricsDir.resolve("metrics.prom");
+
+        MetricsExporter.writeFile(file, metricsRegistry.scrape());
+
+        assertThat(Files.readString(file)).contains("# TYPE grpc_server_handled_total counter");
+        assertThat(metricsDir.resolve("metrics.prom.tmp")).doesNotExist();
+    }
+
+    private MethodMetrics findMethodMetrics(String methodSuffix) {
+        return server.getServices().stream()
+                .flatMap(service -> service.getMethods().stream())
+                .map(method -> method.getMethodDescriptor().getFullMethodName())
+                .filter(methodName -> methodName.endsWith(methodSuffix))
+                .map(metricsRegistry::getMethodMetrics)
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,87 @@
+package com.cloudbees.train.server.persistence;
+
+import com.cloudbees.train.server.entity.Seat;
+import com.cloudbees.train.server.generator.SnowflakeBookingIdGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static com.cloudbees.train.server.persistence.BookedSeatIndex.NO_SEAT;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookedSeatIndexTest {
+    @Test
+    void should_keep_numeric_and_other_booking_ids_apart() {
+        var index = new BookedSeatIndex(8);
+        index.put("7", Seat.getSeatKey(1, 7));
+        index.put("007", Seat.getSeatKey(2, 7));
+        index.put("DUPLICATE", Seat.getSeatKey(2, 1));
+
+        assertThat(index.get("7")).isEqualTo(Seat.getSeatKey(1, 7));
+        assertThat(index.get("007")).isEqualTo(Seat.getSeatKey(2, 7));
+        assertThat(index.get("DUPLICATE")).isEqualTo(Seat.getSeatKey(2, 1));
+        assertThat(index.get("8")).isEqualTo(NO_SEAT);
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    void should_remove_booking_only_while_it_holds_the_seat() {
+        var index = new BookedSeatIndex(8);
+        index.put("1001", Seat.getSeatKey(1, 1));
+        index.put("1001", Seat.getSeatKey(1, 2));
+
+        assertThat(index.remove("1001", Seat.getSeatKey(1, 1))).isFalse();
+        assertThat(index.get("1001")).isEqualTo(Seat.getSeatKey(1, 2));
+        assertThat(index.remove("1001", Seat.getSeatKey(1, 2))).isTrue();
+        assertThat(index.get("1001")).isEqualTo(NO_SEAT);
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void should_find_remaining_bookings_after_growing_and_removing() {
+        var index = new BookedSeatIndex(4);
+        for (int i = 1; i <= 5000; i++) {
+            index.put(Long.toString(1_000_000L * i), Seat.getSeatKey(i % 7 + 1, i % 100 + 1));
+        }
+        for (int i = 1; i <= 5000; i += 2) {
+            assertThat(index.remove(Long.toString(1_000_000L * i), Seat.getSeatKey(i % 7 + 1, i % 100 + 1))).isTrue();
+        }
+
+        assertThat(index.size()).isEqualTo(2500);
+        for (int i = 1; i <= 5000; i++) {
+            var expectedSeatKey = i % 2 == 0 ? Seat.getSeatKey(i % 7 + 1, i % 100 + 1) : NO_SEAT;
+            assertThat(index.get(Long.toString(1_000_000L * i))).isEqualTo(expectedSeatKey);
+        }
+    }
+
+    @Test
+    void should_parse_only_canonical_decimal_booking_ids() {
+        assertThat(BookedSeatIndex.parseBookingId("0")).isZero();
+        assertThat(BookedSeatIndex.parseBookingId("1823456789012345")).isEqualTo(1823456789012345L);
+        assertThat(BookedSeatIndex.parseBookingId("9223372036854775807")).isEqualTo(Long.MAX_VALUE);
+        assertThat(BookedSeatIndex.parseBookingId("9223372036854775808")).isEqualTo(-1);
+        assertThat(BookedSeatIndex.parseBookingId("10000000000000000000")).isEqualTo(-1);
+        assertThat(BookedSeatIndex.parseBookingId("007")).isEqualTo(-1);
+        assertThat(BookedSeatIndex.parseBookingId("-7")).isEqualTo(-1);
+        assertThat(BookedSeatIndex.parseBookingId("KEEP")).isEqualTo(-1);
+        assertThat(BookedSeatIndex.parseBookingId("")).isEqualTo(-1);
+    }
+
+    @Test
+    void should_keep_snowflake_ids_issued_late_in_the_timestamp_range_unboxed() {
+        var clock = Clock.fixed(Instant.parse("2090-01-01T00:00:00Z"), ZoneOffset.UTC);
+        var generator = new SnowflakeBookingIdGenerator(SnowflakeBookingIdGenerator.MAX_NODE_ID, clock);
+        var index = new BookedSeatIndex(8);
+
+        for (int i = 1; i <= 100; i++) {
+            var bookingId = generator.nextBookingId();
+            assertThat(bookingId).hasSize(19);
+            assertThat(BookedSeatIndex.parseBookingId(bookingId)).isEqualTo(Long.parseLong(bookingId));
+            index.put(bookingId, Seat.getSeatKey(1, i));
+            assertThat(index.get(bookingId)).isEqualTo(Seat.getSeatKey(1, i));
+        }
+        assertThat(index.size()).isEqualTo(100);
+    }
+}
@@ -0,0 +1,84 @@
+package com.cloudbees.train.server.persistence;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FareTableTest {
+    private static final String ROUTES = """
+            # routeId,station,fare from previous stop
+            EUROSTAR,London,0
+            EUROSTAR,Ashford,8
+            EUROSTAR,France,12
+            EXPRESS,London,0
+            EXPRESS,France,18.5
+            """;
+
+    @Test
+    void should_price_every_stop_pair_of_a_route() throws Exception {
+        var fareTable = new FareTable(FareTable.parseRoutes(new BufferedReader(new StringReader(ROUTES))));
+
+        var eurostar = fareTable.getRoute("EUROSTAR").orElseThrow();
+
+        assertThat(eurostar.getJourney("London", "Ashford").orElseThrow().getFare()).isEqualTo(8d);
+        assertThat(eurostar.getJourney("ashford", "FRANCE").orElseThrow().getFare()).isEqualTo(12d);
+        assertThat(eurostar.getJourney("Ashford", "London")).isEmpty();
+        assertThat(eurostar.getStations()).containsExactly("London", "Ashford", "France");
+    }
+
+    @Test
+    void should_price_same_station_pair_by_route() throws Exception {
+        var fareTable = new FareTable(FareTable.parseRoutes(new BufferedReader(new StringReader(ROUTES))));
+
+        assertThat(fareTable.getRoute("EUROSTAR").orElseThrow().getJourney("London", "France").orElseThrow().getFare())
+                .isEqualTo(20d);
+        assertThat(fareTable.getRoute("EXPRESS").orElseThrow().getJourney("London", "France").orElseThrow().getFare())
+                .isEqualTo(18.5d);
+    }
+
+    @Test
+    void should_load_default_routes() {
+        var fareTable = FareTable.load();
+
+        assertThat(fareTable.getRoute("EUROSTAR").orElseThrow().getJourney("London", "France").orElseThrow().getFare())
+                .isEqualTo(20d);
+        assertThat(fareTable.getRoute("BENELUX").orElseThrow().getJourney("France", "Germany").orElseThrow().getFare())
+                .isEqualTo(45d);
+    }
+
+    @Test
+    void should_reject_malformed_route_line() {
+        assertThatThrownBy(() -> FareTable.parseRoutes(new BufferedReader(new StringReader("EUROSTAR,London"))))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("line 1");
+    }
+
+    @Test
+    void should_reject_routes_that_cannot_be_booked() {
+        var longRoute = new StringBuilder();
+        for (int stop = 0; stop <= TrainSection.MAX_SEGMENTS + 1; stop++) {
+            longRoute.append("LONG,Stop ").append(stop).append(",1\n");
+        }
+
+        assertThatThrownBy(() -> FareTable.parseRoutes(new BufferedReader(new StringReader("""
+                EUROSTAR,London,0
+                EUROSTAR,France,20
+                SHUTTLE,Folkestone,0
+                """))))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("line 3");
+        assertThatThrownBy(() -> FareTable.parseRoutes(new BufferedReader(new StringReader(longRoute.toString()))))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("line " + (TrainSection.MAX_SEGMENTS + 2));
+        for (var legFare : new String[]{"-1", "NaN", "Infinity", "free"}) {
+            assertThatThrownBy(() -> FareTable.parseRoutes(new BufferedReader(new StringReader(
+                    "EUROSTAR,London,0\nEUROSTAR,France," + legFare))))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("line 2");
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.cloudbees.train.server.persistence;
+
+import com.cloudbees.train.server.entity.Booking;
+import com.cloudbees.train.server.entity.TrainDate;
+import com.cloudbees.train.server.mapper.TicketMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.cloudbees.train.server.factory.TicketFactory.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MappedBookingStoreTest {
+    @TempDir
+    private Path storeDir;
+
+    @Test
+    void should_store_and_materialize_bookings() {
+        try (var store = MappedBookingStore.open(storeDir.resolve("9001.bookings"), 4)) {
+            var booking = getBooking("1001", 3);
+
+            store.put("1001", booking);
+
+            assertThat(store.get("1001")).isEqualTo(booking);
+            assertThat(store.get("1002")).isNull();
+            assertThat(store.replace("1002", booking)).isFalse();
+            assertThat(store.replace("1001", getBooking("1001", 4))).isTrue();
+            assertThat(store.get("1001").getSeatNumber()).isEqualTo(4);
+            assertThat(store.remove("1001").getSeatNumber()).isEqualTo(4);
+            assertThat(store.get("1001")).isNull();
+            assertThat(store.size()).isZero();
+        }
+    }
+
+    @Test
+    void should_keep_bookings_after_reopening_the_file() {
+        var file = storeDir.resolve("9001.bookings");
+        try (var store = MappedBookingStore.open(file, 4)) {
+            store.put("1001", getBooking("1001", 1));
+            store.put("1002", getBooking("1002", 2));
+            store.remove("1001");
+        }
+
+        try (var store = MappedBookingStore.open(file, 4)) {
+            assertThat(store.size()).isEqualTo(1);
+            assertThat(store.get("1002")).isEqualTo(getBooking("1002", 2));
+            assertThat(store.get("1001")).isNull();
+
+            store.put("1003", getBooking("1003", 3));
+            assertThat(getBookingIds(store)).containsExactlyInAnyOrder("1002", "1003");
+        }
+    }
+
+    @Test
+    void should_reuse_records_and_index_slots_after_many_deletes() {
+        try (var store = MappedBookingStore.open(storeDir.resolve("9001.bookings"), 2)) {
+            for (int i = 0; i < 1_000; i++) {
+                var bookingId = Integer.toString(i);
+                store.put(bookingId, getBooking(bookingId, 1));
+                assertThat(store.get(bookingId)).isNotNull();
+                store.remove(bookingId);
+            }
+
+            store.put("LAST", getBooking("LAST", 1));
+            assertThat(getBookingIds(store)).containsExactly("LAST");
+        }
+    }
+
+    @Test
+    void should_keep_oversized_bookings_on_heap() {
+        try (var store = MappedBookingStore.open(storeDir.resolve("9001.bookings"), 2)) {
+            var booking = getBooking("1001", 1).toBuilder()
+                    .firstName(FIRST_NAME.repeat(20))
+                    .build();
+
+            store.put("1001", booking);
+
+            assertThat(store.get("1001")).isEqualTo(booking);
+            assertThat(store.size()).isEqualTo(1);
+            assertThat(store.remove("1001")).isEqualTo(booking);
+        }
+    }
+
+    @Test
+    void should_read_whole_bookings_while_their_records_are_reused() throws Exception {
+        try (var store = MappedBookingStore.open(storeDir.resolve("9001.bookings"), 2)) {
+            var booking = getBooking("1001", 1);
+            //Same record, a date of another length, so a torn read mixes the two travel dates
+            var otherBooking = getBooking("1002", 2).toBuilder()
+                    .firstName("Marie")
+                    .trainDate(TrainDate.builder().trainNumber("9002").serviceDate(LocalDate.of(10000, 1, 1)).build())
+                    .build();
+            var running = new AtomicBoolean(true);
+            var executor = Executors.newFixedThreadPool(3);
+
+            try {
+                var writer = executor.submit(() -> {
+                    for (int i = 0; i < 50_000; i++) {
+                        store.put("1001", booking);
+                        store.remove("1001");
+                        store.put("1002", otherBooking);
+                        store.remove("1002");
+                    }
+                    running.set(false);
+                    return null;
+                });
+                List<Future<?>> readers = new ArrayList<>();
+                for (int i = 0; i < 2; i++) {
+                    readers.add(executor.submit(() -> {
+                        while (running.get()) {
+                            var readBooking = store.get("1001");
+                            assertThat(readBooking == null || readBooking.equals(booking)).isTrue();
+                            var otherReadBooking = store.get("1002");
+                            assertThat(otherReadBooking == null || otherReadBooking.equals(otherBooking)).isTrue();
+                        }
+                        return null;
+                    }));
+                }
+
+                writer.get(30, TimeUnit.SECONDS);
+                for (var reader : readers) {
+                    reader.get(30, TimeUnit.SECONDS);
+                }
+            } finally {
+                running.set(false);
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    @Test
+    void should_restore_seats_of_stored_bookings_into_inventory() {
+        var route = FareTable.load().getRoute("EUROSTAR").orElseThrow();
+        var file = storeDir.resolve("9001-2024-08-02.bookings");
+
+        try (var store = MappedBookingStore.open(file, TrainInventory.getBookingCapacity(route))) {
+            var inventory = new TrainInventory(getTrainDateMock(), route, store);
+            var journey = inventory.getJourney("London", "Ashford").orElseThrow();
+            var seat = inventory.claimAvailableSeat(journey).orElseThrow();
+            var request = getTicketPurchaseRequestDtoMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS).toBuilder()
+                    .setDestinationStation("Ashford")
+                    .build();
+            inventory.getSeatBookings().put(BOOKING_ID, new TicketMapper()
+                    .mapBookingForPurchase(seat, BOOKING_ID, request, journey, 8d, getTrainDateMock()));
+            inventory.occupySeat(seat, journey, BOOKING_ID);
+        }
+
+        try (var store = MappedBookingStore.open(file, TrainInventory.getBookingCapacity(route))) {
+            var inventory = new TrainInventory(getTrainDateMock(), route, store);
+
+            assertThat(inventory.getBookedSeat(BOOKING_ID)).contains(getSeatMock(1, 1));
+            assertThat(inventory.getSectionBookingIds(1)).containsExactly(BOOKING_ID);
+            assertThat(inventory.reservePassenger(getPassengerDtoMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS),
+                    "DUPLICATE")).isFalse();
+            assertThat(inventory.claimAvailableSeat(inventory.getJourney("Ashford", "France").orElseThrow()))
+                    .contains(getSeatMock(1, 1));
+        }
+    }
+
+    private static Booking getBooking(String bookingId, int seatNumber) {
+        return getBookingMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS, seatNumber, SECTION_A).toBuilder()
+                .bookingId(bookingId)
+                .build();
+    }
+
+    private static List<String> getBookingIds(BookingStore store) {
+        List<String> bookingIds = new ArrayList<>();
+        store.forEach(booking -> bookingIds.add(booking.getBookingId()));
+
+        return bookingIds;
+    }
+}
@@ -0,0 +1,187 @@
+package com.cloudbees.train.server.persistence;
+
+import com.cloudbees.train.server.entity.Coach;
+import com.cloudbees.train.server.entity.RouteJourney;
+import com.cloudbees.train.server.entity.Seat;
+import com.cloudbees.train.server.entity.SeatClass;
+import com.cloudbees.train.server.entity.TrainLayout;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static com.cloudbees.train.server.factory.TicketFactory.BOOKING_ID;
+import static com.cloudbees.train.server.factory.TicketFactory.EMAIL_ADDRESS;
+import static com.cloudbees.train.server.factory.TicketFactory.FIRST_NAME;
+import static com.cloudbees.train.server.factory.TicketFactory.LAST_NAME;
+import static com.cloudbees.train.server.factory.TicketFactory.SECTION_A;
+import static com.cloudbees.train.server.factory.TicketFactory.getBookingMock;
+import static com.cloudbees.train.server.factory.TicketFactory.getPassengerDtoMock;
+import static com.cloudbees.train.server.factory.TicketFactory.getTrainDateMock;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrainInventoryTest {
+    private TrainInventory trainInventory;
+
+    @BeforeEach
+    void createTrainInventory() {
+        trainInventory = new TrainInventory(getTrainDateMock(),
+                FareTable.load().getRoute("EUROSTAR").orElseThrow());
+    }
+
+    @Test
+    void should_validate_train_seats_count() {
+        var sections = trainInventory.getTrainSections();
+        var seatBookings = trainInventory.getSeatBookings();
+        assertThat(sections).hasSize(2);
+        assertThat(seatBookings.size()).isZero();
+
+        var sectionASeats = trainInventory.getTrainSection(1).orElseThrow().getSeats();
+        var sectionBSeats = trainInventory.getTrainSection(2).orElseThrow().getSeats();
+
+        assertThat(sectionASeats).hasSize(45).allMatch(seat -> seat.getSectionId() == 1);
+        assertThat(sectionBSeats).hasSize(45).allMatch(seat -> seat.getSectionId() == 2);
+        assertThat(trainInventory.getTrainSection(3)).isEmpty();
+    }
+
+    @Test
+    void should_build_a_section_per_coach_of_the_layout() {
+        var firstClass = Coach.builder()
+                .coachName("FIRST")
+                .seatClass(SeatClass.FIRST)
+                .fareMultiplier(1.5)
+                .seatCount(3)
+                .build();
+        var layout = TrainLayout.builder()
+                .layoutId("SMALL")
+                .coaches(List.of(Coach.standard("STANDARD", 1), firstClass))
+                .build();
+        var inventory = new TrainInventory(getTrainDateMock(), FareTable.load().getRoute("EUROSTAR").orElseThrow(),
+                new HeapBookingStore(), layout);
+
+        var journey = inventory.getJourney("London", "France").orElseThrow();
+        var seat = inventory.claimAvailableSeat(journey).orElseThrow();
+        var firstClassSection = inventory.getTrainSection(2).orElseThrow();
+
+        assertThat(inventory.getTrainSections()).hasSize(2);
+        assertThat(seat.getSectionName()).isEqualTo("STANDARD");
+        assertThat(firstClassSection.getCoach()).isSameAs(firstClass);
+        assertThat(firstClassSection.getCoach().getSeatFare(20d)).isEqualTo(30d);
+        //First class is never sold without being asked for
+        assertThat(inventory.claimAvailableSeat(journey)).isEmpty();
+        assertThat(inventory.claimAvailableSeats(journey, 2)).isEmpty();
+        assertThat(firstClassSection.getAvailableSeatCount()).isEqualTo(3);
+    }
+
+    @Test
+    void should_index_booked_seat_by_booking_id() {
+        var seat = trainInventory.claimAvailableSeat(journey("London", "France")).orElseThrow();
+
+        trainInventory.occupySeat(seat, journey("London", "France"), "BOOKING_INDEX_TEST");
+
+        assertThat(trainInventory.getBookedSeat("BOOKING_INDEX_TEST")).contains(seat);
+        assertThat(trainInventory.getSectionBookingIds(seat.getSectionId())).contains("BOOKING_INDEX_TEST");
+
+        trainInventory.releaseSeat(seat, "BOOKING_INDEX_TEST");
+
+        assertThat(trainInventory.getBookedSeat("BOOKING_INDEX_TEST")).isEmpty();
+        assertThat(trainInventory.getSectionBookingIds(seat.getSectionId())).doesNotContain("BOOKING_INDEX_TEST");
+        assertThat(trainInventory.getTrainSections().get(seat.getSectionId() - 1).getAvailableSeatCount())
+                .isEqualTo(45);
+    }
+
+    @Test
+    void should_resell_seat_freed_at_intermediate_station() {
+        for (int i = 0; i < 90; i++) {
+            var seat = trainInventory.claimAvailableSeat(journey("London", "Ashford")).orElseThrow();
+            trainInventory.occupySeat(seat, journey("London", "Ashford"), "LONDON_ASHFORD_" + i);
+        }
+
+        assertThat(trainInventory.claimAvailableSeat(journey("London", "France"))).isEmpty();
+
+        var resoldSeat = trainInventory.claimAvailableSeat(journey("ashford", "FRANCE")).orElseThrow();
+        trainInventory.occupySeat(resoldSeat, journey("Ashford", "France"), "ASHFORD_FRANCE");
+
+        assertThat(resoldSeat.getSeatNumber()).isEqualTo(1);
+        assertThat(trainInventory.getSectionBookingIds(1)).startsWith("LONDON_ASHFORD_0", "ASHFORD_FRANCE");
+        assertThat(trainInventory.getJourney("France", "London")).isEmpty();
+    }
+
+    @Test
+    void should_seat_group_side_by_side_and_fall_back_to_scattered_seats() {
+        var group = trainInventory.claimAvailableSeats(journey("London", "France"), 40);
+
+        assertThat(group).extracting(Seat::getSeatNumber).containsExactlyElementsOf(
+                IntStream.rangeClosed(1, 40).boxed().toList());
+        assertThat(group).allMatch(seat -> seat.getSectionId() == 1);
+
+        var secondGroup = trainInventory.claimAvailableSeats(journey("London", "France"), 46);
+
+        //No section has 46 seats in a row, so the rest of section A is used before section B
+        assertThat(secondGroup).hasSize(46);
+        assertThat(secondGroup.get(0).getSeatNumber()).isEqualTo(41);
+        assertThat(secondGroup.get(5).getSectionId()).isEqualTo(2);
+        assertThat(trainInventory.claimAvailableSeats(journey("London", "France"), 10)).hasSize(4);
+        assertThat(trainInventory.claimAvailableSeat(journey("London", "France"))).isEmpty();
+
+        trainInventory.releaseClaimedSeats(group, journey("London", "France"));
+
+        assertThat(trainInventory.getTrainSection(1).orElseThrow().getAvailableSeatCount()).isEqualTo(40);
+    }
+
+    @Test
+    void should_reserve_passenger_only_once_ignoring_case() {
+        var passenger = getPassengerDtoMock("Index", "Passenger", "index.passenger@gmail.com");
+        var samePassenger = getPassengerDtoMock("INDEX", "passenger", "Index.Passenger@gmail.com");
+
+        assertThat(trainInventory.reservePassenger(passenger, "PASSENGER_INDEX_TEST")).isTrue();
+        assertThat(trainInventory.reservePassenger(samePassenger, "PASSENGER_INDEX_TEST_2")).isFalse();
+
+        trainInventory.releasePassenger(samePassenger, "PASSENGER_INDEX_TEST_2");
+        assertThat(trainInventory.reservePassenger(samePassenger, "PASSENGER_INDEX_TEST_2")).isFalse();
+
+        trainInventory.releasePassenger(passenger, "PASSENGER_INDEX_TEST");
+        assertThat(trainInventory.reservePassenger(samePassenger, "PASSENGER_INDEX_TEST_2")).isTrue();
+
+        trainInventory.releasePassenger(samePassenger, "PASSENGER_INDEX_TEST_2");
+    }
+
+    @Test
+    void should_restore_booking_with_the_route_station_and_section_names() {
+        var storedBooking = getBookingMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS, 3, new String(SECTION_A))
+                .toBuilder()
+                .boardingStation("london")
+                .destinationStation(" FRANCE ")
+                .build();
+
+        trainInventory.restoreBooking(storedBooking);
+
+        var restoredBooking = trainInventory.getSeatBookings().get(BOOKING_ID);
+        var journey = journey("London", "France");
+        assertThat(restoredBooking.getBoardingStation()).isSameAs(journey.getFrom());
+        assertThat(restoredBooking.getDestinationStation()).isSameAs(journey.getTo());
+        assertThat(restoredBooking.getSectionName())
+                .isSameAs(trainInventory.getTrainSection(1).orElseThrow().getSectionName());
+        assertThat(restoredBooking.getTrainDate()).isSameAs(trainInventory.getTrainDate());
+        assertThat(trainInventory.getBookedSeat(BOOKING_ID).orElseThrow().getSeatNumber()).isEqualTo(3);
+    }
+
+    @Test
+    void should_look_up_journey_fare_ignoring_case() {
+        var journey = trainInventory.getJourney(" LONDON ", "france").orElseThrow();
+
+        assertThat(trainInventory.getJourney("London", "France").orElseThrow().getFare()).isEqualTo(20d);
+        assertThat(journey.getFare()).isEqualTo(20d);
+        assertThat(journey.getFrom()).isEqualTo("London");
+        assertThat(journey.getTo()).isEqualTo("France");
+        assertThat(journey.getFromStop()).isZero();
+        assertThat(journey.getToStop()).isEqualTo(2);
+        assertThat(trainInventory.getJourney("France", "London")).isEmpty();
+        assertThat(trainInventory.getJourney("France", "Belgium")).isEmpty();
+    }
+
+    private RouteJourney journey(String from, String to) {
+        return trainInventory.getJourney(from, to).orElseThrow();
+    }
+}
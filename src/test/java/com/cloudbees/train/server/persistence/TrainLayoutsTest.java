@@ -0,0 +1,79 @@
+package com.cloudbees.train.server.persistence;
+
+import com.cloudbees.train.server.entity.SeatClass;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TrainLayoutsTest {
+    private static final String LAYOUTS = """
+            # layoutId,coach,class,fare multiplier,seats
+            COMMUTER,COACH 1,STANDARD,1,6
+            EXPRESS,COACH 1,STANDARD,1,8
+            EXPRESS,COACH 2,FIRST,1.5,6
+            """;
+
+    @Test
+    void should_parse_coaches_of_each_layout() throws Exception {
+        var trainLayouts = new TrainLayouts(TrainLayouts.parseLayouts(new BufferedReader(new StringReader(LAYOUTS))));
+
+        var express = trainLayouts.getLayout("EXPRESS").orElseThrow();
+        var firstClass = express.getCoaches().get(1);
+
+        assertThat(trainLayouts.getDefaultLayout().getLayoutId()).isEqualTo("COMMUTER");
+        assertThat(express.getTotalSeats()).isEqualTo(14);
+        assertThat(firstClass.getCoachName()).isEqualTo("COACH 2");
+        assertThat(firstClass.getSeatClass()).isEqualTo(SeatClass.FIRST);
+        assertThat(firstClass.getSeatFare(20d)).isEqualTo(30d);
+        assertThat(trainLayouts.getLayout("UNKNOWN")).isEmpty();
+    }
+
+    @Test
+    void should_load_default_layouts() {
+        var trainLayouts = TrainLayouts.load();
+
+        assertThat(trainLayouts.getDefaultLayout().getTotalSeats()).isEqualTo(TrainInventory.TOTAL_SEATS);
+        //Requests cannot ask for a class yet, so every coach shipped is sold
+        assertThat(trainLayouts.getLayout("PANORAMA").orElseThrow().getCoaches())
+                .extracting(coach -> coach.getSeatClass())
+                .containsOnly(SeatClass.STANDARD);
+    }
+
+    @Test
+    void should_reject_different_fares_for_one_class() {
+        var layouts = """
+                EXPRESS,COACH 1,FIRST,1.5,8
+                EXPRESS,COACH 2,FIRST,2,8
+                """;
+
+        assertThatThrownBy(() -> TrainLayouts.parseLayouts(new BufferedReader(new StringReader(layouts))))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("line 2");
+    }
+
+    @Test
+    void should_reject_malformed_coach_line() {
+        assertThatThrownBy(() -> TrainLayouts.parseLayouts(new BufferedReader(
+                new StringReader("EXPRESS,COACH 1,BUSINESS,1,8"))))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("line 1");
+        assertThatThrownBy(() -> TrainLayouts.parseLayouts(new BufferedReader(
+                new StringReader("EXPRESS,COACH 1,STANDARD,1,0"))))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("line 1");
+    }
+
+    @Test
+    void should_reject_fare_multiplier_that_is_negative_or_not_finite() {
+        for (var fareMultiplier : new String[]{"-1", "NaN", "Infinity"}) {
+            assertThatThrownBy(() -> TrainLayouts.parseLayouts(new BufferedReader(
+                    new StringReader("EXPRESS,COACH 1,FIRST," + fareMultiplier + ",8"))))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessageContaining("line 1");
+        }
+    }
+}
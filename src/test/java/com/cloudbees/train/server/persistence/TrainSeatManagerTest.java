@@ -1,37 +1,131 @@
 package com.cloudbees.train.server.persistence;
 
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
-import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
-@ExtendWith(MockitoExtension.class)
 class TrainSeatManagerTest {
-    @InjectMocks
-    private TrainSeatManager trainSeatManager;
+    private final TrainSeatManager trainSeatManager = new TrainSeatManager();
+
+    @Test
+    void should_share_inventory_for_same_train_and_date() {
+        var serviceDate = LocalDate.of(2030, 1, 1);
+
+        var inventory = trainSeatManager.openTrainInventory("9001", serviceDate).orElseThrow();
+
+        assertThat(trainSeatManager.openTrainInventory(" 9001 ", serviceDate)).containsSame(inventory);
+        assertThat(trainSeatManager.openTrainInventory("9002", serviceDate).orElseThrow()).isNotSameAs(inventory);
+        assertThat(trainSeatManager.openTrainInventory("9001", serviceDate.plusDays(1)).orElseThrow())
+                .isNotSameAs(inventory);
+        assertThat(inventory.getTrainSections()).hasSize(2);
+        assertThat(inventory.getRoute().getRouteId()).isEqualTo("EUROSTAR");
+    }
+
+    @Test
+    void should_keep_bookings_of_trains_apart() {
+        var serviceDate = LocalDate.of(2030, 2, 1);
+        var eurostar = trainSeatManager.openTrainInventory("9001", serviceDate).orElseThrow();
+        var benelux = trainSeatManager.openTrainInventory("4501", serviceDate).orElseThrow();
+
+        var journey = eurostar.getJourney("London", "France").orElseThrow();
+        var seat = eurostar.claimAvailableSeat(journey).orElseThrow();
+        eurostar.occupySeat(seat, journey, "TRAIN_SHARD_TEST");
+
+        assertThat(eurostar.getBookedSeat("TRAIN_SHARD_TEST")).contains(seat);
+        assertThat(benelux.getBookedSeat("TRAIN_SHARD_TEST")).isEmpty();
+        assertThat(benelux.getTrainSection(seat.getSectionId()).orElseThrow().getAvailableSeatCount()).isEqualTo(45);
+        assertThat(benelux.getJourney("France", "Germany").orElseThrow().getFare()).isEqualTo(45d);
+        assertThat(benelux.getJourney("London", "France")).isEmpty();
+    }
+
+    @Test
+    void should_select_default_train_when_train_number_is_blank() {
+        var serviceDate = LocalDate.of(2030, 3, 1);
+
+        assertThat(trainSeatManager.openTrainInventory("", serviceDate).orElseThrow().getTrainDate().getTrainNumber())
+                .isEqualTo("9001");
+        assertThat(trainSeatManager.openTrainInventory("1234", serviceDate)).isEmpty();
+    }
+
+    @Test
+    void should_open_train_with_its_own_layout() {
+        var serviceDate = LocalDate.of(2030, 4, 1);
+
+        var alpine = trainSeatManager.openTrainInventory("8801", serviceDate).orElseThrow();
+
+        assertThat(alpine.getTrainSections()).extracting(TrainSection::getSectionName)
+                .containsExactly("SECTION A", "SECTION B", "SECTION C");
+        assertThat(alpine.getTrainSection(3).orElseThrow().getSeats()).hasSize(24);
+        assertThat(trainSeatManager.openTrainInventory("9001", serviceDate).orElseThrow().getTrainSections())
+                .hasSize(2);
+    }
+
+    @Test
+    void should_remove_inventories_of_departed_trains() {
+        var departed = trainSeatManager.openTrainInventory("8801", LocalDate.of(2000, 1, 1)).orElseThrow();
+
+        trainSeatManager.removeTrainInventoriesBefore(LocalDate.of(2000, 1, 2));
+
+        assertThat(trainSeatManager.getTrainInventory("8801", LocalDate.of(2000, 1, 1))).isEmpty();
+        assertThat(trainSeatManager.openTrainInventory("8801", LocalDate.of(2000, 1, 1)).orElseThrow())
+                .isNotSameAs(departed);
+    }
+
+    @Test
+    void should_look_up_only_opened_inventories() {
+        var serviceDate = LocalDate.of(2030, 5, 1);
+
+        assertThat(trainSeatManager.getTrainInventory("9001", serviceDate)).isEmpty();
+        assertThat(trainSeatManager.getTrainInventory("9001", serviceDate)).isEmpty();
+
+        var inventory = trainSeatManager.openTrainInventory("9001", serviceDate).orElseThrow();
+
+        assertThat(trainSeatManager.getTrainInventory(" 9001 ", serviceDate)).containsSame(inventory);
+        assertThat(trainSeatManager.getTrainInventory("", serviceDate)).containsSame(inventory);
+        assertThat(trainSeatManager.getTrainInventory("9002", serviceDate)).isEmpty();
+        assertThat(trainSeatManager.getTrainInventoryCount()).isEqualTo(1);
+        assertThat(trainSeatManager.hasTrain("9002")).isTrue();
+        assertThat(trainSeatManager.hasTrain("1234")).isFalse();
+    }
 
     @Test
-    void should_validate_train_seats_count() {
-        var seats = trainSeatManager.getTrainSeats();
-        var seatBookings = trainSeatManager.getSeatBookings();
-        assertThat(seats.size()).isEqualTo(90);
-        assertThat(seatBookings.size()).isZero();
+    void should_open_same_inventory_for_concurrent_callers() throws Exception {
+        var serviceDate = LocalDate.of(2030, 6, 1);
+        int callers = 16;
+        var start = new CountDownLatch(1);
+        List<Future<TrainInventory>> opened = new ArrayList<>();
 
-        var sectionASeats = seats.keySet().stream()
-                .filter(obj -> obj.getSectionId() == 1);
-        var sectionBSeats = seats.keySet().stream()
-                .filter(obj -> obj.getSectionId() == 2);
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < callers; i++) {
+                opened.add(executor.submit(() -> {
+                    start.await();
+                    return trainSeatManager.openTrainInventory("9001", serviceDate).orElseThrow();
+                }));
+            }
+            start.countDown();
 
-        assertThat(sectionASeats).hasSize(45);
-        assertThat(sectionBSeats).hasSize(45);
+            var inventory = opened.get(0).get();
+            for (var future : opened) {
+                assertThat(future.get()).isSameAs(inventory);
+            }
+        }
+        assertThat(trainSeatManager.getTrainInventoryCount()).isEqualTo(1);
     }
 
     @Test
-    void should_validate_train_journeys_count() {
-        var travelJourneys = trainSeatManager.getTravelJourneys();
+    void should_sell_trains_from_today_within_sale_window() {
+        var today = LocalDate.now();
 
-        assertThat(travelJourneys).hasSize(1);
+        assertThat(trainSeatManager.isOnSale(today)).isTrue();
+        assertThat(trainSeatManager.isOnSale(today.plusDays(365))).isTrue();
+        assertThat(trainSeatManager.isOnSale(today.plusDays(366))).isFalse();
+        assertThat(trainSeatManager.isOnSale(today.minusDays(1))).isFalse();
     }
-}
\ No newline at end of file
+}
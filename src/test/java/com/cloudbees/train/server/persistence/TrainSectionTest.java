@@ -0,0 +1,232 @@
+package com.cloudbees.train.server.persistence;
+
+import com.cloudbees.train.server.entity.Seat;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrainSectionTest {
+    @Test
+    void should_claim_first_available_seat_across_bitmap_words() {
+        var section = new TrainSection(1, "SECTION A", 130);
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(section.claimAvailableSeat()).isPresent();
+        }
+
+        var availableSeat = section.claimAvailableSeat();
+
+        assertThat(availableSeat).isPresent();
+        assertThat(availableSeat.get().getSeatNumber()).isEqualTo(101);
+        assertThat(section.getAvailableSeatCount()).isEqualTo(29);
+    }
+
+    @Test
+    void should_return_released_seat_as_available() {
+        var section = new TrainSection(2, "SECTION B", 2);
+        var firstSeat = section.claimAvailableSeat().orElseThrow();
+        section.occupy(firstSeat, "1001");
+        section.claimAvailableSeat().orElseThrow();
+
+        assertThat(section.claimAvailableSeat()).isEmpty();
+
+        assertThat(section.release(firstSeat, "1001")).isTrue();
+
+        assertThat(section.getAvailableSeatCount()).isEqualTo(1);
+        assertThat(section.claimAvailableSeat()).contains(firstSeat);
+    }
+
+    @Test
+    void should_list_booking_ids_of_occupied_seats_in_seat_order() {
+        var section = new TrainSection(1, "SECTION A", 70);
+        var firstSeat = section.claimAvailableSeat().orElseThrow();
+        var secondSeat = section.claimAvailableSeat().orElseThrow();
+        section.occupy(firstSeat, "1001");
+        section.occupy(secondSeat, "1002");
+
+        assertThat(section.getBookingIds()).containsExactly("1001", "1002");
+
+        assertThat(section.release(firstSeat, new String("1001"))).isTrue();
+        assertThat(section.release(firstSeat, "1001")).isFalse();
+        assertThat(section.getBookingIds()).containsExactly("1002");
+    }
+
+    @Test
+    void should_report_seat_map_occupancy_for_every_held_leg() {
+        var section = new TrainSection(1, "SECTION A", 70, 3);
+        var run = section.claimAdjacentSeats(1, 2, 2);
+        var lastSeat = section.getSeat(70);
+        assertThat(section.claimSeat(lastSeat, 2, 3)).isTrue();
+        section.occupy(lastSeat, 2, 3, "1003");
+
+        assertThat(section.getOccupiedSeats(0)).isEqualTo(0b11L);
+        assertThat(section.getOccupiedSeats(1)).isEqualTo(1L << 5);
+        assertThat(section.getAvailableSeatCount()).isEqualTo(67);
+        assertThat(section.getAvailableSeatCount(0, 1)).isEqualTo(70);
+        assertThat(section.getBookingIds()).containsExactly("1003");
+
+        section.releaseClaim(run.get(0), 1, 2);
+        assertThat(section.release(lastSeat, "1003")).isTrue();
+
+        assertThat(section.getOccupiedSeats(0)).isEqualTo(0b10L);
+        assertThat(section.getOccupiedSeats(1)).isZero();
+        assertThat(section.getAvailableSeatCount()).isEqualTo(69);
+        assertThat(section.getBookingIds()).isEmpty();
+    }
+
+    @Test
+    void should_resell_seat_for_legs_left_free_by_a_partial_journey() {
+        var section = new TrainSection(1, "SECTION A", 1, 3);
+        var seat = section.claimAvailableSeat(0, 1).orElseThrow();
+        section.occupy(seat, 0, 1, "1001");
+
+        assertThat(section.claimAvailableSeat(0, 2)).isEmpty();
+        assertThat(section.getAvailableSeatCount(1, 3)).isEqualTo(1);
+
+        assertThat(section.claimAvailableSeat(1, 3)).contains(seat);
+        section.occupy(seat, 1, 3, "1002");
+
+        assertThat(section.claimAvailableSeat(2, 3)).isEmpty();
+        assertThat(section.getBookingIds()).containsExactly("1001", "1002");
+
+        assertThat(section.release(seat, "1001")).isTrue();
+        assertThat(section.getBookingIds()).containsExactly("1002");
+        assertThat(section.claimAvailableSeat(0, 1)).contains(seat);
+    }
+
+    @Test
+    void should_find_first_seat_free_across_segments_in_later_bitmap_words() {
+        var section = new TrainSection(1, "SECTION A", 130, 4);
+        for (int i = 0; i < 100; i++) {
+            var seat = section.claimAvailableSeat(i % 2 == 0 ? 0 : 2, i % 2 == 0 ? 2 : 4).orElseThrow();
+            assertThat(seat.getSeatNumber()).isEqualTo(i / 2 + 1);
+        }
+
+        assertThat(section.claimAvailableSeat(1, 3).orElseThrow().getSeatNumber()).isEqualTo(51);
+        assertThat(section.getAvailableSeatCount(0, 2)).isEqualTo(79);
+        assertThat(section.getAvailableSeatCount()).isEqualTo(79);
+    }
+
+    @Test
+    void should_claim_adjacent_seats_skipping_taken_ones_across_bitmap_words() {
+        var section = new TrainSection(1, "SECTION A", 130, 2);
+        for (int i = 0; i < 62; i++) {
+            section.claimAvailableSeat(0, 2).orElseThrow();
+        }
+        //Seat 64 is taken on the second leg only, so a run for the whole journey cannot include it
+        section.claimSeat(section.getSeats().get(63), 1, 2);
+
+        var seats = section.claimAdjacentSeats(0, 2, 4);
+
+        assertThat(seats).extracting(Seat::getSeatNumber).containsExactly(65, 66, 67, 68);
+        assertThat(section.claimAdjacentSeats(0, 1, 2)).extracting(Seat::getSeatNumber).containsExactly(63, 64);
+        assertThat(section.claimAdjacentSeats(0, 2, 63)).isEmpty();
+        assertThat(section.getAvailableSeatCount()).isEqualTo(62);
+    }
+
+    @Test
+    void should_give_back_claimed_seats() {
+        var section = new TrainSection(1, "SECTION A", 3, 2);
+        List<Seat> claimed = new ArrayList<>();
+
+        assertThat(section.claimAvailableSeats(0, 2, 5, claimed)).isEqualTo(3);
+        assertThat(section.getAvailableSeatCount()).isZero();
+
+        section.releaseClaim(claimed.get(1), 0, 2);
+
+        assertThat(section.getAvailableSeatCount()).isEqualTo(1);
+        assertThat(section.claimAvailableSeat(0, 2)).contains(claimed.get(1));
+    }
+
+    @Test
+    void should_never_hand_out_the_same_seat_twice_under_contention() throws Exception {
+        int totalSeats = 10_000;
+        int threads = 64;
+        var section = new TrainSection(1, "SECTION A", totalSeats);
+        var claimedSeats = ConcurrentHashMap.<Seat>newKeySet();
+        var duplicateClaims = ConcurrentHashMap.<Seat>newKeySet();
+        var startSignal = new CountDownLatch(1);
+        var executor = Executors.newFixedThreadPool(threads);
+
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                workers.add(executor.submit(() -> {
+                    startSignal.await();
+                    claimUntilSoldOut(section, claimedSeats, duplicateClaims);
+                    return null;
+                }));
+            }
+
+            startSignal.countDown();
+            for (var worker : workers) {
+                worker.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(duplicateClaims).isEmpty();
+        assertThat(claimedSeats).hasSize(totalSeats);
+        assertThat(section.getAvailableSeatCount()).isZero();
+    }
+
+    @Test
+    void should_keep_seat_count_consistent_with_concurrent_claims_and_releases() throws Exception {
+        int totalSeats = 500;
+        int threads = 32;
+        var section = new TrainSection(1, "SECTION A", totalSeats);
+        var heldSeats = ConcurrentHashMap.<Seat>newKeySet();
+        var duplicateClaims = ConcurrentHashMap.<Seat>newKeySet();
+        var executor = Executors.newFixedThreadPool(threads);
+
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                workers.add(executor.submit(() -> {
+                    for (int round = 0; round < 5_000; round++) {
+                        var seat = section.claimAvailableSeat();
+                        if (seat.isEmpty()) {
+                            continue;
+                        }
+                        if (!heldSeats.add(seat.get())) {
+                            duplicateClaims.add(seat.get());
+                        }
+                        var bookingId = Thread.currentThread().getName() + round;
+                        section.occupy(seat.get(), bookingId);
+                        heldSeats.remove(seat.get());
+                        section.release(seat.get(), bookingId);
+                    }
+                }));
+            }
+
+            for (var worker : workers) {
+                worker.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(duplicateClaims).isEmpty();
+        assertThat(section.getAvailableSeatCount()).isEqualTo(totalSeats);
+    }
+
+    private static void claimUntilSoldOut(TrainSection section, Set<Seat> claimedSeats, Set<Seat> duplicateClaims) {
+        var seat = section.claimAvailableSeat();
+        while (seat.isPresent()) {
+            if (!claimedSeats.add(seat.get())) {
+                duplicateClaims.add(seat.get());
+            }
+            seat = section.claimAvailableSeat();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.cloudbees.train.server.seatmap;
+
+import com.cloudbees.train.SeatMapRequest;
+import com.cloudbees.train.SeatMapUpdate;
+import com.cloudbees.train.TicketManagerServiceGrpc;
+import com.cloudbees.train.TrainSelector;
+import com.cloudbees.train.server.TicketBookingServer;
+import com.cloudbees.train.server.journal.NoOpBookingJournal;
+import com.cloudbees.train.server.persistence.TrainSeatManager;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static com.cloudbees.train.server.factory.TicketFactory.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SeatMapPublisherTest {
+    @Test
+    void should_stream_snapshot_then_shared_deltas_of_booked_seats() throws Exception {
+        var serviceDate = LocalDate.now();
+        var train = TrainSelector.newBuilder().setTrainNumber("9001").setTravelDate(serviceDate.toString()).build();
+        var trainSeatManager = new TrainSeatManager();
+        var serverName = InProcessServerBuilder.generateName();
+        var server = TicketBookingServer.createServer(InProcessServerBuilder.forName(serverName), trainSeatManager,
+                new NoOpBookingJournal()).start();
+        var channel = InProcessChannelBuilder.forName(serverName).build();
+        var first = new RecordingObserver();
+        var second = new RecordingObserver();
+        try {
+            var stub = TicketManagerServiceGrpc.newBlockingStub(channel);
+            var asyncStub = TicketManagerServiceGrpc.newStub(channel);
+            //Watching never opens a train-date, the first booking of the day does
+            trainSeatManager.openTrainInventory("9001", serviceDate).orElseThrow();
+            var request = SeatMapRequest.newBuilder().setTrain(train).build();
+            asyncStub.watchSeatMap(request, first);
+            asyncStub.watchSeatMap(request, second);
+
+            var snapshot = first.next();
+            assertThat(second.next()).isEqualTo(snapshot);
+            assertThat(snapshot.getSnapshot()).isTrue();
+            assertThat(snapshot.getSectionsList()).hasSize(2);
+            assertThat(snapshot.getSections(0).getSectionName()).isEqualTo(SECTION_A);
+            assertThat(snapshot.getSections(0).getSeatsList()).containsOnly(0L);
+
+            stub.bookTicket(getTicketPurchaseRequestDtoMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS).toBuilder()
+                    .setTrain(train)
+                    .build());
+
+            var delta = first.next();
+            assertThat(second.next()).isEqualTo(delta);
+            assertThat(delta.getSnapshot()).isFalse();
+            assertThat(delta.getVersion()).isEqualTo(snapshot.getVersion() + 1);
+            assertThat(delta.getSectionsList()).hasSize(1);
+            assertThat(delta.getSections(0).getSectionId()).isEqualTo(1);
+            //XOR with the snapshot gives the occupancy, seat 1 is taken
+            assertThat(snapshot.getSections(0).getSeats(0) ^ delta.getSections(0).getSeats(0)).isEqualTo(1L);
+        } finally {
+            first.call.cancel("done", null);
+            second.call.cancel("done", null);
+            channel.shutdownNow();
+            server.shutdownNow();
+            trainSeatManager.removeTrainInventoriesBefore(serviceDate.plusDays(1));
+        }
+    }
+
+    private static class RecordingObserver implements ClientResponseObserver<SeatMapRequest, SeatMapUpdate> {
+        private final BlockingQueue<SeatMapUpdate> updates = new LinkedBlockingQueue<>();
+        private ClientCallStreamObserver<SeatMapRequest> call;
+
+        @Override
+        public void beforeStart(ClientCallStreamObserver<SeatMapRequest> requestStream) {
+            call = requestStream;
+        }
+
+        @Override
+        public void onNext(SeatMapUpdate update) {
+            updates.add(update);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+        }
+
+        @Override
+        public void onCompleted() {
+        }
+
+        private SeatMapUpdate next() throws InterruptedException {
+            var update = updates.poll(5, TimeUnit.SECONDS);
+            assertThat(update).isNotNull();
+
+            return update;
+        }
+    }
+}
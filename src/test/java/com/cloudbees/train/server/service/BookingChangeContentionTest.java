@@ -0,0 +1,150 @@
+package com.cloudbees.train.server.service;
+
+import com.cloudbees.train.BookingRequest;
+import com.cloudbees.train.TicketManagerServiceGrpc;
+import com.cloudbees.train.TrainSelector;
+import com.cloudbees.train.server.TicketBookingServer;
+import com.cloudbees.train.server.entity.Booking;
+import com.cloudbees.train.server.journal.BookingEventType;
+import com.cloudbees.train.server.journal.BookingJournal;
+import com.cloudbees.train.server.persistence.TrainInventory;
+import com.cloudbees.train.server.persistence.TrainSeatManager;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static com.cloudbees.train.server.factory.TicketFactory.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookingChangeContentionTest {
+    private static final int BOOKINGS = 30;
+
+    @Test
+    void should_keep_seats_and_bookings_consistent_under_concurrent_modify_and_delete() throws Exception {
+        int threads = 16;
+        var serviceDate = LocalDate.now();
+        var train = TrainSelector.newBuilder().setTrainNumber("9001").setTravelDate(serviceDate.toString()).build();
+        var trainSeatManager = new TrainSeatManager();
+        var serverName = InProcessServerBuilder.generateName();
+        var server = TicketBookingServer.createServer(InProcessServerBuilder.forName(serverName), trainSeatManager,
+                new AsyncBookingJournal()).start();
+        var channel = InProcessChannelBuilder.forName(serverName).build();
+        var unexpectedErrors = ConcurrentHashMap.<Status.Code>newKeySet();
+        var startSignal = new CountDownLatch(1);
+        var executor = Executors.newFixedThreadPool(threads);
+
+        try {
+            var stub = TicketManagerServiceGrpc.newBlockingStub(channel);
+            List<BookingRequest> bookings = new ArrayList<>();
+            for (int i = 0; i < BOOKINGS; i++) {
+                var emailAddress = "passenger" + i + "@gmail.com";
+                var receipt = stub.bookTicket(getTicketPurchaseRequestDtoMock(FIRST_NAME, LAST_NAME, emailAddress)
+                        .toBuilder()
+                        .setTrain(train)
+                        .build());
+                bookings.add(BookingRequest.newBuilder()
+                        .setBookingId(receipt.getBookingId())
+                        .setEmailAddress(emailAddress)
+                        .setTrain(train)
+                        .build());
+            }
+
+            List<Future<?>> workers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                workers.add(executor.submit(() -> {
+                    startSignal.await();
+                    changeBookings(stub, bookings, unexpectedErrors);
+                    return null;
+                }));
+            }
+
+            startSignal.countDown();
+            for (var worker : workers) {
+                worker.get(30, TimeUnit.SECONDS);
+            }
+
+            var inventory = trainSeatManager.getTrainInventory("9001", serviceDate).orElseThrow();
+            assertThat(unexpectedErrors).isEmpty();
+            assertBookedSeatsMatchBookings(inventory, bookings);
+        } finally {
+            executor.shutdownNow();
+            channel.shutdownNow();
+            server.shutdownNow();
+            trainSeatManager.removeTrainInventoriesBefore(serviceDate.plusDays(1));
+        }
+    }
+
+    private static void changeBookings(TicketManagerServiceGrpc.TicketManagerServiceBlockingStub stub,
+                                       List<BookingRequest> bookings, Set<Status.Code> unexpectedErrors) {
+        var random = ThreadLocalRandom.current();
+        for (int round = 0; round < 200; round++) {
+            var booking = bookings.get(random.nextInt(BOOKINGS));
+            try {
+                if (random.nextInt(10) == 0) {
+                    stub.deleteBooking(booking);
+                } else {
+                    stub.modifyPassengerSeat(booking);
+                }
+            } catch (StatusRuntimeException e) {
+                //A deleted booking, a sold out train or a change racing another one are all expected answers
+                var code = e.getStatus().getCode();
+                if (code != Status.Code.NOT_FOUND && code != Status.Code.ABORTED) {
+                    unexpectedErrors.add(code);
+                }
+            }
+        }
+    }
+
+    //Every remaining booking sits on the seat the index has for it, and every other seat can be sold again
+    private static void assertBookedSeatsMatchBookings(TrainInventory inventory, List<BookingRequest> bookings) {
+        var seatBookings = inventory.getSeatBookings();
+        int remainingBookings = 0;
+        for (var request : bookings) {
+            var booking = seatBookings.get(request.getBookingId());
+            var bookedSeat = inventory.getBookedSeat(request.getBookingId());
+            if (booking == null) {
+                assertThat(bookedSeat).isEmpty();
+                continue;
+            }
+
+            remainingBookings++;
+            assertThat(bookedSeat).isPresent();
+            assertThat(bookedSeat.get().getSectionName()).isEqualTo(booking.getSectionName());
+            assertThat(bookedSeat.get().getSeatNumber()).isEqualTo(booking.getSeatNumber());
+        }
+
+        var journey = inventory.getJourney("London", "France").orElseThrow();
+        int freeSeats = 0;
+        while (inventory.claimAvailableSeat(journey).isPresent()) {
+            freeSeats++;
+        }
+        assertThat(seatBookings.size()).isEqualTo(remainingBookings);
+        assertThat(freeSeats).isEqualTo(TrainInventory.TOTAL_SEATS - remainingBookings);
+    }
+
+    //Completes appends on another thread so changes of one booking overlap while they wait on the journal
+    private static class AsyncBookingJournal implements BookingJournal {
+        @Override
+        public CompletableFuture<Void> append(BookingEventType type, Booking booking) {
+            return CompletableFuture.runAsync(Thread::yield);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.cloudbees.train.server.service;
+
+import com.cloudbees.train.BookingCommand;
+import com.cloudbees.train.BookingCommandResult;
+import com.cloudbees.train.BookingRequest;
+import com.cloudbees.train.TicketManagerServiceGrpc;
+import com.cloudbees.train.TrainSelector;
+import com.cloudbees.train.server.TicketBookingServer;
+import com.cloudbees.train.server.journal.NoOpBookingJournal;
+import com.cloudbees.train.server.persistence.TrainSeatManager;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.StreamObserver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+import static com.cloudbees.train.server.factory.TicketFactory.getTicketPurchaseRequestDtoMock;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookingCommandStreamTest {
+    private static final LocalDate SERVICE_DATE = LocalDate.now();
+    private static final TrainSelector TRAIN = TrainSelector.newBuilder()
+            .setTrainNumber("9001")
+            .setTravelDate(SERVICE_DATE.toString())
+            .build();
+
+    private final TrainSeatManager trainSeatManager = new TrainSeatManager();
+    private Server server;
+    private ManagedChannel channel;
+
+    @BeforeEach
+    void startServer() throws Exception {
+        var serverName = InProcessServerBuilder.generateName();
+        server = TicketBookingServer.createServer(InProcessServerBuilder.forName(serverName), trainSeatManager,
+                new NoOpBookingJournal()).start();
+        channel = InProcessChannelBuilder.forName(serverName).build();
+    }
+
+    @AfterEach
+    void stopServer() {
+        channel.shutdownNow();
+        server.shutdownNow();
+        trainSeatManager.removeTrainInventoriesBefore(SERVICE_DATE.plusDays(1));
+    }
+
+    @Test
+    void should_answer_more_pipelined_commands_than_the_read_ahead_window() throws Exception {
+        int bookings = BookingCommandStream.MAX_PIPELINED_COMMANDS + 26;
+        var results = runCommands(bookings, index -> BookingCommand.newBuilder()
+                .setCorrelationId("book-" + index)
+                .setBook(getTicketPurchaseRequestDtoMock("Stream", "Passenger" + index,
+                        "stream" + index + "@gmail.com").toBuilder().setTrain(TRAIN))
+                .build());
+
+        assertThat(results).hasSize(bookings);
+        assertThat(results).allMatch(result -> result.getStatusCode() == 0);
+        assertThat(results).extracting(BookingCommandResult::getResultCase)
+                .containsOnly(BookingCommandResult.ResultCase.RECEIPT);
+        assertThat(results).extracting(BookingCommandResult::getCorrelationId).doesNotHaveDuplicates();
+
+        var receipt = results.get(0).getReceipt();
+        var lookup = BookingRequest.newBuilder()
+                .setBookingId(receipt.getBookingId())
+                .setEmailAddress(receipt.getPassenger().getEmailAddress())
+                .setTrain(TRAIN)
+                .build();
+        var followUps = runCommands(2, index -> index == 0
+                ? BookingCommand.newBuilder().setCorrelationId("lookup").setLookup(lookup).build()
+                : BookingCommand.newBuilder().setCorrelationId("delete").setDelete(lookup).build());
+
+        assertThat(followUps).extracting(BookingCommandResult::getCorrelationId)
+                .containsExactlyInAnyOrder("lookup", "delete");
+        assertThat(followUps).allMatch(result -> result.getStatusCode() == 0);
+        assertThat(trainSeatManager.getTrainInventory("9001", SERVICE_DATE).orElseThrow().getSeatBookings().size())
+                .isEqualTo(bookings - 1);
+    }
+
+    private List<BookingCommandResult> runCommands(int count, IntFunction<BookingCommand> command)
+            throws Exception {
+        List<BookingCommandResult> results = new CopyOnWriteArrayList<>();
+        var done = new CompletableFuture<Void>();
+        var commands = TicketManagerServiceGrpc.newStub(channel).streamBookingCommands(new StreamObserver<>() {
+            @Override
+            public void onNext(BookingCommandResult result) {
+                results.add(result);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                done.completeExceptionally(t);
+            }
+
+            @Override
+            public void onCompleted() {
+                done.complete(null);
+            }
+        });
+
+        for (int i = 0; i < count; i++) {
+            commands.onNext(command.apply(i));
+        }
+        commands.onCompleted();
+        done.get(10, TimeUnit.SECONDS);
+
+        return results;
+    }
+}
@@ -1,10 +1,25 @@
 package com.cloudbees.train.server.service;
 
+import com.cloudbees.train.BatchTicketPurchaseResponse;
+import com.cloudbees.train.BookingCommand;
+import com.cloudbees.train.BookingCommandResult;
+import com.cloudbees.train.SectionBooking;
 import com.cloudbees.train.SectionBookingResponse;
 import com.cloudbees.train.TicketReceiptResponse;
+import com.cloudbees.train.server.cache.ReceiptCache;
+import com.cloudbees.train.server.entity.RouteJourney;
+import com.cloudbees.train.server.generator.BookingIdGenerator;
+import com.cloudbees.train.server.hold.SeatHoldManager;
+import com.cloudbees.train.server.journal.BookingEventType;
+import com.cloudbees.train.server.journal.NoOpBookingJournal;
 import com.cloudbees.train.server.mapper.TicketMapper;
+import com.cloudbees.train.server.persistence.HeapBookingStore;
+import com.cloudbees.train.server.persistence.TrainInventory;
 import com.cloudbees.train.server.persistence.TrainSeatManager;
+import com.cloudbees.train.server.seatmap.SeatMapPublisher;
+import com.cloudbees.train.server.waitlist.WaitlistManager;
 import com.google.protobuf.Empty;
+import io.grpc.Status;
 import io.grpc.StatusException;
 import io.grpc.internal.testing.StreamRecorder;
 import org.apache.commons.lang.StringUtils;
@@ -13,14 +28,23 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static com.cloudbees.train.server.constants.ApplicationConstants.*;
 import static com.cloudbees.train.server.factory.TicketFactory.*;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Mockito.*;
 
@@ -29,7 +53,21 @@ class TicketManagerServiceImplTest {
     @Mock
     private TrainSeatManager trainSeatManager;
     @Mock
+    private TrainInventory trainInventory;
+    @Spy
     private TicketMapper ticketMapper;
+    @Mock
+    private BookingIdGenerator bookingIdGenerator;
+    @Spy
+    private NoOpBookingJournal bookingJournal;
+    @Spy
+    private ReceiptCache receiptCache = new ReceiptCache(16);
+    @Spy
+    private SeatHoldManager seatHoldManager = new SeatHoldManager(SeatHoldManager.DEFAULT_HOLD_TIME);
+    @Spy
+    private WaitlistManager waitlistManager;
+    @Spy
+    private SeatMapPublisher seatMapPublisher = new SeatMapPublisher(SeatMapPublisher.DEFAULT_TICK);
 
     @InjectMocks
     private TicketManagerServiceImpl ticketManagerServiceImpl;
@@ -37,12 +75,15 @@ class TicketManagerServiceImplTest {
     private StreamRecorder<TicketReceiptResponse> ticketReceiptResponseStreamObserver;
     private StreamRecorder<Empty> ticketDeleteResponseStreamObserver;
     private StreamRecorder<SectionBookingResponse> sectionBookingResponseStreamRecorder;
+    private StreamRecorder<SectionBooking> sectionBookingStreamRecorder;
+    private final RouteJourney journey = getRouteJourneyMock();
 
     @BeforeEach
     void createResponseObservers() {
         ticketReceiptResponseStreamObserver = StreamRecorder.create();
         ticketDeleteResponseStreamObserver = StreamRecorder.create();
         sectionBookingResponseStreamRecorder = StreamRecorder.create();
+        sectionBookingStreamRecorder = StreamRecorder.create();
     }
 
     @Test
@@ -58,7 +99,12 @@ class TicketManagerServiceImplTest {
     void should_throw_exception_when_no_seats_are_available_for_booking() {
         var purchaseRequest = getTicketPurchaseRequestDtoMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS);
 
-        given(trainSeatManager.getTrainSeats()).willReturn(getTrainSeatsMapMockWithoutEmptySeats());
+        given(trainSeatManager.isOnSale(any())).willReturn(true);
+        given(trainSeatManager.openTrainInventory(any(), any())).willReturn(Optional.of(trainInventory));
+        given(trainInventory.getJourney("London", "France")).willReturn(Optional.of(journey));
+        given(bookingIdGenerator.nextBookingId()).willReturn(BOOKING_ID);
+        given(trainInventory.reservePassenger(purchaseRequest.getPassenger(), BOOKING_ID)).willReturn(true);
+        given(trainInventory.claimAvailableSeat(journey)).willReturn(Optional.empty());
 
         ticketManagerServiceImpl.bookTicket(purchaseRequest, ticketReceiptResponseStreamObserver);
 
@@ -66,16 +112,16 @@ class TicketManagerServiceImplTest {
         assertThat(error).isInstanceOf(StatusException.class);
         assertThat(error).hasMessageContaining(NO_SEATS_AVAILABLE_FOR_NEW_BOOKING);
 
-        verify(trainSeatManager).getTrainSeats();
-        verify(trainSeatManager).getSeatBookings();
+        verify(trainInventory).claimAvailableSeat(journey);
+        verify(trainInventory).getSeatBookings();
+        verify(trainInventory).releasePassenger(purchaseRequest.getPassenger(), BOOKING_ID);
+        verify(trainInventory, never()).occupySeat(any(), any(), any());
     }
 
     @Test
     void should_throw_exception_when_journey_details_not_provided() {
         var purchaseRequest = getTicketPurchaseRequestDtoWithoutJourneyDetailsMock("", "France");
 
-        given(trainSeatManager.getTrainSeats()).willReturn(getTrainSeatsWithAvailableSeatsMock());
-
         ticketManagerServiceImpl.bookTicket(purchaseRequest, ticketReceiptResponseStreamObserver);
 
         var error = ticketReceiptResponseStreamObserver.getError();
@@ -90,16 +136,14 @@ class TicketManagerServiceImplTest {
         assertThat(error).isInstanceOf(StatusException.class);
         assertThat(error).hasMessageContaining(JOURNEY_DETAILS_ERROR_MESSAGE);
 
-        verify(trainSeatManager, times(2)).getTrainSeats();
-        verify(trainSeatManager, times(2)).getSeatBookings();
+        verify(trainSeatManager, never()).openTrainInventory(any(), any());
+        verifyNoInteractions(trainInventory);
     }
 
     @Test
     void should_throw_exception_when_passenger_details_has_empty_values() {
         var purchaseDto = getTicketPurchaseRequestDtoMock(StringUtils.EMPTY, LAST_NAME, EMAIL_ADDRESS);
 
-        given(trainSeatManager.getTrainSeats()).willReturn(getTrainSeatsWithAvailableSeatsMock());
-
         ticketManagerServiceImpl.bookTicket(getPurchaseRequestWithoutPassenger(), ticketReceiptResponseStreamObserver);
 
         var error = ticketReceiptResponseStreamObserver.getError();
@@ -134,8 +178,8 @@ class TicketManagerServiceImplTest {
         assertThat(error).isInstanceOf(StatusException.class);
         assertThat(error).hasMessageContaining(PASSENGER_DETAILS_EMPTY_ERROR_MESSAGE);
 
-        verify(trainSeatManager, times(4)).getTrainSeats();
-        verify(trainSeatManager, times(4)).getSeatBookings();
+        verify(trainSeatManager, never()).openTrainInventory(any(), any());
+        verifyNoInteractions(trainInventory);
     }
 
     @Test
@@ -143,25 +187,25 @@ class TicketManagerServiceImplTest {
         var purchaseDto = getTicketPurchaseRequestDtoMock(FIRST_NAME,
                 LAST_NAME, "azar.gmail.com");
 
-        given(trainSeatManager.getTrainSeats()).willReturn(getTrainSeatsWithAvailableSeatsMock());
-
         ticketManagerServiceImpl.bookTicket(purchaseDto, ticketReceiptResponseStreamObserver);
 
         var error = ticketReceiptResponseStreamObserver.getError();
         assertThat(error).isInstanceOf(StatusException.class);
         assertThat(error).hasMessageContaining(EMAIL_ADDRESS_FORMAT_ERROR_MESSAGE);
 
-        verify(trainSeatManager).getTrainSeats();
-        verify(trainSeatManager).getSeatBookings();
+        verify(trainSeatManager, never()).openTrainInventory(any(), any());
+        verifyNoInteractions(trainInventory);
     }
 
     @Test
     void should_throw_exception_when_passenger_exist_with_same_name_and_email_address() {
         var purchaseDto = getTicketPurchaseRequestDtoMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS);
-        var bookings = getTrainSeatBookingsMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS);
 
-        given(trainSeatManager.getTrainSeats()).willReturn(getTrainSeatsWithAvailableSeatsMock());
-        given(trainSeatManager.getSeatBookings()).willReturn(bookings);
+        given(trainSeatManager.isOnSale(any())).willReturn(true);
+        given(trainSeatManager.openTrainInventory(any(), any())).willReturn(Optional.of(trainInventory));
+        given(trainInventory.getJourney("London", "France")).willReturn(Optional.of(journey));
+        given(bookingIdGenerator.nextBookingId()).willReturn(BOOKING_ID);
+        given(trainInventory.reservePassenger(purchaseDto.getPassenger(), BOOKING_ID)).willReturn(false);
 
         ticketManagerServiceImpl.bookTicket(purchaseDto, ticketReceiptResponseStreamObserver);
 
@@ -169,19 +213,21 @@ class TicketManagerServiceImplTest {
         assertThat(error).isInstanceOf(StatusException.class);
         assertThat(error).hasMessageContaining(PASSENGER_EXIST_ERROR_MESSAGE);
 
-        verify(trainSeatManager).getTrainSeats();
-        verify(trainSeatManager).getSeatBookings();
+        verify(trainInventory).reservePassenger(purchaseDto.getPassenger(), BOOKING_ID);
+        verify(trainInventory, never()).claimAvailableSeat(any());
+        verify(trainInventory).getSeatBookings();
     }
 
     @Test
     void should_throw_exception_when_train_journey_not_found() {
         var purchaseDto = getPurchaseRequestJourneyDetails("Switzerland", "France");
         var bookings = getTrainSeatBookingsMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS_2);
-        var seats = getTrainSeatsWithAvailableSeatsMock();
 
-        given(trainSeatManager.getTrainSeats()).willReturn(seats);
-        given(trainSeatManager.getSeatBookings()).willReturn(bookings);
-        given(trainSeatManager.getTravelJourneys()).willReturn(getJourneysMapMock());
+        given(trainSeatManager.isOnSale(any())).willReturn(true);
+        given(trainSeatManager.openTrainInventory(any(), any())).willReturn(Optional.of(trainInventory));
+        given(trainInventory.getSeatBookings()).willReturn(bookings);
+        given(trainInventory.getJourney("Switzerland", "France")).willReturn(Optional.empty());
+        given(trainInventory.getJourney("london", "belgium")).willReturn(Optional.empty());
 
         ticketManagerServiceImpl.bookTicket(purchaseDto, ticketReceiptResponseStreamObserver);
 
@@ -199,23 +245,97 @@ class TicketManagerServiceImplTest {
         assertThat(error).isInstanceOf(StatusException.class);
         assertThat(error).hasMessageContaining(TRAIN_JOURNEY_DETAILS_NOT_FOUND);
 
-        verify(trainSeatManager, times(2)).getTrainSeats();
-        verify(trainSeatManager, times(2)).getSeatBookings();
-        verify(trainSeatManager, times(2)).getTravelJourneys();
+        verify(trainInventory, times(2)).getSeatBookings();
+        verify(trainInventory).getJourney("Switzerland", "France");
+        verify(trainInventory).getJourney("london", "belgium");
+        verify(trainInventory, never()).claimAvailableSeat(any());
+    }
+
+    @Test
+    void should_throw_exception_when_travel_date_is_not_valid() {
+        var purchaseDto = getTicketPurchaseRequestDtoMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS).toBuilder()
+                .setTrain(getTrainSelectorMock(TRAIN_NUMBER, "02/08/2024"))
+                .build();
+
+        ticketManagerServiceImpl.bookTicket(purchaseDto, ticketReceiptResponseStreamObserver);
+
+        var error = ticketReceiptResponseStreamObserver.getError();
+        assertThat(error).isInstanceOf(StatusException.class);
+        assertThat(error).hasMessageContaining(TRAVEL_DATE_FORMAT_ERROR_MESSAGE);
+
+        verify(trainSeatManager, never()).openTrainInventory(any(), any());
+    }
+
+    @Test
+    void should_throw_exception_when_train_not_found() {
+        var purchaseDto = getTicketPurchaseRequestDtoMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS).toBuilder()
+                .setTrain(getTrainSelectorMock("1234", "2024-08-02"))
+                .build();
+
+        given(trainSeatManager.isOnSale(LocalDate.of(2024, 8, 2))).willReturn(true);
+        given(trainSeatManager.openTrainInventory("1234", LocalDate.of(2024, 8, 2))).willReturn(Optional.empty());
+
+        ticketManagerServiceImpl.bookTicket(purchaseDto, ticketReceiptResponseStreamObserver);
+
+        var error = ticketReceiptResponseStreamObserver.getError();
+        assertThat(error).isInstanceOf(StatusException.class);
+        assertThat(error).hasMessageContaining(TRAIN_NOT_FOUND_ERROR_MESSAGE + "1234");
+
+        verifyNoInteractions(trainInventory);
+    }
+
+    @Test
+    void should_throw_exception_when_travel_date_is_not_on_sale() {
+        var purchaseDto = getTicketPurchaseRequestDtoMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS).toBuilder()
+                .setTrain(getTrainSelectorMock(TRAIN_NUMBER, "2024-08-02"))
+                .build();
+
+        given(trainSeatManager.isOnSale(LocalDate.of(2024, 8, 2))).willReturn(false);
+
+        ticketManagerServiceImpl.bookTicket(purchaseDto, ticketReceiptResponseStreamObserver);
+
+        var error = ticketReceiptResponseStreamObserver.getError();
+        assertThat(error).isInstanceOf(StatusException.class);
+        assertThat(((StatusException) error).getStatus().getCode()).isEqualTo(Status.Code.INVALID_ARGUMENT);
+        assertThat(error).hasMessageContaining(TRAVEL_DATE_NOT_ON_SALE_ERROR_MESSAGE);
+
+        verify(trainSeatManager, never()).openTrainInventory(any(), any());
+    }
+
+    @Test
+    void should_not_open_train_date_without_bookings_on_lookup() {
+        var bookingRequest = getBookingRequestMock(BOOKING_ID, EMAIL_ADDRESS);
+
+        given(trainSeatManager.getTrainInventory(any(), any())).willReturn(Optional.empty());
+        given(trainSeatManager.hasTrain(any())).willReturn(true);
+
+        ticketManagerServiceImpl.deleteBooking(bookingRequest, ticketDeleteResponseStreamObserver);
+
+        var error = ticketDeleteResponseStreamObserver.getError();
+        assertThat(error).isInstanceOf(StatusException.class);
+        assertThat(error).hasMessageContaining(NO_TRAIN_BOOKINGS_ERROR_MESSAGE);
+
+        verify(trainSeatManager, never()).openTrainInventory(any(), any());
+        verify(trainSeatManager, never()).isOnSale(any());
     }
 
     @Test
     void should_execute_ticket_booking() {
         var purchaseDto = getTicketPurchaseRequestDtoMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS);
         var bookings = getTrainSeatBookingsMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS_2);
-        var seats = getTrainSeatsWithAvailableSeatsMock();
-        var ticketReceipt = getTicketReceiptDtoMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS,
-                2, SECTION_A);
-
-        given(trainSeatManager.getTrainSeats()).willReturn(seats);
-        given(ticketMapper.mapTicketReceiptForPurchase(any(), any(), any(), anyDouble())).willReturn(ticketReceipt);
-        given(trainSeatManager.getSeatBookings()).willReturn(bookings);
-        given(trainSeatManager.getTravelJourneys()).willReturn(getJourneysMapMock());
+        var seat = getSeatMock(2, 1);
+        var booking = getBookingMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS, 2, SECTION_A);
+
+        given(trainSeatManager.isOnSale(any())).willReturn(true);
+        given(trainSeatManager.openTrainInventory(any(), any())).willReturn(Optional.of(trainInventory));
+        given(trainInventory.claimAvailableSeat(journey)).willReturn(Optional.of(seat));
+        given(bookingIdGenerator.nextBookingId()).willReturn(BOOKING_ID);
+        given(trainInventory.reservePassenger(purchaseDto.getPassenger(), BOOKING_ID)).willReturn(true);
+        given(trainInventory.getTrainDate()).willReturn(getTrainDateMock());
+        given(ticketMapper.mapBookingForPurchase(seat, BOOKING_ID, purchaseDto, journey, 20d,
+                getTrainDateMock())).willReturn(booking);
+        given(trainInventory.getSeatBookings()).willReturn(bookings);
+        given(trainInventory.getJourney("London", "France")).willReturn(Optional.of(journey));
 
         ticketManagerServiceImpl.bookTicket(purchaseDto, ticketReceiptResponseStreamObserver);
 
@@ -226,10 +346,210 @@ class TicketManagerServiceImplTest {
         assertThat(result.get(0).getSeatNumber()).isEqualTo(2);
         assertThat(result.get(0).getSection()).isEqualTo(SECTION_A);
 
-        verify(trainSeatManager).getSeatBookings();
-        verify(trainSeatManager).getTrainSeats();
-        verify(trainSeatManager).getTravelJourneys();
-        verify(ticketMapper).mapTicketReceiptForPurchase(any(), any(), any(), anyDouble());
+        verify(trainInventory).getSeatBookings();
+        verify(trainInventory).claimAvailableSeat(journey);
+        verify(trainInventory).getJourney("London", "France");
+        verify(trainInventory).occupySeat(seat, journey, BOOKING_ID);
+        verify(bookingIdGenerator).nextBookingId();
+        verify(ticketMapper).mapBookingForPurchase(seat, BOOKING_ID, purchaseDto, journey, 20d,
+                getTrainDateMock());
+        verify(bookingJournal).append(BookingEventType.BOOK, booking);
+    }
+
+    @Test
+    void should_fail_ticket_booking_when_booking_journal_cannot_write() {
+        var purchaseDto = getTicketPurchaseRequestDtoMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS);
+        var seat = getSeatMock(2, 1);
+        var booking = getBookingMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS, 2, SECTION_A);
+
+        given(trainSeatManager.isOnSale(any())).willReturn(true);
+        given(trainSeatManager.openTrainInventory(any(), any())).willReturn(Optional.of(trainInventory));
+        given(trainInventory.claimAvailableSeat(journey)).willReturn(Optional.of(seat));
+        given(bookingIdGenerator.nextBookingId()).willReturn(BOOKING_ID);
+        given(trainInventory.reservePassenger(purchaseDto.getPassenger(), BOOKING_ID)).willReturn(true);
+        given(trainInventory.getTrainDate()).willReturn(getTrainDateMock());
+        given(ticketMapper.mapBookingForPurchase(seat, BOOKING_ID, purchaseDto, journey, 20d,
+                getTrainDateMock())).willReturn(booking);
+        var seatBookings = new HeapBookingStore();
+        given(trainInventory.getSeatBookings()).willReturn(seatBookings);
+        given(trainInventory.getJourney("London", "France")).willReturn(Optional.of(journey));
+        doReturn(CompletableFuture.failedFuture(new IOException("No space left on device")))
+                .when(bookingJournal).append(BookingEventType.BOOK, booking);
+
+        ticketManagerServiceImpl.bookTicket(purchaseDto, ticketReceiptResponseStreamObserver);
+
+        var error = ticketReceiptResponseStreamObserver.getError();
+        assertThat(error).isInstanceOf(StatusException.class);
+        assertThat(error).hasMessageContaining(BOOKING_JOURNAL_ERROR_MESSAGE);
+        assertThat(ticketReceiptResponseStreamObserver.getValues()).isEmpty();
+
+        //Undone, so the passenger can retry
+        assertThat(seatBookings.get(BOOKING_ID)).isNull();
+        verify(trainInventory).releaseSeat(seat, BOOKING_ID);
+        verify(trainInventory).releasePassenger(booking);
+    }
+
+    @Test
+    void should_throw_exception_when_batch_has_no_passengers() {
+        var recorder = StreamRecorder.<BatchTicketPurchaseResponse>create();
+
+        ticketManagerServiceImpl.bookTickets(getBatchTicketPurchaseRequestMock(false), recorder);
+
+        assertThat(recorder.getError()).isInstanceOf(StatusException.class);
+        assertThat(recorder.getError()).hasMessageContaining(BATCH_PASSENGERS_ERROR_MESSAGE);
+        verifyNoInteractions(trainSeatManager);
+    }
+
+    @Test
+    void should_book_whole_batch_on_adjacent_seats() {
+        var first = getPassengerDtoMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS);
+        var second = getPassengerDtoMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS_2);
+        var firstSeat = getSeatMock(1, 1);
+        var secondSeat = getSeatMock(2, 1);
+        var firstBooking = getBookingMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS, 1, SECTION_A)
+                .toBuilder().bookingId("1001").build();
+        var secondBooking = getBookingMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS_2, 2, SECTION_A)
+                .toBuilder().bookingId("1002").build();
+        var recorder = StreamRecorder.<BatchTicketPurchaseResponse>create();
+
+        given(trainSeatManager.isOnSale(any())).willReturn(true);
+        given(trainSeatManager.openTrainInventory(any(), any())).willReturn(Optional.of(trainInventory));
+        given(trainInventory.getJourney("London", "France")).willReturn(Optional.of(journey));
+        given(bookingIdGenerator.nextBookingId()).willReturn("1001", "1002");
+        given(trainInventory.reservePassenger(any(), any())).willReturn(true);
+        given(trainInventory.claimAvailableSeats(journey, 2)).willReturn(List.of(firstSeat, secondSeat));
+        given(trainInventory.getTrainDate()).willReturn(getTrainDateMock());
+        given(trainInventory.getSeatBookings()).willReturn(new HeapBookingStore());
+        doReturn(firstBooking).when(ticketMapper)
+                .mapBookingForPurchase(eq(firstSeat), eq("1001"), any(), eq(journey), eq(20d), any());
+        doReturn(secondBooking).when(ticketMapper)
+                .mapBookingForPurchase(eq(secondSeat), eq("1002"), any(), eq(journey), eq(20d), any());
+
+        ticketManagerServiceImpl.bookTickets(getBatchTicketPurchaseRequestMock(false, first, second), recorder);
+
+        var results = recorder.getValues().get(0).getResultsList();
+        assertThat(results).hasSize(2);
+        assertThat(results.get(0).getReceipt()).isEqualTo(ticketMapper.mapBookingToTicketReceipt(firstBooking));
+        assertThat(results.get(1).getReceipt()).isEqualTo(ticketMapper.mapBookingToTicketReceipt(secondBooking));
+        verify(trainInventory).occupySeat(firstSeat, journey, "1001");
+        verify(trainInventory).occupySeat(secondSeat, journey, "1002");
+        verify(bookingJournal).append(BookingEventType.BOOK, firstBooking);
+        verify(bookingJournal).append(BookingEventType.BOOK, secondBooking);
+    }
+
+    @Test
+    void should_book_nothing_when_a_passenger_of_the_batch_is_not_valid() {
+        var valid = getPassengerDtoMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS);
+        var invalid = getPassengerDtoMock(FIRST_NAME, LAST_NAME, "not-an-email");
+        var recorder = StreamRecorder.<BatchTicketPurchaseResponse>create();
+
+        given(trainSeatManager.isOnSale(any())).willReturn(true);
+        given(trainSeatManager.openTrainInventory(any(), any())).willReturn(Optional.of(trainInventory));
+        given(trainInventory.getJourney("London", "France")).willReturn(Optional.of(journey));
+        given(bookingIdGenerator.nextBookingId()).willReturn("1001");
+        given(trainInventory.reservePassenger(valid, "1001")).willReturn(true);
+
+        ticketManagerServiceImpl.bookTickets(getBatchTicketPurchaseRequestMock(false, valid, invalid), recorder);
+
+        var results = recorder.getValues().get(0).getResultsList();
+        assertThat(results.get(0).hasReceipt()).isFalse();
+        assertThat(results.get(0).getErrorMessage()).isEqualTo(BATCH_NOT_BOOKED_ERROR_MESSAGE);
+        assertThat(results.get(1).getErrorMessage()).isEqualTo(EMAIL_ADDRESS_FORMAT_ERROR_MESSAGE);
+        verify(trainInventory).releasePassenger(valid, "1001");
+        verify(trainInventory, never()).claimAvailableSeats(any(), anyInt());
+        verify(trainInventory, never()).occupySeat(any(), any(), any());
+    }
+
+    @Test
+    void should_give_back_claimed_seats_when_batch_does_not_fit() {
+        var first = getPassengerDtoMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS);
+        var second = getPassengerDtoMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS_2);
+        var seat = getSeatMock(1, 1);
+        var recorder = StreamRecorder.<BatchTicketPurchaseResponse>create();
+
+        given(trainSeatManager.isOnSale(any())).willReturn(true);
+        given(trainSeatManager.openTrainInventory(any(), any())).willReturn(Optional.of(trainInventory));
+        given(trainInventory.getJourney("London", "France")).willReturn(Optional.of(journey));
+        given(bookingIdGenerator.nextBookingId()).willReturn("1001", "1002");
+        given(trainInventory.reservePassenger(any(), any())).willReturn(true);
+        given(trainInventory.claimAvailableSeats(journey, 2)).willReturn(List.of(seat));
+
+        ticketManagerServiceImpl.bookTickets(getBatchTicketPurchaseRequestMock(false, first, second), recorder);
+
+        assertThat(recorder.getValues().get(0).getResultsList())
+                .allMatch(result -> result.getErrorMessage().equals(NO_SEATS_AVAILABLE_FOR_NEW_BOOKING));
+        verify(trainInventory).releaseClaimedSeats(List.of(seat), journey);
+        verify(trainInventory).releasePassenger(first, "1001");
+        verify(trainInventory).releasePassenger(second, "1002");
+        verify(trainInventory, never()).occupySeat(any(), any(), any());
+    }
+
+    @Test
+    void should_book_seated_passengers_when_partial_batch_is_allowed() {
+        var first = getPassengerDtoMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS);
+        var second = getPassengerDtoMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS_2);
+        var seat = getSeatMock(1, 1);
+        var booking = getBookingMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS, 1, SECTION_A)
+                .toBuilder().bookingId("1001").build();
+        var recorder = StreamRecorder.<BatchTicketPurchaseResponse>create();
+
+        given(trainSeatManager.isOnSale(any())).willReturn(true);
+        given(trainSeatManager.openTrainInventory(any(), any())).willReturn(Optional.of(trainInventory));
+        given(trainInventory.getJourney("London", "France")).willReturn(Optional.of(journey));
+        given(bookingIdGenerator.nextBookingId()).willReturn("1001", "1002");
+        given(trainInventory.reservePassenger(any(), any())).willReturn(true);
+        given(trainInventory.claimAvailableSeats(journey, 2)).willReturn(List.of(seat));
+        given(trainInventory.getTrainDate()).willReturn(getTrainDateMock());
+        given(trainInventory.getSeatBookings()).willReturn(new HeapBookingStore());
+        doReturn(booking).when(ticketMapper)
+                .mapBookingForPurchase(eq(seat), eq("1001"), any(), eq(journey), eq(20d), any());
+
+        ticketManagerServiceImpl.bookTickets(getBatchTicketPurchaseRequestMock(true, first, second), recorder);
+
+        var results = recorder.getValues().get(0).getResultsList();
+        assertThat(results.get(0).getReceipt()).isEqualTo(ticketMapper.mapBookingToTicketReceipt(booking));
+        assertThat(results.get(1).getErrorMessage()).isEqualTo(NO_SEATS_AVAILABLE_FOR_NEW_BOOKING);
+        verify(trainInventory).occupySeat(seat, journey, "1001");
+        verify(trainInventory).releasePassenger(second, "1002");
+        verify(trainInventory, never()).releaseClaimedSeats(any(), any());
+    }
+
+    @Test
+    void should_answer_each_streamed_command_with_its_correlation_id() throws Exception {
+        var purchaseDto = getTicketPurchaseRequestDtoMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS);
+        var seat = getSeatMock(2, 1);
+        var booking = getBookingMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS, 2, SECTION_A);
+        var recorder = StreamRecorder.<BookingCommandResult>create();
+
+        given(trainSeatManager.isOnSale(any())).willReturn(true);
+        given(trainSeatManager.openTrainInventory(any(), any())).willReturn(Optional.of(trainInventory));
+        given(trainSeatManager.getTrainInventory(any(), any())).willReturn(Optional.of(trainInventory));
+        given(trainInventory.getJourney("London", "France")).willReturn(Optional.of(journey));
+        given(bookingIdGenerator.nextBookingId()).willReturn(BOOKING_ID);
+        given(trainInventory.reservePassenger(purchaseDto.getPassenger(), BOOKING_ID)).willReturn(true);
+        given(trainInventory.claimAvailableSeat(journey)).willReturn(Optional.of(seat));
+        given(trainInventory.getTrainDate()).willReturn(getTrainDateMock());
+        given(trainInventory.getSeatBookings()).willReturn(new HeapBookingStore());
+        given(ticketMapper.mapBookingForPurchase(seat, BOOKING_ID, purchaseDto, journey, 20d,
+                getTrainDateMock())).willReturn(booking);
+        given(trainInventory.getBookedSeat("UNKNOWN")).willReturn(Optional.empty());
+
+        var commands = ticketManagerServiceImpl.streamBookingCommands(recorder);
+        commands.onNext(BookingCommand.newBuilder().setCorrelationId("1").setBook(purchaseDto).build());
+        commands.onNext(BookingCommand.newBuilder().setCorrelationId("2")
+                .setLookup(getBookingRequestMock("UNKNOWN", EMAIL_ADDRESS)).build());
+        commands.onNext(BookingCommand.newBuilder().setCorrelationId("3").build());
+        commands.onCompleted();
+
+        var results = recorder.getValues();
+        assertThat(results).extracting(BookingCommandResult::getCorrelationId).containsExactly("1", "2", "3");
+        assertThat(results.get(0).getReceipt()).isEqualTo(ticketMapper.mapBookingToTicketReceipt(booking));
+        assertThat(results.get(1).getStatusCode()).isEqualTo(Status.Code.NOT_FOUND.value());
+        assertThat(results.get(1).getErrorMessage()).isEqualTo(NO_BOOKING_FOUND_ERROR_MESSAGE + "UNKNOWN");
+        assertThat(results.get(2).getStatusCode()).isEqualTo(Status.Code.INVALID_ARGUMENT.value());
+        assertThat(results.get(2).getErrorMessage()).isEqualTo(BOOKING_COMMAND_ERROR_MESSAGE);
+        assertThat(recorder.getError()).isNull();
+        assertThat(recorder.awaitCompletion(0, TimeUnit.SECONDS)).isTrue();
     }
 
     @Test
@@ -244,9 +564,9 @@ class TicketManagerServiceImplTest {
     @Test
     void should_throw_exception_to_get_receipt_by_booking_id() {
         var bookingRequest = getBookingRequestMock("2045678900", EMAIL_ADDRESS);
-        var seats = getTrainSeatsWithAvailableSeatsMock();
 
-        given(trainSeatManager.getTrainSeats()).willReturn(seats);
+        given(trainSeatManager.getTrainInventory(any(), any())).willReturn(Optional.of(trainInventory));
+        given(trainInventory.getBookedSeat(bookingRequest.getBookingId())).willReturn(Optional.empty());
 
         ticketManagerServiceImpl.getBookedTicketReceipt(bookingRequest, ticketReceiptResponseStreamObserver);
 
@@ -254,37 +574,38 @@ class TicketManagerServiceImplTest {
         assertThat(error).isInstanceOf(StatusException.class);
         assertThat(error).hasMessageContaining(NO_BOOKING_FOUND_ERROR_MESSAGE + bookingRequest.getBookingId());
 
-        verify(trainSeatManager).getTrainSeats();
+        verify(trainInventory).getBookedSeat(bookingRequest.getBookingId());
     }
 
     @Test
     void should_throw_error_when_email_address_not_valid_to_get_already_booked_receipt() {
         var bookingRequest = getBookingRequestMock(BOOKING_ID, EMAIL_ADDRESS_2);
-        var seats = getTrainSeatsWithAvailableSeatsMock();
         var bookings = getTrainSeatBookingsMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS);
 
-        given(trainSeatManager.getTrainSeats()).willReturn(seats);
-        given(trainSeatManager.getSeatBookings()).willReturn(bookings);
+        given(trainSeatManager.getTrainInventory(any(), any())).willReturn(Optional.of(trainInventory));
+        given(trainInventory.getBookedSeat(BOOKING_ID)).willReturn(Optional.of(getSeatMock(1, 1)));
+        given(trainInventory.getSeatBookings()).willReturn(bookings);
 
         ticketManagerServiceImpl.getBookedTicketReceipt(bookingRequest, ticketReceiptResponseStreamObserver);
 
         var error = ticketReceiptResponseStreamObserver.getError();
         assertThat(error).isInstanceOf(StatusException.class);
         assertThat(error).hasMessageContaining(EMAIL_ADDRESS_NOT_MATCHING);
+        assertThat(ticketReceiptResponseStreamObserver.getValues()).isEmpty();
 
-        verify(trainSeatManager).getTrainSeats();
-        verify(trainSeatManager).getSeatBookings();
+        verify(trainInventory).getBookedSeat(bookingRequest.getBookingId());
+        verify(trainInventory).getSeatBookings();
     }
 
     @Test
     void should_get_ticket_receipt_by_booking_id() {
-        var bookingRequest = getBookingRequestMock(BOOKING_ID, EMAIL_ADDRESS_2);
-        var seats = getTrainSeatsWithAvailableSeatsMock();
+        var bookingRequest = getBookingRequestMock(BOOKING_ID, EMAIL_ADDRESS);
         var bookings = getTrainSeatBookingsMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS);
-        var ticketReceipt = bookings.values().stream().toList().get(0);
+        var ticketReceipt = ticketMapper.mapBookingToTicketReceipt(bookings.get(BOOKING_ID));
 
-        given(trainSeatManager.getTrainSeats()).willReturn(seats);
-        given(trainSeatManager.getSeatBookings()).willReturn(bookings);
+        given(trainSeatManager.getTrainInventory(any(), any())).willReturn(Optional.of(trainInventory));
+        given(trainInventory.getBookedSeat(BOOKING_ID)).willReturn(Optional.of(getSeatMock(1, 1)));
+        given(trainInventory.getSeatBookings()).willReturn(bookings);
 
         ticketManagerServiceImpl.getBookedTicketReceipt(bookingRequest, ticketReceiptResponseStreamObserver);
         var response = ticketReceiptResponseStreamObserver.getValues();
@@ -306,8 +627,8 @@ class TicketManagerServiceImplTest {
         assertThat(result.getPassenger().getLastName())
                 .isEqualTo(ticketReceipt.getPassenger().getLastName());
 
-        verify(trainSeatManager).getTrainSeats();
-        verify(trainSeatManager).getSeatBookings();
+        verify(trainInventory).getBookedSeat(bookingRequest.getBookingId());
+        verify(trainInventory).getSeatBookings();
     }
 
     @Test
@@ -323,14 +644,13 @@ class TicketManagerServiceImplTest {
     void should_get_bookings_by_section_id() {
         var sectionRequest = getSectionRequestMock(1);
         var bookings = getTrainSeatBookingsMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS);
-        var seats = getTrainSeatsWithAvailableSeatsMock();
-        var bookedSeats = Collections.singletonList(bookings.get(BOOKING_ID));
-        var response = getSectionBookingResponse();
+        var sectionBooking = getSectionBookingsDtoMock(bookings.get(BOOKING_ID));
 
-        given(trainSeatManager.getSeatBookings()).willReturn(bookings);
-        given(trainSeatManager.getTrainSeats()).willReturn(seats);
-        given(ticketMapper.mapTicketReceiptToBookingsDto(bookedSeats))
-                .willReturn(response);
+        given(trainSeatManager.getTrainInventory(any(), any())).willReturn(Optional.of(trainInventory));
+        given(trainInventory.getSeatBookings()).willReturn(bookings);
+        given(trainInventory.getSectionBookingIds(1)).willReturn(List.of(BOOKING_ID));
+        given(ticketMapper.mapBookingToSectionBooking(bookings.get(BOOKING_ID)))
+                .willReturn(sectionBooking);
 
         ticketManagerServiceImpl.getBookingsBySection(sectionRequest, sectionBookingResponseStreamRecorder);
 
@@ -338,22 +658,20 @@ class TicketManagerServiceImplTest {
 
         assertThat(result).isNotNull();
         assertThat(result).hasSize(1);
-        assertThat(result.get(0).getSectionBookingList()).hasSize(1);
+        assertThat(result.get(0).getSectionBookingList()).containsExactly(sectionBooking);
 
-        verify(trainSeatManager).getTrainSeats();
-        verify(trainSeatManager).getSeatBookings();
-        verify(ticketMapper).mapTicketReceiptToBookingsDto(bookedSeats);
+        verify(trainInventory).getSectionBookingIds(1);
+        verify(trainInventory).getSeatBookings();
+        verify(ticketMapper).mapBookingToSectionBooking(bookings.get(BOOKING_ID));
     }
 
     @Test
     void should_return_empty_section_bookings() {
         var bookings = getTrainSeatBookingsMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS);
-        var seats = getTrainSeatsWithAvailableSeatsMock();
 
-        given(trainSeatManager.getSeatBookings()).willReturn(bookings);
-        given(trainSeatManager.getTrainSeats()).willReturn(seats);
-        given(ticketMapper.mapTicketReceiptToBookingsDto(Collections.emptyList()))
-                .willReturn(SectionBookingResponse.newBuilder().addAllSectionBooking(Collections.emptyList()).build());
+        given(trainSeatManager.getTrainInventory(any(), any())).willReturn(Optional.of(trainInventory));
+        given(trainInventory.getSeatBookings()).willReturn(bookings);
+        given(trainInventory.getSectionBookingIds(2)).willReturn(Collections.emptyList());
 
         ticketManagerServiceImpl.getBookingsBySection(getSectionRequestMock(2), sectionBookingResponseStreamRecorder);
 
@@ -363,8 +681,38 @@ class TicketManagerServiceImplTest {
         assertThat(emptyResult).hasSize(1);
         assertThat(emptyResult.get(0).getSectionBookingList()).isEmpty();
 
-        verify(trainSeatManager).getTrainSeats();
-        verify(trainSeatManager).getSeatBookings();
+        verify(trainInventory).getSectionBookingIds(2);
+        verify(trainInventory).getSeatBookings();
+        verifyNoInteractions(ticketMapper);
+    }
+
+    @Test
+    void should_throw_exception_when_stream_section_request_is_null() {
+        ticketManagerServiceImpl.streamBookingsBySection(null, sectionBookingStreamRecorder);
+
+        var error = sectionBookingStreamRecorder.getError();
+        assertThat(error).isInstanceOf(StatusException.class);
+        assertThat(error).hasMessageContaining(SECTION_REQUEST_ERROR_MESSAGE);
+    }
+
+    @Test
+    void should_stream_bookings_by_section_id() {
+        var bookings = getTrainSeatBookingsMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS);
+        var sectionBooking = getSectionBookingsDtoMock(bookings.get(BOOKING_ID));
+
+        given(trainSeatManager.getTrainInventory(any(), any())).willReturn(Optional.of(trainInventory));
+        given(trainInventory.getSeatBookings()).willReturn(bookings);
+        given(trainInventory.getSectionBookingIds(1)).willReturn(List.of(BOOKING_ID, "20240802210511"));
+        given(ticketMapper.mapBookingToSectionBooking(bookings.get(BOOKING_ID)))
+                .willReturn(sectionBooking);
+
+        ticketManagerServiceImpl.streamBookingsBySection(getSectionRequestMock(1), sectionBookingStreamRecorder);
+
+        assertThat(sectionBookingStreamRecorder.getValues()).containsExactly(sectionBooking);
+        assertThat(sectionBookingStreamRecorder.getError()).isNull();
+
+        verify(trainInventory).getSectionBookingIds(1);
+        verify(ticketMapper).mapBookingToSectionBooking(bookings.get(BOOKING_ID));
     }
 
     @Test
@@ -381,7 +729,8 @@ class TicketManagerServiceImplTest {
         var bookingRequest = getBookingRequestMock("2045678900", EMAIL_ADDRESS);
         var bookings = getTrainSeatBookingsMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS);
 
-        given(trainSeatManager.getSeatBookings()).willReturn(bookings);
+        given(trainSeatManager.getTrainInventory(any(), any())).willReturn(Optional.of(trainInventory));
+        given(trainInventory.getSeatBookings()).willReturn(bookings);
 
         ticketManagerServiceImpl.deleteBooking(bookingRequest, ticketDeleteResponseStreamObserver);
 
@@ -390,7 +739,7 @@ class TicketManagerServiceImplTest {
         assertThat(error).isInstanceOf(StatusException.class);
         assertThat(error).hasMessageContaining(NO_BOOKING_FOUND_ERROR_MESSAGE + bookingRequest.getBookingId());
 
-        verify(trainSeatManager).getSeatBookings();
+        verify(trainInventory).getSeatBookings();
     }
 
     @Test
@@ -398,8 +747,9 @@ class TicketManagerServiceImplTest {
         var bookingRequest = getBookingRequestMock(BOOKING_ID, EMAIL_ADDRESS_2);
         var bookings = getTrainSeatBookingsMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS);
 
-        given(trainSeatManager.getTrainSeats()).willReturn(getTrainSeatsWithAvailableSeatsMock());
-        given(trainSeatManager.getSeatBookings()).willReturn(bookings);
+        given(trainSeatManager.getTrainInventory(any(), any())).willReturn(Optional.of(trainInventory));
+        given(trainInventory.getBookedSeat(BOOKING_ID)).willReturn(Optional.of(getSeatMock(1, 1)));
+        given(trainInventory.getSeatBookings()).willReturn(bookings);
 
         ticketManagerServiceImpl.deleteBooking(bookingRequest, ticketDeleteResponseStreamObserver);
 
@@ -408,8 +758,8 @@ class TicketManagerServiceImplTest {
         assertThat(error).isInstanceOf(StatusException.class);
         assertThat(error).hasMessageContaining(EMAIL_ADDRESS_NOT_MATCHING_ERROR_MESSAGE);
 
-        verify(trainSeatManager).getTrainSeats();
-        verify(trainSeatManager).getSeatBookings();
+        verify(trainInventory).getBookedSeat(bookingRequest.getBookingId());
+        verify(trainInventory).getSeatBookings();
     }
 
     @Test
@@ -417,15 +767,61 @@ class TicketManagerServiceImplTest {
         var bookingRequest = getBookingRequestMock(BOOKING_ID, EMAIL_ADDRESS);
         var bookings = getTrainSeatBookingsMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS);
 
-        given(trainSeatManager.getSeatBookings()).willReturn(bookings);
-        given(trainSeatManager.getTrainSeats()).willReturn(getTrainSeatsWithAvailableSeatsMock());
+        given(trainSeatManager.getTrainInventory(any(), any())).willReturn(Optional.of(trainInventory));
+        given(trainInventory.getSeatBookings()).willReturn(bookings);
+        given(trainInventory.getBookedSeat(BOOKING_ID)).willReturn(Optional.of(getSeatMock(1, 1)));
 
         ticketManagerServiceImpl.deleteBooking(bookingRequest, ticketDeleteResponseStreamObserver);
 
         assertThat(ticketDeleteResponseStreamObserver.getError()).isNull();
 
-        verify(trainSeatManager).getSeatBookings();
-        verify(trainSeatManager).getTrainSeats();
+        verify(trainInventory).getSeatBookings();
+        verify(trainInventory).getBookedSeat(bookingRequest.getBookingId());
+        verify(trainInventory).releaseSeat(getSeatMock(1, 1), BOOKING_ID);
+        verify(trainInventory).releasePassenger(getBookingMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS, 1, SECTION_A));
+        verify(bookingJournal).append(eq(BookingEventType.DELETE), any());
+    }
+
+    @Test
+    void should_keep_booking_when_delete_cannot_be_journaled() {
+        var bookingRequest = getBookingRequestMock(BOOKING_ID, EMAIL_ADDRESS);
+        var bookings = getTrainSeatBookingsMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS);
+        var booking = bookings.get(BOOKING_ID);
+
+        given(trainSeatManager.getTrainInventory(any(), any())).willReturn(Optional.of(trainInventory));
+        given(trainInventory.getSeatBookings()).willReturn(bookings);
+        given(trainInventory.getBookedSeat(BOOKING_ID)).willReturn(Optional.of(getSeatMock(1, 1)));
+        doReturn(CompletableFuture.failedFuture(new IOException("No space left on device")))
+                .when(bookingJournal).append(BookingEventType.DELETE, booking);
+
+        ticketManagerServiceImpl.deleteBooking(bookingRequest, ticketDeleteResponseStreamObserver);
+
+        assertThat(ticketDeleteResponseStreamObserver.getError()).hasMessageContaining(BOOKING_JOURNAL_ERROR_MESSAGE);
+        assertThat(bookings.get(BOOKING_ID)).isSameAs(booking);
+        verify(trainInventory, never()).releaseSeat(any(), any());
+        verify(trainInventory, never()).releasePassenger(any());
+    }
+
+    @Test
+    void should_refuse_seat_change_while_delete_waits_on_journal() {
+        var bookingRequest = getBookingRequestMock(BOOKING_ID, EMAIL_ADDRESS);
+        var bookings = getTrainSeatBookingsMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS);
+        var written = new CompletableFuture<Void>();
+
+        given(trainSeatManager.getTrainInventory(any(), any())).willReturn(Optional.of(trainInventory));
+        given(trainInventory.getSeatBookings()).willReturn(bookings);
+        given(trainInventory.getBookedSeat(BOOKING_ID)).willReturn(Optional.of(getSeatMock(1, 1)));
+        doReturn(written).when(bookingJournal).append(eq(BookingEventType.DELETE), any());
+
+        ticketManagerServiceImpl.deleteBooking(bookingRequest, ticketDeleteResponseStreamObserver);
+        ticketManagerServiceImpl.modifyPassengerSeat(bookingRequest, ticketReceiptResponseStreamObserver);
+        written.complete(null);
+
+        assertThat(ticketReceiptResponseStreamObserver.getError()).isInstanceOf(StatusException.class)
+                .hasMessageContaining(BOOKING_CHANGE_IN_PROGRESS_ERROR_MESSAGE);
+        assertThat(ticketDeleteResponseStreamObserver.getError()).isNull();
+        verify(trainInventory, never()).claimAvailableSeat(any());
+        verify(trainInventory).releaseSeat(getSeatMock(1, 1), BOOKING_ID);
     }
 
     @Test
@@ -442,7 +838,8 @@ class TicketManagerServiceImplTest {
         var bookingRequest = getBookingRequestMock("2045678900", EMAIL_ADDRESS);
         var bookings = getTrainSeatBookingsMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS);
 
-        given(trainSeatManager.getSeatBookings()).willReturn(bookings);
+        given(trainSeatManager.getTrainInventory(any(), any())).willReturn(Optional.of(trainInventory));
+        given(trainInventory.getSeatBookings()).willReturn(bookings);
 
         ticketManagerServiceImpl.modifyPassengerSeat(bookingRequest, ticketReceiptResponseStreamObserver);
 
@@ -451,15 +848,19 @@ class TicketManagerServiceImplTest {
         assertThat(error).isInstanceOf(StatusException.class);
         assertThat(error).hasMessageContaining(NO_BOOKING_FOUND_ERROR_MESSAGE + bookingRequest.getBookingId());
 
-        verify(trainSeatManager).getSeatBookings();
+        verify(trainInventory).getSeatBookings();
     }
 
     @Test
     void should_throw_exception_when_passenger_wants_to_modify_seat_when_there_is_no_other_seat_available() {
         var bookingRequest = getBookingRequestMock(BOOKING_ID, EMAIL_ADDRESS);
-        var seats = getTrainSeatsMapMockWithoutEmptySeats();
+        var bookings = getTrainSeatBookingsMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS);
 
-        given(trainSeatManager.getTrainSeats()).willReturn(seats);
+        given(trainSeatManager.getTrainInventory(any(), any())).willReturn(Optional.of(trainInventory));
+        given(trainInventory.getBookedSeat(BOOKING_ID)).willReturn(Optional.of(getSeatMock(1, 1)));
+        given(trainInventory.getSeatBookings()).willReturn(bookings);
+        given(trainInventory.getJourney("London", "France")).willReturn(Optional.of(journey));
+        given(trainInventory.claimAvailableSeat(journey)).willReturn(Optional.empty());
 
         ticketManagerServiceImpl.modifyPassengerSeat(bookingRequest, ticketReceiptResponseStreamObserver);
 
@@ -468,17 +869,19 @@ class TicketManagerServiceImplTest {
         assertThat(error).isInstanceOf(StatusException.class);
         assertThat(error).hasMessageContaining(NO_SEATS_AVAILABLE_FOR_MODIFICATION_ERROR_MESSAGE);
 
-        verify(trainSeatManager).getTrainSeats();
+        verify(trainInventory).getBookedSeat(bookingRequest.getBookingId());
+        verify(trainInventory).claimAvailableSeat(journey);
+        verify(trainInventory, never()).releaseSeat(any(), any());
     }
 
     @Test
     void should_throw_exception_when_email_address_not_matches_for_modification() {
         var bookingRequest = getBookingRequestMock(BOOKING_ID, EMAIL_ADDRESS_2);
-        var seats = getTrainSeatsWithAvailableSeatsMock();
         var bookings = getTrainSeatBookingsMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS);
 
-        given(trainSeatManager.getTrainSeats()).willReturn(seats);
-        given(trainSeatManager.getSeatBookings()).willReturn(bookings);
+        given(trainSeatManager.getTrainInventory(any(), any())).willReturn(Optional.of(trainInventory));
+        given(trainInventory.getBookedSeat(BOOKING_ID)).willReturn(Optional.of(getSeatMock(1, 1)));
+        given(trainInventory.getSeatBookings()).willReturn(bookings);
 
         ticketManagerServiceImpl.modifyPassengerSeat(bookingRequest, ticketReceiptResponseStreamObserver);
 
@@ -487,22 +890,22 @@ class TicketManagerServiceImplTest {
         assertThat(error).isInstanceOf(StatusException.class);
         assertThat(error).hasMessageContaining(EMAIL_ADDRESS_NOT_MATCHING_ERROR_MESSAGE);
 
-        verify(trainSeatManager).getTrainSeats();
-        verify(trainSeatManager).getSeatBookings();
+        verify(trainInventory).getBookedSeat(bookingRequest.getBookingId());
+        verify(trainInventory).getSeatBookings();
+        verify(trainInventory, never()).claimAvailableSeat(any());
     }
 
     @Test
     void should_execute_passenger_seat_modification_request() {
         var bookingRequest = getBookingRequestMock(BOOKING_ID, EMAIL_ADDRESS);
-        var availableSeats = getTrainSeatsWithAvailableSeatsMock();
         var seatBookings = getTrainSeatBookingsMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS);
-        var newModificationReceipt =
-                createNewTicketReceiptFromExisting(seatBookings.get(BOOKING_ID), 2, SECTION_A);
+        var movedBooking = getBookingMock(FIRST_NAME, LAST_NAME, EMAIL_ADDRESS, 2, SECTION_A);
 
-        given(trainSeatManager.getTrainSeats()).willReturn(availableSeats);
-        given(trainSeatManager.getSeatBookings()).willReturn(seatBookings);
-        given(ticketMapper.createNewTicketReceiptResponseFromExistOne(seatBookings.get(BOOKING_ID), 2, SECTION_A))
-                .willReturn(newModificationReceipt);
+        given(trainSeatManager.getTrainInventory(any(), any())).willReturn(Optional.of(trainInventory));
+        given(trainInventory.getBookedSeat(BOOKING_ID)).willReturn(Optional.of(getSeatMock(1, 1)));
+        given(trainInventory.getJourney("London", "France")).willReturn(Optional.of(journey));
+        given(trainInventory.claimAvailableSeat(journey)).willReturn(Optional.of(getSeatMock(2, 1)));
+        given(trainInventory.getSeatBookings()).willReturn(seatBookings);
 
         ticketManagerServiceImpl.modifyPassengerSeat(bookingRequest, ticketReceiptResponseStreamObserver);
 
@@ -516,7 +919,11 @@ class TicketManagerServiceImplTest {
         assertThat(result).isNotNull();
         assertThat(result.getSeatNumber()).isEqualTo(2);
 
-        verify(trainSeatManager).getTrainSeats();
-        verify(trainSeatManager).getSeatBookings();
+        verify(trainInventory).getBookedSeat(bookingRequest.getBookingId());
+        verify(trainInventory).getSeatBookings();
+        verify(trainInventory).releaseSeat(getSeatMock(1, 1), BOOKING_ID);
+        verify(trainInventory).occupySeat(getSeatMock(2, 1), journey, BOOKING_ID);
+        assertThat(seatBookings.get(BOOKING_ID)).isEqualTo(movedBooking);
+        verify(bookingJournal).append(BookingEventType.MODIFY, movedBooking);
     }
-}
\ No newline at end of file
+}
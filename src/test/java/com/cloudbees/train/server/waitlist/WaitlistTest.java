@@ -0,0 +1,202 @@
+package com.cloudbees.train.server.waitlist;
+
+import com.cloudbees.train.BookingRequest;
+import com.cloudbees.train.TicketManagerServiceGrpc;
+import com.cloudbees.train.TicketPurchaseRequest;
+import com.cloudbees.train.TrainSelector;
+import com.cloudbees.train.WaitlistUpdate;
+import com.cloudbees.train.server.TicketBookingServer;
+import com.cloudbees.train.server.entity.Seat;
+import com.cloudbees.train.server.journal.NoOpBookingJournal;
+import com.cloudbees.train.server.persistence.FareTable;
+import com.cloudbees.train.server.persistence.HeapBookingStore;
+import com.cloudbees.train.server.persistence.TrainInventory;
+import com.cloudbees.train.server.persistence.TrainSeatManager;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static com.cloudbees.train.server.factory.TicketFactory.*;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WaitlistTest {
+    @Test
+    void should_promote_first_waiting_passenger_whose_journey_fits() {
+        var inventory = new TrainInventory(getTrainDateMock(), FareTable.load().getRoute("EUROSTAR").orElseThrow(),
+                new HeapBookingStore(), 2);
+        var journey = inventory.getJourney("London", "France").orElseThrow();
+        var firstSeat = inventory.claimAvailableSeat(journey).orElseThrow();
+        inventory.claimAvailableSeat(journey).orElseThrow();
+        var waitlist = new Waitlist(inventory);
+        var throughPassenger = entry(inventory, "1001", "London", "France");
+        var ashfordPassenger = entry(inventory, "1002", "Ashford", "France");
+        assertThat(waitlist.reservePosition()).isEqualTo(1);
+        waitlist.add(throughPassenger);
+        assertThat(waitlist.reservePosition()).isEqualTo(2);
+        waitlist.add(ashfordPassenger);
+        List<WaitlistEntry> promoted = new ArrayList<>();
+        List<Seat> promotedSeats = new ArrayList<>();
+
+        //Only the last leg of the first seat comes back
+        inventory.releaseClaimedSeats(List.of(firstSeat), inventory.getJourney("Ashford", "France").orElseThrow());
+        waitlist.promote((entry, seat) -> {
+            promoted.add(entry);
+            promotedSeats.add(seat);
+        });
+
+        assertThat(promoted).containsExactly(ashfordPassenger);
+        assertThat(promotedSeats).containsExactly(firstSeat);
+        assertThat(waitlist.size()).isEqualTo(1);
+        assertThat(waitlist.remove(throughPassenger)).isTrue();
+        assertThat(waitlist.remove(throughPassenger)).isFalse();
+    }
+
+    @Test
+    void should_not_hand_out_places_beyond_the_cap_to_concurrent_joins() throws Exception {
+        var inventory = new TrainInventory(getTrainDateMock(), FareTable.load().getRoute("EUROSTAR").orElseThrow(),
+                new HeapBookingStore(), 2);
+        var waitlist = new Waitlist(inventory);
+        var places = new CopyOnWriteArrayList<Integer>();
+        var executor = Executors.newFixedThreadPool(8);
+
+        try {
+            List<Future<?>> joins = new ArrayList<>();
+            for (int i = 0; i < WaitlistManager.MAX_WAITLIST_SIZE + 200; i++) {
+                joins.add(executor.submit(() -> places.add(waitlist.reservePosition())));
+            }
+            for (var join : joins) {
+                join.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        var expectedPlaces = IntStream.rangeClosed(1, WaitlistManager.MAX_WAITLIST_SIZE).boxed().toList();
+        assertThat(places.stream().filter(place -> place > 0).sorted().toList())
+                .containsExactlyElementsOf(expectedPlaces);
+        assertThat(places).filteredOn(place -> place == 0).hasSize(200);
+        assertThat(waitlist.size()).isEqualTo(WaitlistManager.MAX_WAITLIST_SIZE);
+    }
+
+    @Test
+    void should_book_waiting_passenger_when_a_booking_is_deleted() throws Exception {
+        var serviceDate = LocalDate.now();
+        var train = TrainSelector.newBuilder().setTrainNumber("9001").setTravelDate(serviceDate.toString()).build();
+        var trainSeatManager = new TrainSeatManager();
+        var serverName = InProcessServerBuilder.generateName();
+        var server = TicketBookingServer.createServer(InProcessServerBuilder.forName(serverName), trainSeatManager,
+                new NoOpBookingJournal()).start();
+        var channel = InProcessChannelBuilder.forName(serverName).build();
+        try {
+            var stub = TicketManagerServiceGrpc.newBlockingStub(channel);
+            var asyncStub = TicketManagerServiceGrpc.newStub(channel);
+            List<String> bookingIds = new ArrayList<>();
+            for (int i = 0; i < TrainInventory.TOTAL_SEATS; i++) {
+                bookingIds.add(stub.bookTicket(request(train, "full" + i + "@gmail.com")).getBookingId());
+            }
+
+            var first = new RecordingObserver();
+            var second = new RecordingObserver();
+            asyncStub.joinWaitlist(request(train, "first@gmail.com"), first);
+            awaitUpdates(first, 1);
+            asyncStub.joinWaitlist(request(train, "second@gmail.com"), second);
+            awaitUpdates(second, 1);
+
+            assertThat(first.updates.get(0).getPosition()).isEqualTo(1);
+            assertThat(second.updates.get(0).getPosition()).isEqualTo(2);
+
+            stub.deleteBooking(BookingRequest.newBuilder()
+                    .setBookingId(bookingIds.get(0))
+                    .setEmailAddress("full0@gmail.com")
+                    .setTrain(train)
+                    .build());
+            first.completed.get(5, TimeUnit.SECONDS);
+
+            var receipt = first.updates.get(1).getReceipt();
+            assertThat(receipt.getPassenger().getEmailAddress()).isEqualTo("first@gmail.com");
+            assertThat(stub.getBookedTicketReceipt(BookingRequest.newBuilder()
+                    .setBookingId(receipt.getBookingId())
+                    .setEmailAddress("first@gmail.com")
+                    .setTrain(train)
+                    .build())).isEqualTo(receipt);
+            assertThat(second.completed).isNotDone();
+
+            //Hanging up leaves the queue and frees the passenger to book again later
+            second.call.cancel("no longer waiting", null);
+            var inventory = trainSeatManager.getTrainInventory("9001", serviceDate).orElseThrow();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!inventory.reservePassenger(request(train, "second@gmail.com").getPassenger(), "CHECK")
+                    && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertThat(inventory.reservePassenger(request(train, "second@gmail.com").getPassenger(), "AGAIN"))
+                    .isFalse();
+        } finally {
+            channel.shutdownNow();
+            server.shutdownNow();
+            trainSeatManager.removeTrainInventoriesBefore(serviceDate.plusDays(1));
+        }
+    }
+
+    private static WaitlistEntry entry(TrainInventory inventory, String bookingId, String from, String to) {
+        return WaitlistEntry.builder()
+                .request(getTicketPurchaseRequestDtoMock(FIRST_NAME, LAST_NAME, bookingId + "@gmail.com").toBuilder()
+                        .setBoardingStation(from)
+                        .setDestinationStation(to)
+                        .build())
+                .bookingId(bookingId)
+                .journey(inventory.getJourney(from, to).orElseThrow())
+                .build();
+    }
+
+    private static TicketPurchaseRequest request(TrainSelector train, String emailAddress) {
+        return getTicketPurchaseRequestDtoMock(FIRST_NAME, LAST_NAME, emailAddress).toBuilder()
+                .setTrain(train)
+                .build();
+    }
+
+    private static void awaitUpdates(RecordingObserver observer, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (observer.updates.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    private static class RecordingObserver implements ClientResponseObserver<TicketPurchaseRequest, WaitlistUpdate> {
+        private final List<WaitlistUpdate> updates = new CopyOnWriteArrayList<>();
+        private final CompletableFuture<Void> completed = new CompletableFuture<>();
+        private ClientCallStreamObserver<TicketPurchaseRequest> call;
+
+        @Override
+        public void beforeStart(ClientCallStreamObserver<TicketPurchaseRequest> requestStream) {
+            call = requestStream;
+        }
+
+        @Override
+        public void onNext(WaitlistUpdate update) {
+            updates.add(update);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            completed.completeExceptionally(t);
+        }
+
+        @Override
+        public void onCompleted() {
+            completed.complete(null);
+        }
+    }
+}